@@ -79,17 +79,10 @@ export class AvistamientosComponent implements OnInit, OnDestroy {
   }
 
   obtenerImagenAvistamiento(avistamiento: Avistamiento): string {
-    // Intentar obtener la foto del avistamiento primero
-    if (avistamiento.fotos) {
-      try {
-        const fotosArray = JSON.parse(avistamiento.fotos);
-        if (fotosArray && fotosArray.length > 0) {
-          const fotoUrl = fotosArray[0];
-          return `http://localhost:8080${fotoUrl}`;
-        }
-      } catch (e) {
-        console.error('Error parseando fotos del avistamiento', avistamiento.id, ':', e);
-      }
+    // Intentar obtener la foto del avistamiento primero (la miniatura si ya está generada)
+    const fotos = avistamiento.miniaturas || avistamiento.fotos;
+    if (fotos && fotos.length > 0) {
+      return `http://localhost:8080${fotos[0]}`;
     }
 
     // Si no hay fotos del avistamiento, usar imagen por defecto
@@ -97,18 +90,9 @@ export class AvistamientosComponent implements OnInit, OnDestroy {
   }
 
   obtenerTodasLasFotos(avistamiento: Avistamiento): string[] {
-    // Obtener las fotos del avistamiento
-    if (avistamiento.fotos) {
-      try {
-        const fotosArray = JSON.parse(avistamiento.fotos);
-        if (fotosArray && fotosArray.length > 0) {
-          return fotosArray.map((url: string) => `http://localhost:8080${url}`);
-        }
-      } catch (e) {
-        console.error('Error parseando fotos del avistamiento:', e);
-      }
-    }
-    return [];
+    // Obtener las fotos del avistamiento (miniaturas si ya están generadas)
+    const fotos = avistamiento.miniaturas || avistamiento.fotos;
+    return (fotos || []).map(url => `http://localhost:8080${url}`);
   }
 
   tieneMasDe1Foto(avistamiento: Avistamiento): boolean {
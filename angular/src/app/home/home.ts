@@ -102,32 +102,14 @@ export class Home implements OnInit, OnDestroy {
   }
 
   obtenerImagenMascota(mascota: Mascota): string {
-    if (mascota.fotos) {
-      try {
-        const fotosArray = JSON.parse(mascota.fotos);
-        if (fotosArray && fotosArray.length > 0) {
-          const fotoUrl = fotosArray[0];
-          return `http://localhost:8080${fotoUrl}`;
-        }
-      } catch (e) {
-        console.error('Error parseando fotos:', e);
-      }
+    if (mascota.fotos && mascota.fotos.length > 0) {
+      return `http://localhost:8080${mascota.fotos[0]}`;
     }
     return '/assets/images/mascota-default.svg';
   }
 
   obtenerTodasLasFotos(mascota: Mascota): string[] {
-    if (mascota.fotos) {
-      try {
-        const fotosArray = JSON.parse(mascota.fotos);
-        if (fotosArray && fotosArray.length > 0) {
-          return fotosArray.map((url: string) => `http://localhost:8080${url}`);
-        }
-      } catch (e) {
-        console.error('Error parseando fotos:', e);
-      }
-    }
-    return [];
+    return (mascota.fotos || []).map(url => `http://localhost:8080${url}`);
   }
 
   tieneMasDe1Foto(mascota: Mascota): boolean {
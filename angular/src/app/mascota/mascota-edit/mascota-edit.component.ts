@@ -25,7 +25,7 @@ export class MascotaEditComponent implements OnInit, AfterViewInit {
     tipo: '',
     raza: '',
     coordenadas: '',
-    fotos: '',
+    fotos: [],
     activo: true
   };
 
@@ -92,8 +92,9 @@ export class MascotaEditComponent implements OnInit, AfterViewInit {
         this.mascota.tipo = mascota.tipo || '';
         this.mascota.raza = mascota.raza || '';
         this.mascota.coordenadas = mascota.coordenadas || '';
-        this.mascota.fotos = mascota.fotos || '';
+        this.mascota.fotos = mascota.fotos || [];
         this.mascota.activo = mascota.activo !== undefined ? mascota.activo : true;
+        this.mascota.version = mascota.version;
 
         // Manejar el tamaño de forma especial - buscar tanto en 'tamanio' como en 'tamaño'
         const tamanioBackend = mascota.tamanio || (mascota as any)['tamaño'] || '';
@@ -150,15 +151,7 @@ export class MascotaEditComponent implements OnInit, AfterViewInit {
   }
 
   cargarFotosExistentes(): void {
-    if (this.mascota.fotos) {
-      try {
-        const fotos = JSON.parse(this.mascota.fotos);
-        this.fotosPrevisualizacion = fotos.map((foto: string) => `http://localhost:8080${foto}`);
-      } catch (error) {
-        console.error('Error al parsear fotos:', error);
-        this.fotosPrevisualizacion = [];
-      }
-    }
+    this.fotosPrevisualizacion = (this.mascota.fotos || []).map(foto => `http://localhost:8080${foto}`);
   }
 
   onFileSelect(event: any): void {
@@ -296,7 +289,8 @@ export class MascotaEditComponent implements OnInit, AfterViewInit {
       estado: this.mascota.estado,
       tipo: this.mascota.tipo || '',
       raza: this.mascota.raza || '',
-      coordenadas: this.mascota.coordenadas || ''
+      coordenadas: this.mascota.coordenadas || '',
+      version: this.mascota.version
     };
 
     this.mascotaService.actualizarMascota(this.mascotaId, mascotaData).subscribe({
@@ -313,7 +307,9 @@ export class MascotaEditComponent implements OnInit, AfterViewInit {
       },
       error: (error) => {
         console.error('❌ Error al actualizar mascota:', error);
-        this.errorMessage = 'Ocurrió un error al actualizar la información. Por favor, intentá nuevamente.';
+        this.errorMessage = error.status === 409
+          ? 'Otra persona modificó esta mascota mientras la editabas. Recargá la página para ver los cambios.'
+          : 'Ocurrió un error al actualizar la información. Por favor, intentá nuevamente.';
         this.autoHideMessage('error');
         this.loadingSubmit = false;
       }
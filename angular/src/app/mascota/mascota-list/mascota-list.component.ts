@@ -1,8 +1,9 @@
-import { Component, OnInit } from '@angular/core';
+import { Component, OnDestroy, OnInit } from '@angular/core';
 import { CommonModule } from '@angular/common';
 import { Router, RouterModule } from '@angular/router';
 import { FormsModule } from '@angular/forms';
-import { MascotaService } from '../../services/mascota.service';
+import { Subject, Subscription, debounceTime } from 'rxjs';
+import { FiltrosMascota, MascotaService } from '../../services/mascota.service';
 import { Mascota, Estado, Tamanio } from '../../models/mascota.model';
 
 @Component({
@@ -12,9 +13,8 @@ import { Mascota, Estado, Tamanio } from '../../models/mascota.model';
   templateUrl: './mascota-list.component.html',
   styleUrls: ['./mascota-list.component.css']
 })
-export class MascotaListComponent implements OnInit {
+export class MascotaListComponent implements OnInit, OnDestroy {
   mascotas: Mascota[] = [];
-  mascotasFiltradas: Mascota[] = [];
   loading = true;
 
   // Filtros
@@ -29,10 +29,17 @@ export class MascotaListComponent implements OnInit {
   Tamanios = Tamanio;
   tiposAnimales = ['PERRO', 'GATO', 'OTRO'];
 
-  // Paginación
-  paginaActual = 1;
+  // Paginación por cursor: el servidor devuelve el cursor de la página siguiente
+  // y se guarda una pila con los cursores de las páginas ya visitadas para volver atrás
   itemsPorPagina = 9;
-  totalPaginas = 1;
+  paginaActual = 1;
+  hayMas = false;
+  private cursores: { despuesDeFecha?: string; despuesDeId?: number }[] = [{}];
+  private siguienteCursor: { despuesDeFecha?: string; despuesDeId?: number } = {};
+
+  private filtrosTexto$ = new Subject<void>();
+  private suscripciones = new Subscription();
+  private busquedaActual?: Subscription;
 
   constructor(
     private mascotaService: MascotaService,
@@ -40,15 +47,35 @@ export class MascotaListComponent implements OnInit {
   ) {}
 
   ngOnInit(): void {
+    // Los filtros de texto esperan a que el usuario deje de escribir antes de consultar
+    this.suscripciones.add(
+      this.filtrosTexto$.pipe(debounceTime(300)).subscribe(() => this.aplicarFiltros())
+    );
     this.cargarMascotas();
   }
 
+  ngOnDestroy(): void {
+    this.suscripciones.unsubscribe();
+    this.busquedaActual?.unsubscribe();
+  }
+
   cargarMascotas(): void {
     this.loading = true;
-    this.mascotaService.obtenerMascotasPerdidas().subscribe({
-      next: (mascotas) => {
-        this.mascotas = mascotas;
-        this.aplicarFiltros();
+    const filtros: FiltrosMascota = {
+      nombre: this.filtroNombre,
+      tamanio: this.filtroTamanio,
+      color: this.filtroColor,
+      tipo: this.filtroTipo,
+      estado: this.filtroEstado,
+      limite: this.itemsPorPagina,
+      ...this.cursores[this.paginaActual - 1]
+    };
+    this.busquedaActual?.unsubscribe();
+    this.busquedaActual = this.mascotaService.buscarMascotas(filtros).subscribe({
+      next: (pagina) => {
+        this.mascotas = pagina.items;
+        this.hayMas = pagina.hayMas;
+        this.siguienteCursor = { despuesDeFecha: pagina.siguienteFecha, despuesDeId: pagina.siguienteId };
         this.loading = false;
       },
       error: (error) => {
@@ -59,66 +86,30 @@ export class MascotaListComponent implements OnInit {
   }
 
   aplicarFiltros(): void {
-    let mascotasTemp = [...this.mascotas];
-
-    // Filtro por nombre
-    if (this.filtroNombre.trim()) {
-      mascotasTemp = mascotasTemp.filter(mascota =>
-        mascota.nombre.toLowerCase().includes(this.filtroNombre.toLowerCase())
-      );
-    }
-
-    // Filtro por tamaño
-    if (this.filtroTamanio) {
-      mascotasTemp = mascotasTemp.filter(mascota =>
-        mascota.tamanio === this.filtroTamanio
-      );
-    }
-
-    // Filtro por color
-    if (this.filtroColor.trim()) {
-      mascotasTemp = mascotasTemp.filter(mascota =>
-        mascota.color.toLowerCase().includes(this.filtroColor.toLowerCase())
-      );
-    }
-
-    // Filtro por tipo
-    if (this.filtroTipo) {
-      mascotasTemp = mascotasTemp.filter(mascota =>
-        mascota.tipo === this.filtroTipo
-      );
-    }
-
-    // Filtro por estado
-    if (this.filtroEstado) {
-      mascotasTemp = mascotasTemp.filter(mascota =>
-        mascota.estado === this.filtroEstado
-      );
-    }
-
-    this.mascotasFiltradas = mascotasTemp;
-    this.calcularPaginacion();
-    this.paginaActual = 1; // Reset a la primera página al aplicar filtros
-  }
-
-  calcularPaginacion(): void {
-    this.totalPaginas = Math.ceil(this.mascotasFiltradas.length / this.itemsPorPagina);
+    // Al cambiar los filtros se vuelve a la primera página
+    this.paginaActual = 1;
+    this.cursores = [{}];
+    this.cargarMascotas();
   }
 
-  get mascotasPaginadas(): Mascota[] {
-    const inicio = (this.paginaActual - 1) * this.itemsPorPagina;
-    const fin = inicio + this.itemsPorPagina;
-    return this.mascotasFiltradas.slice(inicio, fin);
+  filtroTextoCambiado(): void {
+    this.filtrosTexto$.next();
   }
 
-  cambiarPagina(nuevaPagina: number): void {
-    if (nuevaPagina >= 1 && nuevaPagina <= this.totalPaginas) {
-      this.paginaActual = nuevaPagina;
+  paginaSiguiente(): void {
+    if (!this.hayMas) {
+      return;
     }
+    this.cursores[this.paginaActual] = this.siguienteCursor;
+    this.paginaActual++;
+    this.cargarMascotas();
   }
 
-  get paginasArray(): number[] {
-    return Array.from({ length: this.totalPaginas }, (_, i) => i + 1);
+  paginaAnterior(): void {
+    if (this.paginaActual > 1) {
+      this.paginaActual--;
+      this.cargarMascotas();
+    }
   }
 
   limpiarFiltros(): void {
@@ -139,15 +130,10 @@ export class MascotaListComponent implements OnInit {
   }
 
   obtenerPrimeraFoto(mascota: Mascota): string {
-    if (mascota.fotos) {
-      try {
-        const fotos = JSON.parse(mascota.fotos);
-        if (fotos && fotos.length > 0) {
-          return 'http://localhost:8080' + fotos[0];
-        }
-      } catch (error) {
-        console.error('Error al parsear fotos:', error);
-      }
+    // En el listado alcanza con la miniatura; mientras no esté generada se usa el original
+    const fotos = mascota.miniaturas || mascota.fotos;
+    if (fotos && fotos.length > 0) {
+      return 'http://localhost:8080' + fotos[0];
     }
     // Imagen por defecto
     return '/assets/images/mascota-default.svg';
@@ -190,8 +176,4 @@ export class MascotaListComponent implements OnInit {
   reportarMascota(): void {
     this.router.navigate(['/mascota/nuevo']);
   }
-
-  getAbsValue(value: number): number {
-    return Math.abs(value);
-  }
 }
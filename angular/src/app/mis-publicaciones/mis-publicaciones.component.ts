@@ -215,31 +215,14 @@ export class MisPublicacionesComponent implements OnInit {
   }
 
   obtenerFotoPrincipal(mascota: Mascota): string {
-    try {
-      if (mascota.fotos) {
-        const fotosArray = JSON.parse(mascota.fotos);
-        if (Array.isArray(fotosArray) && fotosArray.length > 0) {
-          return `http://localhost:8080${fotosArray[0]}`;
-        }
-      }
-    } catch (error) {
-      console.error('Error al parsear fotos:', error);
+    if (mascota.fotos && mascota.fotos.length > 0) {
+      return `http://localhost:8080${mascota.fotos[0]}`;
     }
     return '/assets/images/mascota-default.svg';
   }
 
   obtenerTodasLasFotos(mascota: Mascota): string[] {
-    try {
-      if (mascota.fotos) {
-        const fotosArray = JSON.parse(mascota.fotos);
-        if (Array.isArray(fotosArray)) {
-          return fotosArray.map(foto => `http://localhost:8080${foto}`);
-        }
-      }
-    } catch (error) {
-      console.error('Error al parsear fotos:', error);
-    }
-    return [];
+    return (mascota.fotos || []).map(foto => `http://localhost:8080${foto}`);
   }
 
   getEstadoTexto(estado: string): string {
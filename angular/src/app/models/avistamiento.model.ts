@@ -3,7 +3,8 @@ export interface Avistamiento {
   coordenada: string;
   descripcion: string;
   fecha: string;
-  fotos?: string; // JSON string con array de URLs
+  fotos?: string[]; // URLs de las fotos
+  miniaturas?: string[] | null; // miniaturas de fotos (mismo orden), null mientras se generan
   activo: boolean;
   mascota: {
     id: number;
@@ -12,7 +13,7 @@ export interface Avistamiento {
     raza: string;
     color: string;
     tamanio: string;
-    fotos?: string; // JSON string con array de URLs de las fotos de la mascota
+    fotos?: string[]; // URLs de las fotos de la mascota
   };
   usuario: {
     id: number;
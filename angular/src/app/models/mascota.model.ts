@@ -10,7 +10,9 @@ export interface Mascota {
   tipo: string;
   raza: string;
   activo: boolean;
-  fotos?: string; // JSON string con array de URLs: "['/uploads/foto1.jpg', '/uploads/foto2.jpg']"
+  version?: number; // se reenvía al editar para detectar cambios concurrentes (409)
+  fotos?: string[]; // URLs: ['/uploads/foto1.jpg', '/uploads/foto2.jpg']
+  miniaturas?: string[] | null; // miniaturas de fotos (mismo orden), null mientras se generan
 }
 
 export enum Estado {
@@ -244,19 +244,9 @@ export class ReportarAvistamientoComponent implements OnInit, AfterViewInit, OnD
   }
 
   obtenerImagenMascota(): string {
-    if (!this.mascota || !this.mascota.fotos) {
-      return '/assets/images/mascota-default.svg';
+    if (this.mascota && this.mascota.fotos && this.mascota.fotos.length > 0) {
+      return `http://localhost:8080${this.mascota.fotos[0]}`;
     }
-
-    try {
-      const fotosArray = JSON.parse(this.mascota.fotos);
-      if (fotosArray && fotosArray.length > 0) {
-        return `http://localhost:8080${fotosArray[0]}`;
-      }
-    } catch (e) {
-      console.error('Error parseando fotos:', e);
-    }
-
     return '/assets/images/mascota-default.svg';
   }
 }
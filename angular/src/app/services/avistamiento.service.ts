@@ -1,6 +1,6 @@
 import { Injectable, inject } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
-import { Observable, catchError, throwError, timeout } from 'rxjs';
+import { Observable, catchError, map, throwError, timeout } from 'rxjs';
 import { Avistamiento } from '../models/avistamiento.model';
 
 @Injectable({
@@ -24,8 +24,11 @@ export class AvistamientoService {
     return this.http.get<Avistamiento>(`${this.apiUrl}/${id}`);
   }
 
-  obtenerAvistamientosPorMascota(mascotaId: number): Observable<Avistamiento[]> {
-    return this.http.get<Avistamiento[]>(`${this.apiUrl}/mascota/${mascotaId}`);
+  // El endpoint es paginado: devuelve la primera página (los más recientes)
+  obtenerAvistamientosPorMascota(mascotaId: number, limite = 20): Observable<Avistamiento[]> {
+    return this.http.get<{ items: Avistamiento[] }>(`${this.apiUrl}/mascota/${mascotaId}`, { params: { limite } }).pipe(
+      map(pagina => pagina.items)
+    );
   }
 
   crearAvistamiento(avistamientoData: any): Observable<any> {
@@ -37,5 +40,16 @@ export class AvistamientoService {
       })
     );
   }
-}
 
+  // Sube archivos como multipart/form-data (más liviano que enviarlos en Base64 dentro del JSON)
+  subirFotos(id: number, fotos: File[]): Observable<any> {
+    const formData = new FormData();
+    fotos.forEach(foto => formData.append('fotos', foto, foto.name));
+    return this.http.post<any>(`${this.apiUrl}/${id}/fotos`, formData).pipe(
+      catchError(error => {
+        console.error('Error al subir fotos del avistamiento:', error);
+        return throwError(() => error);
+      })
+    );
+  }
+}
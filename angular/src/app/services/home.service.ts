@@ -7,6 +7,11 @@ export interface HomeStats {
   recuperadas: number;
   adoptadas: number;
   seguimientosPendientes: number;
+  porEstado?: Record<string, number>;
+  // Solo presentes cuando se piden con el parámetro desglose
+  porTipo?: Record<string, Record<string, number>>;
+  porProvincia?: Record<string, Record<string, number>>;
+  porMes?: Record<string, Record<string, number>>;
 }
 
 @Injectable({
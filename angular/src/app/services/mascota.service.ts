@@ -1,5 +1,5 @@
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable, catchError, throwError, timeout } from 'rxjs';
 import { map } from 'rxjs/operators';
 import { Mascota } from '../models/mascota.model';
@@ -15,6 +15,25 @@ export interface MascotaRequest {
   tipo: string;
   raza: string;
   fotosBase64?: string[];
+  version?: number;
+}
+
+export interface FiltrosMascota {
+  nombre?: string;
+  tamanio?: string;
+  color?: string;
+  tipo?: string;
+  estado?: string;
+  despuesDeFecha?: string;
+  despuesDeId?: number;
+  limite?: number;
+}
+
+export interface PaginaMascotas {
+  items: Mascota[];
+  hayMas: boolean;
+  siguienteFecha?: string;
+  siguienteId?: number;
 }
 
 @Injectable({
@@ -39,6 +58,30 @@ export class MascotaService {
     );
   }
 
+  // Búsqueda paginada en el servidor: la página siguiente se pide con el cursor (siguienteFecha, siguienteId)
+  buscarMascotas(filtros: FiltrosMascota): Observable<PaginaMascotas> {
+    let params = new HttpParams();
+    Object.entries(filtros).forEach(([clave, valor]) => {
+      if (valor !== undefined && valor !== null && `${valor}`.trim() !== '') {
+        params = params.set(clave, `${valor}`.trim());
+      }
+    });
+    return this.http.get<any>(`${this.apiUrl}/buscar`, { params }).pipe(
+      timeout(10000),
+      map(pagina => ({
+        ...pagina,
+        items: pagina.items.map((m: any) => ({
+          ...m,
+          tamanio: m.tamanio || m.tamano
+        }))
+      })),
+      catchError(error => {
+        console.error('Error en búsqueda de mascotas:', error);
+        return throwError(() => error);
+      })
+    );
+  }
+
   obtenerMascota(id: number): Observable<Mascota> {
     console.log(`🔍 Intentando obtener mascota con ID: ${id}`);
     return this.http.get<any>(`${this.apiUrl}/${id}`).pipe(
@@ -88,6 +131,18 @@ export class MascotaService {
     );
   }
 
+  // Sube archivos como multipart/form-data (más liviano que enviarlos en Base64 dentro del JSON)
+  subirFotos(id: number, fotos: File[]): Observable<Mascota> {
+    const formData = new FormData();
+    fotos.forEach(foto => formData.append('fotos', foto, foto.name));
+    return this.http.post<any>(`${this.apiUrl}/${id}/fotos`, formData).pipe(
+      map(m => ({
+        ...m,
+        tamanio: m.tamanio || m.tamano
+      }))
+    );
+  }
+
   actualizarMascota(id: number, mascota: MascotaRequest): Observable<Mascota> {
     return this.http.put<any>(`${this.apiUrl}/${id}`, mascota).pipe(
       map(m => ({
@@ -0,0 +1,46 @@
+package ttps.spring.almacenamiento;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Almacén de los archivos de fotos (blobs), identificados por su nombre. La implementación
+ * se elige con app.almacenamiento.tipo: "local" (disco, por defecto) o "s3" (S3 o compatible,
+ * compartido por todos los nodos de la aplicación)
+ */
+public interface AlmacenBlobs {
+
+    // Tamaño y fecha de modificación del blob, o null si no existe
+    InfoBlob info(String nombre) throws IOException;
+
+    // Guarda el contenido del archivo local con ese nombre, reemplazando el anterior si existía.
+    // El archivo puede quedar movido al almacén; el llamador borra lo que quede
+    void guardar(String nombre, Path archivo, String tipoContenido) throws IOException;
+
+    // Contenido completo del blob (NoSuchFileException si no existe)
+    InputStream abrir(String nombre) throws IOException;
+
+    // Bytes [inicio, inicio + longitud) del blob (NoSuchFileException si no existe)
+    InputStream abrir(String nombre, long inicio, long longitud) throws IOException;
+
+    // Elimina el blob si existe
+    void borrar(String nombre) throws IOException;
+
+    // Path en disco del blob para enviarlo con sendfile, o null si no es un almacén local
+    default Path rutaLocal(String nombre) {
+        return null;
+    }
+
+    /**
+     * Clave del blob dentro del almacén: dos niveles de subdirectorios con los primeros caracteres
+     * del nombre (el hash del contenido), "ab/cd/abcd...jpg". Reparte los archivos en 65536
+     * directorios para que ninguno llegue a tener millones de entradas
+     */
+    static String clave(String nombre) {
+        if (nombre.length() < 5) {
+            return nombre;
+        }
+        return nombre.substring(0, 2) + "/" + nombre.substring(2, 4) + "/" + nombre;
+    }
+}
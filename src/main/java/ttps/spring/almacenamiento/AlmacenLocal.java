@@ -0,0 +1,126 @@
+package ttps.spring.almacenamiento;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Blobs en el disco local, bajo app.upload.dir y repartidos en subdirectorios según
+ * AlmacenBlobs.clave. Los archivos anteriores a la fragmentación (guardados directamente en
+ * app.upload.dir) se siguen encontrando en su ubicación original
+ */
+@Component
+@ConditionalOnProperty(name = "app.almacenamiento.tipo", havingValue = "local", matchIfMissing = true)
+public class AlmacenLocal implements AlmacenBlobs {
+
+    private final Path directorio;
+
+    public AlmacenLocal(@Value("${app.upload.dir:uploads}") String uploadDir) throws IOException {
+        this.directorio = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Files.createDirectories(this.directorio);
+    }
+
+    @Override
+    public InfoBlob info(String nombre) throws IOException {
+        try {
+            BasicFileAttributes atributos = Files.readAttributes(ruta(nombre), BasicFileAttributes.class);
+            if (!atributos.isRegularFile()) {
+                return null;
+            }
+            return new InfoBlob(atributos.size(), atributos.lastModifiedTime().toMillis());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void guardar(String nombre, Path archivo, String tipoContenido) throws IOException {
+        Path destino = directorio.resolve(AlmacenBlobs.clave(nombre));
+        Files.createDirectories(destino.getParent());
+        // El temporal está en el mismo disco: el archivo aparece completo o no aparece
+        Files.move(archivo, destino, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public InputStream abrir(String nombre) throws IOException {
+        return Files.newInputStream(ruta(nombre));
+    }
+
+    @Override
+    public InputStream abrir(String nombre, long inicio, long longitud) throws IOException {
+        FileChannel canal = FileChannel.open(ruta(nombre), StandardOpenOption.READ).position(inicio);
+        return new EntradaLimitada(Channels.newInputStream(canal), longitud);
+    }
+
+    @Override
+    public void borrar(String nombre) throws IOException {
+        Files.deleteIfExists(ruta(nombre));
+    }
+
+    @Override
+    public Path rutaLocal(String nombre) {
+        Path ruta = ruta(nombre);
+        return Files.isRegularFile(ruta) ? ruta : null;
+    }
+
+    private Path ruta(String nombre) {
+        Path fragmentada = directorio.resolve(AlmacenBlobs.clave(nombre));
+        if (!Files.exists(fragmentada)) {
+            Path anterior = directorio.resolve(nombre);
+            if (Files.exists(anterior)) {
+                return anterior;
+            }
+        }
+        return fragmentada;
+    }
+
+    /**
+     * Stream que termina después de una cantidad fija de bytes
+     */
+    private static class EntradaLimitada extends FilterInputStream {
+
+        private long restantes;
+
+        EntradaLimitada(InputStream entrada, long longitud) {
+            super(entrada);
+            this.restantes = longitud;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (restantes <= 0) {
+                return -1;
+            }
+            int leido = super.read();
+            if (leido >= 0) {
+                restantes--;
+            }
+            return leido;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (restantes <= 0) {
+                return -1;
+            }
+            int leidos = super.read(b, off, (int) Math.min(len, restantes));
+            if (leidos > 0) {
+                restantes -= leidos;
+            }
+            return leidos;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package ttps.spring.almacenamiento;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Blobs en un bucket S3 o de un servicio compatible (MinIO, etc.), compartido por todos los
+ * nodos de la aplicación. Las claves usan la misma fragmentación que el almacén local, que
+ * además reparte la carga entre prefijos del bucket
+ */
+@Component
+@ConditionalOnProperty(name = "app.almacenamiento.tipo", havingValue = "s3")
+public class AlmacenS3 implements AlmacenBlobs {
+
+    // Los nombres son el hash del contenido: el objeto nunca cambia
+    private static final String CACHE_INMUTABLE = "public, max-age=31536000, immutable";
+
+    private final S3Client s3;
+    private final String bucket;
+
+    @Autowired
+    public AlmacenS3(@Value("${app.almacenamiento.s3.bucket}") String bucket,
+                     @Value("${app.almacenamiento.s3.endpoint:}") String endpoint,
+                     @Value("${app.almacenamiento.s3.region:us-east-1}") String region,
+                     @Value("${app.almacenamiento.s3.access-key:}") String accessKey,
+                     @Value("${app.almacenamiento.s3.secret-key:}") String secretKey) {
+        this(crearCliente(endpoint, region, accessKey, secretKey), bucket);
+    }
+
+    public AlmacenS3(S3Client s3, String bucket) {
+        this.s3 = s3;
+        this.bucket = bucket;
+    }
+
+    private static S3Client crearCliente(String endpoint, String region, String accessKey, String secretKey) {
+        S3ClientBuilder builder = S3Client.builder().region(Region.of(region));
+        if (!endpoint.isBlank()) {
+            // Servicio compatible con S3: se direcciona por path (http://host:9000/bucket/clave)
+            builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+        }
+        if (!accessKey.isBlank()) {
+            // Sin credenciales explícitas se usa la cadena por defecto de AWS (variables de entorno, rol, etc.)
+            builder.credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public InfoBlob info(String nombre) throws IOException {
+        try {
+            HeadObjectResponse respuesta = s3.headObject(r -> r.bucket(bucket).key(AlmacenBlobs.clave(nombre)));
+            return new InfoBlob(respuesta.contentLength(), respuesta.lastModified().toEpochMilli());
+        } catch (NoSuchKeyException e) {
+            return null;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return null;
+            }
+            throw new IOException("Error consultando " + nombre + " en S3", e);
+        } catch (SdkException e) {
+            throw new IOException("Error consultando " + nombre + " en S3", e);
+        }
+    }
+
+    @Override
+    public void guardar(String nombre, Path archivo, String tipoContenido) throws IOException {
+        try {
+            s3.putObject(r -> r.bucket(bucket)
+                            .key(AlmacenBlobs.clave(nombre))
+                            .contentType(tipoContenido)
+                            .cacheControl(CACHE_INMUTABLE),
+                    RequestBody.fromFile(archivo));
+        } catch (SdkException e) {
+            throw new IOException("Error guardando " + nombre + " en S3", e);
+        }
+    }
+
+    @Override
+    public InputStream abrir(String nombre) throws IOException {
+        return obtener(nombre, GetObjectRequest.builder().bucket(bucket).key(AlmacenBlobs.clave(nombre)).build());
+    }
+
+    @Override
+    public InputStream abrir(String nombre, long inicio, long longitud) throws IOException {
+        return obtener(nombre, GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(AlmacenBlobs.clave(nombre))
+                .range("bytes=" + inicio + "-" + (inicio + longitud - 1))
+                .build());
+    }
+
+    private InputStream obtener(String nombre, GetObjectRequest request) throws IOException {
+        try {
+            return s3.getObject(request);
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(nombre);
+        } catch (SdkException e) {
+            throw new IOException("Error leyendo " + nombre + " de S3", e);
+        }
+    }
+
+    @Override
+    public void borrar(String nombre) throws IOException {
+        try {
+            s3.deleteObject(r -> r.bucket(bucket).key(AlmacenBlobs.clave(nombre)));
+        } catch (SdkException e) {
+            throw new IOException("Error borrando " + nombre + " de S3", e);
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        s3.close();
+    }
+}
@@ -0,0 +1,7 @@
+package ttps.spring.almacenamiento;
+
+/**
+ * Metadatos de un blob: tamaño en bytes y fecha de última modificación (epoch millis)
+ */
+public record InfoBlob(long tamanio, long ultimaModificacion) {
+}
@@ -0,0 +1,20 @@
+package ttps.spring.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Las colecciones de las entidades son LAZY y open-in-view está desactivado:
+     * las que no fueron cargadas por el plan de carga de cada caso de uso se serializan
+     * como null en lugar de disparar consultas (o LazyInitializationException) al armar el JSON
+     */
+    @Bean
+    public Module hibernateModule() {
+        return new Hibernate6Module();
+    }
+}
@@ -14,6 +14,9 @@ import java.io.IOException;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // Atributo con el JwtUtils.TokenVerificado del request (lo usa UsuarioAutenticadoResolver)
+    public static final String ATRIBUTO_TOKEN = "tokenVerificado";
+
     @Autowired
     private JwtUtils jwtUtils;
 
@@ -27,22 +30,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
 
-            try {
-                // Validar el token
-                String email = jwtUtils.extractEmail(token);
-
-                if (email != null && !jwtUtils.isTokenExpired(token)) {
-                    // El token es válido, agregar información al request
-                    Long userId = jwtUtils.extractUserId(token);
-                    String tipo = jwtUtils.extractTipo(token);
-
-                    request.setAttribute("userId", userId);
-                    request.setAttribute("userEmail", email);
-                    request.setAttribute("userTipo", tipo);
-                }
-            } catch (Exception e) {
-                // Token inválido o expirado
-                System.err.println("Error al validar token: " + e.getMessage());
+            // Validar el token: se parsea y verifica una sola vez (y los ya verificados salen del cache)
+            JwtUtils.TokenVerificado verificado = jwtUtils.validarToken(token);
+            if (verificado != null && verificado.email() != null) {
+                // El token es válido, agregar información al request
+                request.setAttribute(ATRIBUTO_TOKEN, verificado);
+                request.setAttribute("userId", verificado.userId());
+                request.setAttribute("userEmail", verificado.email());
+                request.setAttribute("userTipo", verificado.tipo());
             }
         }
 
@@ -53,8 +48,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
         String path = request.getRequestURI();
-        // No aplicar el filtro a las rutas de login, registro y swagger
+        // No aplicar el filtro a las rutas de login, registro, swagger y fotos públicas
         return path.startsWith("/usuarios/login") ||
+               path.startsWith("/uploads/") ||
                path.startsWith("/usuarios/registro") ||
                path.startsWith("/swagger-ui") ||
                path.startsWith("/v3/api-docs");
@@ -0,0 +1,31 @@
+package ttps.spring.config;
+
+import ttps.spring.models.Usuario;
+
+/**
+ * Usuario que realiza la solicitud, resuelto por UsuarioAutenticadoResolver a partir del token
+ * verificado. Se declara como parámetro de los métodos de los controllers que lo requieren
+ */
+public record UsuarioAutenticado(long id, String email, String tipo) {
+
+    public static final String ADMINISTRADOR = "ADMINISTRADOR";
+
+    public boolean esAdministrador() {
+        return ADMINISTRADOR.equals(tipo);
+    }
+
+    /**
+     * Puede modificar los datos del usuario indicado: es el mismo usuario o un administrador
+     */
+    public boolean puedeModificar(long propietarioId) {
+        return id == propietarioId || esAdministrador();
+    }
+
+    /**
+     * Igual que puedeModificar(long) para el propietario de una entidad. Acepta el proxy LAZY
+     * sin inicializarlo (getId no consulta la base); sin propietario solo puede un administrador
+     */
+    public boolean puedeModificar(Usuario propietario) {
+        return propietario != null ? puedeModificar(propietario.getId()) : esAdministrador();
+    }
+}
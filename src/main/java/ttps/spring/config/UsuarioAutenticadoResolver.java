@@ -0,0 +1,51 @@
+package ttps.spring.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.server.ResponseStatusException;
+import ttps.spring.dto.PermisosUsuario;
+import ttps.spring.services.PermisosUsuarioService;
+import ttps.utils.JwtUtils;
+
+/**
+ * Resuelve los parámetros UsuarioAutenticado desde el token que verificó JwtAuthenticationFilter.
+ * El tipo y el estado del usuario salen de PermisosUsuarioService (cacheados), así que un usuario
+ * desactivado o que cambió de tipo deja de estar autorizado sin esperar a que venza su token.
+ * Sin token válido, o si el usuario ya no existe o está inactivo, la solicitud termina con 401
+ */
+@Component
+public class UsuarioAutenticadoResolver implements HandlerMethodArgumentResolver {
+
+    private final PermisosUsuarioService permisosUsuarioService;
+
+    @Autowired
+    public UsuarioAutenticadoResolver(PermisosUsuarioService permisosUsuarioService) {
+        this.permisosUsuarioService = permisosUsuarioService;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return UsuarioAutenticado.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public UsuarioAutenticado resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                              NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object atributo = webRequest.getAttribute(JwtAuthenticationFilter.ATRIBUTO_TOKEN, RequestAttributes.SCOPE_REQUEST);
+        if (!(atributo instanceof JwtUtils.TokenVerificado token) || token.userId() == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Token requerido");
+        }
+        PermisosUsuario permisos = permisosUsuarioService.obtener(token.userId());
+        if (permisos == null || !permisos.activo()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Usuario inexistente o inactivo");
+        }
+        return new UsuarioAutenticado(permisos.id(), token.email(), permisos.tipo());
+    }
+}
@@ -1,20 +1,25 @@
 package ttps.spring.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Exponer la carpeta uploads como recurso estático
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:uploads/");
+    private final UsuarioAutenticadoResolver usuarioAutenticadoResolver;
+
+    @Autowired
+    public WebConfig(UsuarioAutenticadoResolver usuarioAutenticadoResolver) {
+        this.usuarioAutenticadoResolver = usuarioAutenticadoResolver;
     }
 
+    // La carpeta uploads la sirve UploadsController (ETag, rangos y sendfile)
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -24,4 +29,9 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowCredentials(true)
                 .maxAge(3600);
     }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(usuarioAutenticadoResolver);
+    }
 }
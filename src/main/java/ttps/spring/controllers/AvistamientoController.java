@@ -1,7 +1,5 @@
 package ttps.spring.controllers;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,12 +7,20 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import ttps.spring.config.UsuarioAutenticado;
 import ttps.spring.dto.AvistamientoRequest;
 import ttps.spring.dto.AvistamientoResponse;
+import ttps.spring.dto.PaginaResponse;
 import ttps.spring.models.Avistamiento;
 import ttps.spring.models.Mascota;
 import ttps.spring.models.Usuario;
@@ -24,6 +30,7 @@ import ttps.spring.services.MascotaService;
 import ttps.spring.services.UsuarioService;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -32,23 +39,22 @@ import java.util.stream.Collectors;
 @Tag(name = "Avistamientos", description = "API para la gestión de avistamientos de mascotas")
 public class AvistamientoController {
 
+    private static final Logger log = LoggerFactory.getLogger(AvistamientoController.class);
+
     private final AvistamientoService avistamientoService;
     private final MascotaService mascotaService;
     private final UsuarioService usuarioService;
     private final FileStorageService fileStorageService;
-    private final ObjectMapper objectMapper;
 
     @Autowired
     public AvistamientoController(AvistamientoService avistamientoService,
                                   MascotaService mascotaService,
                                   UsuarioService usuarioService,
-                                  FileStorageService fileStorageService,
-                                  ObjectMapper objectMapper) {
+                                  FileStorageService fileStorageService) {
         this.avistamientoService = avistamientoService;
         this.mascotaService = mascotaService;
         this.usuarioService = usuarioService;
         this.fileStorageService = fileStorageService;
-        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -57,30 +63,32 @@ public class AvistamientoController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Avistamiento creado exitosamente",
                     content = @Content(schema = @Schema(implementation = Avistamiento.class))),
+            @ApiResponse(responseCode = "401", description = "Token ausente o inválido"),
+            @ApiResponse(responseCode = "403", description = "Sin permisos para registrar avistamientos de otro usuario"),
             @ApiResponse(responseCode = "404", description = "Mascota o usuario no encontrado"),
             @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     public ResponseEntity<?> crearAvistamiento(
-            @Parameter(description = "Datos del avistamiento") @RequestBody AvistamientoRequest request) {
+            @Parameter(description = "Datos del avistamiento") @RequestBody AvistamientoRequest request,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado) {
+        List<String> fotosUrls = List.of();
         try {
-            // Validar que venga el usuario
-            if (request.getUsuarioId() == null) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body("El ID del usuario es requerido");
-            }
-
             // Validar que venga la mascota
             if (request.getMascotaId() == null) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                         .body("El ID de la mascota es requerido");
             }
 
-            // Buscar el usuario
-            Usuario usuario = usuarioService.obtenerUsuario(request.getUsuarioId());
-            if (usuario == null) {
+            // Sin usuario en el request, el avistamiento es del usuario autenticado
+            long usuarioId = request.getUsuarioId() != null ? request.getUsuarioId() : autenticado.id();
+            if (!autenticado.puedeModificar(usuarioId)) {
+                return sinPermisos();
+            }
+            if (usuarioId != autenticado.id() && !usuarioService.existeUsuario(usuarioId)) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Usuario no encontrado");
             }
+            Usuario usuario = usuarioService.obtenerReferencia(usuarioId);
 
             // Buscar la mascota
             Mascota mascota = mascotaService.obtenerMascota(request.getMascotaId());
@@ -104,12 +112,8 @@ public class AvistamientoController {
 
             // Guardar fotos como archivos y almacenar las URLs
             if (request.getFotosBase64() != null && !request.getFotosBase64().isEmpty()) {
-                List<String> fotosUrls = fileStorageService.saveImagesFromBase64(
-                    request.getFotosBase64(),
-                    "avistamiento_" + System.currentTimeMillis()
-                );
-                String fotosJson = objectMapper.writeValueAsString(fotosUrls);
-                avistamiento.setFotos(fotosJson);
+                fotosUrls = fileStorageService.saveImagesFromBase64(request.getFotosBase64());
+                avistamiento.setFotos(fotosUrls);
             }
 
             avistamiento.setFecha(LocalDate.now());
@@ -119,6 +123,7 @@ public class AvistamientoController {
             Avistamiento creado = avistamientoService.crearAvistamiento(avistamiento);
             return ResponseEntity.status(HttpStatus.CREATED).body(new AvistamientoResponse(creado));
         } catch (Exception e) {
+            descartarFotos(fotosUrls);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error al crear avistamiento: " + e.getMessage());
         }
@@ -131,13 +136,34 @@ public class AvistamientoController {
             @ApiResponse(responseCode = "200", description = "Lista de avistamientos obtenida exitosamente")
     })
     public ResponseEntity<List<AvistamientoResponse>> obtenerTodosLosAvistamientos() {
-        List<Avistamiento> avistamientos = avistamientoService.obtenerTodosLosAvistamientos();
-        List<AvistamientoResponse> response = avistamientos.stream()
-                .map(AvistamientoResponse::new)
-                .collect(Collectors.toList());
+        List<AvistamientoResponse> response = avistamientoService.obtenerListadoAvistamientos();
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/cercanos")
+    @Operation(summary = "Obtener avistamientos cercanos",
+            description = "Retorna los avistamientos activos dentro de un radio (en km) alrededor de un punto, ordenados por distancia")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lista de avistamientos cercanos obtenida exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Parámetros de búsqueda inválidos")
+    })
+    public ResponseEntity<?> obtenerAvistamientosCercanos(
+            @Parameter(description = "Latitud del centro de búsqueda") @RequestParam double lat,
+            @Parameter(description = "Longitud del centro de búsqueda") @RequestParam double lng,
+            @Parameter(description = "Radio de búsqueda en kilómetros") @RequestParam(defaultValue = "2") double radio,
+            @Parameter(description = "Cantidad máxima de resultados") @RequestParam(defaultValue = "50") int limite) {
+        try {
+            List<AvistamientoResponse> response = avistamientoService.obtenerAvistamientosCercanos(lat, lng, radio, limite)
+                    .stream()
+                    .map(AvistamientoResponse::new)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Valor invalido: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Obtener avistamiento por ID",
             description = "Retorna los detalles de un avistamiento específico")
@@ -162,21 +188,35 @@ public class AvistamientoController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Avistamiento actualizado exitosamente",
                     content = @Content(schema = @Schema(implementation = Avistamiento.class))),
+            @ApiResponse(responseCode = "401", description = "Token ausente o inválido"),
+            @ApiResponse(responseCode = "403", description = "El avistamiento pertenece a otro usuario"),
             @ApiResponse(responseCode = "404", description = "Avistamiento, mascota o usuario no encontrado"),
+            @ApiResponse(responseCode = "409", description = "El avistamiento fue modificado por otro usuario"),
             @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     public ResponseEntity<?> actualizarAvistamiento(
             @Parameter(description = "ID del avistamiento") @PathVariable Long id,
-            @Parameter(description = "Datos actualizados del avistamiento") @RequestBody AvistamientoRequest request) {
+            @Parameter(description = "Datos actualizados del avistamiento") @RequestBody AvistamientoRequest request,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado) {
+        List<String> fotosNuevas = List.of();
         try {
             Avistamiento avistamiento = avistamientoService.obtenerAvistamiento(id);
             if (avistamiento == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Avistamiento no encontrado");
             }
-
-            // Actualizar usuario si viene en el request
-            if (request.getUsuarioId() != null) {
+            if (!autenticado.puedeModificar(avistamiento.getUsuario())) {
+                return sinPermisos();
+            }
+            // Versión que leyó el cliente: si otro lo modificó después, el merge falla con 409
+            if (request.getVersion() != null) avistamiento.setVersion(request.getVersion());
+
+            // Actualizar usuario si viene en el request (solo un administrador puede reasignarlo)
+            if (request.getUsuarioId() != null
+                    && (avistamiento.getUsuario() == null || request.getUsuarioId() != avistamiento.getUsuario().getId())) {
+                if (!autenticado.esAdministrador()) {
+                    return sinPermisos();
+                }
                 Usuario usuario = usuarioService.obtenerUsuario(request.getUsuarioId());
                 if (usuario == null) {
                     return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -205,33 +245,81 @@ public class AvistamientoController {
                 avistamiento.setDescripcion(request.getDescripcion());
             }
 
-            // Actualizar fotos si vienen
+            // Actualizar fotos si vienen; las anteriores se eliminan recién cuando se guardó el avistamiento
+            List<String> fotosAnteriores = avistamiento.getFotos();
             if (request.getFotosBase64() != null && !request.getFotosBase64().isEmpty()) {
-                // Eliminar fotos antiguas
-                if (avistamiento.getFotos() != null && !avistamiento.getFotos().isEmpty()) {
-                    try {
-                        List<String> oldUrls = objectMapper.readValue(avistamiento.getFotos(), new TypeReference<List<String>>() {});
-                        fileStorageService.deleteFiles(oldUrls);
-                    } catch (Exception e) {
-                        // Log error pero continuar
-                        System.err.println("Error eliminando fotos antiguas: " + e.getMessage());
-                    }
+                fotosNuevas = fileStorageService.saveImagesFromBase64(request.getFotosBase64());
+                avistamiento.setFotos(fotosNuevas);
+            }
+
+            Avistamiento actualizado = avistamientoService.actualizarAvistamiento(avistamiento);
+            if (!fotosNuevas.isEmpty() && fotosAnteriores != null && !fotosAnteriores.isEmpty()) {
+                try {
+                    fileStorageService.deleteFiles(fotosAnteriores);
+                } catch (Exception e) {
+                    log.warn("Error eliminando fotos antiguas", e);
                 }
+            }
+            return ResponseEntity.ok(new AvistamientoResponse(actualizado));
+        } catch (OptimisticLockingFailureException e) {
+            descartarFotos(fotosNuevas);
+            return conflicto();
+        } catch (Exception e) {
+            descartarFotos(fotosNuevas);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error al actualizar avistamiento: " + e.getMessage());
+        }
+    }
 
-                // Guardar nuevas fotos
-                List<String> fotosUrls = fileStorageService.saveImagesFromBase64(
-                    request.getFotosBase64(),
-                    "avistamiento_" + id + "_" + System.currentTimeMillis()
-                );
-                String fotosJson = objectMapper.writeValueAsString(fotosUrls);
-                avistamiento.setFotos(fotosJson);
+    @PostMapping(value = "/{id}/fotos", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Subir fotos de un avistamiento",
+            description = "Agrega fotos al avistamiento enviándolas como multipart/form-data (campo fotos). " +
+                    "Los archivos se escriben a disco por stream, sin cargarlos completos en memoria")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Fotos agregadas exitosamente",
+                    content = @Content(schema = @Schema(implementation = AvistamientoResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Tipo de archivo no soportado"),
+            @ApiResponse(responseCode = "401", description = "Token ausente o inválido"),
+            @ApiResponse(responseCode = "403", description = "El avistamiento pertenece a otro usuario"),
+            @ApiResponse(responseCode = "404", description = "Avistamiento no encontrado"),
+            @ApiResponse(responseCode = "409", description = "El avistamiento fue modificado por otro usuario"),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    public ResponseEntity<?> subirFotos(
+            @Parameter(description = "ID del avistamiento") @PathVariable Long id,
+            @Parameter(description = "Imágenes (jpeg, png, gif o webp)") @RequestParam("fotos") List<MultipartFile> fotos,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado) {
+        List<String> fotosUrls = List.of();
+        try {
+            Avistamiento avistamiento = avistamientoService.obtenerAvistamiento(id);
+            if (avistamiento == null || !avistamiento.isActivo()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("Avistamiento no encontrado");
+            }
+            if (!autenticado.puedeModificar(avistamiento.getUsuario())) {
+                return sinPermisos();
+            }
+
+            fotosUrls = fileStorageService.saveImages(fotos);
+            List<String> todas = new ArrayList<>();
+            if (avistamiento.getFotos() != null) {
+                todas.addAll(avistamiento.getFotos());
             }
+            todas.addAll(fotosUrls);
+            avistamiento.setFotos(todas);
 
             Avistamiento actualizado = avistamientoService.actualizarAvistamiento(avistamiento);
             return ResponseEntity.ok(new AvistamientoResponse(actualizado));
+        } catch (OptimisticLockingFailureException e) {
+            descartarFotos(fotosUrls);
+            return conflicto();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Valor invalido: " + e.getMessage());
         } catch (Exception e) {
+            descartarFotos(fotosUrls);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error al actualizar avistamiento: " + e.getMessage());
+                    .body("Error al subir fotos: " + e.getMessage());
         }
     }
 
@@ -240,30 +328,39 @@ public class AvistamientoController {
             description = "Realiza un borrado lógico del avistamiento (marca como inactivo)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Avistamiento eliminado exitosamente"),
+            @ApiResponse(responseCode = "401", description = "Token ausente o inválido"),
+            @ApiResponse(responseCode = "403", description = "El avistamiento pertenece a otro usuario"),
             @ApiResponse(responseCode = "404", description = "Avistamiento no encontrado"),
+            @ApiResponse(responseCode = "409", description = "El avistamiento fue modificado por otro usuario"),
             @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     public ResponseEntity<?> eliminarAvistamiento(
-            @Parameter(description = "ID del avistamiento") @PathVariable Long id) {
+            @Parameter(description = "ID del avistamiento") @PathVariable Long id,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado) {
         try {
             Avistamiento avistamiento = avistamientoService.obtenerAvistamiento(id);
-            if (avistamiento == null) {
+            // Un avistamiento ya eliminado no vuelve a liberar las referencias de sus fotos
+            if (avistamiento == null || !avistamiento.isActivo()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Avistamiento no encontrado");
             }
+            if (!autenticado.puedeModificar(avistamiento.getUsuario())) {
+                return sinPermisos();
+            }
+
+            avistamientoService.eliminarAvistamiento(id);
 
-            // Eliminar archivos de fotos
+            // Las fotos se liberan solo si el borrado se guardó: con 409 el avistamiento las sigue usando
             if (avistamiento.getFotos() != null && !avistamiento.getFotos().isEmpty()) {
                 try {
-                    List<String> fotosUrls = objectMapper.readValue(avistamiento.getFotos(), new TypeReference<List<String>>() {});
-                    fileStorageService.deleteFiles(fotosUrls);
+                    fileStorageService.deleteFiles(avistamiento.getFotos());
                 } catch (Exception e) {
-                    System.err.println("Error eliminando fotos: " + e.getMessage());
+                    log.warn("Error eliminando fotos", e);
                 }
             }
-
-            avistamientoService.eliminarAvistamiento(id);
             return ResponseEntity.ok("Avistamiento eliminado exitosamente");
+        } catch (OptimisticLockingFailureException e) {
+            return conflicto();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error al eliminar avistamiento: " + e.getMessage());
@@ -272,14 +369,22 @@ public class AvistamientoController {
 
     @GetMapping("/mascota/{mascotaId}")
     @Operation(summary = "Obtener avistamientos por mascota",
-            description = "Retorna todos los avistamientos reportados para una mascota específica")
+            description = "Retorna una página de los avistamientos activos reportados para una mascota específica, " +
+                    "del más reciente al más antiguo. Para obtener la página siguiente se envían siguienteFecha y " +
+                    "siguienteId como despuesDeFecha y despuesDeId")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de avistamientos obtenida exitosamente"),
+            @ApiResponse(responseCode = "200", description = "Página de avistamientos obtenida exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Parámetros de paginación inválidos"),
             @ApiResponse(responseCode = "404", description = "Mascota no encontrada"),
             @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     public ResponseEntity<?> obtenerAvistamientosPorMascota(
-            @Parameter(description = "ID de la mascota") @PathVariable Long mascotaId) {
+            @Parameter(description = "ID de la mascota") @PathVariable Long mascotaId,
+            @Parameter(description = "Cursor: fecha del último avistamiento de la página anterior")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate despuesDeFecha,
+            @Parameter(description = "Cursor: id del último avistamiento de la página anterior")
+            @RequestParam(required = false) Integer despuesDeId,
+            @Parameter(description = "Cantidad de resultados por página") @RequestParam(defaultValue = "20") int limite) {
         try {
             Mascota mascota = mascotaService.obtenerMascota(mascotaId);
             if (mascota == null) {
@@ -287,19 +392,34 @@ public class AvistamientoController {
                         .body("Mascota no encontrada");
             }
 
-            List<Avistamiento> avistamientos = avistamientoService.obtenerTodosLosAvistamientos()
-                    .stream()
-                    .filter(a -> a.getMascota() != null && a.getMascota().getId() == mascotaId.intValue())
-                    .toList();
-
-            List<AvistamientoResponse> response = avistamientos.stream()
-                    .map(AvistamientoResponse::new)
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(response);
+            PaginaResponse<AvistamientoResponse> pagina = avistamientoService.obtenerAvistamientosPorMascota(
+                    mascotaId, despuesDeFecha, despuesDeId, limite);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Valor invalido: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error al obtener avistamientos: " + e.getMessage());
         }
     }
+
+    private static ResponseEntity<String> sinPermisos() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body("No tiene permisos para modificar este avistamiento");
+    }
+
+    private static ResponseEntity<String> conflicto() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("El avistamiento fue modificado por otro usuario, vuelva a cargarlo");
+    }
+
+    private void descartarFotos(List<String> fotosUrls) {
+        try {
+            fileStorageService.deleteFiles(fotosUrls);
+        } catch (Exception e) {
+            // Se informa el error original
+            log.warn("Error descartando fotos {}", fotosUrls, e);
+        }
+    }
 }
@@ -7,9 +7,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ttps.spring.dto.DesgloseEstadisticas;
+import ttps.spring.dto.EstadisticasResponse;
 import ttps.spring.services.HomeService;
 
-import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/home")
@@ -26,12 +28,16 @@ public class HomeController {
 
     @GetMapping("/estadisticas")
     @Operation(summary = "Obtener estadísticas del home",
-               description = "Retorna las estadísticas principales: mascotas perdidas, recuperadas, adoptadas y seguimientos pendientes")
+               description = "Retorna las estadísticas principales: mascotas perdidas, recuperadas, adoptadas, seguimientos pendientes " +
+                             "y la cantidad de mascotas por estado. Con el parámetro desglose (TIPO, PROVINCIA, MES) agrega " +
+                             "los conteos por estado de cada dimensión, resueltos en una única consulta")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Estadísticas obtenidas exitosamente")
+        @ApiResponse(responseCode = "200", description = "Estadísticas obtenidas exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Desglose inválido")
     })
-    public ResponseEntity<Map<String, Integer>> obtenerEstadisticas() {
-        Map<String, Integer> estadisticas = homeService.obtenerEstadisticas();
+    public ResponseEntity<EstadisticasResponse> obtenerEstadisticas(
+            @RequestParam(required = false) Set<DesgloseEstadisticas> desglose) {
+        EstadisticasResponse estadisticas = homeService.obtenerEstadisticas(desglose);
         return ResponseEntity.ok(estadisticas);
     }
 
@@ -1,7 +1,5 @@
 package ttps.spring.controllers;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,11 +7,21 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import ttps.spring.config.UsuarioAutenticado;
+import ttps.spring.dto.FiltroMascotas;
 import ttps.spring.dto.MascotaRequest;
+import ttps.spring.dto.MascotaResumen;
+import ttps.spring.dto.PaginaResponse;
 import ttps.spring.models.Avistamiento;
 import ttps.spring.models.Estado;
 import ttps.spring.models.Mascota;
@@ -25,6 +33,7 @@ import ttps.spring.services.MascotaService;
 import ttps.spring.services.UsuarioService;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -32,21 +41,20 @@ import java.util.List;
 @Tag(name = "Mascotas", description = "API para la gestión de mascotas perdidas y encontradas")
 public class MascotaController {
 
+    private static final Logger log = LoggerFactory.getLogger(MascotaController.class);
+
     private final MascotaService mascotaService;
     private final UsuarioService usuarioService;
     private final AvistamientoService avistamientoService;
     private final FileStorageService fileStorageService;
-    private final ObjectMapper objectMapper;
 
     @Autowired
     public MascotaController(MascotaService mascotaService, UsuarioService usuarioService,
-                            AvistamientoService avistamientoService, FileStorageService fileStorageService,
-                            ObjectMapper objectMapper) {
+                            AvistamientoService avistamientoService, FileStorageService fileStorageService) {
         this.mascotaService = mascotaService;
         this.usuarioService = usuarioService;
         this.avistamientoService = avistamientoService;
         this.fileStorageService = fileStorageService;
-        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/usuario/{usuarioId}")
@@ -56,18 +64,26 @@ public class MascotaController {
         @ApiResponse(responseCode = "201", description = "Mascota creada exitosamente",
                      content = @Content(schema = @Schema(implementation = Mascota.class))),
         @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+        @ApiResponse(responseCode = "401", description = "Token ausente o inválido"),
+        @ApiResponse(responseCode = "403", description = "Sin permisos para crear mascotas de otro usuario"),
         @ApiResponse(responseCode = "404", description = "Usuario no encontrado"),
         @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     public ResponseEntity<?> crearMascota(
             @Parameter(description = "ID del usuario propietario") @PathVariable int usuarioId,
-            @Parameter(description = "Datos de la mascota a crear") @RequestBody MascotaRequest request) {
+            @Parameter(description = "Datos de la mascota a crear") @RequestBody MascotaRequest request,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado) {
+        List<String> fotosUrls = List.of();
         try {
-            Usuario usuario = usuarioService.obtenerUsuario((long) usuarioId);
-            if (usuario == null) {
+            if (!autenticado.puedeModificar(usuarioId)) {
+                return sinPermisos();
+            }
+            // El propio usuario ya fue verificado al resolver el token; solo se busca si un administrador crea para otro
+            if (autenticado.id() != usuarioId && !usuarioService.existeUsuario((long) usuarioId)) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Usuario no encontrado");
             }
+            Usuario usuario = usuarioService.obtenerReferencia((long) usuarioId);
 
             Mascota mascota = new Mascota();
             mascota.setNombre(request.getNombre());
@@ -86,20 +102,18 @@ public class MascotaController {
 
             // Guardar fotos como archivos y almacenar las URLs
             if (request.getFotosBase64() != null && !request.getFotosBase64().isEmpty()) {
-                List<String> fotosUrls = fileStorageService.saveImagesFromBase64(
-                    request.getFotosBase64(),
-                    "mascota_" + System.currentTimeMillis()
-                );
-                String fotosJson = objectMapper.writeValueAsString(fotosUrls);
-                mascota.setFotos(fotosJson);
+                fotosUrls = fileStorageService.saveImagesFromBase64(request.getFotosBase64());
+                mascota.setFotos(fotosUrls);
             }
 
             Mascota creada = mascotaService.crearMascota(mascota);
             return ResponseEntity.status(HttpStatus.CREATED).body(creada);
         } catch (IllegalArgumentException e) {
+            descartarFotos(fotosUrls);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body("Valor invalido: " + e.getMessage());
         } catch (Exception e) {
+            descartarFotos(fotosUrls);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error al crear mascota: " + e.getMessage());
         }
@@ -129,9 +143,9 @@ public class MascotaController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lista de mascotas obtenida exitosamente")
     })
-    public ResponseEntity<List<Mascota>> obtenerMascotasUsuario(
+    public ResponseEntity<List<MascotaResumen>> obtenerMascotasUsuario(
             @Parameter(description = "ID del usuario") @PathVariable int usuarioId) {
-        List<Mascota> mascotas = mascotaService.obtenerMascotasPorUsuario((long) usuarioId);
+        List<MascotaResumen> mascotas = mascotaService.obtenerMascotasPorUsuario((long) usuarioId);
         return ResponseEntity.ok(mascotas);
     }
 
@@ -141,11 +155,50 @@ public class MascotaController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lista de mascotas perdidas obtenida exitosamente")
     })
-    public ResponseEntity<List<Mascota>> obtenerMascotasPerdidas() {
-        List<Mascota> perdidas = mascotaService.obtenerMascotasPerdidas();
+    public ResponseEntity<List<MascotaResumen>> obtenerMascotasPerdidas() {
+        List<MascotaResumen> perdidas = mascotaService.obtenerMascotasPerdidas();
         return ResponseEntity.ok(perdidas);
     }
 
+    @GetMapping("/buscar")
+    @Operation(summary = "Buscar mascotas con filtros y paginación",
+               description = "Retorna una página de mascotas (por defecto perdidas) filtradas y ordenadas por fecha e id. " +
+                             "Para obtener la página siguiente se envían siguienteFecha y siguienteId como despuesDeFecha y despuesDeId")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página de mascotas obtenida exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Parámetros de búsqueda inválidos")
+    })
+    public ResponseEntity<?> buscarMascotas(@ParameterObject FiltroMascotas filtro) {
+        try {
+            PaginaResponse<MascotaResumen> pagina = mascotaService.buscarMascotas(filtro);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Valor invalido: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/cercanas")
+    @Operation(summary = "Obtener mascotas perdidas cercanas",
+               description = "Retorna las mascotas perdidas dentro de un radio (en km) alrededor de un punto, ordenadas por distancia")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista de mascotas cercanas obtenida exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Parámetros de búsqueda inválidos")
+    })
+    public ResponseEntity<?> obtenerMascotasCercanas(
+            @Parameter(description = "Latitud del centro de búsqueda") @RequestParam double lat,
+            @Parameter(description = "Longitud del centro de búsqueda") @RequestParam double lng,
+            @Parameter(description = "Radio de búsqueda en kilómetros") @RequestParam(defaultValue = "2") double radio,
+            @Parameter(description = "Cantidad máxima de resultados") @RequestParam(defaultValue = "50") int limite) {
+        try {
+            List<Mascota> cercanas = mascotaService.obtenerMascotasCercanas(lat, lng, radio, limite);
+            return ResponseEntity.ok(cercanas);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Valor invalido: " + e.getMessage());
+        }
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Actualizar mascota",
                description = "Actualiza la información de una mascota existente")
@@ -153,18 +206,28 @@ public class MascotaController {
         @ApiResponse(responseCode = "200", description = "Mascota actualizada exitosamente",
                      content = @Content(schema = @Schema(implementation = Mascota.class))),
         @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+        @ApiResponse(responseCode = "401", description = "Token ausente o inválido"),
+        @ApiResponse(responseCode = "403", description = "La mascota pertenece a otro usuario"),
         @ApiResponse(responseCode = "404", description = "Mascota no encontrada"),
+        @ApiResponse(responseCode = "409", description = "La mascota fue modificada por otro usuario"),
         @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     public ResponseEntity<?> editarMascota(
             @Parameter(description = "ID de la mascota") @PathVariable int id,
-            @Parameter(description = "Datos actualizados de la mascota") @RequestBody MascotaRequest request) {
+            @Parameter(description = "Datos actualizados de la mascota") @RequestBody MascotaRequest request,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado) {
+        List<String> fotosNuevas = List.of();
         try {
             Mascota mascota = mascotaService.obtenerMascota((long) id);
             if (mascota == null || !mascota.isActivo()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Mascota no encontrada");
             }
+            if (!autenticado.puedeModificar(mascota.getUsuario())) {
+                return sinPermisos();
+            }
+            // Versión que leyó el cliente: si otro la modificó después, el merge falla con 409
+            if (request.getVersion() != null) mascota.setVersion(request.getVersion());
 
             if (request.getNombre() != null) mascota.setNombre(request.getNombre());
             if (request.getTamanio() != null) {
@@ -180,36 +243,85 @@ public class MascotaController {
             if (request.getTipo() != null) mascota.setTipo(request.getTipo());
             if (request.getRaza() != null) mascota.setRaza(request.getRaza());
 
-            // Actualizar fotos si vienen
+            // Actualizar fotos si vienen; las anteriores se eliminan recién cuando se guardó la mascota
+            List<String> fotosAnteriores = mascota.getFotos();
             if (request.getFotosBase64() != null && !request.getFotosBase64().isEmpty()) {
-                // Eliminar fotos antiguas
-                if (mascota.getFotos() != null && !mascota.getFotos().isEmpty()) {
-                    try {
-                        List<String> oldUrls = objectMapper.readValue(mascota.getFotos(), new TypeReference<List<String>>() {});
-                        fileStorageService.deleteFiles(oldUrls);
-                    } catch (Exception e) {
-                        // Log error pero continuar
-                        System.err.println("Error eliminando fotos antiguas: " + e.getMessage());
-                    }
+                fotosNuevas = fileStorageService.saveImagesFromBase64(request.getFotosBase64());
+                mascota.setFotos(fotosNuevas);
+            }
+
+            Mascota actualizada = mascotaService.actualizarMascota(mascota);
+            if (!fotosNuevas.isEmpty() && fotosAnteriores != null && !fotosAnteriores.isEmpty()) {
+                try {
+                    fileStorageService.deleteFiles(fotosAnteriores);
+                } catch (Exception e) {
+                    log.warn("Error eliminando fotos antiguas", e);
                 }
+            }
+            return ResponseEntity.ok(actualizada);
+        } catch (OptimisticLockingFailureException e) {
+            descartarFotos(fotosNuevas);
+            return conflicto();
+        } catch (IllegalArgumentException e) {
+            descartarFotos(fotosNuevas);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Valor invalido: " + e.getMessage());
+        } catch (Exception e) {
+            descartarFotos(fotosNuevas);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error al actualizar mascota: " + e.getMessage());
+        }
+    }
 
-                // Guardar nuevas fotos
-                List<String> fotosUrls = fileStorageService.saveImagesFromBase64(
-                    request.getFotosBase64(),
-                    "mascota_" + mascota.getId() + "_" + System.currentTimeMillis()
-                );
-                String fotosJson = objectMapper.writeValueAsString(fotosUrls);
-                mascota.setFotos(fotosJson);
+    @PostMapping(value = "/{id}/fotos", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Subir fotos de una mascota",
+               description = "Agrega fotos a la mascota enviándolas como multipart/form-data (campo fotos). " +
+                             "Los archivos se escriben a disco por stream, sin cargarlos completos en memoria")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Fotos agregadas exitosamente",
+                     content = @Content(schema = @Schema(implementation = Mascota.class))),
+        @ApiResponse(responseCode = "400", description = "Tipo de archivo no soportado"),
+        @ApiResponse(responseCode = "401", description = "Token ausente o inválido"),
+        @ApiResponse(responseCode = "403", description = "La mascota pertenece a otro usuario"),
+        @ApiResponse(responseCode = "404", description = "Mascota no encontrada"),
+        @ApiResponse(responseCode = "409", description = "La mascota fue modificada por otro usuario"),
+        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    public ResponseEntity<?> subirFotos(
+            @Parameter(description = "ID de la mascota") @PathVariable int id,
+            @Parameter(description = "Imágenes (jpeg, png, gif o webp)") @RequestParam("fotos") List<MultipartFile> fotos,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado) {
+        List<String> fotosUrls = List.of();
+        try {
+            Mascota mascota = mascotaService.obtenerMascota((long) id);
+            if (mascota == null || !mascota.isActivo()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("Mascota no encontrada");
+            }
+            if (!autenticado.puedeModificar(mascota.getUsuario())) {
+                return sinPermisos();
+            }
+
+            fotosUrls = fileStorageService.saveImages(fotos);
+            List<String> todas = new ArrayList<>();
+            if (mascota.getFotos() != null) {
+                todas.addAll(mascota.getFotos());
             }
+            todas.addAll(fotosUrls);
+            mascota.setFotos(todas);
 
             Mascota actualizada = mascotaService.actualizarMascota(mascota);
             return ResponseEntity.ok(actualizada);
+        } catch (OptimisticLockingFailureException e) {
+            descartarFotos(fotosUrls);
+            return conflicto();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body("Valor invalido: " + e.getMessage());
         } catch (Exception e) {
+            descartarFotos(fotosUrls);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error al actualizar mascota: " + e.getMessage());
+                    .body("Error al subir fotos: " + e.getMessage());
         }
     }
 
@@ -218,35 +330,63 @@ public class MascotaController {
                description = "Realiza un borrado lógico de la mascota (marca como inactiva)")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Mascota eliminada exitosamente"),
+        @ApiResponse(responseCode = "401", description = "Token ausente o inválido"),
+        @ApiResponse(responseCode = "403", description = "La mascota pertenece a otro usuario"),
         @ApiResponse(responseCode = "404", description = "Mascota no encontrada"),
+        @ApiResponse(responseCode = "409", description = "La mascota fue modificada por otro usuario"),
         @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     public ResponseEntity<?> eliminarMascota(
-            @Parameter(description = "ID de la mascota") @PathVariable int id) {
+            @Parameter(description = "ID de la mascota") @PathVariable int id,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado) {
         try {
             Mascota mascota = mascotaService.obtenerMascota((long) id);
-            if (mascota == null) {
+            // Una mascota ya eliminada no vuelve a liberar las referencias de sus fotos
+            if (mascota == null || !mascota.isActivo()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Mascota no encontrada");
             }
+            if (!autenticado.puedeModificar(mascota.getUsuario())) {
+                return sinPermisos();
+            }
+
+            // Borrado logico
+            mascota.setActivo(false);
+            Mascota mascotaEliminada = mascotaService.actualizarMascota(mascota);
 
-            // Eliminar archivos de fotos
+            // Las fotos se liberan solo si el borrado se guardó: con 409 la mascota las sigue usando
             if (mascota.getFotos() != null && !mascota.getFotos().isEmpty()) {
                 try {
-                    List<String> fotosUrls = objectMapper.readValue(mascota.getFotos(), new TypeReference<List<String>>() {});
-                    fileStorageService.deleteFiles(fotosUrls);
+                    fileStorageService.deleteFiles(mascota.getFotos());
                 } catch (Exception e) {
-                    System.err.println("Error eliminando fotos: " + e.getMessage());
+                    log.warn("Error eliminando fotos", e);
                 }
             }
-
-            // Borrado logico
-            mascota.setActivo(false);
-            Mascota mascotaEliminada = mascotaService.actualizarMascota(mascota);
             return ResponseEntity.ok(mascotaEliminada);
+        } catch (OptimisticLockingFailureException e) {
+            return conflicto();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error al eliminar mascota: " + e.getMessage());
         }
     }
+
+    private static ResponseEntity<String> sinPermisos() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body("No tiene permisos para modificar esta mascota");
+    }
+
+    private static ResponseEntity<String> conflicto() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("La mascota fue modificada por otro usuario, vuelva a cargarla");
+    }
+
+    private void descartarFotos(List<String> fotosUrls) {
+        try {
+            fileStorageService.deleteFiles(fotosUrls);
+        } catch (Exception e) {
+            // Se informa el error original
+            log.warn("Error descartando fotos {}", fotosUrls, e);
+        }
+    }
 }
@@ -0,0 +1,221 @@
+package ttps.spring.controllers;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+import ttps.spring.almacenamiento.InfoBlob;
+import ttps.spring.services.FileStorageService;
+import ttps.utils.RangoBytes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Sirve las fotos de /uploads. Los nombres son el hash del contenido, así que las respuestas
+ * se cachean como inmutables y se validan con un ETag fuerte (304 sin leer el archivo).
+ * Soporta un rango de bytes por solicitud (206) y, con el almacén local y Tomcat, delega la
+ * transferencia al sendfile del conector para no ocupar el hilo del servlet mientras se envía
+ */
+@RestController
+@RequestMapping("/uploads")
+@Tag(name = "Uploads", description = "Fotos de mascotas y avistamientos")
+public class UploadsController {
+
+    // Atributos de Tomcat para enviar el archivo con sendfile (el fin es exclusivo)
+    private static final String SENDFILE_SOPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARCHIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIN = "org.apache.tomcat.sendfile.end";
+
+    // El navegador respeta el Content-Type declarado en lugar de adivinarlo por el contenido
+    private static final String X_CONTENT_TYPE_OPTIONS = "X-Content-Type-Options";
+
+    private static final Pattern NOMBRE_POR_CONTENIDO = Pattern.compile("[0-9a-f]{64}(_[a-z]+)?\\.[a-z0-9]+");
+
+    private static final String CACHE_INMUTABLE =
+            CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue();
+
+    private final FileStorageService fileStorageService;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public UploadsController(FileStorageService fileStorageService, MeterRegistry meterRegistry) {
+        this.fileStorageService = fileStorageService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @RequestMapping(value = "/{nombre:.+}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    @Operation(summary = "Obtener una foto",
+               description = "Retorna la foto con ETag y Cache-Control inmutable. Soporta GET condicional " +
+                             "(If-None-Match / If-Modified-Since) y un rango de bytes (Range)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Foto completa"),
+        @ApiResponse(responseCode = "206", description = "Rango de bytes solicitado"),
+        @ApiResponse(responseCode = "304", description = "La copia del cliente sigue vigente"),
+        @ApiResponse(responseCode = "404", description = "Foto no encontrada"),
+        @ApiResponse(responseCode = "416", description = "Rango no satisfacible")
+    })
+    public void obtenerArchivo(
+            @Parameter(description = "Nombre del archivo") @PathVariable String nombre,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(X_CONTENT_TYPE_OPTIONS, "nosniff");
+        InfoBlob info;
+        try {
+            info = fileStorageService.info(nombre);
+        } catch (IllegalArgumentException e) {
+            info = null;
+        }
+        if (info == null) {
+            responder(response, HttpServletResponse.SC_NOT_FOUND, 0);
+            return;
+        }
+
+        long tamanio = info.tamanio();
+        long ultimaModificacion = info.ultimaModificacion();
+        String etag = etagDe(nombre, tamanio, ultimaModificacion);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_INMUTABLE);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, ultimaModificacion);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (noModificado(request, etag, ultimaModificacion)) {
+            responder(response, HttpServletResponse.SC_NOT_MODIFIED, 0);
+            return;
+        }
+
+        RangoBytes rango;
+        try {
+            rango = rangoSolicitado(request, etag, tamanio);
+        } catch (IllegalArgumentException e) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + tamanio);
+            responder(response, HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, 0);
+            return;
+        }
+        int estado = HttpServletResponse.SC_OK;
+        if (rango != null) {
+            estado = HttpServletResponse.SC_PARTIAL_CONTENT;
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + rango.inicio() + "-" + rango.fin() + "/" + tamanio);
+        } else {
+            rango = new RangoBytes(0, tamanio - 1);
+        }
+
+        response.setStatus(estado);
+        response.setContentType(FileStorageService.tipoDeContenido(nombre));
+        response.setContentLengthLong(rango.longitud());
+        if (RequestMethod.HEAD.name().equals(request.getMethod()) || rango.longitud() == 0) {
+            registrar(estado, 0);
+            return;
+        }
+        enviar(request, response, nombre, rango);
+        registrar(estado, rango.longitud());
+    }
+
+    private void enviar(HttpServletRequest request, HttpServletResponse response, String nombre, RangoBytes rango)
+            throws IOException {
+        Path archivo = fileStorageService.rutaLocal(nombre);
+        if (archivo == null) {
+            // Almacén remoto: se pide solo el rango y se copia a la respuesta por bloques
+            try (InputStream entrada = fileStorageService.abrir(nombre, rango.inicio(), rango.longitud())) {
+                entrada.transferTo(response.getOutputStream());
+            }
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SOPORTADO))) {
+            // El conector envía el archivo directamente del disco al socket cuando termina la solicitud
+            request.setAttribute(SENDFILE_ARCHIVO, archivo.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_INICIO, rango.inicio());
+            request.setAttribute(SENDFILE_FIN, rango.fin() + 1);
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            WritableByteChannel salida = Channels.newChannel(response.getOutputStream());
+            long posicion = rango.inicio();
+            long restantes = rango.longitud();
+            while (restantes > 0) {
+                long enviados = canal.transferTo(posicion, restantes, salida);
+                if (enviados <= 0) {
+                    break;
+                }
+                posicion += enviados;
+                restantes -= enviados;
+            }
+        }
+    }
+
+    private static String etagDe(String nombre, long tamanio, long ultimaModificacion) {
+        // El nombre de un archivo direccionado por contenido ya identifica sus bytes
+        if (NOMBRE_POR_CONTENIDO.matcher(nombre).matches()) {
+            return "\"" + nombre + "\"";
+        }
+        return "\"" + Long.toHexString(tamanio) + "-" + Long.toHexString(ultimaModificacion) + "\"";
+    }
+
+    private static boolean noModificado(HttpServletRequest request, String etag, long ultimaModificacion) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidato : ifNoneMatch.split(",")) {
+                String valor = candidato.trim();
+                if (valor.startsWith("W/")) {
+                    valor = valor.substring(2);
+                }
+                if (valor.equals("*") || valor.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = fechaHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && ultimaModificacion / 1000 <= ifModifiedSince / 1000;
+    }
+
+    private static RangoBytes rangoSolicitado(HttpServletRequest request, String etag, long tamanio) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range == null) {
+            return null;
+        }
+        // If-Range: si el cliente tiene otra versión se le envía el archivo completo
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.trim().equals(etag)) {
+            return null;
+        }
+        return RangoBytes.parsear(range, tamanio);
+    }
+
+    private static long fechaHeader(HttpServletRequest request, String header) {
+        try {
+            return request.getDateHeader(header);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private void responder(HttpServletResponse response, int estado, long bytes) {
+        response.setStatus(estado);
+        registrar(estado, bytes);
+    }
+
+    private void registrar(int estado, long bytes) {
+        meterRegistry.counter("uploads.solicitudes", "estado", String.valueOf(estado)).increment();
+        if (bytes > 0) {
+            meterRegistry.counter("uploads.bytes").increment(bytes);
+        }
+    }
+}
@@ -7,32 +7,61 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ttps.spring.config.UsuarioAutenticado;
 import ttps.spring.dto.ActualizarPerfilRequest;
 import ttps.spring.dto.LoginRequest;
 import ttps.spring.dto.LoginResponse;
 import ttps.spring.dto.RegistroUsuarioRequest;
 import ttps.spring.models.Usuario;
 import ttps.spring.models.UsuarioRegistrado;
+import ttps.spring.services.HashContraseniasService;
+import ttps.spring.services.LimiteIntentosService;
 import ttps.spring.services.UsuarioService;
-import ttps.utils.PasswordUtils;
 import ttps.utils.JwtUtils;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/usuarios")
 @Tag(name = "Usuarios", description = "API para la gestión de usuarios y autenticación")
 public class UsuarioController {
 
+    private static final Logger log = LoggerFactory.getLogger(UsuarioController.class);
+
     private final UsuarioService usuarioService;
     private final JwtUtils jwtUtils;
+    private final HashContraseniasService hashContraseniasService;
+    private final LimiteIntentosService limiteIntentosService;
+    private final Executor tareas;
 
+    /**
+     * Registro, login y cambio de contraseña responden de forma asíncrona: el hash corre en
+     * HashContraseniasService y el hilo de Tomcat queda libre mientras tanto. Lo que sigue al hash
+     * y accede a la base corre en el executor de tareas de Spring, no en el pool de hashing
+     */
     @Autowired
-    public UsuarioController(UsuarioService usuarioService, JwtUtils jwtUtils) {
+    public UsuarioController(UsuarioService usuarioService, JwtUtils jwtUtils,
+                             HashContraseniasService hashContraseniasService,
+                             LimiteIntentosService limiteIntentosService,
+                             @Qualifier("applicationTaskExecutor") Executor tareas) {
         this.usuarioService = usuarioService;
         this.jwtUtils = jwtUtils;
+        this.hashContraseniasService = hashContraseniasService;
+        this.limiteIntentosService = limiteIntentosService;
+        this.tareas = tareas;
     }
 
     @PostMapping("/registro")
@@ -42,23 +71,30 @@ public class UsuarioController {
             @ApiResponse(responseCode = "201", description = "Usuario registrado exitosamente",
                     content = @Content(schema = @Schema(implementation = Usuario.class))),
             @ApiResponse(responseCode = "409", description = "El email ya está registrado"),
-            @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+            @ApiResponse(responseCode = "429", description = "Demasiados intentos desde la misma IP"),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor"),
+            @ApiResponse(responseCode = "503", description = "Servicio saturado, reintentar luego")
     })
-    public ResponseEntity<?> registrarUsuario(
-            @Parameter(description = "Datos del nuevo usuario") @RequestBody RegistroUsuarioRequest request) {
+    public CompletableFuture<ResponseEntity<?>> registrarUsuario(
+            @Parameter(description = "Datos del nuevo usuario") @RequestBody RegistroUsuarioRequest request,
+            HttpServletRequest httpRequest) {
+        long espera = limiteIntentosService.intentoDesdeIp(httpRequest.getRemoteAddr());
+        if (espera > 0) {
+            return CompletableFuture.completedFuture(demasiadosIntentos(espera));
+        }
         try {
             // Validar que el email no exista
             Usuario existente = usuarioService.obtenerUsuarioPorEmail(request.getEmail());
             if (existente != null) {
-                return ResponseEntity.status(HttpStatus.CONFLICT)
-                        .body("El email ya esta registrado");
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("El email ya esta registrado"));
             }
 
             // Validar que el nombre de usuario no exista
             Usuario existenteNombre = usuarioService.obtenerUsuarioPorNombreUsuario(request.getNombreUsuario());
             if (existenteNombre != null) {
-                return ResponseEntity.status(HttpStatus.CONFLICT)
-                        .body("El nombre de usuario ya esta registrado");
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("El nombre de usuario ya esta registrado"));
             }
 
             UsuarioRegistrado usuario = new UsuarioRegistrado();
@@ -66,7 +102,6 @@ public class UsuarioController {
             usuario.setNombre(request.getNombre());
             usuario.setApellido(request.getApellido());
             usuario.setEmail(request.getEmail());
-            usuario.setContrasenia(request.getPassword());
             usuario.setTelefono(request.getTelefono());
             usuario.setGenero(request.getGenero());
             usuario.setEdad(request.getEdad());
@@ -74,28 +109,38 @@ public class UsuarioController {
             usuario.setMunicipio(request.getMunicipio());
             usuario.setDepartamento(request.getDepartamento());
 
-            Usuario usuarioCreado = usuarioService.crearUsuario(usuario);
-
-            return ResponseEntity.status(HttpStatus.CREATED).body(usuarioCreado);
+            return hashContraseniasService.hashear(request.getPassword())
+                    .<ResponseEntity<?>>thenApplyAsync(hash -> {
+                        usuario.setContraseniaHasheada(hash);
+                        Usuario usuarioCreado = usuarioService.crearUsuario(usuario);
+                        return ResponseEntity.status(HttpStatus.CREATED).body(usuarioCreado);
+                    }, tareas)
+                    .exceptionally(e -> errorRegistro(causa(e)));
         } catch (Exception e) {
-            System.err.println("Error al registrar usuario: " + e.getMessage());
-            e.printStackTrace();
-
-            // Manejar error de constraint de unicidad (duplicate entry)
-            String errorMessage = e.getMessage();
-            if (errorMessage != null && errorMessage.contains("Duplicate entry")) {
-                if (errorMessage.contains("nombre_usuario") || errorMessage.contains("UK_puhr3k3l7bj71hb7hk7ktpxn0")) {
-                    return ResponseEntity.status(HttpStatus.CONFLICT)
-                            .body("El nombre de usuario ya esta registrado");
-                } else if (errorMessage.contains("email")) {
-                    return ResponseEntity.status(HttpStatus.CONFLICT)
-                            .body("El email ya esta registrado");
-                }
-            }
+            return CompletableFuture.completedFuture(errorRegistro(e));
+        }
+    }
 
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error al registrar usuario: " + e.getMessage());
+    private ResponseEntity<?> errorRegistro(Throwable e) {
+        if (e instanceof RejectedExecutionException) {
+            return servicioSaturado();
+        }
+        log.error("Error al registrar usuario", e);
+
+        // Manejar error de constraint de unicidad (duplicate entry)
+        String errorMessage = e.getMessage();
+        if (errorMessage != null && errorMessage.contains("Duplicate entry")) {
+            if (errorMessage.contains("nombre_usuario") || errorMessage.contains("UK_puhr3k3l7bj71hb7hk7ktpxn0")) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("El nombre de usuario ya esta registrado");
+            } else if (errorMessage.contains("email")) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("El email ya esta registrado");
+            }
         }
+
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error al registrar usuario: " + e.getMessage());
     }
 
     @PostMapping("/login")
@@ -105,43 +150,90 @@ public class UsuarioController {
             @ApiResponse(responseCode = "200", description = "Login exitoso",
                     content = @Content(schema = @Schema(implementation = LoginResponse.class))),
             @ApiResponse(responseCode = "401", description = "Credenciales inválidas"),
-            @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+            @ApiResponse(responseCode = "429", description = "Demasiados intentos desde la IP o para la cuenta"),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor"),
+            @ApiResponse(responseCode = "503", description = "Servicio saturado, reintentar luego")
     })
-    public ResponseEntity<?> login(
-            @Parameter(description = "Credenciales de login") @RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<?>> login(
+            @Parameter(description = "Credenciales de login") @RequestBody LoginRequest request,
+            HttpServletRequest httpRequest) {
+        long espera = limiteIntentosService.intentoDesdeIp(httpRequest.getRemoteAddr());
+        if (espera == 0) {
+            espera = limiteIntentosService.bloqueoCuenta(request.getEmail());
+        }
+        if (espera > 0) {
+            return CompletableFuture.completedFuture(demasiadosIntentos(espera));
+        }
         try {
             Usuario usuario = usuarioService.obtenerUsuarioPorEmail(request.getEmail());
 
             if (usuario == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Credenciales invalidas");
+                limiteIntentosService.loginFallido(request.getEmail());
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body("Credenciales invalidas"));
             }
 
-            if (!PasswordUtils.verifyPassword(request.getPassword(), usuario.getContrasenia())) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body("Credenciales invalidas");
-            }
+            return hashContraseniasService.verificar(request.getPassword(), usuario.getContrasenia())
+                    .<ResponseEntity<?>>thenApply(valida -> {
+                        if (!valida) {
+                            limiteIntentosService.loginFallido(request.getEmail());
+                            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                    .body("Credenciales invalidas");
+                        }
+                        limiteIntentosService.loginExitoso(request.getEmail());
+                        actualizarHashSiHaceFalta(usuario, request.getPassword());
 
-            // Generar token JWT
-            String token = jwtUtils.generateToken(usuario);
+                        // Generar token JWT
+                        String token = jwtUtils.generateToken(usuario);
 
-            String tipo = usuario.getClass().getSimpleName().toUpperCase();
-            LoginResponse response = new LoginResponse(
-                    usuario.getId(),
-                    usuario.getNombre(),
-                    usuario.getApellido(),
-                    usuario.getEmail(),
-                    tipo,
-                    token // Incluir el token en la respuesta
-            );
+                        String tipo = usuario.getClass().getSimpleName().toUpperCase();
+                        LoginResponse response = new LoginResponse(
+                                usuario.getId(),
+                                usuario.getNombre(),
+                                usuario.getApellido(),
+                                usuario.getEmail(),
+                                tipo,
+                                token // Incluir el token en la respuesta
+                        );
 
-            return ResponseEntity.ok(response);
+                        return ResponseEntity.ok(response);
+                    })
+                    .exceptionally(e -> errorLogin(causa(e)));
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error en login: " + e.getMessage());
+            return CompletableFuture.completedFuture(errorLogin(e));
         }
     }
 
+    /**
+     * Si el hash guardado usa parámetros anteriores, lo reemplaza en segundo plano por uno con los
+     * actuales (la contraseña en texto plano solo está disponible al iniciar sesión). No demora la
+     * respuesta: si el pool está saturado se omite y se reintenta en el próximo login
+     */
+    private void actualizarHashSiHaceFalta(Usuario usuario, String contrasenia) {
+        String anterior = usuario.getContrasenia();
+        if (!hashContraseniasService.necesitaRehash(anterior)) {
+            return;
+        }
+        try {
+            hashContraseniasService.hashear(contrasenia)
+                    .thenAcceptAsync(nuevo -> usuarioService.actualizarHashContrasenia(usuario.getId(), anterior, nuevo), tareas)
+                    .exceptionally(e -> {
+                        log.warn("Error actualizando el hash de la contraseña del usuario {}", usuario.getId(), causa(e));
+                        return null;
+                    });
+        } catch (RejectedExecutionException e) {
+            // Se reintenta en el próximo login
+        }
+    }
+
+    private ResponseEntity<?> errorLogin(Throwable e) {
+        if (e instanceof RejectedExecutionException) {
+            return servicioSaturado();
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error en login: " + e.getMessage());
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Obtener usuario por ID",
             description = "Retorna los detalles de un usuario específico")
@@ -167,64 +259,106 @@ public class UsuarioController {
             @ApiResponse(responseCode = "200", description = "Perfil actualizado exitosamente",
                     content = @Content(schema = @Schema(implementation = Usuario.class))),
             @ApiResponse(responseCode = "401", description = "Contraseña actual incorrecta"),
+            @ApiResponse(responseCode = "403", description = "El perfil pertenece a otro usuario"),
             @ApiResponse(responseCode = "404", description = "Usuario no encontrado"),
-            @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+            @ApiResponse(responseCode = "409", description = "El perfil fue modificado por otro cliente"),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor"),
+            @ApiResponse(responseCode = "503", description = "Servicio saturado, reintentar luego")
     })
-    public ResponseEntity<?> editarPerfil(
+    public CompletableFuture<ResponseEntity<?>> editarPerfil(
             @Parameter(description = "ID del usuario") @PathVariable Long id,
-            @Parameter(description = "Datos actualizados del usuario") @RequestBody ActualizarPerfilRequest request) {
+            @Parameter(description = "Datos actualizados del usuario") @RequestBody ActualizarPerfilRequest request,
+            @Parameter(hidden = true) UsuarioAutenticado autenticado) {
         try {
+            // Solo el propio usuario o un administrador editan el perfil
+            if (!autenticado.puedeModificar(id)) {
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body("No tiene permisos para modificar este perfil"));
+            }
             Usuario usuario = usuarioService.obtenerUsuario(id);
             if (usuario == null) {
-                System.out.println("Usuario no encontrado: " + id);
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Usuario no encontrado");
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("Usuario no encontrado"));
             }
+            // Versión que leyó el cliente: si otro la modificó después, el merge falla con 409
+            if (request.getVersion() != null) usuario.setVersion(request.getVersion());
 
             // Si se está intentando cambiar la contraseña, validar la contraseña actual
             if (request.getPasswordNueva() != null && !request.getPasswordNueva().isEmpty()) {
-                System.out.println("Procesando cambio de contraseña...");
-
                 // Validar que se haya enviado la contraseña actual
                 if (request.getPasswordActual() == null || request.getPasswordActual().isEmpty()) {
-                    System.out.println("Error: No se proporcionó la contraseña actual");
-                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                            .body("Debe proporcionar la contraseña actual para cambiarla");
-                }
-
-                // Verificar que la contraseña actual sea correcta
-                if (!PasswordUtils.verifyPassword(request.getPasswordActual(), usuario.getContrasenia())) {
-                    System.out.println("Error: Contraseña actual incorrecta");
-                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                            .body("La contraseña actual es incorrecta");
+                    return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body("Debe proporcionar la contraseña actual para cambiarla"));
                 }
 
-                // Si la validación es correcta, actualizar la contraseña
-                usuario.setContrasenia(request.getPasswordNueva());
-                System.out.println("Contraseña validada y actualizada correctamente");
+                // Verificar que la contraseña actual sea correcta y hashear la nueva, fuera del hilo del request
+                return hashContraseniasService.verificar(request.getPasswordActual(), usuario.getContrasenia())
+                        .thenCompose(valida -> valida
+                                ? hashContraseniasService.hashear(request.getPasswordNueva())
+                                : CompletableFuture.completedFuture(null))
+                        .<ResponseEntity<?>>thenApplyAsync(hash -> {
+                            if (hash == null) {
+                                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                        .body("La contraseña actual es incorrecta");
+                            }
+                            // Si la validación es correcta, actualizar la contraseña
+                            usuario.setContraseniaHasheada(hash);
+                            return actualizarPerfil(id, usuario, request);
+                        }, tareas)
+                        .exceptionally(e -> errorPerfil(causa(e)));
             }
 
-            // Actualizar otros campos
-            usuario.setNombreUsuario(request.getNombreUsuario());
-            usuario.setNombre(request.getNombre());
-            usuario.setApellido(request.getApellido());
-            usuario.setEmail(request.getEmail());
-            usuario.setTelefono(request.getTelefono());
-            usuario.setGenero(request.getGenero());
-            usuario.setEdad(request.getEdad());
-            usuario.setProvincia(request.getProvincia());
-            usuario.setMunicipio(request.getMunicipio());
-            usuario.setDepartamento(request.getDepartamento());
+            return CompletableFuture.completedFuture(actualizarPerfil(id, usuario, request));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(errorPerfil(e));
+        }
+    }
 
-            Usuario actualizado = usuarioService.actualizarUsuario(usuario);
-            System.out.println("Perfil actualizado exitosamente para usuario: " + id);
+    private ResponseEntity<?> actualizarPerfil(Long id, Usuario usuario, ActualizarPerfilRequest request) {
+        // Actualizar otros campos
+        usuario.setNombreUsuario(request.getNombreUsuario());
+        usuario.setNombre(request.getNombre());
+        usuario.setApellido(request.getApellido());
+        usuario.setEmail(request.getEmail());
+        usuario.setTelefono(request.getTelefono());
+        usuario.setGenero(request.getGenero());
+        usuario.setEdad(request.getEdad());
+        usuario.setProvincia(request.getProvincia());
+        usuario.setMunicipio(request.getMunicipio());
+        usuario.setDepartamento(request.getDepartamento());
 
-            return ResponseEntity.ok(actualizado);
-        } catch (Exception e) {
-            System.err.println("Error al actualizar perfil: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error al actualizar perfil: " + e.getMessage());
+        Usuario actualizado = usuarioService.actualizarUsuario(usuario);
+
+        return ResponseEntity.ok(actualizado);
+    }
+
+    private ResponseEntity<?> errorPerfil(Throwable e) {
+        if (e instanceof RejectedExecutionException) {
+            return servicioSaturado();
         }
+        if (e instanceof OptimisticLockingFailureException) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("El perfil fue modificado por otro cliente, vuelva a cargarlo");
+        }
+        log.error("Error al actualizar perfil", e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error al actualizar perfil: " + e.getMessage());
+    }
+
+    private static ResponseEntity<?> demasiadosIntentos(long esperaMs) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf((esperaMs + 999) / 1000))
+                .body("Demasiados intentos, reintente más tarde");
+    }
+
+    private static ResponseEntity<?> servicioSaturado() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Servicio saturado, reintente en unos segundos");
+    }
+
+    // Las excepciones de las etapas asíncronas llegan envueltas en CompletionException
+    private static Throwable causa(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
 }
@@ -16,6 +16,9 @@ public class ActualizarPerfilRequest {
     private String passwordActual;
     private String passwordNueva;
 
+    // Versión del perfil que editó el cliente, para detectar ediciones concurrentes
+    private Long version;
+
     // Getters y Setters
     public String getNombreUsuario() { return nombreUsuario; }
     public void setNombreUsuario(String nombreUsuario) { this.nombreUsuario = nombreUsuario; }
@@ -52,5 +55,8 @@ public class ActualizarPerfilRequest {
 
     public String getPasswordNueva() { return passwordNueva; }
     public void setPasswordNueva(String passwordNueva) { this.passwordNueva = passwordNueva; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
 
@@ -21,6 +21,9 @@ public class AvistamientoRequest {
     @Schema(description = "Lista de fotos del avistamiento en formato base64")
     private List<String> fotosBase64;
 
+    @Schema(description = "Versión del avistamiento que editó el cliente; si cambió se responde 409", example = "3")
+    private Long version;
+
     // Getters y Setters
     public Long getMascotaId() { return mascotaId; }
     public void setMascotaId(Long mascotaId) { this.mascotaId = mascotaId; }
@@ -36,4 +39,7 @@ public class AvistamientoRequest {
 
     public List<String> getFotosBase64() { return fotosBase64; }
     public void setFotosBase64(List<String> fotosBase64) { this.fotosBase64 = fotosBase64; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
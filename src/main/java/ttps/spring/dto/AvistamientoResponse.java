@@ -2,8 +2,10 @@ package ttps.spring.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import ttps.spring.models.Avistamiento;
+import ttps.spring.models.Tamanio;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @Schema(description = "Respuesta con datos completos de un avistamiento")
 public class AvistamientoResponse {
@@ -20,12 +22,18 @@ public class AvistamientoResponse {
     @Schema(description = "Fecha del avistamiento")
     private LocalDate fecha;
 
-    @Schema(description = "URLs de las fotos en formato JSON")
-    private String fotos;
+    @Schema(description = "URLs de las fotos")
+    private List<String> fotos;
+
+    @Schema(description = "URLs de las miniaturas, en el mismo orden que fotos (null mientras se generan)")
+    private List<String> miniaturas;
 
     @Schema(description = "Estado activo del avistamiento")
     private boolean activo;
 
+    @Schema(description = "Versión del avistamiento; se envía al editarlo para detectar cambios concurrentes", example = "3")
+    private long version;
+
     @Schema(description = "Información de la mascota avistada")
     private MascotaInfo mascota;
 
@@ -40,7 +48,9 @@ public class AvistamientoResponse {
         this.descripcion = avistamiento.getDescripcion();
         this.fecha = avistamiento.getFecha();
         this.fotos = avistamiento.getFotos();
+        this.miniaturas = avistamiento.getMiniaturas();
         this.activo = avistamiento.isActivo();
+        this.version = avistamiento.getVersion();
         
         if (avistamiento.getMascota() != null) {
             this.mascota = new MascotaInfo(
@@ -63,6 +73,33 @@ public class AvistamientoResponse {
         }
     }
 
+    /**
+     * Constructor plano para proyecciones JPQL (SELECT new ...): recibe solo las columnas
+     * que muestra el listado, sin pasar por las entidades
+     */
+    public AvistamientoResponse(int id, String coordenada, String descripcion, LocalDate fecha, List<String> fotos,
+                                List<String> miniaturas, boolean activo, long version, Integer mascotaId, String mascotaNombre, String mascotaTipo,
+                                String mascotaRaza, String mascotaColor, Tamanio mascotaTamanio, List<String> mascotaFotos,
+                                Long usuarioId, String usuarioNombre, String usuarioEmail) {
+        this.id = id;
+        this.coordenada = coordenada;
+        this.descripcion = descripcion;
+        this.fecha = fecha;
+        this.fotos = fotos;
+        this.miniaturas = miniaturas;
+        this.activo = activo;
+        this.version = version;
+
+        if (mascotaId != null) {
+            this.mascota = new MascotaInfo(mascotaId, mascotaNombre, mascotaTipo, mascotaRaza, mascotaColor,
+                    mascotaTamanio != null ? mascotaTamanio.name() : null, mascotaFotos);
+        }
+
+        if (usuarioId != null) {
+            this.usuario = new UsuarioInfo(usuarioId.intValue(), usuarioNombre, usuarioEmail);
+        }
+    }
+
     // Getters y Setters
     public int getId() {
         return id;
@@ -96,14 +133,22 @@ public class AvistamientoResponse {
         this.fecha = fecha;
     }
 
-    public String getFotos() {
+    public List<String> getFotos() {
         return fotos;
     }
 
-    public void setFotos(String fotos) {
+    public void setFotos(List<String> fotos) {
         this.fotos = fotos;
     }
 
+    public List<String> getMiniaturas() {
+        return miniaturas;
+    }
+
+    public void setMiniaturas(List<String> miniaturas) {
+        this.miniaturas = miniaturas;
+    }
+
     public boolean isActivo() {
         return activo;
     }
@@ -112,6 +157,14 @@ public class AvistamientoResponse {
         this.activo = activo;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public MascotaInfo getMascota() {
         return mascota;
     }
@@ -149,12 +202,12 @@ public class AvistamientoResponse {
         @Schema(description = "Tamaño de la mascota")
         private String tamanio;
 
-        @Schema(description = "Fotos de la mascota en formato JSON")
-        private String fotos;
+        @Schema(description = "URLs de las fotos de la mascota")
+        private List<String> fotos;
 
         public MascotaInfo() {}
 
-        public MascotaInfo(int id, String nombre, String tipo, String raza, String color, String tamanio, String fotos) {
+        public MascotaInfo(int id, String nombre, String tipo, String raza, String color, String tamanio, List<String> fotos) {
             this.id = id;
             this.nombre = nombre;
             this.tipo = tipo;
@@ -213,11 +266,11 @@ public class AvistamientoResponse {
             this.tamanio = tamanio;
         }
 
-        public String getFotos() {
+        public List<String> getFotos() {
             return fotos;
         }
 
-        public void setFotos(String fotos) {
+        public void setFotos(List<String> fotos) {
             this.fotos = fotos;
         }
     }
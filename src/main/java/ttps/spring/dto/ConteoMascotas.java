@@ -0,0 +1,10 @@
+package ttps.spring.dto;
+
+import ttps.spring.models.Estado;
+
+/**
+ * Fila del conteo agrupado de mascotas activas. Las dimensiones no solicitadas quedan en null;
+ * mes tiene el formato "yyyy-MM"
+ */
+public record ConteoMascotas(Estado estado, String tipo, String provincia, String mes, int cantidad) {
+}
@@ -0,0 +1,8 @@
+package ttps.spring.dto;
+
+// Dimensiones por las que se pueden desglosar las estadísticas de mascotas
+public enum DesgloseEstadisticas {
+    TIPO,
+    PROVINCIA,
+    MES
+}
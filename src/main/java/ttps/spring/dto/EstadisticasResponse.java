@@ -0,0 +1,112 @@
+package ttps.spring.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import ttps.spring.models.Estado;
+
+import java.util.Map;
+
+@Schema(description = "Estadísticas del home, con desgloses opcionales por tipo, provincia y mes")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EstadisticasResponse {
+
+    @Schema(description = "Mascotas activas con estado PERDIDO_PROPIO o PERDIDO_AJENO")
+    private int mascotasPerdidas;
+
+    @Schema(description = "Mascotas activas con estado RECUPERADO")
+    private int recuperadas;
+
+    @Schema(description = "Mascotas activas con estado ADOPTADO")
+    private int adoptadas;
+
+    @Schema(description = "Avistamientos activos pendientes de resolución")
+    private int seguimientosPendientes;
+
+    @Schema(description = "Cantidad de mascotas activas por estado")
+    private Map<Estado, Integer> porEstado;
+
+    @Schema(description = "Cantidad por tipo y estado (solo si se pidió el desglose TIPO)")
+    private Map<String, Map<Estado, Integer>> porTipo;
+
+    @Schema(description = "Cantidad por provincia del dueño y estado (solo si se pidió el desglose PROVINCIA)")
+    private Map<String, Map<Estado, Integer>> porProvincia;
+
+    @Schema(description = "Cantidad por mes (yyyy-MM) y estado (solo si se pidió el desglose MES)")
+    private Map<String, Map<Estado, Integer>> porMes;
+
+    public EstadisticasResponse() {}
+
+    public EstadisticasResponse(Map<Estado, Integer> porEstado, int seguimientosPendientes) {
+        this.porEstado = porEstado;
+        this.mascotasPerdidas = porEstado.getOrDefault(Estado.PERDIDO_PROPIO, 0)
+                + porEstado.getOrDefault(Estado.PERDIDO_AJENO, 0);
+        this.recuperadas = porEstado.getOrDefault(Estado.RECUPERADO, 0);
+        this.adoptadas = porEstado.getOrDefault(Estado.ADOPTADO, 0);
+        this.seguimientosPendientes = seguimientosPendientes;
+    }
+
+    // Getters y Setters
+    public int getMascotasPerdidas() {
+        return mascotasPerdidas;
+    }
+
+    public void setMascotasPerdidas(int mascotasPerdidas) {
+        this.mascotasPerdidas = mascotasPerdidas;
+    }
+
+    public int getRecuperadas() {
+        return recuperadas;
+    }
+
+    public void setRecuperadas(int recuperadas) {
+        this.recuperadas = recuperadas;
+    }
+
+    public int getAdoptadas() {
+        return adoptadas;
+    }
+
+    public void setAdoptadas(int adoptadas) {
+        this.adoptadas = adoptadas;
+    }
+
+    public int getSeguimientosPendientes() {
+        return seguimientosPendientes;
+    }
+
+    public void setSeguimientosPendientes(int seguimientosPendientes) {
+        this.seguimientosPendientes = seguimientosPendientes;
+    }
+
+    public Map<Estado, Integer> getPorEstado() {
+        return porEstado;
+    }
+
+    public void setPorEstado(Map<Estado, Integer> porEstado) {
+        this.porEstado = porEstado;
+    }
+
+    public Map<String, Map<Estado, Integer>> getPorTipo() {
+        return porTipo;
+    }
+
+    public void setPorTipo(Map<String, Map<Estado, Integer>> porTipo) {
+        this.porTipo = porTipo;
+    }
+
+    public Map<String, Map<Estado, Integer>> getPorProvincia() {
+        return porProvincia;
+    }
+
+    public void setPorProvincia(Map<String, Map<Estado, Integer>> porProvincia) {
+        this.porProvincia = porProvincia;
+    }
+
+    public Map<String, Map<Estado, Integer>> getPorMes() {
+        return porMes;
+    }
+
+    public void setPorMes(Map<String, Map<Estado, Integer>> porMes) {
+        this.porMes = porMes;
+    }
+}
@@ -0,0 +1,85 @@
+package ttps.spring.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.format.annotation.DateTimeFormat;
+import ttps.spring.models.Estado;
+import ttps.spring.models.Tamanio;
+
+import java.time.LocalDate;
+
+@Schema(description = "Filtros y cursor para la búsqueda paginada de mascotas")
+public class FiltroMascotas {
+
+    @Schema(description = "Prefijo del nombre", example = "Bob")
+    private String nombre;
+
+    @Schema(description = "Tipo de mascota", example = "PERRO")
+    private String tipo;
+
+    @Schema(description = "Prefijo de la raza", example = "Golden")
+    private String raza;
+
+    @Schema(description = "Prefijo del color", example = "Dorado")
+    private String color;
+
+    @Schema(description = "Tamaño de la mascota")
+    private Tamanio tamanio;
+
+    @Schema(description = "Estado de la mascota. Si no se indica, se buscan PERDIDO_PROPIO y PERDIDO_AJENO")
+    private Estado estado;
+
+    @Schema(description = "Fecha mínima (inclusive)", example = "2025-11-01")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fechaDesde;
+
+    @Schema(description = "Fecha máxima (inclusive)", example = "2025-11-30")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate fechaHasta;
+
+    @Schema(description = "Cursor: fecha del último elemento de la página anterior")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate despuesDeFecha;
+
+    @Schema(description = "Cursor: id del último elemento de la página anterior")
+    private Integer despuesDeId;
+
+    @Schema(description = "Orden por fecha: desc (más recientes primero) o asc", example = "desc")
+    private String orden = "desc";
+
+    @Schema(description = "Cantidad de resultados por página", example = "20")
+    private int limite = 20;
+
+    public boolean isAscendente() {
+        return "asc".equalsIgnoreCase(orden);
+    }
+
+    public boolean tieneCursor() {
+        return despuesDeFecha != null && despuesDeId != null;
+    }
+
+    // Getters y Setters
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+    public String getTipo() { return tipo; }
+    public void setTipo(String tipo) { this.tipo = tipo; }
+    public String getRaza() { return raza; }
+    public void setRaza(String raza) { this.raza = raza; }
+    public String getColor() { return color; }
+    public void setColor(String color) { this.color = color; }
+    public Tamanio getTamanio() { return tamanio; }
+    public void setTamanio(Tamanio tamanio) { this.tamanio = tamanio; }
+    public Estado getEstado() { return estado; }
+    public void setEstado(Estado estado) { this.estado = estado; }
+    public LocalDate getFechaDesde() { return fechaDesde; }
+    public void setFechaDesde(LocalDate fechaDesde) { this.fechaDesde = fechaDesde; }
+    public LocalDate getFechaHasta() { return fechaHasta; }
+    public void setFechaHasta(LocalDate fechaHasta) { this.fechaHasta = fechaHasta; }
+    public LocalDate getDespuesDeFecha() { return despuesDeFecha; }
+    public void setDespuesDeFecha(LocalDate despuesDeFecha) { this.despuesDeFecha = despuesDeFecha; }
+    public Integer getDespuesDeId() { return despuesDeId; }
+    public void setDespuesDeId(Integer despuesDeId) { this.despuesDeId = despuesDeId; }
+    public String getOrden() { return orden; }
+    public void setOrden(String orden) { this.orden = orden; }
+    public int getLimite() { return limite; }
+    public void setLimite(int limite) { this.limite = limite; }
+}
@@ -14,6 +14,7 @@ public class MascotaRequest {
     private String coordenadas;
     private String tipo;
     private String raza;
+    private Long version; // versión leída por el cliente, para detectar ediciones concurrentes
 
     // Getters y Setters
     public String getNombre() { return nombre; }
@@ -36,4 +37,6 @@ public class MascotaRequest {
     public void setTipo(String tipo) { this.tipo = tipo; }
     public String getRaza() { return raza; }
     public void setRaza(String raza) { this.raza = raza; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
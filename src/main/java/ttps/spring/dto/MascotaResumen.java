@@ -0,0 +1,30 @@
+package ttps.spring.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import ttps.spring.models.Estado;
+import ttps.spring.models.Tamanio;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Proyección de Mascota para los listados: se arma directamente en la consulta JPQL
+ * (SELECT new ...), sin hidratar la entidad ni sus asociaciones
+ */
+@Schema(description = "Datos de una mascota necesarios para mostrarla en un listado")
+public record MascotaResumen(
+        @Schema(description = "ID de la mascota", example = "1") int id,
+        @Schema(description = "Nombre de la mascota", example = "Bobby") String nombre,
+        @Schema(description = "Tipo de mascota", example = "PERRO") String tipo,
+        @Schema(description = "Raza de la mascota", example = "Golden Retriever") String raza,
+        @Schema(description = "Tamaño de la mascota") Tamanio tamanio,
+        @Schema(description = "Color de la mascota", example = "Dorado") String color,
+        @Schema(description = "Fecha de publicación") LocalDate fecha,
+        @Schema(description = "Estado de la mascota") Estado estado,
+        @Schema(description = "Coordenadas donde se perdió", example = "-31.4201,-64.1888") String coordenadas,
+        @Schema(description = "Descripción de la mascota") String descripcion,
+        @Schema(description = "URLs de las fotos") List<String> fotos,
+        @Schema(description = "URLs de las miniaturas, en el mismo orden que fotos (null mientras se generan)") List<String> miniaturas,
+        @Schema(description = "Estado activo de la publicación") boolean activo
+) {
+}
@@ -0,0 +1,59 @@
+package ttps.spring.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+@Schema(description = "Página de resultados ordenada por (fecha, id) con el cursor de la página siguiente")
+public class PaginaResponse<T> {
+
+    @Schema(description = "Elementos de la página")
+    private List<T> items;
+
+    @Schema(description = "Indica si existen más resultados después de esta página")
+    private boolean hayMas;
+
+    @Schema(description = "Cursor para la página siguiente: valor de despuesDeFecha")
+    private LocalDate siguienteFecha;
+
+    @Schema(description = "Cursor para la página siguiente: valor de despuesDeId")
+    private Integer siguienteId;
+
+    public PaginaResponse() {}
+
+    public PaginaResponse(List<T> items, boolean hayMas, LocalDate siguienteFecha, Integer siguienteId) {
+        this.items = items;
+        this.hayMas = hayMas;
+        this.siguienteFecha = siguienteFecha;
+        this.siguienteId = siguienteId;
+    }
+
+    /**
+     * Arma una página a partir de una consulta que pidió limite + 1 resultados:
+     * el elemento extra solo indica que existe una página siguiente
+     */
+    public static <T> PaginaResponse<T> desde(List<T> resultados, int limite,
+                                              Function<T, LocalDate> fecha, ToIntFunction<T> id) {
+        boolean hayMas = resultados.size() > limite;
+        List<T> items = new ArrayList<>(hayMas ? resultados.subList(0, limite) : resultados);
+        if (!hayMas || items.isEmpty()) {
+            return new PaginaResponse<>(items, false, null, null);
+        }
+        T ultimo = items.get(items.size() - 1);
+        return new PaginaResponse<>(items, true, fecha.apply(ultimo), id.applyAsInt(ultimo));
+    }
+
+    // Getters y Setters
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+    public boolean isHayMas() { return hayMas; }
+    public void setHayMas(boolean hayMas) { this.hayMas = hayMas; }
+    public LocalDate getSiguienteFecha() { return siguienteFecha; }
+    public void setSiguienteFecha(LocalDate siguienteFecha) { this.siguienteFecha = siguienteFecha; }
+    public Integer getSiguienteId() { return siguienteId; }
+    public void setSiguienteId(Integer siguienteId) { this.siguienteId = siguienteId; }
+}
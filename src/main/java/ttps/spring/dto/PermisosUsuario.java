@@ -0,0 +1,8 @@
+package ttps.spring.dto;
+
+/**
+ * Datos de un usuario necesarios para autorizar sus operaciones: el tipo ("USUARIOREGISTRADO",
+ * "ADMINISTRADOR") y si sigue activo
+ */
+public record PermisosUsuario(long id, String tipo, boolean activo) {
+}
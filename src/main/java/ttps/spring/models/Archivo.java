@@ -0,0 +1,70 @@
+package ttps.spring.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Archivo guardado en uploads, identificado por el hash SHA-256 de su contenido.
+ * Cuenta cuántas fotos de mascotas y avistamientos lo referencian: el archivo se
+ * elimina del disco recién cuando la última referencia se libera
+ */
+@Entity
+@Table(name = "archivo")
+public class Archivo {
+
+    // Nombre en disco: <sha256>.<extension>
+    @Id
+    @Column(length = 80)
+    private String nombre;
+
+    private int referencias;
+
+    private long tamanio;
+
+    private LocalDateTime creado;
+
+    // Constructor vacío
+    public Archivo() {
+    }
+
+    public Archivo(String nombre, long tamanio) {
+        this.nombre = nombre;
+        this.tamanio = tamanio;
+        this.referencias = 1;
+        this.creado = LocalDateTime.now();
+    }
+
+    // Getters y Setters
+    public String getNombre() {
+        return nombre;
+    }
+
+    public void setNombre(String nombre) {
+        this.nombre = nombre;
+    }
+
+    public int getReferencias() {
+        return referencias;
+    }
+
+    public void setReferencias(int referencias) {
+        this.referencias = referencias;
+    }
+
+    public long getTamanio() {
+        return tamanio;
+    }
+
+    public void setTamanio(long tamanio) {
+        this.tamanio = tamanio;
+    }
+
+    public LocalDateTime getCreado() {
+        return creado;
+    }
+
+    public void setCreado(LocalDateTime creado) {
+        this.creado = creado;
+    }
+}
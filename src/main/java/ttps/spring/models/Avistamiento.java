@@ -3,13 +3,31 @@ package ttps.spring.models;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ttps.utils.GeoUtils;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @Entity
-@Table(name = "avistamiento")
+@Table(name = "avistamiento", indexes = {
+        // Avistamientos activos de una mascota recorridos por (fecha, id)
+        @Index(name = "idx_avistamiento_mascota_activo_fecha", columnList = "mascota_id, activo, fecha, avistamiento_id"),
+        // Listado, conteo y ubicaciones de los avistamientos activos
+        @Index(name = "idx_avistamiento_activo_fecha", columnList = "activo, fecha, avistamiento_id")
+})
+@NamedEntityGraph(name = Avistamiento.GRAFO_LISTADO, attributeNodes = {
+        @NamedAttributeNode("mascota"),
+        @NamedAttributeNode("usuario")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "avistamientos")
 @Schema(description = "Representa un avistamiento de una mascota perdida")
-public class Avistamiento {
+public class Avistamiento implements BorradoLogico {
+
+    // Plan de carga para armar AvistamientoResponse: trae mascota y usuario en la misma consulta
+    public static final String GRAFO_LISTADO = "Avistamiento.listado";
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -17,25 +35,44 @@ public class Avistamiento {
     @Schema(description = "ID único del avistamiento", example = "1")
     private int id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="usuario_id")
     @JsonBackReference("usuario-avistamientos")
     @Schema(description = "Usuario que reportó el avistamiento")
     private Usuario usuario;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="mascota_id")
     @JsonBackReference("mascota-avistamientos")
     @Schema(description = "Mascota que fue avistada")
     private Mascota mascota;
 
-    @Schema(description = "Fotos del avistamiento en formato JSON con URLs", example = "[\"/uploads/avistamiento_1.jpg\"]")
+    @Schema(description = "URLs de las fotos del avistamiento", example = "[\"/uploads/avistamiento_1.jpg\"]")
     @Column(columnDefinition = "TEXT")
-    private String fotos; // JSON array de URLs
+    @Convert(converter = ListaJsonConverter.class)
+    private List<String> fotos; // guardadas como array JSON
+
+    // Variantes generadas en segundo plano, en el mismo orden que fotos (null hasta procesarlas).
+    // Solo se escriben con actualizarVariantes, para que un merge no pise un procesamiento concurrente
+    @Schema(description = "URLs de las miniaturas de las fotos")
+    @Column(columnDefinition = "TEXT", updatable = false)
+    @Convert(converter = ListaJsonConverter.class)
+    private List<String> miniaturas;
+
+    @Schema(description = "URLs de las fotos en tamaño mediano")
+    @Column(columnDefinition = "TEXT", updatable = false)
+    @Convert(converter = ListaJsonConverter.class)
+    private List<String> fotosMedianas;
 
     @Schema(description = "Coordenadas geográficas del avistamiento", example = "-31.4201,-64.1888")
     private String coordenada;
 
+    @Schema(description = "Latitud del avistamiento", example = "-31.4201")
+    private Double latitud;
+
+    @Schema(description = "Longitud del avistamiento", example = "-64.1888")
+    private Double longitud;
+
     @Schema(description = "Fecha en que ocurrió el avistamiento", example = "2025-11-14")
     private LocalDate fecha;
 
@@ -45,15 +82,25 @@ public class Avistamiento {
     @Schema(description = "Indica si el avistamiento está activo", example = "true")
     private boolean activo = true;
 
+    @Version
+    @Schema(description = "Versión para el control de concurrencia optimista", example = "0")
+    private long version;
+
+    // Valores con los que se cargó (o se guardó por última vez) la entidad, como en Mascota
+    @Transient
+    private boolean activoCargado;
+    @Transient
+    private List<String> fotosCargadas;
+
 
     public Avistamiento() {}
 
-    public Avistamiento(int id, Usuario usuario, Mascota mascota, String fotos, String coordenada, LocalDate fecha, String descripcion) {
+    public Avistamiento(int id, Usuario usuario, Mascota mascota, List<String> fotos, String coordenada, LocalDate fecha, String descripcion) {
         this.id = id;
         this.usuario = usuario;
         this.mascota = mascota;
         this.fotos = fotos;
-        this.coordenada = coordenada;
+        this.setCoordenada(coordenada);
         this.fecha = fecha;
         this.descripcion = descripcion;
     }
@@ -82,30 +129,86 @@ public class Avistamiento {
         this.mascota = mascota;
     }
 
-    public String getFotos() {
+    public List<String> getFotos() {
         return fotos;
     }
 
-    public void setFotos(String fotos) {
+    public void setFotos(List<String> fotos) {
         this.fotos = fotos;
     }
 
+    public List<String> getMiniaturas() {
+        return miniaturas;
+    }
+
+    public void setMiniaturas(List<String> miniaturas) {
+        this.miniaturas = miniaturas;
+    }
+
+    public List<String> getFotosMedianas() {
+        return fotosMedianas;
+    }
+
+    public void setFotosMedianas(List<String> fotosMedianas) {
+        this.fotosMedianas = fotosMedianas;
+    }
+
     public String getCoordenada() {
         return coordenada;
     }
 
+    /**
+     * Establece la coordenada "lat,lng" y actualiza latitud/longitud tipadas
+     */
     public void setCoordenada(String coordenada) {
         this.coordenada = coordenada;
+        double[] punto = GeoUtils.parsearCoordenadas(coordenada);
+        this.latitud = punto != null ? punto[0] : null;
+        this.longitud = punto != null ? punto[1] : null;
+    }
+
+    public Double getLatitud() {
+        return latitud;
+    }
+
+    public Double getLongitud() {
+        return longitud;
     }
 
     public LocalDate getFecha() {
         return fecha;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void registrarEstadoCargado() {
+        this.activoCargado = activo;
+        this.fotosCargadas = fotos;
+    }
+
+    public boolean activoCargado() {
+        return activoCargado;
+    }
+
+    public List<String> fotosCargadas() {
+        return fotosCargadas;
+    }
+
+    @Override
     public boolean isActivo() {
         return activo;
     }
 
+    @Override
     public void setActivo(boolean activo) {
         this.activo = activo;
     }
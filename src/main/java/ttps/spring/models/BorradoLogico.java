@@ -0,0 +1,12 @@
+package ttps.spring.models;
+
+/**
+ * Entidad que se elimina con borrado lógico: el registro queda en la base con activo = false.
+ * GenericDAO solo admite entidades de este tipo: delete, desactivar y reactivar se verifican al compilar
+ */
+public interface BorradoLogico {
+
+    boolean isActivo();
+
+    void setActivo(boolean activo);
+}
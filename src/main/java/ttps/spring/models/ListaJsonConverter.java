@@ -0,0 +1,46 @@
+package ttps.spring.models;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.List;
+
+/**
+ * Guarda una lista de URLs como array JSON en una columna de texto. El formato de la columna es
+ * el mismo que se usaba con String, así que los datos existentes se leen sin migrar. Las listas
+ * leídas son inmutables: para cambiar las fotos se asigna una lista nueva.
+ * Una columna NULL se lee como null (por ejemplo, variantes todavía no generadas)
+ */
+@Converter
+public class ListaJsonConverter implements AttributeConverter<List<String>, String> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<String>> TIPO = new TypeReference<>() {};
+
+    @Override
+    public String convertToDatabaseColumn(List<String> lista) {
+        if (lista == null) {
+            return null;
+        }
+        try {
+            return MAPPER.writeValueAsString(lista);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("No se pudo serializar la lista: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<String> convertToEntityAttribute(String columna) {
+        if (columna == null || columna.isBlank()) {
+            return null;
+        }
+        try {
+            return List.copyOf(MAPPER.readValue(columna, TIPO));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("La columna no contiene un array JSON válido: " + columna, e);
+        }
+    }
+}
@@ -3,14 +3,27 @@ package ttps.spring.models;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ttps.utils.GeoUtils;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "mascota")
-public class Mascota {
+@Table(name = "mascota", indexes = {
+        // Búsqueda paginada: filtro por activo/estado y recorrido por (fecha, id)
+        @Index(name = "idx_mascota_activo_estado_fecha", columnList = "activo, estado, fecha, mascota_id"),
+        // Sin estado elegido (estado IN perdidos): recorre por (fecha, id) y filtra estado en el índice
+        @Index(name = "idx_mascota_activo_fecha_estado", columnList = "activo, fecha, mascota_id, estado"),
+        @Index(name = "idx_mascota_activo_tipo_fecha", columnList = "activo, tipo, fecha"),
+        // Mascotas de un usuario
+        @Index(name = "idx_mascota_usuario_activo", columnList = "usuario_id, activo")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "mascotas")
+public class Mascota implements BorradoLogico {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -30,11 +43,25 @@ public class Mascota {
     private Estado estado;
 
     @Column(columnDefinition = "TEXT")
-    private String fotos; // JSON array de URLs
+    @Convert(converter = ListaJsonConverter.class)
+    private List<String> fotos; // URLs, guardadas como array JSON
+
+    // Variantes generadas en segundo plano, en el mismo orden que fotos (null hasta procesarlas).
+    // Solo se escriben con actualizarVariantes, para que un merge no pise un procesamiento concurrente
+    @Column(columnDefinition = "TEXT", updatable = false)
+    @Convert(converter = ListaJsonConverter.class)
+    private List<String> miniaturas;
+
+    @Column(columnDefinition = "TEXT", updatable = false)
+    @Convert(converter = ListaJsonConverter.class)
+    private List<String> fotosMedianas;
+
     private String coordenadas;
+    private Double latitud;
+    private Double longitud;
     private String descripcion;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="usuario_id")
     @JsonBackReference("usuario-mascotas")
     private Usuario usuario;
@@ -44,7 +71,22 @@ public class Mascota {
 
     private boolean activo = true;
 
-    @OneToMany(mappedBy = "mascota", fetch = FetchType.EAGER)
+    // Control de concurrencia optimista: cada UPDATE verifica e incrementa la versión
+    @Version
+    private long version;
+
+    // Valores con los que se cargó (o se guardó por última vez) la entidad. Con el control de
+    // versión, si la actualización prospera coinciden con los de la base, así que las transiciones
+    // se detectan sin volver a leerla
+    @Transient
+    private Estado estadoCargado;
+    @Transient
+    private boolean activoCargado;
+    @Transient
+    private List<String> fotosCargadas;
+
+    @OneToMany(mappedBy = "mascota", fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "mascota-avistamientos")
     @JsonManagedReference("mascota-avistamientos")
     private List<Avistamiento>  avistamientos;
 
@@ -53,7 +95,7 @@ public class Mascota {
         this.avistamientos = new ArrayList<>();
     }
 
-    public Mascota(int id, String nombre, Tamanio tamanio, String color, LocalDate fecha, Estado estado, String fotos, String coordenadas, String descripcion, Usuario usuario, String tipo, String raza) {
+    public Mascota(int id, String nombre, Tamanio tamanio, String color, LocalDate fecha, Estado estado, List<String> fotos, String coordenadas, String descripcion, Usuario usuario, String tipo, String raza) {
         this.id = id;
         this.nombre = nombre;
         this.tamanio = tamanio;
@@ -61,7 +103,7 @@ public class Mascota {
         this.fecha = fecha;
         this.estado = estado;
         this.fotos = fotos;
-        this.coordenadas = coordenadas;
+        this.setCoordenadas(coordenadas);
         this.descripcion = descripcion;
         this.usuario = usuario;
         this.avistamientos = new ArrayList<>();
@@ -117,20 +159,50 @@ public class Mascota {
         this.estado = estado;
     }
 
-    public String getFotos() {
+    public List<String> getFotos() {
         return fotos;
     }
 
-    public void setFotos(String fotos) {
+    public void setFotos(List<String> fotos) {
         this.fotos = fotos;
     }
 
+    public List<String> getMiniaturas() {
+        return miniaturas;
+    }
+
+    public void setMiniaturas(List<String> miniaturas) {
+        this.miniaturas = miniaturas;
+    }
+
+    public List<String> getFotosMedianas() {
+        return fotosMedianas;
+    }
+
+    public void setFotosMedianas(List<String> fotosMedianas) {
+        this.fotosMedianas = fotosMedianas;
+    }
+
     public String getCoordenadas() {
         return coordenadas;
     }
 
+    /**
+     * Establece las coordenadas "lat,lng" y actualiza latitud/longitud tipadas
+     */
     public void setCoordenadas(String coordenadas) {
         this.coordenadas = coordenadas;
+        double[] punto = GeoUtils.parsearCoordenadas(coordenadas);
+        this.latitud = punto != null ? punto[0] : null;
+        this.longitud = punto != null ? punto[1] : null;
+    }
+
+    public Double getLatitud() {
+        return latitud;
+    }
+
+    public Double getLongitud() {
+        return longitud;
     }
 
     public String getDescripcion() {
@@ -169,10 +241,48 @@ public class Mascota {
         return avistamientos;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void registrarEstadoCargado() {
+        this.estadoCargado = estado;
+        this.activoCargado = activo;
+        this.fotosCargadas = fotos;
+    }
+
+    public Estado estadoCargado() {
+        return estadoCargado;
+    }
+
+    public boolean activoCargado() {
+        return activoCargado;
+    }
+
+    public List<String> fotosCargadas() {
+        return fotosCargadas;
+    }
+
+    /**
+     * Indica si la mascota pasó al estado indicado desde que se cargó
+     */
+    public boolean pasoA(Estado destino) {
+        return estado == destino && estadoCargado != destino;
+    }
+
+    @Override
     public boolean isActivo() {
         return activo;
     }
 
+    @Override
     public void setActivo(boolean activo) {
         this.activo = activo;
     }
@@ -2,6 +2,8 @@ package ttps.spring.models;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ttps.utils.PasswordUtils;
 
 import java.util.LinkedList;
@@ -11,8 +13,14 @@ import java.util.List;
 @Entity
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "tipo_usuario", discriminatorType = DiscriminatorType.STRING)
-@Table(name = "usuario")
-public class Usuario {
+@Table(name = "usuario", indexes = {
+        // Login por email
+        @Index(name = "idx_usuario_email_activo", columnList = "email, activo")
+})
+// Una sola región para toda la jerarquía (UsuarioRegistrado y Administrador)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuarios")
+public class Usuario implements BorradoLogico {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name="usuario_id")
@@ -26,7 +34,8 @@ public class Usuario {
     @Column(unique = true, length = 50)
     private String nombreUsuario;
 
-    @Column(length = 60)
+    // Alcanza para BCrypt (60) y Argon2id (~100)
+    @Column(length = 128)
     private String contrasenia;
     private String telefono;
 
@@ -39,11 +48,17 @@ public class Usuario {
 
     private boolean activo = true;
 
-    @OneToMany(mappedBy = "usuario", fetch = FetchType.EAGER)
+    // Control de concurrencia optimista: cada UPDATE verifica e incrementa la versión
+    @Version
+    private long version;
+
+    @OneToMany(mappedBy = "usuario", fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuario-mascotas")
     @JsonManagedReference("usuario-mascotas")
     private List<Mascota> mascotas;
 
-    @OneToMany(mappedBy = "usuario", fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "usuario", fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuario-avistamientos")
     @JsonManagedReference("usuario-avistamientos")
     private List<Avistamiento> avistamientos;
 
@@ -127,6 +142,15 @@ public class Usuario {
         this.contrasenia = PasswordUtils.hashPassword(contrasenia);
     }
 
+    /**
+     * Establece una contraseña ya hasheada (por HashContraseniasService, fuera del hilo del request).
+     * Es la única forma de guardar un hash: los constructores y setContrasenia siempre hashean
+     * @param hash el hash BCrypt o Argon2id de la contraseña
+     */
+    public void setContraseniaHasheada(String hash) {
+        this.contrasenia = hash;
+    }
+
     /**
      * Verifica si una contraseña en texto plano coincide con la contraseña hasheada del usuario
      * @param plainPassword la contraseña en texto plano a verificar
@@ -217,10 +241,20 @@ public class Usuario {
     }
 
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    @Override
     public boolean isActivo() {
         return activo;
     }
 
+    @Override
     public void setActivo(boolean activo) {
         this.activo = activo;
     }
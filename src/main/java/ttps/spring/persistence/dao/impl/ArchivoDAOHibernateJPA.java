@@ -0,0 +1,54 @@
+package ttps.spring.persistence.dao.impl;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ttps.spring.models.Archivo;
+import ttps.spring.persistence.dao.interfaces.ArchivoDAO;
+
+/**
+ * Las operaciones se unen a la transacción de FileStorageService y bloquean la fila del archivo
+ * (SELECT ... FOR UPDATE), lo que ordena las altas y bajas de un mismo archivo entre todos los nodos
+ * de la aplicación. Un alta solo la bloquea para sumar la referencia; una baja la mantiene
+ * bloqueada mientras borra el archivo del almacén
+ */
+@Repository
+@Transactional
+public class ArchivoDAOHibernateJPA implements ArchivoDAO {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Archivo get(String nombre) {
+        return entityManager.find(Archivo.class, nombre);
+    }
+
+    @Override
+    public void agregarReferencia(String nombre, long tamanio) {
+        Archivo archivo = entityManager.find(Archivo.class, nombre, LockModeType.PESSIMISTIC_WRITE);
+        if (archivo == null) {
+            entityManager.persist(new Archivo(nombre, tamanio));
+        } else {
+            archivo.setReferencias(archivo.getReferencias() + 1);
+        }
+    }
+
+    @Override
+    public int quitarReferencia(String nombre) {
+        Archivo archivo = entityManager.find(Archivo.class, nombre, LockModeType.PESSIMISTIC_WRITE);
+        if (archivo == null) {
+            return -1;
+        }
+        int restantes = Math.max(0, archivo.getReferencias() - 1);
+        if (restantes == 0) {
+            entityManager.remove(archivo);
+        } else {
+            archivo.setReferencias(restantes);
+        }
+        return restantes;
+    }
+}
@@ -2,12 +2,18 @@ package ttps.spring.persistence.dao.impl;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
+import ttps.spring.dto.AvistamientoResponse;
 import ttps.spring.models.Avistamiento;
 import ttps.spring.persistence.dao.impl.generic.GenericDAOHibernateJPA;
 import ttps.spring.persistence.dao.interfaces.AvistamientoDAO;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 public class AvistamientoDAOHibernateJPA extends GenericDAOHibernateJPA<Avistamiento> implements AvistamientoDAO {
@@ -15,19 +21,49 @@ public class AvistamientoDAOHibernateJPA extends GenericDAOHibernateJPA<Avistami
     @PersistenceContext
     private EntityManager entityManager;
 
+    // Columnas que muestran los listados, proyectadas directamente sobre AvistamientoResponse
+    private static final String SELECT_RESPONSE =
+            "SELECT new ttps.spring.dto.AvistamientoResponse(a.id, a.coordenada, a.descripcion, a.fecha, a.fotos, a.miniaturas, a.activo, a.version, " +
+            "m.id, m.nombre, m.tipo, m.raza, m.color, m.tamanio, m.fotos, u.id, u.nombre, u.email) " +
+            "FROM Avistamiento a LEFT JOIN a.mascota m LEFT JOIN a.usuario u";
+
+    // Región de la caché de consultas para el listado de activos; Hibernate la invalida ante
+    // cualquier escritura sobre avistamiento, mascota o usuario
+    public static final String REGION_ACTIVOS = "avistamientos-activos";
+
     public AvistamientoDAOHibernateJPA() {
         super(Avistamiento.class);
     }
 
     @Override
     public List<Avistamiento> findByMascotaId(Long mascotaId) {
-        return entityManager.createQuery(
-                "SELECT a FROM Avistamiento a WHERE a.mascota.id = :mascotaId ORDER BY a.fecha DESC",
-                Avistamiento.class)
+        return conGrafo(entityManager.createQuery(
+                "SELECT a FROM Avistamiento a WHERE a.mascota.id = :mascotaId AND a.activo = true ORDER BY a.fecha DESC",
+                Avistamiento.class), Avistamiento.GRAFO_LISTADO)
                 .setParameter("mascotaId", mascotaId)
                 .getResultList();
     }
 
+    @Override
+    public List<AvistamientoResponse> findPaginaPorMascota(Long mascotaId, LocalDate despuesDeFecha,
+                                                           Integer despuesDeId, int limite) {
+        // Resuelto con el índice (mascota_id, activo, fecha, avistamiento_id): el costo depende
+        // del tamaño de la página y no de la cantidad total de avistamientos
+        String cursor = (despuesDeFecha != null && despuesDeId != null)
+                ? " AND (a.fecha < :cursorFecha OR (a.fecha = :cursorFecha AND a.id < :cursorId))"
+                : "";
+        TypedQuery<AvistamientoResponse> query = entityManager.createQuery(
+                SELECT_RESPONSE + " WHERE a.mascota.id = :mascotaId AND a.activo = true" + cursor +
+                " ORDER BY a.fecha DESC, a.id DESC",
+                AvistamientoResponse.class)
+                .setParameter("mascotaId", mascotaId);
+        if (!cursor.isEmpty()) {
+            query.setParameter("cursorFecha", despuesDeFecha)
+                 .setParameter("cursorId", despuesDeId);
+        }
+        return query.setMaxResults(limite).getResultList();
+    }
+
     @Override
     public int contarAvistamientosPendientes() {
         // Contamos avistamientos activos
@@ -38,9 +74,90 @@ public class AvistamientoDAOHibernateJPA extends GenericDAOHibernateJPA<Avistami
 
     @Override
     public List<Avistamiento> findAvistamientosActivos() {
-        return entityManager.createQuery(
+        return conGrafo(entityManager.createQuery(
                 "SELECT a FROM Avistamiento a WHERE a.activo = true ORDER BY a.fecha DESC",
-                Avistamiento.class)
+                Avistamiento.class), Avistamiento.GRAFO_LISTADO)
+                .getResultList();
+    }
+
+    @Override
+    public List<AvistamientoResponse> findListadoActivos() {
+        return entityManager.createQuery(
+                SELECT_RESPONSE + " WHERE a.activo = true ORDER BY a.fecha DESC",
+                AvistamientoResponse.class)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, REGION_ACTIVOS)
+                .getResultList();
+    }
+
+    @Override
+    public List<Avistamiento> findByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return conGrafo(entityManager.createQuery(
+                "SELECT a FROM Avistamiento a WHERE a.id IN :ids", Avistamiento.class),
+                Avistamiento.GRAFO_LISTADO)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    @Override
+    public List<Object[]> findUbicacionesAvistamientosActivos() {
+        return entityManager.createQuery(
+                "SELECT a.id, a.latitud, a.longitud, a.coordenada FROM Avistamiento a WHERE a.activo = true",
+                Object[].class)
                 .getResultList();
     }
+
+    @Override
+    public List<Object[]> findUbicacionesPorIds(Collection<Integer> ids, boolean activo) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery(
+                "SELECT a.id, a.latitud, a.longitud, a.coordenada FROM Avistamiento a " +
+                "WHERE a.id IN :ids AND a.activo = :activo",
+                Object[].class)
+                .setParameter("ids", ids)
+                .setParameter("activo", activo)
+                .getResultList();
+    }
+
+    @Override
+    public List<Integer> findIdsActivosPorMascota(Long mascotaId) {
+        return entityManager.createQuery(
+                "SELECT a.id FROM Avistamiento a WHERE a.mascota.id = :mascotaId AND a.activo = true", Integer.class)
+                .setParameter("mascotaId", mascotaId)
+                .getResultList();
+    }
+
+    @Override
+    public int desactivarPorMascota(Long mascotaId) {
+        return actualizarActivo(false, "e.mascota.id = :mascotaId", Map.of("mascotaId", mascotaId));
+    }
+
+    @Override
+    public Avistamiento update(Avistamiento avistamiento) {
+        // miniaturas y fotosMedianas no se escriben con merge: se copian las persistidas para que
+        // la entidad resultante (y la versión que queda en la caché de segundo nivel) refleje la base
+        Avistamiento actual = entityManager.find(Avistamiento.class, avistamiento.getId());
+        if (actual != null && actual != avistamiento) {
+            avistamiento.setMiniaturas(actual.getMiniaturas());
+            avistamiento.setFotosMedianas(actual.getFotosMedianas());
+        }
+        return super.update(avistamiento);
+    }
+
+    @Override
+    public int actualizarVariantes(int id, List<String> fotos, List<String> miniaturas, List<String> fotosMedianas) {
+        return entityManager.createQuery(
+                "UPDATE Avistamiento a SET a.miniaturas = :miniaturas, a.fotosMedianas = :fotosMedianas " +
+                "WHERE a.id = :id AND a.fotos = :fotos")
+                .setParameter("miniaturas", miniaturas)
+                .setParameter("fotosMedianas", fotosMedianas)
+                .setParameter("id", id)
+                .setParameter("fotos", fotos)
+                .executeUpdate();
+    }
 }
@@ -2,19 +2,39 @@ package ttps.spring.persistence.dao.impl;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
+import ttps.spring.dto.ConteoMascotas;
+import ttps.spring.dto.DesgloseEstadisticas;
+import ttps.spring.dto.FiltroMascotas;
+import ttps.spring.dto.MascotaResumen;
 import ttps.spring.models.Estado;
 import ttps.spring.models.Mascota;
 import ttps.spring.persistence.dao.impl.generic.GenericDAOHibernateJPA;
 import ttps.spring.persistence.dao.interfaces.MascotaDAO;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Repository
 public class MascotaDAOHibernateJPA extends GenericDAOHibernateJPA<Mascota> implements MascotaDAO {
     @PersistenceContext
     private EntityManager entityManager;
 
+    // Columnas que necesitan los listados, proyectadas directamente sobre MascotaResumen
+    private static final String SELECT_RESUMEN =
+            "SELECT new ttps.spring.dto.MascotaResumen(m.id, m.nombre, m.tipo, m.raza, m.tamanio, m.color, " +
+            "m.fecha, m.estado, m.coordenadas, m.descripcion, m.fotos, m.miniaturas, m.activo) FROM Mascota m";
+
+    // Región de la caché de consultas para el listado de perdidas; Hibernate la invalida ante
+    // cualquier escritura sobre la tabla mascota
+    public static final String REGION_PERDIDAS = "mascotas-perdidas";
+
     public MascotaDAOHibernateJPA() {
         super(Mascota.class);
     }
@@ -28,23 +48,119 @@ public class MascotaDAOHibernateJPA extends GenericDAOHibernateJPA<Mascota> impl
     }
 
     @Override
-    public List<Mascota> findByUsuario(Long usuarioId) {
+    public List<MascotaResumen> findByUsuario(Long usuarioId) {
         return entityManager.createQuery(
-                "SELECT m FROM Mascota m WHERE m.usuario.id = :usuarioId", Mascota.class)
+                SELECT_RESUMEN + " WHERE m.usuario.id = :usuarioId", MascotaResumen.class)
                 .setParameter("usuarioId", usuarioId)
                 .getResultList();
     }
 
     @Override
-    public List<Mascota> findMascotasPerdidas() {
+    public List<MascotaResumen> findMascotasPerdidas() {
+        return entityManager.createQuery(
+                SELECT_RESUMEN + " WHERE (m.estado = :perdidoPropio OR m.estado = :perdidoAjeno) AND m.activo = true",
+                MascotaResumen.class)
+                .setParameter("perdidoPropio", Estado.PERDIDO_PROPIO)
+                .setParameter("perdidoAjeno", Estado.PERDIDO_AJENO)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, REGION_PERDIDAS)
+                .getResultList();
+    }
+
+    @Override
+    public List<MascotaResumen> buscarMascotas(FiltroMascotas filtro, int limite) {
+        StringBuilder jpql = new StringBuilder(SELECT_RESUMEN + " WHERE m.activo = true");
+        Map<String, Object> parametros = new HashMap<>();
+
+        if (filtro.getEstado() != null) {
+            jpql.append(" AND m.estado = :estado");
+            parametros.put("estado", filtro.getEstado());
+        } else {
+            jpql.append(" AND m.estado IN :estados");
+            parametros.put("estados", List.of(Estado.PERDIDO_PROPIO, Estado.PERDIDO_AJENO));
+        }
+        if (filtro.getTipo() != null && !filtro.getTipo().isBlank()) {
+            jpql.append(" AND m.tipo = :tipo");
+            parametros.put("tipo", filtro.getTipo().trim());
+        }
+        if (filtro.getTamanio() != null) {
+            jpql.append(" AND m.tamanio = :tamanio");
+            parametros.put("tamanio", filtro.getTamanio());
+        }
+        // Búsquedas por prefijo para que puedan resolverse con un índice
+        agregarPrefijo(jpql, parametros, "nombre", filtro.getNombre());
+        agregarPrefijo(jpql, parametros, "raza", filtro.getRaza());
+        agregarPrefijo(jpql, parametros, "color", filtro.getColor());
+        if (filtro.getFechaDesde() != null) {
+            jpql.append(" AND m.fecha >= :fechaDesde");
+            parametros.put("fechaDesde", filtro.getFechaDesde());
+        }
+        if (filtro.getFechaHasta() != null) {
+            jpql.append(" AND m.fecha <= :fechaHasta");
+            parametros.put("fechaHasta", filtro.getFechaHasta());
+        }
+
+        // Paginación por cursor (keyset): continuar después del último (fecha, id) visto
+        String comparador = filtro.isAscendente() ? ">" : "<";
+        if (filtro.tieneCursor()) {
+            jpql.append(" AND (m.fecha ").append(comparador).append(" :cursorFecha")
+                .append(" OR (m.fecha = :cursorFecha AND m.id ").append(comparador).append(" :cursorId))");
+            parametros.put("cursorFecha", filtro.getDespuesDeFecha());
+            parametros.put("cursorId", filtro.getDespuesDeId());
+        }
+        String direccion = filtro.isAscendente() ? "ASC" : "DESC";
+        jpql.append(" ORDER BY m.fecha ").append(direccion).append(", m.id ").append(direccion);
+
+        TypedQuery<MascotaResumen> query = entityManager.createQuery(jpql.toString(), MascotaResumen.class);
+        parametros.forEach(query::setParameter);
+        return query.setMaxResults(limite).getResultList();
+    }
+
+    private static void agregarPrefijo(StringBuilder jpql, Map<String, Object> parametros, String atributo, String valor) {
+        if (valor != null && !valor.isBlank()) {
+            // Los comodines que escribe el usuario se buscan literalmente
+            jpql.append(" AND m.").append(atributo).append(" LIKE :").append(atributo).append(" ESCAPE '\\'");
+            String literal = valor.trim().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            parametros.put(atributo, literal + "%");
+        }
+    }
+
+    @Override
+    public List<Mascota> findByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery(
+                "SELECT m FROM Mascota m WHERE m.id IN :ids", Mascota.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    @Override
+    public List<Object[]> findUbicacionesMascotasPerdidas() {
         return entityManager.createQuery(
-                "SELECT m FROM Mascota m WHERE (m.estado = :perdidoPropio OR m.estado = :perdidoAjeno) AND m.activo = true",
-                Mascota.class)
+                "SELECT m.id, m.latitud, m.longitud, m.coordenadas FROM Mascota m " +
+                "WHERE (m.estado = :perdidoPropio OR m.estado = :perdidoAjeno) AND m.activo = true",
+                Object[].class)
                 .setParameter("perdidoPropio", Estado.PERDIDO_PROPIO)
                 .setParameter("perdidoAjeno", Estado.PERDIDO_AJENO)
                 .getResultList();
     }
 
+    @Override
+    public List<Object[]> findUbicacionesPorIds(Collection<Integer> ids, boolean activo) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery(
+                "SELECT m.id, m.latitud, m.longitud, m.coordenadas, m.estado FROM Mascota m " +
+                "WHERE m.id IN :ids AND m.activo = :activo",
+                Object[].class)
+                .setParameter("ids", ids)
+                .setParameter("activo", activo)
+                .getResultList();
+    }
+
     @Override
     public int contarMascotasPerdidas() {
         return Math.toIntExact((Long) entityManager.createQuery(
@@ -69,4 +185,84 @@ public class MascotaDAOHibernateJPA extends GenericDAOHibernateJPA<Mascota> impl
                 .setParameter("adoptado", Estado.ADOPTADO)
                 .getSingleResult());
     }
+
+    @Override
+    public List<ConteoMascotas> contarPorEstado(Set<DesgloseEstadisticas> desgloses) {
+        // Un único GROUP BY sobre el estado más las dimensiones pedidas; los totales
+        // de cada dimensión se obtienen sumando estas filas
+        boolean porTipo = desgloses.contains(DesgloseEstadisticas.TIPO);
+        boolean porProvincia = desgloses.contains(DesgloseEstadisticas.PROVINCIA);
+        boolean porMes = desgloses.contains(DesgloseEstadisticas.MES);
+
+        List<String> columnas = new ArrayList<>();
+        columnas.add("m.estado");
+        if (porTipo) {
+            columnas.add("m.tipo");
+        }
+        if (porProvincia) {
+            columnas.add("u.provincia");
+        }
+        if (porMes) {
+            columnas.add("YEAR(m.fecha)");
+            columnas.add("MONTH(m.fecha)");
+        }
+        String agrupacion = String.join(", ", columnas);
+        String jpql = "SELECT " + agrupacion + ", COUNT(m) FROM Mascota m" +
+                (porProvincia ? " LEFT JOIN m.usuario u" : "") +
+                " WHERE m.activo = true GROUP BY " + agrupacion;
+
+        List<ConteoMascotas> conteos = new ArrayList<>();
+        for (Object[] fila : entityManager.createQuery(jpql, Object[].class).getResultList()) {
+            int i = 0;
+            Estado estado = (Estado) fila[i++];
+            String tipo = porTipo ? (String) fila[i++] : null;
+            String provincia = porProvincia ? (String) fila[i++] : null;
+            String mes = null;
+            if (porMes) {
+                Number anio = (Number) fila[i++];
+                Number numeroMes = (Number) fila[i++];
+                mes = anio == null ? null : String.format("%04d-%02d", anio.intValue(), numeroMes.intValue());
+            }
+            conteos.add(new ConteoMascotas(estado, tipo, provincia, mes, Math.toIntExact((Long) fila[i])));
+        }
+        return conteos;
+    }
+
+    @Override
+    public int cambiarEstado(Collection<Integer> ids, Estado desde, Estado hacia) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return entityManager.createQuery(
+                "UPDATE VERSIONED Mascota m SET m.estado = :hacia " +
+                "WHERE m.id IN :ids AND m.estado = :desde AND m.activo = true")
+                .setParameter("hacia", hacia)
+                .setParameter("ids", ids)
+                .setParameter("desde", desde)
+                .executeUpdate();
+    }
+
+    @Override
+    public Mascota update(Mascota mascota) {
+        // miniaturas y fotosMedianas no se escriben con merge: se copian las persistidas para que
+        // la entidad resultante (y la versión que queda en la caché de segundo nivel) refleje la base
+        Mascota actual = entityManager.find(Mascota.class, mascota.getId());
+        if (actual != null && actual != mascota) {
+            mascota.setMiniaturas(actual.getMiniaturas());
+            mascota.setFotosMedianas(actual.getFotosMedianas());
+        }
+        return super.update(mascota);
+    }
+
+    @Override
+    public int actualizarVariantes(int id, List<String> fotos, List<String> miniaturas, List<String> fotosMedianas) {
+        return entityManager.createQuery(
+                "UPDATE Mascota m SET m.miniaturas = :miniaturas, m.fotosMedianas = :fotosMedianas " +
+                "WHERE m.id = :id AND m.fotos = :fotos")
+                .setParameter("miniaturas", miniaturas)
+                .setParameter("fotosMedianas", fotosMedianas)
+                .setParameter("id", id)
+                .setParameter("fotos", fotos)
+                .executeUpdate();
+    }
 }
@@ -4,6 +4,7 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.NoResultException;
 import org.springframework.stereotype.Repository;
+import ttps.spring.dto.PermisosUsuario;
 import ttps.spring.models.Usuario;
 import ttps.spring.persistence.dao.impl.generic.GenericDAOHibernateJPA;
 import ttps.spring.persistence.dao.interfaces.UsuarioDAO;
@@ -40,4 +41,34 @@ public class UsuarioDAOHibernateJPA extends GenericDAOHibernateJPA<Usuario> impl
             return null;
         }
     }
+
+    @Override
+    public Usuario getReferencia(Long id) {
+        return entityManager.getReference(Usuario.class, id);
+    }
+
+    @Override
+    public PermisosUsuario obtenerPermisos(Long id) {
+        try {
+            Object[] fila = entityManager.createQuery(
+                    "SELECT u.activo, TYPE(u) FROM Usuario u WHERE u.id = :id", Object[].class)
+                    .setParameter("id", id)
+                    .getSingleResult();
+            // Mismo formato que el claim "tipo" del token
+            String tipo = ((Class<?>) fila[1]).getSimpleName().toUpperCase();
+            return new PermisosUsuario(id, tipo, (Boolean) fila[0]);
+        } catch (NoResultException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean actualizarContrasenia(Long id, String hashAnterior, String hashNuevo) {
+        return entityManager.createQuery(
+                "UPDATE Usuario u SET u.contrasenia = :nuevo WHERE u.id = :id AND u.contrasenia = :anterior")
+                .setParameter("nuevo", hashNuevo)
+                .setParameter("id", id)
+                .setParameter("anterior", hashAnterior)
+                .executeUpdate() > 0;
+    }
 }
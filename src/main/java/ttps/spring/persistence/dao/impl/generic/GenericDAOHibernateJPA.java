@@ -2,12 +2,17 @@ package ttps.spring.persistence.dao.impl.generic;
 
 import jakarta.persistence.*;
 import org.springframework.transaction.annotation.Transactional;
+import ttps.spring.models.BorradoLogico;
 import ttps.spring.persistence.dao.interfaces.generic.GenericDAO;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Transactional
-public class GenericDAOHibernateJPA<T> implements GenericDAO<T> {
+public class GenericDAOHibernateJPA<T extends BorradoLogico> implements GenericDAO<T> {
+
+    private static final String GRAFO_DE_CARGA = "jakarta.persistence.fetchgraph";
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -23,8 +28,11 @@ public class GenericDAOHibernateJPA<T> implements GenericDAO<T> {
         return entity;
     }
     protected Class<T> persistentClass;
+    // Consulta base de getAll, resuelta una vez por tipo
+    private final String consultaTodos;
     public GenericDAOHibernateJPA(Class<T> clase) {
         this.persistentClass = clase;
+        this.consultaTodos = "SELECT e FROM " + clase.getSimpleName() + " e WHERE e.activo = true ORDER BY e.";
     }
     public Class<T> getPersistentClass() {
         return persistentClass;
@@ -33,18 +41,9 @@ public class GenericDAOHibernateJPA<T> implements GenericDAO<T> {
     @Override
     public void delete(T entity) {
         T managedEntity = this.getEntityManager().merge(entity);
-        try {
-            // Intentar con primitive boolean primero, luego con Boolean wrapper
-            try {
-                managedEntity.getClass().getMethod("setActivo", boolean.class).invoke(managedEntity, false);
-            } catch (NoSuchMethodException ex) {
-                managedEntity.getClass().getMethod("setActivo", Boolean.class).invoke(managedEntity, Boolean.FALSE);
-            }
-            // Asegurar que los cambios se sincronicen con la base de datos
-            this.getEntityManager().flush();
-        } catch (Exception e) {
-            throw new RuntimeException("La entidad no tiene el método setActivo para borrado lógico o ocurrió un error", e);
-        }
+        managedEntity.setActivo(false);
+        // Asegurar que los cambios se sincronicen con la base de datos
+        this.getEntityManager().flush();
     }
 
     @Override
@@ -61,37 +60,25 @@ public class GenericDAOHibernateJPA<T> implements GenericDAO<T> {
         return entity;
     }
 
+    @Override
+    public T get(Long id, String grafo) {
+        return this.getEntityManager().find(persistentClass, id,
+                Map.of(GRAFO_DE_CARGA, this.getEntityManager().getEntityGraph(grafo)));
+    }
+
+    /**
+     * Aplica a la consulta el grafo de entidad indicado como plan de carga: las asociaciones
+     * del grafo se traen con un join y el resto queda LAZY
+     */
+    protected <R> TypedQuery<R> conGrafo(TypedQuery<R> query, String grafo) {
+        return query.setHint(GRAFO_DE_CARGA, this.getEntityManager().getEntityGraph(grafo));
+    }
+
     @Override
     public List<T> getAll(String columnOrder) {
         String order = (columnOrder == null || columnOrder.isBlank()) ? "id" : columnOrder;
-        String jpql;
-        // Si la clase tiene un atributo o método 'activo', filtrar por activos
-        boolean hasActivo = false;
-        try {
-            // comprobar campo
-            persistentClass.getDeclaredField("activo");
-            hasActivo = true;
-        } catch (NoSuchFieldException | SecurityException ex) {
-            // comprobar métodos isActivo/getActivo
-            try {
-                persistentClass.getMethod("isActivo");
-                hasActivo = true;
-            } catch (NoSuchMethodException e1) {
-                try {
-                    persistentClass.getMethod("getActivo");
-                    hasActivo = true;
-                } catch (NoSuchMethodException e2) {
-                    hasActivo = false;
-                }
-            }
-        }
-
-        if (hasActivo) {
-            jpql = "SELECT e FROM " + getPersistentClass().getSimpleName() + " e WHERE e.activo = true ORDER BY e." + order;
-        } else {
-            jpql = "SELECT e FROM " + getPersistentClass().getSimpleName() + " e ORDER BY e." + order;
-        }
-        TypedQuery<T> query = getEntityManager().createQuery(jpql, getPersistentClass());
+        // Solo las entidades activas
+        TypedQuery<T> query = getEntityManager().createQuery(consultaTodos + order, getPersistentClass());
         return query.getResultList();
     }
 
@@ -100,4 +87,31 @@ public class GenericDAOHibernateJPA<T> implements GenericDAO<T> {
         T entityMerged = this.getEntityManager().merge(entity);
         return entityMerged;
     }
+
+    @Override
+    public int desactivar(Collection<? extends Number> ids) {
+        return ids.isEmpty() ? 0 : actualizarActivo(false, "e.id IN :ids", Map.of("ids", ids));
+    }
+
+    @Override
+    public int reactivar(Collection<? extends Number> ids) {
+        return ids.isEmpty() ? 0 : actualizarActivo(true, "e.id IN :ids", Map.of("ids", ids));
+    }
+
+    /**
+     * Cambia activo en todas las filas que cumplen la condición (JPQL sobre el alias "e") con un
+     * único UPDATE, sin cargar las entidades. Solo cuenta las filas que realmente cambiaron; si la
+     * entidad tiene @Version se incrementa, para que una edición concurrente no pise el cambio.
+     * Hibernate descarta de la caché de segundo nivel la región de la entidad y las consultas
+     * cacheadas sobre su tabla; las instancias ya cargadas en el contexto de persistencia no se actualizan
+     */
+    protected int actualizarActivo(boolean activo, String condicion, Map<String, ?> parametros) {
+        boolean versionada = getEntityManager().getMetamodel().entity(persistentClass).hasVersionAttribute();
+        Query update = getEntityManager().createQuery("UPDATE " + (versionada ? "VERSIONED " : "")
+                + persistentClass.getSimpleName()
+                + " e SET e.activo = :activo WHERE e.activo <> :activo AND (" + condicion + ")");
+        update.setParameter("activo", activo);
+        parametros.forEach(update::setParameter);
+        return update.executeUpdate();
+    }
 }
@@ -0,0 +1,15 @@
+package ttps.spring.persistence.dao.interfaces;
+
+import ttps.spring.models.Archivo;
+
+public interface ArchivoDAO {
+    // Buscar un archivo por su nombre en disco
+    Archivo get(String nombre);
+
+    // Suma una referencia al archivo, registrándolo si es nuevo
+    void agregarReferencia(String nombre, long tamanio);
+
+    // Resta una referencia y retorna las que quedan (-1 si el archivo no estaba registrado).
+    // Cuando llega a 0 el registro se elimina
+    int quitarReferencia(String nombre);
+}
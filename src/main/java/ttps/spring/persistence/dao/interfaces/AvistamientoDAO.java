@@ -1,17 +1,44 @@
 package ttps.spring.persistence.dao.interfaces;
 
+import ttps.spring.dto.AvistamientoResponse;
 import ttps.spring.models.Avistamiento;
 import ttps.spring.persistence.dao.interfaces.generic.GenericDAO;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface AvistamientoDAO extends GenericDAO<Avistamiento> {
-    // Buscar avistamientos por mascota
+    // Buscar avistamientos activos por mascota
     List<Avistamiento> findByMascotaId(Long mascotaId);
 
+    // Página de avistamientos activos de una mascota, con paginación por cursor sobre (fecha, id)
+    List<AvistamientoResponse> findPaginaPorMascota(Long mascotaId, LocalDate despuesDeFecha, Integer despuesDeId, int limite);
+
     // Contar avistamientos pendientes/activos para estadísticas
     int contarAvistamientosPendientes();
 
     // Obtener solo avistamientos activos
     List<Avistamiento> findAvistamientosActivos();
+
+    // Listado de avistamientos activos proyectado directamente sobre el DTO de respuesta
+    List<AvistamientoResponse> findListadoActivos();
+
+    // Buscar avistamientos por un conjunto de ids (resultados del índice espacial)
+    List<Avistamiento> findByIds(Collection<Integer> ids);
+
+    // Obtener id, latitud, longitud y coordenada de los avistamientos activos
+    List<Object[]> findUbicacionesAvistamientosActivos();
+
+    // id, latitud, longitud y coordenada de los avistamientos indicados con el valor de activo dado
+    List<Object[]> findUbicacionesPorIds(Collection<Integer> ids, boolean activo);
+
+    // Ids de los avistamientos activos de una mascota
+    List<Integer> findIdsActivosPorMascota(Long mascotaId);
+
+    // Borrado lógico de todos los avistamientos activos de una mascota con un único UPDATE
+    int desactivarPorMascota(Long mascotaId);
+
+    // Guarda las URLs de las variantes solo si las fotos no cambiaron mientras se procesaban
+    int actualizarVariantes(int id, List<String> fotos, List<String> miniaturas, List<String> fotosMedianas);
 }
@@ -1,22 +1,50 @@
 package ttps.spring.persistence.dao.interfaces;
 
+import ttps.spring.dto.ConteoMascotas;
+import ttps.spring.dto.DesgloseEstadisticas;
+import ttps.spring.dto.FiltroMascotas;
+import ttps.spring.dto.MascotaResumen;
+import ttps.spring.models.Estado;
 import ttps.spring.models.Mascota;
 import ttps.spring.persistence.dao.interfaces.generic.GenericDAO;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface MascotaDAO extends GenericDAO<Mascota> {
     // Buscar mascotas activas por id de usuario
     List<Mascota> findByUsuarioActivas(Long usuarioId);
 
     // Buscar TODAS las mascotas por id de usuario (activas e inactivas)
-    List<Mascota> findByUsuario(Long usuarioId);
+    List<MascotaResumen> findByUsuario(Long usuarioId);
 
     // Buscar mascotas perdidas (según enum Estado: PERDIDO_PROPIO o PERDIDO_AJENO)
-    List<Mascota> findMascotasPerdidas();
+    List<MascotaResumen> findMascotasPerdidas();
+
+    // Búsqueda filtrada con paginación por cursor sobre (fecha, id)
+    List<MascotaResumen> buscarMascotas(FiltroMascotas filtro, int limite);
+
+    // Buscar mascotas por un conjunto de ids (resultados del índice espacial)
+    List<Mascota> findByIds(Collection<Integer> ids);
+
+    // Obtener id, latitud, longitud y coordenadas de las mascotas perdidas activas
+    List<Object[]> findUbicacionesMascotasPerdidas();
+
+    // id, latitud, longitud, coordenadas y estado de las mascotas indicadas con el valor de activo dado
+    List<Object[]> findUbicacionesPorIds(Collection<Integer> ids, boolean activo);
 
     // Métodos de conteo para estadísticas del dashboard
     int contarMascotasPerdidas();
     int contarMascotasRecuperadas();
     int contarMascotasAdoptadas();
+
+    // Conteo de mascotas activas por estado en una sola consulta, desglosado opcionalmente por tipo, provincia y mes
+    List<ConteoMascotas> contarPorEstado(Set<DesgloseEstadisticas> desgloses);
+
+    // Pasa de "desde" a "hacia" las mascotas activas indicadas con un único UPDATE; retorna cuántas cambiaron
+    int cambiarEstado(Collection<Integer> ids, Estado desde, Estado hacia);
+
+    // Guarda las URLs de las variantes solo si las fotos no cambiaron mientras se procesaban
+    int actualizarVariantes(int id, List<String> fotos, List<String> miniaturas, List<String> fotosMedianas);
 }
@@ -1,5 +1,6 @@
 package ttps.spring.persistence.dao.interfaces;
 
+import ttps.spring.dto.PermisosUsuario;
 import ttps.spring.models.Usuario;
 import ttps.spring.persistence.dao.interfaces.generic.GenericDAO;
 
@@ -9,4 +10,13 @@ public interface UsuarioDAO extends GenericDAO<Usuario> {
 
     // Buscar usuario por nombre de usuario (para validaciones)
     Usuario findByNombreUsuario(String nombreUsuario);
+
+    // Referencia al usuario sin cargarlo (para asignarlo como propietario de otra entidad)
+    Usuario getReferencia(Long id);
+
+    // Tipo y estado del usuario, sin cargar la entidad (null si no existe)
+    PermisosUsuario obtenerPermisos(Long id);
+
+    // Reemplaza el hash de la contraseña solo si no cambió desde que se leyó (false si cambió)
+    boolean actualizarContrasenia(Long id, String hashAnterior, String hashNuevo);
 }
@@ -1,12 +1,20 @@
 package ttps.spring.persistence.dao.interfaces.generic;
 
+import ttps.spring.models.BorradoLogico;
+
+import java.util.Collection;
 import java.util.List;
 
-public interface GenericDAO<T>{
+public interface GenericDAO<T extends BorradoLogico>{
     public void delete(T entity);
     public void delete(Long id);
     public T get(Long id);
+    public T get(Long id, String grafo);
     public List<T> getAll(String columnOrder);
     public T persist(T entity);
     public T update(T entity);
+    // Borrado lógico y reactivación masivos con una sola sentencia UPDATE. Retornan las filas que
+    // cambiaron; se usan a través de los servicios, que ajustan los contadores e índices en memoria
+    public int desactivar(Collection<? extends Number> ids);
+    public int reactivar(Collection<? extends Number> ids);
 }
@@ -1,59 +1,165 @@
 package ttps.spring.services;
 
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ttps.spring.dto.AvistamientoResponse;
+import ttps.spring.dto.PaginaResponse;
 import ttps.spring.models.Avistamiento;
 import ttps.spring.persistence.dao.interfaces.AvistamientoDAO;
+import ttps.spring.persistence.dao.interfaces.UsuarioDAO;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @Transactional
 public class AvistamientoService {
 
+    public static final int LIMITE_MAXIMO_PAGINA = 100;
+
     private final AvistamientoDAO avistamientoDAO;
+    private final UsuarioDAO usuarioDAO;
+    private final BusquedaGeograficaService busquedaGeograficaService;
+    private final EstadisticasService estadisticasService;
+    private final ProcesadorImagenesService procesadorImagenesService;
 
     @Autowired
-    public AvistamientoService(AvistamientoDAO avistamientoDAO) {
+    public AvistamientoService(AvistamientoDAO avistamientoDAO, UsuarioDAO usuarioDAO,
+                               BusquedaGeograficaService busquedaGeograficaService,
+                               EstadisticasService estadisticasService,
+                               ProcesadorImagenesService procesadorImagenesService) {
         this.avistamientoDAO = avistamientoDAO;
+        this.usuarioDAO = usuarioDAO;
+        this.busquedaGeograficaService = busquedaGeograficaService;
+        this.estadisticasService = estadisticasService;
+        this.procesadorImagenesService = procesadorImagenesService;
     }
 
     public Avistamiento crearAvistamiento(Avistamiento avistamiento) {
-        return avistamientoDAO.persist(avistamiento);
+        // El controller asigna el usuario como referencia sin cargar: se carga en esta transacción
+        // porque la respuesta incluye su nombre y email
+        if (avistamiento.getUsuario() != null && !Hibernate.isInitialized(avistamiento.getUsuario())) {
+            avistamiento.setUsuario(usuarioDAO.get(avistamiento.getUsuario().getId()));
+        }
+        Avistamiento creado = avistamientoDAO.persist(avistamiento);
+        estadisticasService.registrarCambioAvistamiento(false, creado.isActivo());
+        busquedaGeograficaService.indexarAvistamiento(creado);
+        procesadorImagenesService.procesarAvistamiento(creado.getId(), creado.getFotos());
+        return creado;
     }
 
     public Avistamiento obtenerAvistamiento(Long id) {
-        return avistamientoDAO.get(id);
+        return avistamientoDAO.get(id, Avistamiento.GRAFO_LISTADO);
     }
 
     public List<Avistamiento> obtenerTodosLosAvistamientos() {
         return avistamientoDAO.findAvistamientosActivos();
     }
 
+    public List<AvistamientoResponse> obtenerListadoAvistamientos() {
+        return avistamientoDAO.findListadoActivos();
+    }
+
+    /**
+     * Actualiza el avistamiento con merge. El estado anterior se toma de la instancia administrada,
+     * como en MascotaService.actualizarMascota, sin consultas adicionales
+     */
     public Avistamiento actualizarAvistamiento(Avistamiento avistamiento) {
-        return avistamientoDAO.update(avistamiento);
+        Avistamiento actualizado = avistamientoDAO.update(avistamiento);
+        boolean activoAnterior = actualizado.activoCargado();
+        List<String> fotosAnteriores = actualizado.fotosCargadas();
+
+        // Si cambiaron las fotos, las variantes anteriores ya no corresponden: se regeneran
+        if (!Objects.equals(fotosAnteriores, actualizado.getFotos())) {
+            avistamientoDAO.actualizarVariantes(actualizado.getId(), actualizado.getFotos(), null, null);
+            actualizado.setMiniaturas(null);
+            actualizado.setFotosMedianas(null);
+            procesadorImagenesService.procesarAvistamiento(actualizado.getId(), actualizado.getFotos());
+        }
+        estadisticasService.registrarCambioAvistamiento(activoAnterior, actualizado.isActivo());
+        // merge deja mascota y usuario como proxies LAZY: se inicializan según GRAFO_LISTADO
+        Hibernate.initialize(actualizado.getMascota());
+        Hibernate.initialize(actualizado.getUsuario());
+        busquedaGeograficaService.indexarAvistamiento(actualizado);
+        return actualizado;
     }
 
     public void eliminarAvistamiento(Long id) {
-        avistamientoDAO.delete(id);
+        Avistamiento actual = avistamientoDAO.get(id);
+        if (actual != null) {
+            eliminarAvistamiento(actual);
+        }
     }
 
+    /**
+     * Borrado lógico: el estado previo, para descontarlo de las estadísticas, se toma de la
+     * instancia administrada que deja el merge
+     */
     public void eliminarAvistamiento(Avistamiento avistamiento) {
-        avistamientoDAO.delete(avistamiento);
+        Avistamiento eliminado = avistamientoDAO.update(avistamiento);
+        eliminado.setActivo(false);
+        estadisticasService.registrarCambioAvistamiento(eliminado.activoCargado(), false);
+        busquedaGeograficaService.quitarAvistamiento(eliminado.getId());
+    }
+
+    /**
+     * Borrado lógico de los avistamientos indicados con un único UPDATE. Las estadísticas y el índice
+     * geográfico se actualizan al confirmarse la transacción con la cantidad de filas que cambiaron
+     */
+    public int desactivarAvistamientos(Collection<Integer> ids) {
+        int desactivados = avistamientoDAO.desactivar(ids);
+        estadisticasService.registrarCambioAvistamientos(-desactivados);
+        busquedaGeograficaService.quitarAvistamientos(ids);
+        return desactivados;
     }
 
-    public List<Avistamiento> obtenerAvistamientosPorMascota(Long mascotaId) {
-        return avistamientoDAO.findByMascotaId(mascotaId);
+    /**
+     * Reactiva los avistamientos indicados con un único UPDATE. Las ubicaciones de los inactivos se
+     * leen antes, para volver a agregarlos al índice geográfico al confirmarse la transacción
+     */
+    public int reactivarAvistamientos(Collection<Integer> ids) {
+        List<Object[]> inactivos = avistamientoDAO.findUbicacionesPorIds(ids, false);
+        if (inactivos.isEmpty()) {
+            return 0;
+        }
+        int reactivados = avistamientoDAO.reactivar(idsDe(inactivos));
+        estadisticasService.registrarCambioAvistamientos(reactivados);
+        busquedaGeograficaService.indexarAvistamientos(inactivos);
+        return reactivados;
+    }
+
+    private static List<Integer> idsDe(List<Object[]> ubicaciones) {
+        return ubicaciones.stream().map(fila -> ((Number) fila[0]).intValue()).toList();
+    }
+
+    public List<Avistamiento> obtenerAvistamientosCercanos(double lat, double lng, double radioKm, int limite) {
+        return busquedaGeograficaService.buscarAvistamientosCercanos(lat, lng, radioKm, limite);
+    }
+
+    public PaginaResponse<AvistamientoResponse> obtenerAvistamientosPorMascota(Long mascotaId, LocalDate despuesDeFecha,
+                                                                             Integer despuesDeId, int limite) {
+        if (limite <= 0 || limite > LIMITE_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO_PAGINA);
+        }
+        // Se pide un elemento extra para saber si existe una página siguiente
+        List<AvistamientoResponse> resultados =
+                avistamientoDAO.findPaginaPorMascota(mascotaId, despuesDeFecha, despuesDeId, limite + 1);
+        return PaginaResponse.desde(resultados, limite, AvistamientoResponse::getFecha, AvistamientoResponse::getId);
     }
 
     public void eliminarTodosLosAvistamientosDeMascota(Long mascotaId) {
-        List<Avistamiento> avistamientos = avistamientoDAO.findByMascotaId(mascotaId);
-        for (Avistamiento avistamiento : avistamientos) {
-            if (avistamiento.isActivo()) {
-                avistamientoDAO.delete(avistamiento);
-            }
+        // Dos sentencias sin importar la cantidad: los ids (para el índice geográfico) y un único UPDATE
+        List<Integer> ids = avistamientoDAO.findIdsActivosPorMascota(mascotaId);
+        if (ids.isEmpty()) {
+            return;
         }
+        int desactivados = avistamientoDAO.desactivarPorMascota(mascotaId);
+        estadisticasService.registrarCambioAvistamientos(-desactivados);
+        busquedaGeograficaService.quitarAvistamientos(ids);
     }
 }
 
@@ -0,0 +1,179 @@
+package ttps.spring.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ttps.spring.models.Avistamiento;
+import ttps.spring.models.Estado;
+import ttps.spring.models.Mascota;
+import ttps.spring.persistence.dao.interfaces.AvistamientoDAO;
+import ttps.spring.persistence.dao.interfaces.MascotaDAO;
+import ttps.utils.GeoUtils;
+import ttps.utils.IndiceEspacial;
+import ttps.utils.TransaccionUtils;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Mantiene índices espaciales en memoria de las mascotas perdidas y de los avistamientos activos.
+ * Los índices se cargan al iniciar la aplicación y se actualizan desde MascotaService y
+ * AvistamientoService cuando se confirma cada escritura.
+ */
+@Service
+public class BusquedaGeograficaService {
+
+    public static final double RADIO_MAXIMO_KM = 100;
+    public static final int LIMITE_MAXIMO = 200;
+
+    private final MascotaDAO mascotaDAO;
+    private final AvistamientoDAO avistamientoDAO;
+
+    private final IndiceEspacial indiceMascotas = new IndiceEspacial();
+    private final IndiceEspacial indiceAvistamientos = new IndiceEspacial();
+
+    @Autowired
+    public BusquedaGeograficaService(MascotaDAO mascotaDAO, AvistamientoDAO avistamientoDAO) {
+        this.mascotaDAO = mascotaDAO;
+        this.avistamientoDAO = avistamientoDAO;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void inicializarIndices() {
+        indiceMascotas.limpiar();
+        cargar(indiceMascotas, mascotaDAO.findUbicacionesMascotasPerdidas());
+        indiceAvistamientos.limpiar();
+        cargar(indiceAvistamientos, avistamientoDAO.findUbicacionesAvistamientosActivos());
+    }
+
+    public void indexarMascota(Mascota mascota) {
+        long id = mascota.getId();
+        boolean indexable = mascota.isActivo() && esPerdida(mascota.getEstado())
+                && mascota.getLatitud() != null && mascota.getLongitud() != null;
+        Double lat = mascota.getLatitud();
+        Double lng = mascota.getLongitud();
+        TransaccionUtils.despuesDelCommit(() -> {
+            if (indexable) {
+                indiceMascotas.agregar(id, lat, lng);
+            } else {
+                indiceMascotas.quitar(id);
+            }
+        });
+    }
+
+    public void quitarMascota(long id) {
+        TransaccionUtils.despuesDelCommit(() -> indiceMascotas.quitar(id));
+    }
+
+    /**
+     * Agrega las mascotas con las ubicaciones indicadas (id, latitud, longitud, coordenadas),
+     * que tienen que ser perdidas y activas
+     */
+    public void indexarMascotas(List<Object[]> ubicaciones) {
+        List<Object[]> copia = List.copyOf(ubicaciones);
+        TransaccionUtils.despuesDelCommit(() -> cargar(indiceMascotas, copia));
+    }
+
+    public void quitarMascotas(Collection<Integer> ids) {
+        List<Integer> copia = List.copyOf(ids);
+        TransaccionUtils.despuesDelCommit(() -> copia.forEach(indiceMascotas::quitar));
+    }
+
+    public void indexarAvistamiento(Avistamiento avistamiento) {
+        long id = avistamiento.getId();
+        boolean indexable = avistamiento.isActivo()
+                && avistamiento.getLatitud() != null && avistamiento.getLongitud() != null;
+        Double lat = avistamiento.getLatitud();
+        Double lng = avistamiento.getLongitud();
+        TransaccionUtils.despuesDelCommit(() -> {
+            if (indexable) {
+                indiceAvistamientos.agregar(id, lat, lng);
+            } else {
+                indiceAvistamientos.quitar(id);
+            }
+        });
+    }
+
+    public void quitarAvistamiento(long id) {
+        TransaccionUtils.despuesDelCommit(() -> indiceAvistamientos.quitar(id));
+    }
+
+    /**
+     * Agrega los avistamientos activos con las ubicaciones indicadas (id, latitud, longitud, coordenada)
+     */
+    public void indexarAvistamientos(List<Object[]> ubicaciones) {
+        List<Object[]> copia = List.copyOf(ubicaciones);
+        TransaccionUtils.despuesDelCommit(() -> cargar(indiceAvistamientos, copia));
+    }
+
+    public void quitarAvistamientos(Collection<Integer> ids) {
+        List<Integer> copia = List.copyOf(ids);
+        TransaccionUtils.despuesDelCommit(() -> copia.forEach(indiceAvistamientos::quitar));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Mascota> buscarMascotasCercanas(double lat, double lng, double radioKm, int limite) {
+        List<IndiceEspacial.Resultado> resultados = buscar(indiceMascotas, lat, lng, radioKm, limite);
+        return ordenarPorDistancia(mascotaDAO.findByIds(ids(resultados)), resultados, Mascota::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Avistamiento> buscarAvistamientosCercanos(double lat, double lng, double radioKm, int limite) {
+        List<IndiceEspacial.Resultado> resultados = buscar(indiceAvistamientos, lat, lng, radioKm, limite);
+        return ordenarPorDistancia(avistamientoDAO.findByIds(ids(resultados)), resultados, Avistamiento::getId);
+    }
+
+    private List<IndiceEspacial.Resultado> buscar(IndiceEspacial indice, double lat, double lng, double radioKm, int limite) {
+        if (!GeoUtils.esCoordenadaValida(lat, lng)) {
+            throw new IllegalArgumentException("Coordenadas fuera de rango");
+        }
+        if (radioKm <= 0 || radioKm > RADIO_MAXIMO_KM) {
+            throw new IllegalArgumentException("El radio debe estar entre 0 y " + RADIO_MAXIMO_KM + " km");
+        }
+        if (limite <= 0 || limite > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO);
+        }
+        return indice.buscarEnRadio(lat, lng, radioKm, limite);
+    }
+
+    private static List<Integer> ids(List<IndiceEspacial.Resultado> resultados) {
+        return resultados.stream().map(r -> (int) r.id()).toList();
+    }
+
+    private static <T> List<T> ordenarPorDistancia(List<T> entidades, List<IndiceEspacial.Resultado> resultados,
+                                                   ToIntFunction<T> id) {
+        Map<Long, Integer> posiciones = new HashMap<>();
+        for (int i = 0; i < resultados.size(); i++) {
+            posiciones.put(resultados.get(i).id(), i);
+        }
+        return entidades.stream()
+                .sorted(Comparator.comparingInt(e -> posiciones.get((long) id.applyAsInt(e))))
+                .toList();
+    }
+
+    private static void cargar(IndiceEspacial indice, List<Object[]> ubicaciones) {
+        for (Object[] fila : ubicaciones) {
+            long id = ((Number) fila[0]).longValue();
+            if (fila[1] != null && fila[2] != null) {
+                indice.agregar(id, (Double) fila[1], (Double) fila[2]);
+            } else {
+                // Registros anteriores a las columnas tipadas: se parsea el texto "lat,lng"
+                double[] punto = GeoUtils.parsearCoordenadas((String) fila[3]);
+                if (punto != null) {
+                    indice.agregar(id, punto[0], punto[1]);
+                }
+            }
+        }
+    }
+
+    public static boolean esPerdida(Estado estado) {
+        return estado == Estado.PERDIDO_PROPIO || estado == Estado.PERDIDO_AJENO;
+    }
+}
@@ -0,0 +1,179 @@
+package ttps.spring.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ttps.spring.dto.ConteoMascotas;
+import ttps.spring.dto.DesgloseEstadisticas;
+import ttps.spring.dto.EstadisticasResponse;
+import ttps.spring.models.Estado;
+import ttps.spring.persistence.dao.interfaces.AvistamientoDAO;
+import ttps.spring.persistence.dao.interfaces.MascotaDAO;
+import ttps.utils.TransaccionUtils;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contadores en memoria de las estadísticas del home. Se cargan al iniciar la aplicación,
+ * MascotaService y AvistamientoService los actualizan con cada alta, cambio de estado o
+ * borrado lógico (al confirmarse la transacción) y se reconcilian periódicamente contra la base.
+ */
+@Service
+public class EstadisticasService {
+
+    private static final String SIN_ESPECIFICAR = "Sin especificar";
+
+    private final MascotaDAO mascotaDAO;
+    private final AvistamientoDAO avistamientoDAO;
+
+    // Un contador por cada valor de Estado (el mapa no se modifica después de construirse)
+    private final Map<Estado, AtomicInteger> mascotasPorEstado = new EnumMap<>(Estado.class);
+    private final AtomicInteger avistamientosPendientes = new AtomicInteger();
+
+    @Autowired
+    public EstadisticasService(MascotaDAO mascotaDAO, AvistamientoDAO avistamientoDAO) {
+        this.mascotaDAO = mascotaDAO;
+        this.avistamientoDAO = avistamientoDAO;
+        for (Estado estado : Estado.values()) {
+            mascotasPorEstado.put(estado, new AtomicInteger());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.estadisticas.reconciliacion-ms:300000}",
+               fixedDelayString = "${app.estadisticas.reconciliacion-ms:300000}")
+    @Transactional(readOnly = true)
+    public void reconciliar() {
+        Map<Estado, Integer> conteos = new EnumMap<>(Estado.class);
+        for (ConteoMascotas conteo : mascotaDAO.contarPorEstado(Set.of())) {
+            conteos.put(conteo.estado(), conteo.cantidad());
+        }
+        mascotasPorEstado.forEach((estado, contador) -> contador.set(conteos.getOrDefault(estado, 0)));
+        avistamientosPendientes.set(avistamientoDAO.contarAvistamientosPendientes());
+    }
+
+    /**
+     * Calcula las estadísticas desglosadas con una sola consulta agrupada, sin importar cuántos
+     * desgloses se pidan. Los seguimientos pendientes se toman del contador en memoria
+     */
+    @Transactional(readOnly = true)
+    public EstadisticasResponse calcularDesglose(Set<DesgloseEstadisticas> desgloses) {
+        List<ConteoMascotas> conteos = mascotaDAO.contarPorEstado(desgloses);
+
+        Map<Estado, Integer> porEstado = new EnumMap<>(Estado.class);
+        for (ConteoMascotas conteo : conteos) {
+            porEstado.merge(conteo.estado(), conteo.cantidad(), Integer::sum);
+        }
+        EstadisticasResponse respuesta = new EstadisticasResponse(porEstado, avistamientosPendientes.get());
+        if (desgloses.contains(DesgloseEstadisticas.TIPO)) {
+            respuesta.setPorTipo(agrupar(conteos, ConteoMascotas::tipo));
+        }
+        if (desgloses.contains(DesgloseEstadisticas.PROVINCIA)) {
+            respuesta.setPorProvincia(agrupar(conteos, ConteoMascotas::provincia));
+        }
+        if (desgloses.contains(DesgloseEstadisticas.MES)) {
+            respuesta.setPorMes(agrupar(conteos, ConteoMascotas::mes));
+        }
+        return respuesta;
+    }
+
+    private static Map<String, Map<Estado, Integer>> agrupar(List<ConteoMascotas> conteos,
+                                                            Function<ConteoMascotas, String> dimension) {
+        Map<String, Map<Estado, Integer>> resultado = new TreeMap<>();
+        for (ConteoMascotas conteo : conteos) {
+            String clave = dimension.apply(conteo);
+            resultado.computeIfAbsent(clave == null || clave.isBlank() ? SIN_ESPECIFICAR : clave,
+                            k -> new EnumMap<>(Estado.class))
+                    .merge(conteo.estado(), conteo.cantidad(), Integer::sum);
+        }
+        return resultado;
+    }
+
+    /**
+     * Registra el paso de una mascota de (activoAntes, estadoAntes) a (activoDespues, estadoDespues).
+     * Para un alta se informa activoAntes = false
+     */
+    public void registrarCambioMascota(boolean activoAntes, Estado estadoAntes, boolean activoDespues, Estado estadoDespues) {
+        AtomicInteger anterior = activoAntes ? contadorDe(estadoAntes) : null;
+        AtomicInteger nuevo = activoDespues ? contadorDe(estadoDespues) : null;
+        if (anterior == nuevo) {
+            return;
+        }
+        TransaccionUtils.despuesDelCommit(() -> {
+            if (anterior != null) {
+                anterior.decrementAndGet();
+            }
+            if (nuevo != null) {
+                nuevo.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Registra un cambio masivo de mascotas activas: cuántas se sumaron (positivo) o restaron
+     * (negativo) a cada estado
+     */
+    public void registrarCambioMascotas(Map<Estado, Integer> deltas) {
+        Map<Estado, Integer> copia = new EnumMap<>(Estado.class);
+        deltas.forEach((estado, delta) -> {
+            if (delta != 0) {
+                copia.put(estado, delta);
+            }
+        });
+        if (!copia.isEmpty()) {
+            TransaccionUtils.despuesDelCommit(() -> copia.forEach((estado, delta) -> contadorDe(estado).addAndGet(delta)));
+        }
+    }
+
+    public void registrarCambioAvistamiento(boolean activoAntes, boolean activoDespues) {
+        if (activoAntes != activoDespues) {
+            int delta = activoDespues ? 1 : -1;
+            TransaccionUtils.despuesDelCommit(() -> avistamientosPendientes.addAndGet(delta));
+        }
+    }
+
+    /**
+     * Registra un cambio masivo: la cantidad de avistamientos que pasaron a activos (positiva)
+     * o a inactivos (negativa)
+     */
+    public void registrarCambioAvistamientos(int delta) {
+        if (delta != 0) {
+            TransaccionUtils.despuesDelCommit(() -> avistamientosPendientes.addAndGet(delta));
+        }
+    }
+
+    public int getMascotasPerdidas() {
+        return contadorDe(Estado.PERDIDO_PROPIO).get() + contadorDe(Estado.PERDIDO_AJENO).get();
+    }
+
+    public int getMascotasRecuperadas() {
+        return contadorDe(Estado.RECUPERADO).get();
+    }
+
+    public int getMascotasAdoptadas() {
+        return contadorDe(Estado.ADOPTADO).get();
+    }
+
+    public Map<Estado, Integer> getMascotasPorEstado() {
+        Map<Estado, Integer> copia = new EnumMap<>(Estado.class);
+        mascotasPorEstado.forEach((estado, contador) -> copia.put(estado, contador.get()));
+        return copia;
+    }
+
+    public int getAvistamientosPendientes() {
+        return avistamientosPendientes.get();
+    }
+
+    private AtomicInteger contadorDe(Estado estado) {
+        return estado == null ? null : mascotasPorEstado.get(estado);
+    }
+}
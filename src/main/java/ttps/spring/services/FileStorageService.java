@@ -1,80 +1,307 @@
 package ttps.spring.services;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import ttps.spring.almacenamiento.AlmacenBlobs;
+import ttps.spring.almacenamiento.InfoBlob;
+import ttps.spring.persistence.dao.interfaces.ArchivoDAO;
+import ttps.utils.ImagenUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.regex.Pattern;
 
+/**
+ * Almacén de fotos direccionado por contenido: cada archivo se guarda con el hash SHA-256
+ * de sus bytes como nombre, así la misma foto subida para una mascota y sus avistamientos
+ * se guarda una sola vez y su URL nunca cambia de contenido (se puede cachear para siempre).
+ * Cada saveImage suma una referencia y cada deleteFile la resta; el archivo se borra del almacén
+ * cuando ya no lo referencia ninguna Mascota ni Avistamiento. Solo se guardan imágenes: el formato
+ * (y la extensión) sale de los bytes recibidos, no del tipo que declara el cliente.
+ * Los archivos se guardan en un AlmacenBlobs (disco local o S3) y el conteo de referencias en la
+ * base, así que cualquier nodo de la aplicación puede guardar, servir y borrar fotos
+ */
 @Service
 public class FileStorageService {
 
-    private final Path uploadPath;
+    private static final Logger log = LoggerFactory.getLogger(FileStorageService.class);
 
-    @Value("${app.upload.dir:uploads}")
-    private String uploadDir;
+    // Tamaño del buffer de copia: la memoria usada por cada subida no depende del tamaño de la imagen
+    private static final int TAMANIO_BUFFER = 64 * 1024;
 
-    public FileStorageService() throws IOException {
-        // Crear directorio uploads si no existe
-        this.uploadPath = Paths.get("uploads").toAbsolutePath().normalize();
-        Files.createDirectories(this.uploadPath);
+    private static final Map<String, String> TIPOS_CONTENIDO = Map.of(
+            "jpg", "image/jpeg",
+            "jpeg", "image/jpeg",
+            "png", "image/png",
+            "gif", "image/gif",
+            "webp", "image/webp");
+
+    // Nombre de un archivo en el almacén: sin separadores de ruta
+    private static final Pattern NOMBRE_VALIDO = Pattern.compile("[A-Za-z0-9_-]+\\.[A-Za-z0-9]+");
+
+    // Sufijos de las variantes que genera ProcesadorImagenesService
+    public static final String SUFIJO_MINIATURA = "min";
+    public static final String SUFIJO_MEDIANA = "med";
+    private static final List<String> SUFIJOS_VARIANTES = List.of(SUFIJO_MINIATURA, SUFIJO_MEDIANA);
+
+    // Reintentos cuando dos nodos registran a la vez el mismo archivo nuevo
+    private static final int INTENTOS = 3;
+
+    private final AlmacenBlobs almacen;
+    private final ArchivoDAO archivoDAO;
+    private final TransactionTemplate transactionTemplate;
+    private final Path temporales;
+
+    @Autowired
+    public FileStorageService(@Value("${app.upload.dir:uploads}") String uploadDir, AlmacenBlobs almacen,
+                              ArchivoDAO archivoDAO, PlatformTransactionManager transactionManager) throws IOException {
+        // Los archivos recibidos se escriben primero en un temporal local (en el mismo disco que el
+        // almacén local, para poder moverlos sin copiarlos)
+        this.temporales = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(".tmp");
+        Files.createDirectories(this.temporales);
+        this.almacen = almacen;
+        this.archivoDAO = archivoDAO;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     /**
-     * Guarda una imagen desde Base64 y retorna la URL relativa
+     * Guarda una imagen desde Base64 y retorna la URL relativa.
+     * Se mantiene por compatibilidad: para imágenes grandes usar saveImages con multipart
      */
-    public String saveImageFromBase64(String base64Image, String prefix) throws IOException {
-        // Remover el prefijo data:image/...;base64, si existe
-        String base64Data = base64Image;
-        if (base64Image.contains(",")) {
-            base64Data = base64Image.split(",")[1];
+    public String saveImageFromBase64(String base64Image) throws IOException {
+        // Saltear el prefijo data:image/...;base64, si existe (sin partir el string); el tipo
+        // que declara no se usa, el formato se reconoce por los bytes
+        int coma = base64Image.indexOf(',');
+        byte[] base64Data = base64Image.substring(coma + 1).getBytes(StandardCharsets.US_ASCII);
+
+        // Se decodifica mientras se escribe, sin materializar la imagen decodificada
+        try (InputStream contenido = Base64.getDecoder().wrap(new ByteArrayInputStream(base64Data))) {
+            return saveImage(contenido);
         }
+    }
+
+    /**
+     * Guarda una imagen leyendo el stream por bloques hacia un FileChannel y retorna la URL relativa.
+     * El hash se calcula mientras se escribe a un archivo temporal; si ya existe un archivo con ese
+     * contenido el temporal se descarta y solo se suma una referencia
+     * @throws IllegalArgumentException si el contenido no es una imagen en un formato soportado
+     */
+    public String saveImage(InputStream contenido) throws IOException {
+        Path temporal = crearTemporal();
+        try {
+            MessageDigest sha256 = nuevoSha256();
+            long tamanio = 0;
+            byte[] cabecera = new byte[ImagenUtils.LONGITUD_FIRMA];
+            int enCabecera = 0;
 
-        // Decodificar Base64
-        byte[] imageBytes = Base64.getDecoder().decode(base64Data);
+            ByteBuffer buffer = ByteBuffer.allocate(TAMANIO_BUFFER);
+            try (ReadableByteChannel origen = Channels.newChannel(contenido);
+                 FileChannel destino = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                while (origen.read(buffer) != -1) {
+                    buffer.flip();
+                    if (enCabecera < cabecera.length) {
+                        int n = Math.min(cabecera.length - enCabecera, buffer.remaining());
+                        buffer.duplicate().get(cabecera, enCabecera, n);
+                        enCabecera += n;
+                    }
+                    sha256.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        tamanio += destino.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                destino.force(false);
+            }
 
-        // Generar nombre único para el archivo
-        String fileName = prefix + "_" + UUID.randomUUID().toString() + ".jpg";
+            String extension = ImagenUtils.formatoPorFirma(Arrays.copyOf(cabecera, enCabecera));
+            if (extension == null) {
+                throw new IllegalArgumentException("el contenido no es una imagen soportada");
+            }
+            String fileName = HexFormat.of().formatHex(sha256.digest()) + "." + extension;
+            long tamanioFinal = tamanio;
 
-        // Guardar archivo
-        Path targetLocation = this.uploadPath.resolve(fileName);
-        Files.write(targetLocation, imageBytes);
+            // Primero se registra la referencia, en una transacción que bloquea la fila solo para
+            // insertarla o incrementarla. Mientras la referencia exista ninguna baja borra el archivo,
+            // así que la subida (lenta con S3) se hace después, sin transacción ni bloqueos. Cada alta
+            // que no encuentra el archivo lo sube: el contenido es el mismo, subirlo dos veces no daña
+            enTransaccion(() -> archivoDAO.agregarReferencia(fileName, tamanioFinal));
+            try {
+                if (almacen.info(fileName) == null) {
+                    almacen.guardar(fileName, temporal, tipoDeContenido(fileName));
+                }
+            } catch (IOException | RuntimeException e) {
+                // Sin el archivo en el almacén la referencia no sirve: se libera
+                try {
+                    deleteFile(fileName);
+                } catch (IOException | RuntimeException suprimida) {
+                    e.addSuppressed(suprimida);
+                }
+                throw e;
+            }
 
-        // Retornar URL relativa
-        return "/uploads/" + fileName;
+            // Retornar URL relativa
+            return "/uploads/" + fileName;
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Guarda imágenes recibidas como multipart/form-data y retorna la lista de URLs.
+     * Las partes ya están en disco (el contenedor las guarda en archivos temporales),
+     * así que se copian por stream sin cargarlas en memoria
+     */
+    public List<String> saveImages(List<MultipartFile> archivos) throws IOException {
+        List<String> urls = new ArrayList<>();
+        try {
+            for (MultipartFile archivo : archivos) {
+                if (archivo == null || archivo.isEmpty()) {
+                    continue;
+                }
+                try (InputStream contenido = archivo.getInputStream()) {
+                    urls.add(saveImage(contenido));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // No dejar guardada una parte de las fotos si alguna falla
+            deleteFiles(urls);
+            throw e;
+        }
+        return urls;
     }
 
     /**
      * Guarda múltiples imágenes desde Base64 y retorna lista de URLs
      */
-    public List<String> saveImagesFromBase64(List<String> base64Images, String prefix) throws IOException {
+    public List<String> saveImagesFromBase64(List<String> base64Images) throws IOException {
         List<String> urls = new ArrayList<>();
-        for (String base64Image : base64Images) {
-            if (base64Image != null && !base64Image.trim().isEmpty()) {
-                String url = saveImageFromBase64(base64Image, prefix);
-                urls.add(url);
+        try {
+            for (String base64Image : base64Images) {
+                if (base64Image != null && !base64Image.trim().isEmpty()) {
+                    String url = saveImageFromBase64(base64Image);
+                    urls.add(url);
+                }
             }
+        } catch (IOException | RuntimeException e) {
+            // No dejar guardada una parte de las fotos si alguna falla
+            deleteFiles(urls);
+            throw e;
         }
         return urls;
     }
 
     /**
-     * Elimina un archivo por su nombre
+     * URL de una variante (miniatura, mediana) de la foto original: siempre JPEG,
+     * con el sufijo agregado al nombre del original
      */
-    public void deleteFile(String fileName) throws IOException {
-        if (fileName != null && fileName.startsWith("/uploads/")) {
-            fileName = fileName.replace("/uploads/", "");
+    public String getVarianteUrl(String url, String sufijo) {
+        int punto = url.lastIndexOf('.');
+        String base = punto > url.lastIndexOf('/') ? url.substring(0, punto) : url;
+        return base + "_" + sufijo + ".jpg";
+    }
+
+    /**
+     * Nombre del archivo en el almacén para una URL relativa /uploads/... (o un nombre directo)
+     * @throws IllegalArgumentException si no es un nombre de archivo válido (por ejemplo "../")
+     */
+    public String nombreDe(String url) {
+        String fileName = url.startsWith("/uploads/") ? url.substring("/uploads/".length()) : url;
+        if (!NOMBRE_VALIDO.matcher(fileName).matches()) {
+            throw new IllegalArgumentException("nombre de archivo invalido " + url);
         }
-        Path filePath = this.uploadPath.resolve(fileName).normalize();
-        Files.deleteIfExists(filePath);
+        return fileName;
+    }
+
+    /**
+     * Tamaño y fecha de modificación del archivo, o null si no existe
+     */
+    public InfoBlob info(String url) throws IOException {
+        return almacen.info(nombreDe(url));
+    }
+
+    /**
+     * Contenido completo del archivo
+     */
+    public InputStream abrir(String url) throws IOException {
+        return almacen.abrir(nombreDe(url));
+    }
+
+    /**
+     * Rango de bytes [inicio, inicio + longitud) del archivo
+     */
+    public InputStream abrir(String url, long inicio, long longitud) throws IOException {
+        return almacen.abrir(nombreDe(url), inicio, longitud);
+    }
+
+    /**
+     * Path en disco del archivo si el almacén es local, para enviarlo con sendfile; si no, null
+     */
+    public Path rutaLocal(String url) {
+        return almacen.rutaLocal(nombreDe(url));
+    }
+
+    /**
+     * Guarda una variante ya generada en un archivo temporal. Las variantes no llevan conteo
+     * propio: se borran junto con el original
+     */
+    public void guardarVariante(String url, Path archivo) throws IOException {
+        String nombre = nombreDe(url);
+        almacen.guardar(nombre, archivo, tipoDeContenido(nombre));
+    }
+
+    /**
+     * Crea un archivo temporal local vacío; el llamador lo borra cuando termina
+     */
+    public Path crearTemporal() throws IOException {
+        return Files.createTempFile(temporales, null, ".part");
+    }
+
+    /**
+     * Libera una referencia al archivo. Si era la última (o es un archivo anterior al conteo
+     * de referencias) se elimina del almacén junto con sus variantes. El borrado se hace con la
+     * fila bloqueada, antes del commit: un alta concurrente del mismo contenido espera y después
+     * vuelve a subir el archivo
+     */
+    public void deleteFile(String fileName) throws IOException {
+        String nombre = nombreDe(fileName);
+        enTransaccion(() -> {
+            if (archivoDAO.quitarReferencia(nombre) > 0) {
+                return;
+            }
+            almacen.borrar(nombre);
+            for (String sufijo : SUFIJOS_VARIANTES) {
+                almacen.borrar(nombreDe(getVarianteUrl(nombre, sufijo)));
+            }
+        });
     }
 
     /**
@@ -86,18 +313,57 @@ public class FileStorageService {
                 try {
                     deleteFile(url);
                 } catch (IOException e) {
-                    // Log error pero continuar con los demás archivos
-                    System.err.println("Error eliminando archivo: " + url);
+                    // Se continúa con los demás archivos
+                    log.warn("Error eliminando archivo {}", url, e);
                 }
             }
         }
     }
 
     /**
-     * Obtiene el path absoluto del directorio de uploads
+     * Content-Type según la extensión del nombre del archivo
      */
-    public Path getUploadPath() {
-        return uploadPath;
+    public static String tipoDeContenido(String nombre) {
+        String extension = nombre.substring(nombre.lastIndexOf('.') + 1).toLowerCase();
+        return TIPOS_CONTENIDO.getOrDefault(extension, "application/octet-stream");
     }
-}
 
+    /**
+     * Ejecuta la operación sobre el contador en una transacción propia. Si dos nodos registran a la
+     * vez el mismo archivo nuevo, uno falla por clave duplicada (o bloqueo) y al reintentar
+     * encuentra la fila ya creada
+     */
+    private void enTransaccion(OperacionAlmacen operacion) throws IOException {
+        for (int intento = 1; ; intento++) {
+            try {
+                transactionTemplate.executeWithoutResult(estado -> {
+                    try {
+                        operacion.ejecutar();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                return;
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+                if (intento >= INTENTOS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface OperacionAlmacen {
+        void ejecutar() throws IOException;
+    }
+
+    private static MessageDigest nuevoSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ttps.spring.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ttps.utils.PasswordUtils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hashea y verifica contraseñas (BCrypt o Argon2id) en un pool propio, dimensionado según los núcleos
+ * disponibles, para que una ráfaga de logins no ocupe los hilos de Tomcat con trabajo de CPU.
+ * La cola es acotada y sin CallerRunsPolicy: si está llena la tarea se rechaza de inmediato con
+ * RejectedExecutionException y el controller responde 503, en lugar de acumular esperas.
+ * Los hashes nuevos usan el algoritmo y los parámetros de app.contrasenias.*; los hashes guardados
+ * con otros parámetros se siguen verificando y necesitaRehash indica cuándo reemplazarlos.
+ * Métricas: contrasenias.cola, contrasenias.activos y contrasenias.rechazadas
+ */
+@Service
+public class HashContraseniasService {
+
+    private final ThreadPoolExecutor executor;
+    private final Counter rechazadas;
+    private final PasswordUtils.Parametros parametros;
+
+    @Autowired
+    public HashContraseniasService(MeterRegistry meterRegistry,
+                                   @Value("${app.contrasenias.hilos:0}") int hilos,
+                                   @Value("${app.contrasenias.capacidad-cola:64}") int capacidadCola,
+                                   @Value("${app.contrasenias.algoritmo:bcrypt}") String algoritmo,
+                                   @Value("${app.contrasenias.bcrypt.costo:10}") int costoBcrypt,
+                                   @Value("${app.contrasenias.argon2.memoria-kb:19456}") int memoriaKb,
+                                   @Value("${app.contrasenias.argon2.iteraciones:2}") int iteraciones,
+                                   @Value("${app.contrasenias.argon2.paralelismo:1}") int paralelismo) {
+        this.parametros = switch (PasswordUtils.Algoritmo.valueOf(algoritmo.toUpperCase())) {
+            case BCRYPT -> PasswordUtils.Parametros.bcrypt(costoBcrypt);
+            case ARGON2ID -> PasswordUtils.Parametros.argon2id(memoriaKb, iteraciones, paralelismo);
+        };
+
+        // 0: un hilo por núcleo
+        int tamanio = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        AtomicInteger numero = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(tamanio, tamanio, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "hash-contrasenias-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        meterRegistry.gauge("contrasenias.cola", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("contrasenias.activos", executor, ThreadPoolExecutor::getActiveCount);
+        this.rechazadas = meterRegistry.counter("contrasenias.rechazadas");
+    }
+
+    /**
+     * Hash de la contraseña con los parámetros configurados
+     * @throws RejectedExecutionException si la cola está llena
+     */
+    public CompletableFuture<String> hashear(String contrasenia) {
+        return enviar(() -> PasswordUtils.hashPassword(contrasenia, parametros));
+    }
+
+    /**
+     * Indica si el hash se generó con otro algoritmo o parámetros que los configurados
+     */
+    public boolean necesitaRehash(String hash) {
+        return PasswordUtils.necesitaRehash(hash, parametros);
+    }
+
+    public PasswordUtils.Parametros getParametros() {
+        return parametros;
+    }
+
+    /**
+     * Verifica la contraseña contra su hash
+     * @throws RejectedExecutionException si la cola está llena
+     */
+    public CompletableFuture<Boolean> verificar(String contrasenia, String hash) {
+        return enviar(() -> PasswordUtils.verifyPassword(contrasenia, hash));
+    }
+
+    private <T> CompletableFuture<T> enviar(Supplier<T> tarea) {
+        try {
+            return CompletableFuture.supplyAsync(tarea, executor);
+        } catch (RejectedExecutionException e) {
+            rechazadas.increment();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
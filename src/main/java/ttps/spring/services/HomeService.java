@@ -2,49 +2,45 @@ package ttps.spring.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import ttps.spring.persistence.dao.interfaces.MascotaDAO;
-import ttps.spring.persistence.dao.interfaces.AvistamientoDAO;
+import ttps.spring.dto.DesgloseEstadisticas;
+import ttps.spring.dto.EstadisticasResponse;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Set;
 
 @Service
-@Transactional
 public class HomeService {
 
-    private final MascotaDAO mascotaDAO;
-    private final AvistamientoDAO avistamientoDAO;
+    // Las estadísticas se leen de los contadores en memoria, sin consultar la base
+    private final EstadisticasService estadisticasService;
 
     @Autowired
-    public HomeService(MascotaDAO mascotaDAO, AvistamientoDAO avistamientoDAO) {
-        this.mascotaDAO = mascotaDAO;
-        this.avistamientoDAO = avistamientoDAO;
+    public HomeService(EstadisticasService estadisticasService) {
+        this.estadisticasService = estadisticasService;
     }
 
-    public Map<String, Integer> obtenerEstadisticas() {
-        Map<String, Integer> estadisticas = new HashMap<>();
-        estadisticas.put("mascotasPerdidas", contarMascotasPerdidas());
-        estadisticas.put("recuperadas", contarMascotasRecuperadas());
-        estadisticas.put("adoptadas", contarMascotasAdoptadas());
-        estadisticas.put("seguimientosPendientes", contarSeguimientosPendientes());
-        return estadisticas;
+    public EstadisticasResponse obtenerEstadisticas(Set<DesgloseEstadisticas> desgloses) {
+        if (desgloses == null || desgloses.isEmpty()) {
+            return new EstadisticasResponse(estadisticasService.getMascotasPorEstado(),
+                    estadisticasService.getAvistamientosPendientes());
+        }
+        // Con desgloses se hace una única consulta agrupada
+        return estadisticasService.calcularDesglose(desgloses);
     }
 
     public int contarMascotasPerdidas() {
-        return mascotaDAO.contarMascotasPerdidas();
+        return estadisticasService.getMascotasPerdidas();
     }
 
     public int contarMascotasRecuperadas() {
-        return mascotaDAO.contarMascotasRecuperadas();
+        return estadisticasService.getMascotasRecuperadas();
     }
 
     public int contarMascotasAdoptadas() {
-        return mascotaDAO.contarMascotasAdoptadas();
+        return estadisticasService.getMascotasAdoptadas();
     }
 
     public int contarSeguimientosPendientes() {
         // Contamos los avistamientos activos/pendientes de resolución
-        return avistamientoDAO.contarAvistamientosPendientes();
+        return estadisticasService.getAvistamientosPendientes();
     }
 }
@@ -0,0 +1,68 @@
+package ttps.spring.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ttps.utils.LimitadorIntentos;
+
+import java.util.Locale;
+
+/**
+ * Limita los intentos de autenticación para que el tráfico de credential stuffing no consuma el
+ * pool de hashing: por IP se cuentan todas las solicitudes que hashean (login y registro), y por
+ * cuenta solo los logins fallidos (un login exitoso reinicia el contador de la cuenta).
+ * Los rechazos se cuentan en la métrica login.limitados, con tag motivo (ip o cuenta)
+ */
+@Service
+public class LimiteIntentosService {
+
+    private final LimitadorIntentos porIp;
+    private final LimitadorIntentos porCuenta;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public LimiteIntentosService(MeterRegistry meterRegistry,
+                                 @Value("${app.login.max-intentos-ip:30}") int maximoIp,
+                                 @Value("${app.login.ventana-ip-ms:60000}") long ventanaIpMs,
+                                 @Value("${app.login.max-fallos-cuenta:5}") int maximoCuenta,
+                                 @Value("${app.login.ventana-cuenta-ms:900000}") long ventanaCuentaMs,
+                                 @Value("${app.login.maximo-claves:100000}") int maximoClaves) {
+        this.meterRegistry = meterRegistry;
+        this.porIp = new LimitadorIntentos(maximoIp, ventanaIpMs, maximoClaves);
+        this.porCuenta = new LimitadorIntentos(maximoCuenta, ventanaCuentaMs, maximoClaves);
+    }
+
+    /**
+     * Cuenta un intento desde la IP. Retorna los ms de espera si la IP superó el límite, o 0
+     */
+    public long intentoDesdeIp(String ip) {
+        return rechazo("ip", porIp.intentar(ip, System.currentTimeMillis()));
+    }
+
+    /**
+     * Ms de espera si la cuenta está bloqueada por logins fallidos, o 0
+     */
+    public long bloqueoCuenta(String email) {
+        return rechazo("cuenta", porCuenta.bloqueo(clave(email), System.currentTimeMillis()));
+    }
+
+    public void loginFallido(String email) {
+        porCuenta.registrar(clave(email), System.currentTimeMillis());
+    }
+
+    public void loginExitoso(String email) {
+        porCuenta.reiniciar(clave(email));
+    }
+
+    private long rechazo(String motivo, long esperaMs) {
+        if (esperaMs > 0) {
+            meterRegistry.counter("login.limitados", "motivo", motivo).increment();
+        }
+        return esperaMs;
+    }
+
+    private static String clave(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
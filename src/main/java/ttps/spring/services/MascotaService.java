@@ -3,67 +3,206 @@ package ttps.spring.services;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ttps.spring.dto.FiltroMascotas;
+import ttps.spring.dto.MascotaResumen;
+import ttps.spring.dto.PaginaResponse;
 import ttps.spring.persistence.dao.interfaces.MascotaDAO;
 import ttps.spring.models.Estado;
 import ttps.spring.models.Mascota;
 
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 @Transactional
 public class MascotaService {
 
+    public static final int LIMITE_MAXIMO_PAGINA = 100;
+
     private final MascotaDAO mascotaDAO;
     private final AvistamientoService avistamientoService;
+    private final BusquedaGeograficaService busquedaGeograficaService;
+    private final EstadisticasService estadisticasService;
+    private final ProcesadorImagenesService procesadorImagenesService;
 
     @Autowired
-    public MascotaService(MascotaDAO mascotaDAO, AvistamientoService avistamientoService) {
+    public MascotaService(MascotaDAO mascotaDAO, AvistamientoService avistamientoService,
+                          BusquedaGeograficaService busquedaGeograficaService,
+                          EstadisticasService estadisticasService,
+                          ProcesadorImagenesService procesadorImagenesService) {
         this.mascotaDAO = mascotaDAO;
         this.avistamientoService = avistamientoService;
+        this.busquedaGeograficaService = busquedaGeograficaService;
+        this.estadisticasService = estadisticasService;
+        this.procesadorImagenesService = procesadorImagenesService;
     }
 
     public Mascota crearMascota(Mascota mascota) {
-        return mascotaDAO.persist(mascota);
+        Mascota creada = mascotaDAO.persist(mascota);
+        estadisticasService.registrarCambioMascota(false, null, creada.isActivo(), creada.getEstado());
+        busquedaGeograficaService.indexarMascota(creada);
+        procesadorImagenesService.procesarMascota(creada.getId(), creada.getFotos());
+        return creada;
     }
 
     public Mascota obtenerMascota(Long id) {
         return mascotaDAO.get(id);
     }
 
+    /**
+     * Actualiza la mascota con merge: la única lectura es la que hace Hibernate para verificar la
+     * versión (StaleObjectState si otro la modificó, que se traduce a OptimisticLockingFailureException).
+     * El estado anterior se toma de la instancia administrada, sin consultas adicionales
+     */
     public Mascota actualizarMascota(Mascota mascota) {
-        // Obtener el estado anterior antes de actualizar
-        Mascota mascotaAnterior = mascotaDAO.get(Long.valueOf(mascota.getId()));
-        Estado estadoAnterior = mascotaAnterior != null ? mascotaAnterior.getEstado() : null;
-
-        // Actualizar la mascota
         Mascota mascotaActualizada = mascotaDAO.update(mascota);
+        Estado estadoAnterior = mascotaActualizada.estadoCargado();
+        boolean activaAnterior = mascotaActualizada.activoCargado();
+        boolean recuperada = mascotaActualizada.pasoA(Estado.RECUPERADO);
+
+        // Si cambiaron las fotos, las variantes anteriores ya no corresponden: se regeneran
+        if (!Objects.equals(mascotaActualizada.fotosCargadas(), mascotaActualizada.getFotos())) {
+            mascotaDAO.actualizarVariantes(mascotaActualizada.getId(), mascotaActualizada.getFotos(), null, null);
+            mascotaActualizada.setMiniaturas(null);
+            mascotaActualizada.setFotosMedianas(null);
+            procesadorImagenesService.procesarMascota(mascotaActualizada.getId(), mascotaActualizada.getFotos());
+        }
 
         // Si cambió el estado a RECUPERADO, eliminar todos los avistamientos activos
-        if (mascota.getEstado() == Estado.RECUPERADO &&
-            estadoAnterior != Estado.RECUPERADO) {
-            avistamientoService.eliminarTodosLosAvistamientosDeMascota(Long.valueOf(mascota.getId()));
+        if (recuperada) {
+            avistamientoService.eliminarTodosLosAvistamientosDeMascota(Long.valueOf(mascotaActualizada.getId()));
         }
 
+        estadisticasService.registrarCambioMascota(activaAnterior, estadoAnterior,
+                mascotaActualizada.isActivo(), mascotaActualizada.getEstado());
+        busquedaGeograficaService.indexarMascota(mascotaActualizada);
         return mascotaActualizada;
     }
 
     public void eliminarMascota(Long id) {
-        mascotaDAO.delete(id);
+        Mascota actual = mascotaDAO.get(id);
+        if (actual != null) {
+            eliminarMascota(actual);
+        }
     }
 
+    /**
+     * Borrado lógico: el estado previo, para descontarlo de las estadísticas, se toma de la
+     * instancia administrada que deja el merge, como en actualizarMascota
+     */
     public void eliminarMascota(Mascota mascota) {
-        mascotaDAO.delete(mascota);
+        Mascota eliminada = mascotaDAO.update(mascota);
+        eliminada.setActivo(false);
+        estadisticasService.registrarCambioMascota(eliminada.activoCargado(), eliminada.estadoCargado(),
+                false, eliminada.getEstado());
+        busquedaGeograficaService.quitarMascota(eliminada.getId());
+    }
+
+    /**
+     * Pasa de "desde" a "hacia" las mascotas activas indicadas con un único UPDATE. Las filas que
+     * cambian se leen antes (con sus ubicaciones) para ajustar las estadísticas y el índice geográfico
+     * al confirmarse la transacción; las recuperadas dan de baja sus avistamientos, como en actualizarMascota
+     */
+    public int cambiarEstado(Collection<Integer> ids, Estado desde, Estado hacia) {
+        if (desde == hacia) {
+            return 0;
+        }
+        List<Object[]> afectadas = mascotaDAO.findUbicacionesPorIds(ids, true).stream()
+                .filter(fila -> fila[4] == desde)
+                .toList();
+        if (afectadas.isEmpty()) {
+            return 0;
+        }
+        List<Integer> idsAfectadas = idsDe(afectadas);
+        int cambiadas = mascotaDAO.cambiarEstado(idsAfectadas, desde, hacia);
+
+        Map<Estado, Integer> deltas = new EnumMap<>(Estado.class);
+        deltas.put(desde, -cambiadas);
+        deltas.put(hacia, cambiadas);
+        estadisticasService.registrarCambioMascotas(deltas);
+        if (BusquedaGeograficaService.esPerdida(hacia)) {
+            busquedaGeograficaService.indexarMascotas(afectadas);
+        } else {
+            busquedaGeograficaService.quitarMascotas(idsAfectadas);
+        }
+        if (hacia == Estado.RECUPERADO) {
+            idsAfectadas.forEach(id -> avistamientoService.eliminarTodosLosAvistamientosDeMascota(Long.valueOf(id)));
+        }
+        return cambiadas;
+    }
+
+    /**
+     * Borrado lógico de las mascotas indicadas con un único UPDATE, descontándolas de las
+     * estadísticas y del índice geográfico al confirmarse la transacción
+     */
+    public int desactivarMascotas(Collection<Integer> ids) {
+        List<Object[]> activas = mascotaDAO.findUbicacionesPorIds(ids, true);
+        if (activas.isEmpty()) {
+            return 0;
+        }
+        int desactivadas = mascotaDAO.desactivar(idsDe(activas));
+        estadisticasService.registrarCambioMascotas(conteoPorEstado(activas, -1));
+        busquedaGeograficaService.quitarMascotas(idsDe(activas));
+        return desactivadas;
     }
 
-    public List<Mascota> obtenerMascotasPorUsuario(Long usuarioId) {
+    /**
+     * Reactiva las mascotas indicadas con un único UPDATE y las vuelve a sumar a las estadísticas
+     * y al índice geográfico (las perdidas) al confirmarse la transacción
+     */
+    public int reactivarMascotas(Collection<Integer> ids) {
+        List<Object[]> inactivas = mascotaDAO.findUbicacionesPorIds(ids, false);
+        if (inactivas.isEmpty()) {
+            return 0;
+        }
+        int reactivadas = mascotaDAO.reactivar(idsDe(inactivas));
+        estadisticasService.registrarCambioMascotas(conteoPorEstado(inactivas, 1));
+        busquedaGeograficaService.indexarMascotas(inactivas.stream()
+                .filter(fila -> BusquedaGeograficaService.esPerdida((Estado) fila[4]))
+                .toList());
+        return reactivadas;
+    }
+
+    private static List<Integer> idsDe(List<Object[]> ubicaciones) {
+        return ubicaciones.stream().map(fila -> ((Number) fila[0]).intValue()).toList();
+    }
+
+    private static Map<Estado, Integer> conteoPorEstado(List<Object[]> filas, int signo) {
+        Map<Estado, Integer> conteo = new EnumMap<>(Estado.class);
+        for (Object[] fila : filas) {
+            if (fila[4] != null) {
+                conteo.merge((Estado) fila[4], signo, Integer::sum);
+            }
+        }
+        return conteo;
+    }
+
+    public List<MascotaResumen> obtenerMascotasPorUsuario(Long usuarioId) {
         return mascotaDAO.findByUsuario(usuarioId);
     }
 
-    public List<Mascota> obtenerMascotasPerdidas() {
+    public List<MascotaResumen> obtenerMascotasPerdidas() {
         // Retorna mascotas con estado PERDIDO_PROPIO o PERDIDO_AJENO
         return mascotaDAO.findMascotasPerdidas();
     }
 
+    public PaginaResponse<MascotaResumen> buscarMascotas(FiltroMascotas filtro) {
+        if (filtro.getLimite() <= 0 || filtro.getLimite() > LIMITE_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO_PAGINA);
+        }
+        // Se pide un elemento extra para saber si existe una página siguiente
+        List<MascotaResumen> resultados = mascotaDAO.buscarMascotas(filtro, filtro.getLimite() + 1);
+        return PaginaResponse.desde(resultados, filtro.getLimite(), MascotaResumen::fecha, MascotaResumen::id);
+    }
+
+    public List<Mascota> obtenerMascotasCercanas(double lat, double lng, double radioKm, int limite) {
+        // Retorna mascotas perdidas dentro del radio, ordenadas por distancia
+        return busquedaGeograficaService.buscarMascotasCercanas(lat, lng, radioKm, limite);
+    }
+
     public List<Mascota> obtenerTodasLasMascotas() {
         return mascotaDAO.getAll("nombre");
     }
@@ -0,0 +1,55 @@
+package ttps.spring.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ttps.spring.dto.PermisosUsuario;
+import ttps.spring.persistence.dao.interfaces.UsuarioDAO;
+
+import java.time.Duration;
+
+/**
+ * Cache acotado (Caffeine) del tipo y estado de cada usuario, para autorizar las solicitudes sin
+ * consultar la base. No es transaccional: un acierto del cache no abre transacción ni conexión. Las
+ * entradas vencen a los app.permisos.ttl-ms y UsuarioService las invalida al modificar o
+ * eliminar el usuario
+ */
+@Service
+public class PermisosUsuarioService {
+
+    private final UsuarioDAO usuarioDAO;
+    private final Cache<Long, PermisosUsuario> entradas;
+
+    @Autowired
+    public PermisosUsuarioService(UsuarioDAO usuarioDAO,
+                                  @Value("${app.permisos.ttl-ms:300000}") long ttlMs,
+                                  @Value("${app.permisos.cache-maximo:10000}") int maximoCache) {
+        this.usuarioDAO = usuarioDAO;
+        this.entradas = Caffeine.newBuilder()
+                .maximumSize(maximoCache)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+    }
+
+    /**
+     * Permisos del usuario, o null si no existe
+     */
+    public PermisosUsuario obtener(long id) {
+        PermisosUsuario permisos = entradas.getIfPresent(id);
+        if (permisos != null) {
+            return permisos;
+        }
+
+        permisos = usuarioDAO.obtenerPermisos(id);
+        if (permisos != null) {
+            entradas.put(id, permisos);
+        }
+        return permisos;
+    }
+
+    public void invalidar(long id) {
+        entradas.invalidate(id);
+    }
+}
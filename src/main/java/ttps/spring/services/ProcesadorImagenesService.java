@@ -0,0 +1,144 @@
+package ttps.spring.services;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ttps.spring.persistence.dao.interfaces.AvistamientoDAO;
+import ttps.spring.persistence.dao.interfaces.MascotaDAO;
+import ttps.utils.ImagenUtils;
+import ttps.utils.TransaccionUtils;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Genera en segundo plano la miniatura (para los listados) y la versión mediana de cada foto
+ * guardada, re-codificadas como JPEG sin metadatos. Las URLs resultantes se guardan en
+ * miniaturas y fotosMedianas, en el mismo orden que fotos.
+ * Corre en un pool acotado: si la cola se llena, la tarea la ejecuta el hilo que la envía,
+ * lo que frena a los clientes en lugar de acumular trabajo sin límite
+ */
+@Service
+public class ProcesadorImagenesService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcesadorImagenesService.class);
+
+    private static final int LADO_MINIATURA = 240;
+    private static final int LADO_MEDIANA = 960;
+    private static final float CALIDAD_JPEG = 0.8f;
+
+    private final FileStorageService fileStorageService;
+    private final MascotaDAO mascotaDAO;
+    private final AvistamientoDAO avistamientoDAO;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public ProcesadorImagenesService(FileStorageService fileStorageService, MascotaDAO mascotaDAO,
+                                     AvistamientoDAO avistamientoDAO,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.imagenes.hilos:2}") int hilos,
+                                     @Value("${app.imagenes.capacidad-cola:100}") int capacidadCola) {
+        this.fileStorageService = fileStorageService;
+        this.mascotaDAO = mascotaDAO;
+        this.avistamientoDAO = avistamientoDAO;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        AtomicInteger numero = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "procesador-imagenes-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Programa el procesamiento de las fotos de la mascota para cuando se confirme la transacción
+     */
+    public void procesarMascota(int id, List<String> fotos) {
+        programar(fotos, (miniaturas, medianas) -> mascotaDAO.actualizarVariantes(id, fotos, miniaturas, medianas));
+    }
+
+    /**
+     * Programa el procesamiento de las fotos del avistamiento para cuando se confirme la transacción
+     */
+    public void procesarAvistamiento(int id, List<String> fotos) {
+        programar(fotos, (miniaturas, medianas) -> avistamientoDAO.actualizarVariantes(id, fotos, miniaturas, medianas));
+    }
+
+    private void programar(List<String> fotos, BiConsumer<List<String>, List<String>> guardar) {
+        if (fotos == null || fotos.isEmpty()) {
+            return;
+        }
+        TransaccionUtils.despuesDelCommit(() -> executor.execute(() -> procesar(fotos, guardar)));
+    }
+
+    private void procesar(List<String> fotos, BiConsumer<List<String>, List<String>> guardar) {
+        try {
+            List<String> miniaturas = new ArrayList<>();
+            List<String> medianas = new ArrayList<>();
+            for (String url : fotos) {
+                BufferedImage imagen = leer(url);
+                if (imagen == null) {
+                    // No se pudo decodificar: se sigue usando el original
+                    miniaturas.add(url);
+                    medianas.add(url);
+                    continue;
+                }
+                medianas.add(generarVariante(imagen, url, FileStorageService.SUFIJO_MEDIANA, LADO_MEDIANA));
+                miniaturas.add(generarVariante(imagen, url, FileStorageService.SUFIJO_MINIATURA, LADO_MINIATURA));
+            }
+            transactionTemplate.executeWithoutResult(estado -> guardar.accept(miniaturas, medianas));
+        } catch (Exception e) {
+            // Las fotos originales siguen disponibles; la próxima edición vuelve a intentarlo
+            log.warn("Error procesando imágenes {}", fotos, e);
+        }
+    }
+
+    private BufferedImage leer(String url) {
+        try (InputStream original = fileStorageService.abrir(url)) {
+            return ImagenUtils.leer(original, LADO_MEDIANA);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private String generarVariante(BufferedImage imagen, String url, String sufijo, int ladoMaximo) throws IOException {
+        String varianteUrl = fileStorageService.getVarianteUrl(url, sufijo);
+        // El original está direccionado por contenido: si la variante ya existe es de la misma foto
+        if (fileStorageService.info(varianteUrl) == null) {
+            Path temporal = fileStorageService.crearTemporal();
+            try {
+                ImagenUtils.escribirJpeg(ImagenUtils.redimensionar(imagen, ladoMaximo), temporal, CALIDAD_JPEG);
+                fileStorageService.guardarVariante(varianteUrl, temporal);
+            } finally {
+                Files.deleteIfExists(temporal);
+            }
+        }
+        return varianteUrl;
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -5,7 +5,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ttps.spring.models.Usuario;
 import ttps.spring.persistence.dao.interfaces.UsuarioDAO;
+import ttps.utils.TransaccionUtils;
 
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -13,10 +15,12 @@ import java.util.List;
 public class UsuarioService {
 
     private final UsuarioDAO usuarioDAO;
+    private final PermisosUsuarioService permisosUsuarioService;
 
     @Autowired
-    public UsuarioService(UsuarioDAO usuarioDAO) {
+    public UsuarioService(UsuarioDAO usuarioDAO, PermisosUsuarioService permisosUsuarioService) {
         this.usuarioDAO = usuarioDAO;
+        this.permisosUsuarioService = permisosUsuarioService;
     }
 
     public Usuario crearUsuario(Usuario usuario) {
@@ -31,16 +35,58 @@ public class UsuarioService {
         return usuarioDAO.getAll("id");
     }
 
+    // Referencia sin consultar la base, para asignar el usuario como propietario
+    public Usuario obtenerReferencia(Long id) {
+        return usuarioDAO.getReferencia(id);
+    }
+
+    public boolean existeUsuario(Long id) {
+        return permisosUsuarioService.obtener(id) != null;
+    }
+
     public Usuario actualizarUsuario(Usuario usuario) {
-        return usuarioDAO.update(usuario);
+        Usuario actualizado = usuarioDAO.update(usuario);
+        // El tipo o el estado pudieron cambiar: se descartan los permisos cacheados
+        invalidarPermisos(actualizado.getId());
+        return actualizado;
+    }
+
+    /**
+     * Guarda un hash nuevo de la misma contraseña (rehash con parámetros actualizados).
+     * No pisa un cambio de contraseña hecho mientras tanto
+     */
+    public boolean actualizarHashContrasenia(Long id, String hashAnterior, String hashNuevo) {
+        return usuarioDAO.actualizarContrasenia(id, hashAnterior, hashNuevo);
     }
 
     public void eliminarUsuario(Long id) {
         usuarioDAO.delete(id);
+        invalidarPermisos(id);
     }
 
     public void eliminarUsuario(Usuario usuario) {
         usuarioDAO.delete(usuario);
+        invalidarPermisos(usuario.getId());
+    }
+
+    /**
+     * Borrado lógico de los usuarios indicados con un único UPDATE; sus permisos cacheados se
+     * descartan al confirmarse la transacción
+     */
+    public int desactivarUsuarios(Collection<Long> ids) {
+        int desactivados = usuarioDAO.desactivar(ids);
+        ids.forEach(this::invalidarPermisos);
+        return desactivados;
+    }
+
+    public int reactivarUsuarios(Collection<Long> ids) {
+        int reactivados = usuarioDAO.reactivar(ids);
+        ids.forEach(this::invalidarPermisos);
+        return reactivados;
+    }
+
+    private void invalidarPermisos(long id) {
+        TransaccionUtils.despuesDelCommit(() -> permisosUsuarioService.invalidar(id));
     }
 
     public Usuario obtenerUsuarioPorEmail(String email) {
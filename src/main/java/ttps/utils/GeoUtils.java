@@ -0,0 +1,43 @@
+package ttps.utils;
+
+public class GeoUtils {
+
+    private static final double RADIO_TIERRA_KM = 6371.0088;
+
+    /**
+     * Parsea coordenadas en formato "lat,lng"
+     * @return arreglo {lat, lng} o null si el texto no es una coordenada válida
+     */
+    public static double[] parsearCoordenadas(String coordenadas) {
+        if (coordenadas == null) {
+            return null;
+        }
+        int coma = coordenadas.indexOf(',');
+        if (coma < 0) {
+            return null;
+        }
+        try {
+            double lat = Double.parseDouble(coordenadas.substring(0, coma).trim());
+            double lng = Double.parseDouble(coordenadas.substring(coma + 1).trim());
+            return esCoordenadaValida(lat, lng) ? new double[]{lat, lng} : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static boolean esCoordenadaValida(double lat, double lng) {
+        return lat >= -90 && lat <= 90 && lng >= -180 && lng <= 180;
+    }
+
+    /**
+     * Distancia en kilómetros entre dos puntos (fórmula de haversine)
+     */
+    public static double distanciaKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.sqrt(a));
+    }
+}
@@ -0,0 +1,147 @@
+package ttps.utils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+
+public class ImagenUtils {
+
+    // Bytes iniciales necesarios para reconocer cualquiera de los formatos soportados
+    public static final int LONGITUD_FIRMA = 12;
+
+    /**
+     * Lee una imagen desde disco submuestreándola al decodificar, de modo que su lado mayor
+     * quede apenas por encima de ladoMinimo: una foto de 4000px no se carga completa en memoria
+     * @return la imagen decodificada o null si el archivo no es una imagen soportada
+     */
+    public static BufferedImage leer(Path archivo, int ladoMinimo) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(archivo.toFile())) {
+            return leer(entrada, ladoMinimo);
+        }
+    }
+
+    /**
+     * Igual que leer(Path, int) pero desde un stream, para originales que no están en el disco local
+     */
+    public static BufferedImage leer(InputStream contenido, int ladoMinimo) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(contenido)) {
+            return leer(entrada, ladoMinimo);
+        }
+    }
+
+    private static BufferedImage leer(ImageInputStream entrada, int ladoMinimo) throws IOException {
+        if (entrada == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(entrada);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(entrada, true, true);
+            int ladoMayor = Math.max(reader.getWidth(0), reader.getHeight(0));
+            int factor = Math.max(1, ladoMayor / ladoMinimo);
+            ImageReadParam parametros = reader.getDefaultReadParam();
+            parametros.setSourceSubsampling(factor, factor, 0, 0);
+            return reader.read(0, parametros);
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * Escala la imagen para que su lado mayor no supere ladoMaximo, manteniendo la proporción.
+     * El resultado es siempre RGB sin transparencia (fondo blanco), listo para JPEG
+     */
+    public static BufferedImage redimensionar(BufferedImage imagen, int ladoMaximo) {
+        double escala = Math.min(1.0, (double) ladoMaximo / Math.max(imagen.getWidth(), imagen.getHeight()));
+        int ancho = Math.max(1, (int) Math.round(imagen.getWidth() * escala));
+        int alto = Math.max(1, (int) Math.round(imagen.getHeight() * escala));
+
+        BufferedImage resultado = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resultado.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, ancho, alto);
+            g.drawImage(imagen, 0, 0, ancho, alto, null);
+        } finally {
+            g.dispose();
+        }
+        return resultado;
+    }
+
+    /**
+     * Codifica la imagen como JPEG. Al re-codificar desde los píxeles no se copia ningún
+     * metadato del original (EXIF, ubicación GPS, etc.)
+     */
+    public static void escribirJpeg(BufferedImage imagen, Path destino, float calidad) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".part");
+        try (ImageOutputStream salida = ImageIO.createImageOutputStream(temporal.toFile())) {
+            ImageWriteParam parametros = writer.getDefaultWriteParam();
+            parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parametros.setCompressionQuality(calidad);
+            writer.setOutput(salida);
+            writer.write(null, new IIOImage(imagen, null, null), parametros);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        } finally {
+            writer.dispose();
+        }
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Formato de la imagen según la firma de sus primeros bytes, sin decodificarla. El tipo que
+     * declara el cliente no se usa: unos bytes que no son una imagen no se guardan como tal
+     * @param cabecera los primeros LONGITUD_FIRMA bytes del archivo (o todos si es más corto)
+     * @return la extensión (jpg, png, gif o webp) o null si no es una imagen soportada
+     */
+    public static String formatoPorFirma(byte[] cabecera) {
+        if (empiezaCon(cabecera, 0, 0xFF, 0xD8, 0xFF)) {
+            return "jpg";
+        }
+        if (empiezaCon(cabecera, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "png";
+        }
+        if (empiezaCon(cabecera, 0, 'G', 'I', 'F', '8', '7', 'a')
+                || empiezaCon(cabecera, 0, 'G', 'I', 'F', '8', '9', 'a')) {
+            return "gif";
+        }
+        if (empiezaCon(cabecera, 0, 'R', 'I', 'F', 'F') && empiezaCon(cabecera, 8, 'W', 'E', 'B', 'P')) {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static boolean empiezaCon(byte[] datos, int desde, int... firma) {
+        if (datos.length < desde + firma.length) {
+            return false;
+        }
+        for (int i = 0; i < firma.length; i++) {
+            if ((datos[desde + i] & 0xFF) != firma[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
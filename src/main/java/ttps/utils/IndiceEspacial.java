@@ -0,0 +1,146 @@
+package ttps.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice espacial en memoria basado en una grilla de celdas fijas (similar a un geohash).
+ * Cada punto se ubica en una celda de TAMANIO_CELDA grados; una búsqueda por radio
+ * solo recorre las celdas que intersectan el rectángulo que contiene al círculo.
+ */
+public class IndiceEspacial {
+
+    private static final double TAMANIO_CELDA = 0.01; // grados (~1,1 km de latitud)
+    private static final double KM_POR_GRADO = 111.32;
+
+    private final Map<Long, Punto> puntos = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> celdas = new ConcurrentHashMap<>();
+
+    public record Punto(long id, double lat, double lng) {}
+
+    public record Resultado(long id, double distanciaKm) {}
+
+    /**
+     * Agrega un punto o lo mueve si el id ya estaba indexado
+     */
+    public void agregar(long id, double lat, double lng) {
+        Punto nuevo = new Punto(id, lat, lng);
+        Punto anterior = puntos.put(id, nuevo);
+        if (anterior != null) {
+            quitarDeCelda(anterior);
+        }
+        celdas.compute(claveCelda(lat, lng), (clave, ids) -> {
+            Set<Long> resultado = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            resultado.add(id);
+            return resultado;
+        });
+    }
+
+    public void quitar(long id) {
+        Punto anterior = puntos.remove(id);
+        if (anterior != null) {
+            quitarDeCelda(anterior);
+        }
+    }
+
+    public void limpiar() {
+        puntos.clear();
+        celdas.clear();
+    }
+
+    public int tamanio() {
+        return puntos.size();
+    }
+
+    /**
+     * Busca los puntos a menos de radioKm del centro, ordenados por distancia
+     */
+    public List<Resultado> buscarEnRadio(double lat, double lng, double radioKm, int limite) {
+        double deltaLat = radioKm / KM_POR_GRADO;
+        double coseno = Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+        double deltaLng = Math.min(radioKm / (KM_POR_GRADO * coseno), 180);
+
+        List<Resultado> resultados = new ArrayList<>();
+        for (Punto punto : candidatos(lat - deltaLat, lng - deltaLng, lat + deltaLat, lng + deltaLng)) {
+            double distancia = GeoUtils.distanciaKm(lat, lng, punto.lat(), punto.lng());
+            if (distancia <= radioKm) {
+                resultados.add(new Resultado(punto.id(), distancia));
+            }
+        }
+        resultados.sort(Comparator.comparingDouble(Resultado::distanciaKm));
+        return resultados.size() > limite ? resultados.subList(0, limite) : resultados;
+    }
+
+    /**
+     * Busca los puntos contenidos en el rectángulo (bounding box) indicado
+     */
+    public List<Punto> buscarEnRectangulo(double latMin, double lngMin, double latMax, double lngMax) {
+        return candidatos(latMin, lngMin, latMax, lngMax);
+    }
+
+    private List<Punto> candidatos(double latMin, double lngMin, double latMax, double lngMax) {
+        int filaMin = indice(latMin);
+        int filaMax = indice(latMax);
+        int columnaMin = indice(lngMin);
+        int columnaMax = indice(lngMax);
+
+        List<Punto> candidatos = new ArrayList<>();
+        long cantidadCeldas = (long) (filaMax - filaMin + 1) * (columnaMax - columnaMin + 1);
+
+        // Si el rectángulo abarca más celdas que puntos indexados, conviene recorrer los puntos
+        if (cantidadCeldas > puntos.size()) {
+            for (Punto punto : puntos.values()) {
+                if (dentro(punto, latMin, lngMin, latMax, lngMax)) {
+                    candidatos.add(punto);
+                }
+            }
+            return candidatos;
+        }
+
+        for (int fila = filaMin; fila <= filaMax; fila++) {
+            for (int columna = columnaMin; columna <= columnaMax; columna++) {
+                Set<Long> ids = celdas.get(clave(fila, columna));
+                if (ids == null) {
+                    continue;
+                }
+                for (Long id : ids) {
+                    Punto punto = puntos.get(id);
+                    // Se descartan entradas de una celda que el punto ya abandonó
+                    if (punto != null && indice(punto.lat()) == fila && indice(punto.lng()) == columna
+                            && dentro(punto, latMin, lngMin, latMax, lngMax)) {
+                        candidatos.add(punto);
+                    }
+                }
+            }
+        }
+        return candidatos;
+    }
+
+    private void quitarDeCelda(Punto punto) {
+        celdas.computeIfPresent(claveCelda(punto.lat(), punto.lng()), (clave, ids) -> {
+            ids.remove(punto.id());
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static boolean dentro(Punto punto, double latMin, double lngMin, double latMax, double lngMax) {
+        return punto.lat() >= latMin && punto.lat() <= latMax
+                && punto.lng() >= lngMin && punto.lng() <= lngMax;
+    }
+
+    private static int indice(double grados) {
+        return (int) Math.floor(grados / TAMANIO_CELDA);
+    }
+
+    private static long claveCelda(double lat, double lng) {
+        return clave(indice(lat), indice(lng));
+    }
+
+    private static long clave(int fila, int columna) {
+        return ((long) fila << 32) | (columna & 0xffffffffL);
+    }
+}
@@ -1,26 +1,85 @@
 package ttps.utils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import ttps.spring.models.Usuario;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Genera y valida los tokens JWT. La validación parsea y verifica la firma una sola vez por
+ * token: los datos verificados se guardan en un cache acotado (Caffeine), indexado por el hash
+ * del token, hasta que el token vence. Con el cache lleno se desalojan entradas sin recorrerlo
+ */
 @Component
 public class JwtUtils {
 
+    /**
+     * Datos de un token con firma verificada
+     */
+    public record TokenVerificado(Long userId, String email, String tipo, long expiracion) {
+
+        public boolean vencido(long ahora) {
+            return expiracion <= ahora;
+        }
+    }
+
     private final SecretKey SECRET_KEY = Keys.hmacShaKeyFor(
             "MiClaveSecretaSuperSeguraParaJWT2024ProyectoTTPSDondeEstasVolveACasa".getBytes()
     );
 
     private final long EXPIRATION_TIME = 1800000; // 30 minutos en milisegundos
 
+    // El parser es inmutable y thread-safe: se construye una sola vez
+    private final JwtParser parser = Jwts.parser().verifyWith(SECRET_KEY).build();
+
+    private final Cache<String, TokenVerificado> verificados;
+
+    @Autowired
+    public JwtUtils(@Value("${app.jwt.cache-maximo:10000}") int maximoCache) {
+        this.verificados = Caffeine.newBuilder()
+                .maximumSize(maximoCache)
+                .expireAfter(new Expiry<String, TokenVerificado>() {
+                    // Cada entrada vive hasta el vencimiento de su token
+                    @Override
+                    public long expireAfterCreate(String clave, TokenVerificado verificado, long tiempoActual) {
+                        return TimeUnit.MILLISECONDS.toNanos(
+                                Math.max(0, verificado.expiracion() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String clave, TokenVerificado verificado, long tiempoActual,
+                                                  long duracionRestante) {
+                        return duracionRestante;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String clave, TokenVerificado verificado, long tiempoActual,
+                                                long duracionRestante) {
+                        return duracionRestante;
+                    }
+                })
+                .build();
+    }
+
     public String generateToken(Usuario usuario) {
         String tipo = usuario.getClass().getSimpleName().toUpperCase();
         Map<String, Object> claims = new HashMap<>();
@@ -37,6 +96,48 @@ public class JwtUtils {
                 .compact();
     }
 
+    /**
+     * Valida el token y retorna sus datos, o null si la firma no es válida, está mal formado o venció.
+     * Un token ya verificado se resuelve desde el cache sin volver a parsearlo
+     */
+    public TokenVerificado validarToken(String token) {
+        long ahora = System.currentTimeMillis();
+        String clave = hash(token);
+        TokenVerificado verificado = verificados.getIfPresent(clave);
+        if (verificado != null) {
+            if (!verificado.vencido(ahora)) {
+                return verificado;
+            }
+            verificados.invalidate(clave);
+            return null;
+        }
+
+        Claims claims;
+        try {
+            // Verifica la firma y rechaza tokens vencidos
+            claims = extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        if (claims.getExpiration() == null) {
+            return null;
+        }
+        verificado = new TokenVerificado(claims.get("userId", Long.class), claims.getSubject(),
+                claims.get("tipo", String.class), claims.getExpiration().getTime());
+        verificados.put(clave, verificado);
+        return verificado;
+    }
+
+    private static String hash(String token) {
+        try {
+            // El cache no guarda los tokens en claro
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
     public String extractEmail(String token) {
         return extractAllClaims(token).getSubject();
     }
@@ -54,11 +155,7 @@ public class JwtUtils {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public Boolean isTokenExpired(String token) {
@@ -0,0 +1,100 @@
+package ttps.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Cuenta intentos por clave (una cuenta, una IP) en ventanas fijas de tiempo y bloquea la clave
+ * cuando supera el máximo, hasta que termina su ventana. La cantidad de claves está acotada:
+ * las ventanas se guardan en el orden en que empezaron, así que las vencidas se descartan desde el
+ * principio sin recorrer las demás. Una ventana vigente nunca se descarta (ciclar claves descartables
+ * no libera el bloqueo de otra): con el límite lleno de ventanas vigentes, las claves nuevas esperan
+ * a que termine la más antigua
+ */
+public class LimitadorIntentos {
+
+    private record Ventana(long inicio, int intentos) {
+    }
+
+    private final int maximoIntentos;
+    private final long ventanaMs;
+    private final int maximoClaves;
+    private final LinkedHashMap<String, Ventana> ventanas = new LinkedHashMap<>();
+
+    public LimitadorIntentos(int maximoIntentos, long ventanaMs, int maximoClaves) {
+        this.maximoIntentos = maximoIntentos;
+        this.ventanaMs = ventanaMs;
+        this.maximoClaves = maximoClaves;
+    }
+
+    /**
+     * Milisegundos que faltan para que la clave vuelva a tener intentos disponibles, o 0 si
+     * no está bloqueada. No cuenta un intento
+     */
+    public synchronized long bloqueo(String clave, long ahora) {
+        Ventana ventana = ventanas.get(clave);
+        if (ventana == null) {
+            return esperaPorLugar(ahora);
+        }
+        if (ventana.inicio() + ventanaMs <= ahora || ventana.intentos() < maximoIntentos) {
+            return 0;
+        }
+        return ventana.inicio() + ventanaMs - ahora;
+    }
+
+    /**
+     * Cuenta un intento. Si la clave ya estaba bloqueada el intento no se cuenta y se retorna
+     * el bloqueo restante (en ms); si no, se retorna 0
+     */
+    public synchronized long intentar(String clave, long ahora) {
+        long restante = bloqueo(clave, ahora);
+        if (restante > 0) {
+            return restante;
+        }
+        registrar(clave, ahora);
+        return 0;
+    }
+
+    /**
+     * Cuenta un intento sin verificar el bloqueo (por ejemplo, un login fallido ya atendido).
+     * Si la clave no tiene ventana y no hay lugar para una nueva, el intento no se cuenta: mientras
+     * tanto bloqueo() rechaza esa clave
+     */
+    public synchronized void registrar(String clave, long ahora) {
+        Ventana ventana = ventanas.get(clave);
+        if (ventana != null && ventana.inicio() + ventanaMs > ahora) {
+            // Reemplazar el valor no cambia la posición de la clave
+            ventanas.put(clave, new Ventana(ventana.inicio(), ventana.intentos() + 1));
+            return;
+        }
+        // Una ventana nueva va al final, para que el orden de inserción sea el de inicio
+        ventanas.remove(clave);
+        if (esperaPorLugar(ahora) == 0) {
+            ventanas.put(clave, new Ventana(ahora, 1));
+        }
+    }
+
+    /**
+     * Descarta las ventanas vencidas y retorna 0 si hay lugar para una clave nueva, o los ms que
+     * faltan para que termine la ventana más antigua
+     */
+    private long esperaPorLugar(long ahora) {
+        Iterator<Ventana> masAntiguas = ventanas.values().iterator();
+        while (masAntiguas.hasNext()) {
+            Ventana masAntigua = masAntiguas.next();
+            if (ventanas.size() < maximoClaves) {
+                return 0;
+            }
+            long fin = masAntigua.inicio() + ventanaMs;
+            if (fin > ahora) {
+                return fin - ahora;
+            }
+            masAntiguas.remove();
+        }
+        return 0;
+    }
+
+    public synchronized void reiniciar(String clave) {
+        ventanas.remove(clave);
+    }
+}
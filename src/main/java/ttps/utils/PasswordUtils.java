@@ -1,16 +1,70 @@
 package ttps.utils;
 
+import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
+import org.bouncycastle.crypto.params.Argon2Parameters;
 import org.mindrot.jbcrypt.BCrypt;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hash de contraseñas con BCrypt o Argon2id. Cada hash guarda su algoritmo y sus parámetros
+ * ("$2a$10$..." o "$argon2id$v=19$m=19456,t=2,p=1$sal$hash"), así que se pueden verificar
+ * hashes generados con parámetros anteriores y detectar con necesitaRehash los que conviene
+ * actualizar
+ */
 public class PasswordUtils {
 
-    private static final int BCRYPT_ROUNDS = 10;
+    public enum Algoritmo { BCRYPT, ARGON2ID }
+
+    /**
+     * Algoritmo y parámetros de hash. BCrypt usa costo (log2 de las rondas); Argon2id usa
+     * memoria en KB, iteraciones y paralelismo
+     */
+    public record Parametros(Algoritmo algoritmo, int costo, int memoriaKb, int iteraciones, int paralelismo) {
+
+        public static Parametros bcrypt(int costo) {
+            return new Parametros(Algoritmo.BCRYPT, costo, 0, 0, 0);
+        }
+
+        public static Parametros argon2id(int memoriaKb, int iteraciones, int paralelismo) {
+            return new Parametros(Algoritmo.ARGON2ID, 0, memoriaKb, iteraciones, paralelismo);
+        }
+    }
+
+    // Usados por las entidades; HashContraseniasService usa los configurados en la aplicación
+    public static final Parametros PREDETERMINADOS = Parametros.bcrypt(10);
+
+    private static final int LARGO_SAL = 16;
+    private static final int LARGO_HASH_ARGON2 = 32;
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]\\$(\\d{2})\\$[./A-Za-z0-9]{53}$");
+    private static final Pattern ARGON2ID = Pattern.compile(
+            "^\\$argon2id\\$v=19\\$m=(\\d+),t=(\\d+),p=(\\d+)\\$([A-Za-z0-9+/]+)\\$([A-Za-z0-9+/]+)$");
+    private static final Base64.Encoder BASE64 = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_DECODER = Base64.getDecoder();
+    private static final SecureRandom RANDOM = new SecureRandom();
 
     public static String hashPassword(String plainPassword) {
+        return hashPassword(plainPassword, PREDETERMINADOS);
+    }
+
+    public static String hashPassword(String plainPassword, Parametros parametros) {
         if (plainPassword == null || plainPassword.isEmpty()) {
             throw new IllegalArgumentException("La contraseña no puede ser nula o vacía");
         }
-        return BCrypt.hashpw(plainPassword, BCrypt.gensalt(BCRYPT_ROUNDS));
+        if (parametros.algoritmo() == Algoritmo.BCRYPT) {
+            return BCrypt.hashpw(plainPassword, BCrypt.gensalt(parametros.costo()));
+        }
+        byte[] sal = new byte[LARGO_SAL];
+        RANDOM.nextBytes(sal);
+        byte[] hash = argon2(plainPassword, sal, parametros.memoriaKb(), parametros.iteraciones(),
+                parametros.paralelismo(), LARGO_HASH_ARGON2);
+        return "$argon2id$v=19$m=" + parametros.memoriaKb() + ",t=" + parametros.iteraciones()
+                + ",p=" + parametros.paralelismo() + "$" + BASE64.encodeToString(sal) + "$" + BASE64.encodeToString(hash);
     }
 
     public static boolean verifyPassword(String plainPassword, String hashedPassword) {
@@ -18,10 +72,58 @@ public class PasswordUtils {
             return false;
         }
         try {
+            if (hashedPassword.startsWith("$argon2id$")) {
+                return verificarArgon2(plainPassword, hashedPassword);
+            }
             return BCrypt.checkpw(plainPassword, hashedPassword);
         } catch (IllegalArgumentException e) {
             return false;
         }
     }
-}
 
+    /**
+     * Indica si el hash se generó con otro algoritmo o con otros parámetros que los indicados
+     */
+    public static boolean necesitaRehash(String hashedPassword, Parametros parametros) {
+        if (hashedPassword == null) {
+            return true;
+        }
+        if (parametros.algoritmo() == Algoritmo.BCRYPT) {
+            Matcher bcrypt = BCRYPT.matcher(hashedPassword);
+            return !bcrypt.matches() || Integer.parseInt(bcrypt.group(1)) != parametros.costo();
+        }
+        Matcher argon2 = ARGON2ID.matcher(hashedPassword);
+        return !argon2.matches()
+                || Integer.parseInt(argon2.group(1)) != parametros.memoriaKb()
+                || Integer.parseInt(argon2.group(2)) != parametros.iteraciones()
+                || Integer.parseInt(argon2.group(3)) != parametros.paralelismo();
+    }
+
+    private static boolean verificarArgon2(String plainPassword, String hashedPassword) {
+        Matcher argon2 = ARGON2ID.matcher(hashedPassword);
+        if (!argon2.matches()) {
+            return false;
+        }
+        byte[] sal = BASE64_DECODER.decode(argon2.group(4));
+        byte[] esperado = BASE64_DECODER.decode(argon2.group(5));
+        byte[] calculado = argon2(plainPassword, sal, Integer.parseInt(argon2.group(1)),
+                Integer.parseInt(argon2.group(2)), Integer.parseInt(argon2.group(3)), esperado.length);
+        // Comparación en tiempo constante
+        return MessageDigest.isEqual(esperado, calculado);
+    }
+
+    private static byte[] argon2(String plainPassword, byte[] sal, int memoriaKb, int iteraciones, int paralelismo,
+                                 int largo) {
+        Argon2BytesGenerator generador = new Argon2BytesGenerator();
+        generador.init(new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+                .withVersion(Argon2Parameters.ARGON2_VERSION_13)
+                .withSalt(sal)
+                .withMemoryAsKB(memoriaKb)
+                .withIterations(iteraciones)
+                .withParallelism(paralelismo)
+                .build());
+        byte[] hash = new byte[largo];
+        generador.generateBytes(plainPassword.getBytes(StandardCharsets.UTF_8), hash);
+        return hash;
+    }
+}
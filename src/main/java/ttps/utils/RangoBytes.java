@@ -0,0 +1,48 @@
+package ttps.utils;
+
+/**
+ * Rango de bytes [inicio, fin] (ambos inclusive) de un header Range "bytes=..."
+ */
+public record RangoBytes(long inicio, long fin) {
+
+    public long longitud() {
+        return fin - inicio + 1;
+    }
+
+    /**
+     * Interpreta un header Range de un único rango: "bytes=100-199", "bytes=100-" o "bytes=-500".
+     * @return el rango ajustado al tamaño del archivo, o null si el header no es un rango simple
+     *         (en ese caso se responde el archivo completo)
+     * @throws IllegalArgumentException si el rango no se puede satisfacer (respuesta 416)
+     */
+    public static RangoBytes parsear(String header, long tamanio) {
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String rango = header.substring("bytes=".length()).trim();
+        int guion = rango.indexOf('-');
+        if (guion < 0) {
+            return null;
+        }
+        try {
+            String desde = rango.substring(0, guion).trim();
+            String hasta = rango.substring(guion + 1).trim();
+            if (desde.isEmpty()) {
+                // Sufijo: los últimos N bytes
+                long sufijo = Long.parseLong(hasta);
+                if (sufijo <= 0 || tamanio == 0) {
+                    throw new IllegalArgumentException("rango no satisfacible " + header);
+                }
+                return new RangoBytes(Math.max(0, tamanio - sufijo), tamanio - 1);
+            }
+            long inicio = Long.parseLong(desde);
+            long fin = hasta.isEmpty() ? tamanio - 1 : Math.min(Long.parseLong(hasta), tamanio - 1);
+            if (inicio >= tamanio || fin < inicio) {
+                throw new IllegalArgumentException("rango no satisfacible " + header);
+            }
+            return new RangoBytes(inicio, fin);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
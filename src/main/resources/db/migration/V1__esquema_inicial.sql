@@ -0,0 +1,80 @@
+-- Esquema inicial: las tablas tal como las generaba Hibernate a partir de las entidades.
+-- Compatible con MySQL 8 y con H2 en modo MySQL (perfil de pruebas "embebida")
+
+CREATE TABLE usuario (
+    usuario_id     BIGINT       NOT NULL AUTO_INCREMENT,
+    tipo_usuario   VARCHAR(31)  NOT NULL,
+    nombre_usuario VARCHAR(50),
+    nombre         VARCHAR(255),
+    apellido       VARCHAR(255),
+    email          VARCHAR(60),
+    contrasenia    VARCHAR(128),
+    telefono       VARCHAR(255),
+    genero         VARCHAR(255),
+    edad           INTEGER,
+    provincia      VARCHAR(255),
+    municipio      VARCHAR(255),
+    departamento   VARCHAR(255),
+    activo         BIT          NOT NULL,
+    version        BIGINT       NOT NULL,
+    PRIMARY KEY (usuario_id),
+    CONSTRAINT uk_usuario_nombre_usuario UNIQUE (nombre_usuario)
+) ENGINE=InnoDB;
+
+CREATE TABLE mascota (
+    mascota_id     INTEGER      NOT NULL AUTO_INCREMENT,
+    nombre         VARCHAR(255),
+    tamaño         ENUM('PEQUENIO','MEDIANO','GRANDE'),
+    color          VARCHAR(255),
+    fecha          DATE,
+    estado         ENUM('PERDIDO_PROPIO','PERDIDO_AJENO','ADOPTADO','RECUPERADO'),
+    fotos          TEXT,
+    miniaturas     TEXT,
+    fotos_medianas TEXT,
+    coordenadas    VARCHAR(255),
+    latitud        FLOAT(53),
+    longitud       FLOAT(53),
+    descripcion    VARCHAR(255),
+    usuario_id     BIGINT,
+    tipo           VARCHAR(255),
+    raza           VARCHAR(255),
+    activo         BIT          NOT NULL,
+    version        BIGINT       NOT NULL,
+    PRIMARY KEY (mascota_id),
+    CONSTRAINT fk_mascota_usuario FOREIGN KEY (usuario_id) REFERENCES usuario (usuario_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE avistamiento (
+    avistamiento_id INTEGER      NOT NULL AUTO_INCREMENT,
+    usuario_id      BIGINT,
+    mascota_id      INTEGER,
+    fotos           TEXT,
+    miniaturas      TEXT,
+    fotos_medianas  TEXT,
+    coordenada      VARCHAR(255),
+    latitud         FLOAT(53),
+    longitud        FLOAT(53),
+    activo          BIT          NOT NULL,
+    fecha           DATE,
+    descripcion     VARCHAR(255),
+    version         BIGINT       NOT NULL,
+    PRIMARY KEY (avistamiento_id),
+    CONSTRAINT fk_avistamiento_usuario FOREIGN KEY (usuario_id) REFERENCES usuario (usuario_id),
+    CONSTRAINT fk_avistamiento_mascota FOREIGN KEY (mascota_id) REFERENCES mascota (mascota_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE archivo (
+    nombre      VARCHAR(80) NOT NULL,
+    referencias INTEGER     NOT NULL,
+    tamanio     BIGINT      NOT NULL,
+    creado      DATETIME(6),
+    PRIMARY KEY (nombre)
+) ENGINE=InnoDB;
+
+-- Búsqueda paginada de mascotas: filtro por activo/estado/tipo y recorrido por (fecha, id)
+CREATE INDEX idx_mascota_activo_estado_fecha ON mascota (activo, estado, fecha, mascota_id);
+CREATE INDEX idx_mascota_activo_fecha ON mascota (activo, fecha, mascota_id);
+CREATE INDEX idx_mascota_activo_tipo_fecha ON mascota (activo, tipo, fecha);
+
+-- Avistamientos activos de una mascota, paginados por (fecha, id)
+CREATE INDEX idx_avistamiento_mascota_activo_fecha ON avistamiento (mascota_id, activo, fecha, avistamiento_id);
@@ -0,0 +1,11 @@
+-- Índices para las consultas de los DAO que todavía recorrían la tabla completa.
+-- IndicesConsultasTest verifica con EXPLAIN que cada consulta de los DAO use un índice
+
+-- Mascotas de un usuario (todas o solo las activas)
+CREATE INDEX idx_mascota_usuario_activo ON mascota (usuario_id, activo);
+
+-- Avistamientos activos: listado por fecha, conteo para estadísticas y ubicaciones para el mapa
+CREATE INDEX idx_avistamiento_activo_fecha ON avistamiento (activo, fecha, avistamiento_id);
+
+-- Login y validación de email repetido
+CREATE INDEX idx_usuario_email_activo ON usuario (email, activo);
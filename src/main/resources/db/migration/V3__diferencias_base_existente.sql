@@ -0,0 +1,21 @@
+-- Bases creadas antes de Flyway con ddl-auto=update: se registran en la versión 1 sin correr V1, y
+-- Hibernate nunca modificaba columnas que ya existían. Estas sentencias llevan esas columnas a la
+-- definición de V1; en una base creada con V1 no cambian nada.
+-- Las columnas agregadas después (version, latitud, longitud, miniaturas, fotos_medianas) ya las
+-- creó ddl-auto=update al desplegar la versión anterior
+
+-- Los hashes Argon2id ocupan hasta 128 caracteres (la columna original era de 60, para BCrypt)
+ALTER TABLE usuario MODIFY contrasenia VARCHAR(128);
+
+-- Valores de los enums de Tamanio y Estado
+ALTER TABLE mascota MODIFY tamaño ENUM('PEQUENIO','MEDIANO','GRANDE');
+ALTER TABLE mascota MODIFY estado ENUM('PERDIDO_PROPIO','PERDIDO_AJENO','ADOPTADO','RECUPERADO');
+
+-- Conteo de referencias de las fotos guardadas
+CREATE TABLE IF NOT EXISTS archivo (
+    nombre      VARCHAR(80) NOT NULL,
+    referencias INTEGER     NOT NULL,
+    tamanio     BIGINT      NOT NULL,
+    creado      DATETIME(6),
+    PRIMARY KEY (nombre)
+) ENGINE=InnoDB;
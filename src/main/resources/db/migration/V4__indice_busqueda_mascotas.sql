@@ -0,0 +1,12 @@
+-- Búsqueda paginada de mascotas sin estado elegido (MascotaDAO.buscarMascotas): filtra
+-- activo = true AND estado IN ('PERDIDO_PROPIO', 'PERDIDO_AJENO') y ordena por (fecha, id).
+-- Con dos valores de estado, idx_mascota_activo_estado_fecha no entrega las filas en ese orden
+-- (serían dos rangos a intercalar), así que la consulta recorre (activo, fecha, mascota_id) en
+-- orden y descarta las mascotas que no están perdidas. Con estado al final del índice ese descarte
+-- se resuelve en el índice (index condition pushdown) sin leer cada fila descartada.
+-- Límite conocido: si casi todas las mascotas activas están adoptadas o recuperadas, una página
+-- igual recorre todas las entradas intermedias del índice hasta juntar las perdidas
+CREATE INDEX idx_mascota_activo_fecha_estado ON mascota (activo, fecha, mascota_id, estado);
+
+-- El índice nuevo empieza con las mismas columnas, así que cubre también las consultas del anterior
+DROP INDEX idx_mascota_activo_fecha ON mascota;
@@ -0,0 +1,83 @@
+package ttps.benchmarks;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import ttps.spring.models.UsuarioRegistrado;
+import ttps.utils.JwtUtils;
+import ttps.utils.PasswordUtils;
+
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Costo de los caminos de autenticación (JMH): emitir un token en el login, validarlo en cada
+ * solicitud y calcular o verificar el hash de una contraseña con los parámetros predeterminados.
+ * Se ejecuta solo con el perfil de Maven "benchmarks" (mvn test -Pbenchmarks); los resultados
+ * quedan en target/jmh/AutenticacionBenchmarkTest.json
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutenticacionBenchmarkTest {
+
+    private static final String CONTRASENIA = "Benchmark-2024!";
+
+    private JwtUtils jwtUtils;
+    private UsuarioRegistrado usuario;
+    private String token;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils(10_000);
+        usuario = new UsuarioRegistrado();
+        usuario.setId(7);
+        usuario.setEmail("benchmark.autenticacion@example.com");
+        token = jwtUtils.generateToken(usuario);
+        hash = PasswordUtils.hashPassword(CONTRASENIA);
+        assertNotNull(jwtUtils.validarToken(token));
+        assertTrue(PasswordUtils.verifyPassword(CONTRASENIA, hash));
+    }
+
+    @Benchmark
+    public String generarToken() {
+        return jwtUtils.generateToken(usuario);
+    }
+
+    @Benchmark
+    public JwtUtils.TokenVerificado validarToken() {
+        return jwtUtils.validarToken(token);
+    }
+
+    @Benchmark
+    public String hashContrasenia() {
+        return PasswordUtils.hashPassword(CONTRASENIA);
+    }
+
+    @Benchmark
+    public boolean verificarContrasenia() {
+        return PasswordUtils.verifyPassword(CONTRASENIA, hash);
+    }
+
+    @Test
+    @DisplayName("Benchmark - Emisión y validación de tokens y hash de contraseñas")
+    public void testCostoAutenticacion() throws Exception {
+        Map<String, Double> microsPorOperacion = ResultadosJmh.puntajes(
+                ResultadosJmh.ejecutar(AutenticacionBenchmarkTest.class));
+        System.out.println("us por operación: " + microsPorOperacion);
+
+        assertTrue(Files.exists(ResultadosJmh.archivo(AutenticacionBenchmarkTest.class)));
+        // Assert - El hash es deliberadamente costoso; emitir y validar tokens no debe acercarse
+        assertTrue(microsPorOperacion.get("generarToken") * 10 < microsPorOperacion.get("hashContrasenia"));
+        assertTrue(microsPorOperacion.get("validarToken") * 10 < microsPorOperacion.get("verificarContrasenia"));
+    }
+}
@@ -0,0 +1,175 @@
+package ttps.benchmarks;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ttps.spring.Application;
+import ttps.spring.models.*;
+import ttps.spring.services.AvistamientoService;
+import ttps.spring.services.MascotaService;
+import ttps.spring.services.UsuarioService;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark de regresión de GET /avistamientos/mascota/{id}: la latencia de la consulta paginada
+ * debe mantenerse estable mientras crece la cantidad total de avistamientos del sistema.
+ * Se ejecuta solo con el perfil de Maven "benchmarks" (mvn test -Pbenchmarks); las cantidades
+ * se configuran con -Dbenchmark.avistamientos=10000,100000,1000000
+ */
+@Tag("benchmark")
+@SpringBootTest(classes = Application.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class AvistamientosPorMascotaBenchmarkTest {
+
+    private static final int AVISTAMIENTOS_MASCOTA = 30;
+    private static final int TAMANIO_PAGINA = 20;
+    private static final int TAMANIO_LOTE = 10_000;
+    private static final int CALENTAMIENTO = 50;
+    private static final int MEDICIONES = 200;
+
+    // La mediana con el volumen mayor puede ser a lo sumo FACTOR_MAXIMO veces la del menor
+    // (con una tolerancia absoluta para tiempos muy chicos)
+    private static final double FACTOR_MAXIMO = 3.0;
+    private static final long TOLERANCIA_NANOS = 2_000_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private MascotaService mascotaService;
+
+    @Autowired
+    private AvistamientoService avistamientoService;
+
+    @Value("${benchmark.avistamientos:10000,100000,1000000}")
+    private String cantidades;
+
+    private Usuario usuario;
+    private Mascota mascota;
+    private Mascota mascotaRuido;
+    private int insertados = 0;
+
+    @BeforeAll
+    public void setUp() {
+        usuario = usuarioService.crearUsuario(new Usuario(
+                "Benchmark", "Avistamientos", "benchmark.avistamientos@example.com", "benchmark",
+                "3510000000", "Córdoba", "Centro", "Capital"));
+        mascota = crearMascota("Objetivo");
+        mascotaRuido = crearMascota("Ruido");
+
+        for (int i = 0; i < AVISTAMIENTOS_MASCOTA; i++) {
+            Avistamiento avistamiento = new Avistamiento();
+            avistamiento.setFecha(LocalDate.now().minusDays(i));
+            avistamiento.setCoordenada("-31.4200,-64.1885");
+            avistamiento.setFotos(List.of());
+            usuario.agregarAvistamiento(avistamiento, mascota);
+            avistamientoService.crearAvistamiento(avistamiento);
+        }
+    }
+
+    @Test
+    @DisplayName("Benchmark - La latencia por mascota no depende del total de avistamientos")
+    public void testLatenciaEstable() {
+        List<Integer> volumenes = Arrays.stream(cantidades.split(","))
+                .map(String::trim)
+                .map(Integer::parseInt)
+                .sorted()
+                .toList();
+        List<Long> medianas = new ArrayList<>();
+
+        for (int volumen : volumenes) {
+            sembrarHasta(volumen);
+            long mediana = medirMediana();
+            medianas.add(mediana);
+            System.out.printf("✓ %,d avistamientos en total: mediana %.3f ms por página%n",
+                    volumen, mediana / 1_000_000.0);
+        }
+
+        long inicial = medianas.get(0);
+        long fin = medianas.get(medianas.size() - 1);
+        assertTrue(fin <= Math.max(inicial * FACTOR_MAXIMO, inicial + TOLERANCIA_NANOS),
+                String.format("La latencia creció de %.3f ms a %.3f ms", inicial / 1_000_000.0, fin / 1_000_000.0));
+    }
+
+    /**
+     * Inserta avistamientos de otra mascota (y algunos inactivos de la mascota medida)
+     * hasta llegar al volumen indicado
+     */
+    private void sembrarHasta(int volumen) {
+        String sql = "INSERT INTO avistamiento (activo, fecha, coordenada, fotos, mascota_id, usuario_id) VALUES (?, ?, ?, ?, ?, ?)";
+        while (insertados < volumen) {
+            int lote = Math.min(TAMANIO_LOTE, volumen - insertados);
+            List<Object[]> filas = new ArrayList<>(lote);
+            for (int i = 0; i < lote; i++) {
+                int n = insertados + i;
+                boolean inactivoDeLaMascota = n % 10 == 0;
+                filas.add(new Object[]{
+                        !inactivoDeLaMascota,
+                        Date.valueOf(LocalDate.now().minusDays(n % 365)),
+                        "-31.4200,-64.1885",
+                        "[]",
+                        inactivoDeLaMascota ? mascota.getId() : mascotaRuido.getId(),
+                        usuario.getId()
+                });
+            }
+            jdbcTemplate.batchUpdate(sql, filas);
+            insertados += lote;
+        }
+    }
+
+    private long medirMediana() {
+        long mascotaId = mascota.getId();
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            avistamientoService.obtenerAvistamientosPorMascota(mascotaId, null, null, TAMANIO_PAGINA);
+        }
+        long[] tiempos = new long[MEDICIONES];
+        for (int i = 0; i < MEDICIONES; i++) {
+            long inicio = System.nanoTime();
+            int cantidad = avistamientoService.obtenerAvistamientosPorMascota(mascotaId, null, null, TAMANIO_PAGINA)
+                    .getItems().size();
+            tiempos[i] = System.nanoTime() - inicio;
+            assertEquals(TAMANIO_PAGINA, cantidad);
+        }
+        Arrays.sort(tiempos);
+        return tiempos[MEDICIONES / 2];
+    }
+
+    private Mascota crearMascota(String nombre) {
+        Mascota nueva = new Mascota();
+        nueva.setNombre(nombre);
+        nueva.setTipo("Perro");
+        nueva.setTamanio(Tamanio.MEDIANO);
+        nueva.setFecha(LocalDate.now());
+        nueva.setEstado(Estado.PERDIDO_PROPIO);
+        nueva.setCoordenadas("-31.4201,-64.1888");
+        nueva.setFotos(List.of());
+        usuario.agregarMascota(nueva);
+        return mascotaService.crearMascota(nueva);
+    }
+
+    @AfterAll
+    public void tearDown() {
+        // Los avistamientos sembrados se eliminan físicamente para no dejar millones de filas
+        if (mascota != null && mascotaRuido != null) {
+            jdbcTemplate.update("DELETE FROM avistamiento WHERE mascota_id IN (?, ?)",
+                    mascota.getId(), mascotaRuido.getId());
+            mascotaService.eliminarMascota((long) mascota.getId());
+            mascotaService.eliminarMascota((long) mascotaRuido.getId());
+        }
+        if (usuario != null) {
+            usuarioService.eliminarUsuario(usuario.getId());
+        }
+    }
+}
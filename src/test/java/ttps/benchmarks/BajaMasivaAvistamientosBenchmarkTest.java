@@ -0,0 +1,148 @@
+package ttps.benchmarks;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ttps.spring.Application;
+import ttps.spring.models.*;
+import ttps.spring.persistence.dao.interfaces.AvistamientoDAO;
+import ttps.spring.services.AvistamientoService;
+import ttps.spring.services.MascotaService;
+import ttps.spring.services.UsuarioService;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark de la baja de los avistamientos de una mascota recuperada: con un UPDATE masivo la
+ * cantidad de sentencias no depende de cuántos avistamientos tenga, y se compara contra la baja
+ * entidad por entidad (merge + flush por avistamiento). Se ejecuta solo con el perfil de Maven
+ * "benchmarks" (mvn test -Pbenchmarks); las cantidades se configuran con
+ * -Dbenchmark.avistamientos-mascota=1000,5000
+ */
+@Tag("benchmark")
+@SpringBootTest(classes = Application.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class BajaMasivaAvistamientosBenchmarkTest {
+
+    // Los ids activos de la mascota y el UPDATE
+    private static final long SENTENCIAS_ESPERADAS = 2;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private MascotaService mascotaService;
+
+    @Autowired
+    private AvistamientoService avistamientoService;
+
+    @Autowired
+    private AvistamientoDAO avistamientoDAO;
+
+    @Value("${benchmark.avistamientos-mascota:1000,5000}")
+    private String cantidades;
+
+    private Statistics estadisticas;
+    private Usuario usuario;
+    private final List<Mascota> mascotas = new ArrayList<>();
+
+    @BeforeAll
+    public void setUp() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        usuario = usuarioService.crearUsuario(new Usuario(
+                "Benchmark", "Bajas", "benchmark.bajas@example.com", "benchmark",
+                "3510000001", "Córdoba", "Centro", "Capital"));
+    }
+
+    @Test
+    @DisplayName("Benchmark - La baja masiva usa las mismas sentencias sin importar la cantidad")
+    public void testBajaMasiva() {
+        List<Integer> volumenes = Arrays.stream(cantidades.split(","))
+                .map(String::trim)
+                .map(Integer::parseInt)
+                .sorted()
+                .toList();
+
+        for (int volumen : volumenes) {
+            // UPDATE masivo
+            Mascota masiva = crearMascotaConAvistamientos("Masiva " + volumen, volumen);
+            estadisticas.clear();
+            long inicio = System.nanoTime();
+            avistamientoService.eliminarTodosLosAvistamientosDeMascota((long) masiva.getId());
+            long masivaNanos = System.nanoTime() - inicio;
+            long sentencias = estadisticas.getPrepareStatementCount();
+
+            // Entidad por entidad, como antes del UPDATE masivo
+            Mascota individual = crearMascotaConAvistamientos("Individual " + volumen, volumen);
+            inicio = System.nanoTime();
+            new TransactionTemplate(transactionManager).executeWithoutResult(estado -> {
+                for (Avistamiento avistamiento : avistamientoDAO.findByMascotaId((long) individual.getId())) {
+                    avistamientoDAO.delete(avistamiento);
+                }
+            });
+            long individualNanos = System.nanoTime() - inicio;
+
+            System.out.printf("✓ %,d avistamientos: masivo %.1f ms (%d sentencias), individual %.1f ms%n",
+                    volumen, masivaNanos / 1_000_000.0, sentencias, individualNanos / 1_000_000.0);
+            assertEquals(SENTENCIAS_ESPERADAS, sentencias);
+            assertTrue(avistamientoDAO.findIdsActivosPorMascota((long) masiva.getId()).isEmpty());
+            assertTrue(masivaNanos < individualNanos, "El UPDATE masivo debe ser más rápido");
+        }
+    }
+
+    private Mascota crearMascotaConAvistamientos(String nombre, int cantidad) {
+        Mascota nueva = new Mascota();
+        nueva.setNombre(nombre);
+        nueva.setTipo("Perro");
+        nueva.setTamanio(Tamanio.MEDIANO);
+        nueva.setFecha(LocalDate.now());
+        nueva.setEstado(Estado.PERDIDO_PROPIO);
+        nueva.setFotos(List.of());
+        usuario.agregarMascota(nueva);
+        Mascota mascota = mascotaService.crearMascota(nueva);
+        mascotas.add(mascota);
+
+        List<Object[]> filas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            filas.add(new Object[]{true, Date.valueOf(LocalDate.now().minusDays(i % 365)),
+                    "-31.4200,-64.1885", "[]", mascota.getId(), usuario.getId()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO avistamiento (activo, fecha, coordenada, fotos, mascota_id, usuario_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", filas);
+        return mascota;
+    }
+
+    @AfterAll
+    public void tearDown() {
+        // Los avistamientos sembrados se eliminan físicamente
+        for (Mascota mascota : mascotas) {
+            jdbcTemplate.update("DELETE FROM avistamiento WHERE mascota_id = ?", mascota.getId());
+            mascotaService.eliminarMascota((long) mascota.getId());
+        }
+        if (usuario != null) {
+            usuarioService.eliminarUsuario(usuario.getId());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ttps.benchmarks;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ttps.utils.PasswordUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Calibra los parámetros de hash de contraseñas para el hardware donde se ejecuta: mide la
+ * mediana de verificación de BCrypt con costos crecientes y de Argon2id con memoria creciente,
+ * y propone los parámetros más costosos que no superan la latencia objetivo (por defecto 100 ms,
+ * configurable con -Dcalibracion.objetivo-ms=250). El resultado se copia a app.contrasenias.*
+ * Se ejecuta solo con el perfil de Maven "benchmarks" (mvn test -Pbenchmarks)
+ */
+@Tag("benchmark")
+public class CalibracionHashBenchmarkTest {
+
+    private static final String CONTRASENIA = "Calibracion-2024!";
+    private static final int MEDICIONES = 5;
+    private static final int[] COSTOS_BCRYPT = {8, 9, 10, 11, 12, 13, 14};
+    // 19 MiB y 2 iteraciones es el mínimo recomendado por OWASP para Argon2id
+    private static final int[] MEMORIAS_ARGON2_KB = {19_456, 32_768, 47_104, 65_536, 131_072};
+    private static final int ITERACIONES_ARGON2 = 2;
+
+    @Test
+    @DisplayName("Calibración - Parámetros de BCrypt y Argon2id para la latencia objetivo")
+    public void testCalibrar() {
+        long objetivoMs = Long.getLong("calibracion.objetivo-ms", 100);
+
+        List<Double> tiemposBcrypt = new ArrayList<>();
+        PasswordUtils.Parametros elegidoBcrypt = null;
+        for (int costo : COSTOS_BCRYPT) {
+            PasswordUtils.Parametros parametros = PasswordUtils.Parametros.bcrypt(costo);
+            double ms = medianaVerificacionMs(parametros);
+            tiemposBcrypt.add(ms);
+            System.out.printf("bcrypt costo=%d: %.1f ms%n", costo, ms);
+            if (ms > objetivoMs) {
+                break;
+            }
+            elegidoBcrypt = parametros;
+        }
+
+        PasswordUtils.Parametros elegidoArgon2 = null;
+        for (int memoriaKb : MEMORIAS_ARGON2_KB) {
+            PasswordUtils.Parametros parametros = PasswordUtils.Parametros.argon2id(memoriaKb, ITERACIONES_ARGON2, 1);
+            double ms = medianaVerificacionMs(parametros);
+            System.out.printf("argon2id m=%d t=%d p=1: %.1f ms%n", memoriaKb, ITERACIONES_ARGON2, ms);
+            if (ms > objetivoMs) {
+                break;
+            }
+            elegidoArgon2 = parametros;
+        }
+
+        System.out.println("Objetivo: " + objetivoMs + " ms por verificación");
+        if (elegidoBcrypt != null) {
+            System.out.println("app.contrasenias.bcrypt.costo=" + elegidoBcrypt.costo());
+        }
+        if (elegidoArgon2 != null) {
+            System.out.println("app.contrasenias.argon2.memoria-kb=" + elegidoArgon2.memoriaKb());
+            System.out.println("app.contrasenias.argon2.iteraciones=" + elegidoArgon2.iteraciones());
+            System.out.println("app.contrasenias.argon2.paralelismo=" + elegidoArgon2.paralelismo());
+        }
+
+        // Assert - Cada incremento del costo de BCrypt duplica el trabajo: el tiempo debe crecer
+        for (int i = 1; i < tiemposBcrypt.size(); i++) {
+            assertTrue(tiemposBcrypt.get(i) > tiemposBcrypt.get(i - 1),
+                    "El costo " + COSTOS_BCRYPT[i] + " debería ser más lento que " + COSTOS_BCRYPT[i - 1]);
+        }
+    }
+
+    private static double medianaVerificacionMs(PasswordUtils.Parametros parametros) {
+        String hash = PasswordUtils.hashPassword(CONTRASENIA, parametros);
+        // Calentamiento
+        assertTrue(PasswordUtils.verifyPassword(CONTRASENIA, hash));
+        double[] tiempos = new double[MEDICIONES];
+        for (int i = 0; i < MEDICIONES; i++) {
+            long inicio = System.nanoTime();
+            assertTrue(PasswordUtils.verifyPassword(CONTRASENIA, hash));
+            tiempos[i] = (System.nanoTime() - inicio) / 1_000_000.0;
+        }
+        Arrays.sort(tiempos);
+        return tiempos[MEDICIONES / 2];
+    }
+}
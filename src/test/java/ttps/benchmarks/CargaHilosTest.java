@@ -0,0 +1,207 @@
+package ttps.benchmarks;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import ttps.spring.Application;
+import ttps.spring.models.*;
+import ttps.spring.services.MascotaService;
+import ttps.spring.services.UsuarioService;
+import ttps.utils.JwtUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba de carga que compara los dos modos de ejecución (spring.threads.virtual.enabled) con la
+ * aplicación levantada en un puerto real: throughput y p99 de GET /mascotas/perdidas y de
+ * POST /mascotas/{id}/fotos con más clientes concurrentes que hilos tiene Tomcat por defecto (200).
+ * Cada cliente envía sus solicitudes de a una (carga cerrada). Se ejecuta solo con el perfil de
+ * Maven "carga" (mvn test -Pcarga); la carga se ajusta con -Dcarga.clientes=400 y
+ * -Dcarga.solicitudes=4000. Los resultados dependen de la latencia de la base: contra MySQL la
+ * espera por E/S es la que los hilos virtuales dejan de retener
+ */
+@Tag("carga")
+public class CargaHilosTest {
+
+    private static final int CLIENTES = Integer.getInteger("carga.clientes", 400);
+    private static final int SOLICITUDES = Integer.getInteger("carga.solicitudes", 4000);
+    private static final int CALENTAMIENTO = 500;
+    private static final int LADO_FOTO = 64;
+
+    private record Resultado(String escenario, boolean virtuales, double porSegundo, double p50Ms, double p99Ms) {
+    }
+
+    @Test
+    @DisplayName("Carga - Hilos de plataforma contra hilos virtuales en listados y subida de fotos")
+    public void testCompararModos() throws Exception {
+        List<Resultado> resultados = new ArrayList<>();
+        resultados.addAll(medir(false));
+        resultados.addAll(medir(true));
+
+        System.out.printf("%-26s %-10s %12s %10s %10s%n", "escenario", "hilos", "req/s", "p50 ms", "p99 ms");
+        for (Resultado resultado : resultados) {
+            System.out.printf("%-26s %-10s %12.1f %10.2f %10.2f%n", resultado.escenario(),
+                    resultado.virtuales() ? "virtuales" : "plataforma",
+                    resultado.porSegundo(), resultado.p50Ms(), resultado.p99Ms());
+        }
+    }
+
+    private List<Resultado> medir(boolean virtuales) throws Exception {
+        Path uploads = Files.createTempDirectory("carga-uploads");
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(Application.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtuales,
+                        "spring.jpa.show-sql=false",
+                        "app.upload.dir=" + uploads)
+                .run()) {
+            String base = "http://localhost:" + ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            UsuarioService usuarioService = contexto.getBean(UsuarioService.class);
+            MascotaService mascotaService = contexto.getBean(MascotaService.class);
+
+            Usuario usuario = usuarioService.crearUsuario(new UsuarioRegistrado(
+                    "carga." + virtuales, "Carga", "Hilos", "carga." + virtuales + "@example.com", "password123",
+                    "3510000000", "Otro", 30, "Córdoba", "Centro", "Capital"));
+            try {
+                // Una mascota por cliente, para que las subidas no compitan por la misma versión
+                List<Mascota> mascotas = new ArrayList<>();
+                for (int i = 0; i < CLIENTES; i++) {
+                    mascotas.add(crearMascota(mascotaService, usuario, "Carga " + i));
+                }
+                String token = "Bearer " + contexto.getBean(JwtUtils.class).generateToken(usuario);
+                byte[][] fotos = generarFotos(SOLICITUDES);
+
+                try (HttpClient cliente = HttpClient.newBuilder()
+                        .executor(Executors.newVirtualThreadPerTaskExecutor())
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .build()) {
+                    IntFunction<HttpRequest> perdidas = n -> HttpRequest.newBuilder(URI.create(base + "/mascotas/perdidas"))
+                            .GET().build();
+                    IntFunction<HttpRequest> subida = n -> subirFoto(base, token,
+                            mascotas.get(n % CLIENTES).getId(), fotos[n]);
+
+                    ejecutar(cliente, perdidas, CALENTAMIENTO);
+                    Resultado listado = ejecutar("GET /mascotas/perdidas", virtuales, cliente, perdidas);
+                    Resultado fotosSubidas = ejecutar("POST /mascotas/{id}/fotos", virtuales, cliente, subida);
+                    return List.of(listado, fotosSubidas);
+                }
+            } finally {
+                usuarioService.eliminarUsuario((long) usuario.getId());
+            }
+        } finally {
+            FileSystemUtils.deleteRecursively(uploads);
+        }
+    }
+
+    private Resultado ejecutar(String escenario, boolean virtuales, HttpClient cliente,
+                               IntFunction<HttpRequest> solicitud) throws Exception {
+        long inicio = System.nanoTime();
+        long[] tiempos = ejecutar(cliente, solicitud, SOLICITUDES);
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        Arrays.sort(tiempos);
+        return new Resultado(escenario, virtuales, SOLICITUDES / segundos,
+                tiempos[tiempos.length / 2] / 1_000_000.0,
+                tiempos[(int) Math.ceil(tiempos.length * 0.99) - 1] / 1_000_000.0);
+    }
+
+    /**
+     * Reparte las solicitudes entre CLIENTES hilos virtuales que las envían de a una
+     * y retorna la latencia de cada solicitud en nanosegundos
+     */
+    private long[] ejecutar(HttpClient cliente, IntFunction<HttpRequest> solicitud, int cantidad) throws Exception {
+        long[] tiempos = new long[cantidad];
+        try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> pendientes = new ArrayList<>();
+            for (int c = 0; c < CLIENTES; c++) {
+                int primero = c;
+                pendientes.add(clientes.submit(() -> {
+                    for (int n = primero; n < cantidad; n += CLIENTES) {
+                        long inicio = System.nanoTime();
+                        HttpResponse<String> respuesta = cliente.send(solicitud.apply(n), HttpResponse.BodyHandlers.ofString());
+                        tiempos[n] = System.nanoTime() - inicio;
+                        assertEquals(200, respuesta.statusCode(), respuesta.body());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> pendiente : pendientes) {
+                pendiente.get();
+            }
+        }
+        return tiempos;
+    }
+
+    private static HttpRequest subirFoto(String base, String token, int mascotaId, byte[] foto) {
+        String limite = "carga" + mascotaId + "x" + foto.length;
+        byte[] inicio = ("--" + limite + "\r\n"
+                + "Content-Disposition: form-data; name=\"fotos\"; filename=\"foto.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] fin = ("\r\n--" + limite + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        return HttpRequest.newBuilder(URI.create(base + "/mascotas/" + mascotaId + "/fotos"))
+                .header("Authorization", token)
+                .header("Content-Type", "multipart/form-data; boundary=" + limite)
+                .POST(HttpRequest.BodyPublishers.concat(
+                        HttpRequest.BodyPublishers.ofByteArray(inicio),
+                        HttpRequest.BodyPublishers.ofByteArray(foto),
+                        HttpRequest.BodyPublishers.ofByteArray(fin)))
+                .build();
+    }
+
+    /**
+     * Fotos distintas entre sí: el almacén está direccionado por contenido y no volvería a
+     * escribir una foto repetida
+     */
+    private static byte[][] generarFotos(int cantidad) throws IOException {
+        Random random = new Random(42);
+        byte[][] fotos = new byte[cantidad][];
+        for (int i = 0; i < cantidad; i++) {
+            BufferedImage imagen = new BufferedImage(LADO_FOTO, LADO_FOTO, BufferedImage.TYPE_INT_RGB);
+            for (int x = 0; x < LADO_FOTO; x++) {
+                for (int y = 0; y < LADO_FOTO; y++) {
+                    imagen.setRGB(x, y, random.nextInt(0xFFFFFF));
+                }
+            }
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            ImageIO.write(imagen, "png", salida);
+            fotos[i] = salida.toByteArray();
+        }
+        return fotos;
+    }
+
+    private static Mascota crearMascota(MascotaService mascotaService, Usuario usuario, String nombre) {
+        Mascota nueva = new Mascota();
+        nueva.setNombre(nombre);
+        nueva.setTipo("Perro");
+        nueva.setTamanio(Tamanio.MEDIANO);
+        nueva.setFecha(LocalDate.now());
+        nueva.setEstado(Estado.PERDIDO_PROPIO);
+        nueva.setCoordenadas("-31.4201,-64.1888");
+        nueva.setFotos(List.of());
+        usuario.agregarMascota(nueva);
+        return mascotaService.crearMascota(nueva);
+    }
+}
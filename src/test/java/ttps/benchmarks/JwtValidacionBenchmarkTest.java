@@ -0,0 +1,97 @@
+package ttps.benchmarks;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ttps.spring.models.UsuarioRegistrado;
+import ttps.utils.JwtUtils;
+
+import javax.crypto.SecretKey;
+import java.lang.reflect.Field;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Costo de autenticar una solicitud en JwtAuthenticationFilter (JMH):
+ * - antes: cuatro parseos con un parser nuevo cada vez (extractEmail, isTokenExpired, extractUserId, extractTipo)
+ * - parserUnico: un único parseo y verificación de firma con el parser compartido (token no cacheado)
+ * - conCache: JwtUtils.validarToken con el token ya verificado
+ * Se ejecuta solo con el perfil de Maven "benchmarks" (mvn test -Pbenchmarks)
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtValidacionBenchmarkTest {
+
+    private JwtUtils jwtUtils;
+    private SecretKey clave;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        jwtUtils = new JwtUtils(10_000);
+        Field campo = JwtUtils.class.getDeclaredField("SECRET_KEY");
+        campo.setAccessible(true);
+        clave = (SecretKey) campo.get(jwtUtils);
+        parser = Jwts.parser().verifyWith(clave).build();
+
+        UsuarioRegistrado usuario = new UsuarioRegistrado();
+        usuario.setId(42);
+        usuario.setEmail("benchmark.jwt@example.com");
+        token = jwtUtils.generateToken(usuario);
+        assertNotNull(jwtUtils.validarToken(token));
+    }
+
+    @Benchmark
+    public void antes(Blackhole blackhole) {
+        String email = parsearConParserNuevo().getSubject();
+        boolean vencido = parsearConParserNuevo().getExpiration().before(new Date());
+        Long userId = parsearConParserNuevo().get("userId", Long.class);
+        String tipo = parsearConParserNuevo().get("tipo", String.class);
+        blackhole.consume(email);
+        blackhole.consume(vencido);
+        blackhole.consume(userId);
+        blackhole.consume(tipo);
+    }
+
+    private Claims parsearConParserNuevo() {
+        return Jwts.parser().verifyWith(clave).build().parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public JwtUtils.TokenVerificado parserUnico() {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        return new JwtUtils.TokenVerificado(claims.get("userId", Long.class), claims.getSubject(),
+                claims.get("tipo", String.class), claims.getExpiration().getTime());
+    }
+
+    @Benchmark
+    public JwtUtils.TokenVerificado conCache() {
+        return jwtUtils.validarToken(token);
+    }
+
+    @Test
+    @DisplayName("Benchmark - Autenticación de una solicitud con y sin cache de tokens verificados")
+    public void testCostoAutenticacion() throws Exception {
+        Map<String, Double> nanosPorSolicitud = ResultadosJmh.puntajes(
+                ResultadosJmh.ejecutar(JwtValidacionBenchmarkTest.class));
+        System.out.println("ns por solicitud: " + nanosPorSolicitud);
+
+        // Assert - Parsear una vez es más barato que cuatro veces, y el cache evita el parseo
+        assertTrue(nanosPorSolicitud.get("parserUnico") < nanosPorSolicitud.get("antes"));
+        assertTrue(nanosPorSolicitud.get("conCache") < nanosPorSolicitud.get("parserUnico"));
+    }
+}
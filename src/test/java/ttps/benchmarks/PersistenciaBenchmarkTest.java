@@ -0,0 +1,169 @@
+package ttps.benchmarks;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import ttps.spring.Application;
+import ttps.spring.models.*;
+import ttps.spring.persistence.dao.interfaces.MascotaDAO;
+import ttps.spring.services.FileStorageService;
+import ttps.spring.services.MascotaService;
+import ttps.spring.services.UsuarioService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Costo de los caminos que pasan por JPA (JMH), con la aplicación levantada sin servidor web
+ * sobre la base H2 embebida del perfil "embebida":
+ * - listarMascotas: GenericDAOHibernateJPA.getAll con distintas cantidades de filas
+ * - guardarBase64: FileStorageService.saveImageFromBase64 con imágenes de distintos tamaños,
+ *   siempre con contenido nuevo (el almacén no repite archivos iguales)
+ * Cada combinación de parámetros corre en su propio fork con una base nueva.
+ * Se ejecuta solo con el perfil de Maven "benchmarks" (mvn test -Pbenchmarks); los resultados
+ * quedan en target/jmh/PersistenciaBenchmarkTest.json
+ */
+@Tag("benchmark")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenciaBenchmarkTest {
+
+    @State(Scope.Benchmark)
+    public static class Contexto {
+
+        Path uploads;
+        ConfigurableApplicationContext aplicacion;
+
+        @Setup
+        public void iniciar() throws IOException {
+            uploads = Files.createTempDirectory("benchmark-uploads");
+            // El fork de JMH no recibe las propiedades de Surefire: el perfil se activa acá
+            aplicacion = new SpringApplicationBuilder(Application.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("embebida")
+                    .run("--app.upload.dir=" + uploads);
+        }
+
+        @TearDown
+        public void cerrar() throws IOException {
+            aplicacion.close();
+            FileSystemUtils.deleteRecursively(uploads);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Listado {
+
+        @Param({"100", "1000"})
+        int filas;
+
+        MascotaDAO mascotaDAO;
+
+        @Setup
+        public void cargar(Contexto contexto) {
+            mascotaDAO = contexto.aplicacion.getBean(MascotaDAO.class);
+            MascotaService mascotaService = contexto.aplicacion.getBean(MascotaService.class);
+            UsuarioRegistrado usuario = new UsuarioRegistrado();
+            usuario.setNombreUsuario("benchmark.persistencia");
+            usuario.setNombre("Benchmark");
+            usuario.setApellido("Persistencia");
+            usuario.setEmail("benchmark.persistencia@example.com");
+            usuario.setContrasenia("benchmark");
+            usuario.setTelefono("3510000000");
+            Usuario guardado = contexto.aplicacion.getBean(UsuarioService.class).crearUsuario(usuario);
+            for (int i = 0; i < filas; i++) {
+                Mascota nueva = new Mascota();
+                nueva.setNombre("Mascota " + i);
+                nueva.setTipo(i % 2 == 0 ? "Perro" : "Gato");
+                nueva.setTamanio(Tamanio.MEDIANO);
+                nueva.setColor("Marrón");
+                nueva.setFecha(LocalDate.now().minusDays(i % 60));
+                nueva.setEstado(Estado.PERDIDO_PROPIO);
+                nueva.setCoordenadas("-31.4201,-64.1888");
+                nueva.setFotos(List.of("/uploads/mascota_" + i + ".jpg"));
+                guardado.agregarMascota(nueva);
+                mascotaService.crearMascota(nueva);
+            }
+            assertEquals(filas, mascotaDAO.getAll("id").size());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Fotos {
+
+        @Param({"16", "256", "1024"})
+        int kb;
+
+        FileStorageService fileStorageService;
+        String resto;
+        int contador;
+        final List<String> guardadas = new ArrayList<>();
+
+        @Setup
+        public void preparar(Contexto contexto) {
+            fileStorageService = contexto.aplicacion.getBean(FileStorageService.class);
+            // Bytes al azar, múltiplo de 3 para que el Base64 no tenga relleno en el medio
+            byte[] bytes = new byte[kb * 1024 / 3 * 3];
+            new Random(kb).nextBytes(bytes);
+            resto = Base64.getEncoder().encodeToString(bytes);
+        }
+
+        /**
+         * Cada invocación cambia los 3 bytes que siguen a la firma JPEG: el contenido (y su hash) es
+         * nuevo y el guardado escribe el archivo en lugar de solo sumar una referencia
+         */
+        String siguiente() {
+            int n = contador++;
+            byte[] prefijo = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) (n >>> 16), (byte) (n >>> 8), (byte) n};
+            return "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(prefijo) + resto;
+        }
+
+        @TearDown(Level.Iteration)
+        public void borrar() throws IOException {
+            fileStorageService.deleteFiles(guardadas);
+            guardadas.clear();
+        }
+    }
+
+    @Benchmark
+    public List<Mascota> listarMascotas(Listado listado) {
+        return listado.mascotaDAO.getAll("id");
+    }
+
+    @Benchmark
+    public String guardarBase64(Fotos fotos) throws IOException {
+        String url = fotos.fileStorageService.saveImageFromBase64(fotos.siguiente());
+        fotos.guardadas.add(url);
+        return url;
+    }
+
+    @Test
+    @DisplayName("Benchmark - Listado con getAll y guardado de imágenes Base64 sobre la base embebida")
+    public void testCostoPersistencia() throws Exception {
+        Map<String, Double> microsPorOperacion = ResultadosJmh.puntajes(
+                ResultadosJmh.ejecutar(PersistenciaBenchmarkTest.class));
+        System.out.println("us por operación: " + microsPorOperacion);
+
+        // Assert - Listar y guardar crecen con el volumen
+        assertTrue(microsPorOperacion.get("listarMascotas[filas=100]") < microsPorOperacion.get("listarMascotas[filas=1000]"));
+        assertTrue(microsPorOperacion.get("guardarBase64[kb=16]") < microsPorOperacion.get("guardarBase64[kb=1024]"));
+    }
+}
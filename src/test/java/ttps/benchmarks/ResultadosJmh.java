@@ -0,0 +1,59 @@
+package ttps.benchmarks;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Ejecuta los benchmarks JMH de una clase y guarda los resultados en JSON, en
+ * target/jmh/&lt;Clase&gt;.json (el directorio se cambia con -Djmh.resultados=...), para
+ * comparar entre versiones con cualquier visor de resultados de JMH
+ */
+final class ResultadosJmh {
+
+    private ResultadosJmh() {
+    }
+
+    static Collection<RunResult> ejecutar(Class<?> clase) throws RunnerException, IOException {
+        Files.createDirectories(archivo(clase).getParent());
+        return new Runner(new OptionsBuilder()
+                .include(clase.getName() + "\\.")
+                .resultFormat(ResultFormatType.JSON)
+                .result(archivo(clase).toString())
+                .build()).run();
+    }
+
+    static Path archivo(Class<?> clase) {
+        return Paths.get(System.getProperty("jmh.resultados", "target/jmh"), clase.getSimpleName() + ".json");
+    }
+
+    /**
+     * Puntaje de cada benchmark por nombre del método, con los parámetros entre corchetes
+     * cuando los tiene (por ejemplo "guardarBase64[kb=256]")
+     */
+    static Map<String, Double> puntajes(Collection<RunResult> resultados) {
+        return resultados.stream().collect(Collectors.toMap(
+                r -> {
+                    String benchmark = r.getParams().getBenchmark();
+                    String nombre = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+                    String parametros = r.getParams().getParamsKeys().stream()
+                            .map(clave -> clave + "=" + r.getParams().getParam(clave))
+                            .collect(Collectors.joining(","));
+                    return parametros.isEmpty() ? nombre : nombre + "[" + parametros + "]";
+                },
+                r -> r.getPrimaryResult().getScore(),
+                (a, b) -> a,
+                LinkedHashMap::new));
+    }
+}
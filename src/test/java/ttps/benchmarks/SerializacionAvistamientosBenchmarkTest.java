@@ -0,0 +1,128 @@
+package ttps.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ttps.spring.dto.AvistamientoResponse;
+import ttps.spring.models.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Costo de armar la respuesta de una página de avistamientos (JMH): construir los
+ * AvistamientoResponse a partir de las entidades ya cargadas y serializarlos con Jackson,
+ * configurado como en application.properties (fechas ISO, zona UTC).
+ * Se ejecuta solo con el perfil de Maven "benchmarks" (mvn test -Pbenchmarks); los resultados
+ * quedan en target/jmh/SerializacionAvistamientosBenchmarkTest.json
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacionAvistamientosBenchmarkTest {
+
+    private static final int TAMANIO_PAGINA = 20;
+    private static final int FOTOS_POR_AVISTAMIENTO = 3;
+
+    private ObjectMapper objectMapper;
+    private List<Avistamiento> pagina;
+    private List<AvistamientoResponse> respuestas;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .timeZone(TimeZone.getTimeZone("UTC"))
+                .build();
+
+        UsuarioRegistrado usuario = new UsuarioRegistrado();
+        usuario.setId(3);
+        usuario.setNombre("Lucía");
+        usuario.setApellido("Ferreyra");
+        usuario.setEmail("lucia.ferreyra@example.com");
+
+        Mascota mascota = new Mascota();
+        mascota.setId(11);
+        mascota.setNombre("Toby");
+        mascota.setTipo("Perro");
+        mascota.setRaza("Mestizo");
+        mascota.setColor("Negro");
+        mascota.setTamanio(Tamanio.MEDIANO);
+        mascota.setEstado(Estado.PERDIDO_PROPIO);
+        mascota.setFotos(fotos("mascota", 0));
+
+        pagina = new ArrayList<>();
+        for (int i = 0; i < TAMANIO_PAGINA; i++) {
+            Avistamiento avistamiento = new Avistamiento();
+            avistamiento.setId(100 + i);
+            avistamiento.setFecha(LocalDate.of(2024, 5, 1).plusDays(i));
+            avistamiento.setCoordenada("-31.4201,-64.1888");
+            avistamiento.setDescripcion("Visto cerca de la plaza, con collar rojo");
+            avistamiento.setFotos(fotos("avistamiento", i));
+            avistamiento.setMiniaturas(fotos("avistamiento_min", i));
+            usuario.agregarAvistamiento(avistamiento, mascota);
+            pagina.add(avistamiento);
+        }
+        respuestas = construir();
+
+        JsonNode json = objectMapper.readTree(construirYSerializar());
+        assertEquals(TAMANIO_PAGINA, json.size());
+        assertEquals("2024-05-01", json.get(0).get("fecha").asText());
+        assertEquals(FOTOS_POR_AVISTAMIENTO, json.get(0).get("fotos").size());
+    }
+
+    private static List<String> fotos(String prefijo, int indice) {
+        List<String> fotos = new ArrayList<>();
+        for (int i = 0; i < FOTOS_POR_AVISTAMIENTO; i++) {
+            fotos.add("/uploads/" + prefijo + "_" + indice + "_" + i + ".jpg");
+        }
+        return List.copyOf(fotos);
+    }
+
+    @Benchmark
+    public List<AvistamientoResponse> construir() {
+        List<AvistamientoResponse> resultado = new ArrayList<>(pagina.size());
+        for (Avistamiento avistamiento : pagina) {
+            resultado.add(new AvistamientoResponse(avistamiento));
+        }
+        return resultado;
+    }
+
+    @Benchmark
+    public byte[] serializar() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(respuestas);
+    }
+
+    @Benchmark
+    public byte[] construirYSerializar() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(construir());
+    }
+
+    @Test
+    @DisplayName("Benchmark - Construcción y serialización de una página de avistamientos")
+    public void testCostoRespuesta() throws Exception {
+        Map<String, Double> microsPorPagina = ResultadosJmh.puntajes(
+                ResultadosJmh.ejecutar(SerializacionAvistamientosBenchmarkTest.class));
+        System.out.println("us por página de " + TAMANIO_PAGINA + ": " + microsPorPagina);
+
+        // Assert - Construir los DTOs es una fracción de lo que cuesta serializarlos
+        assertTrue(microsPorPagina.get("construir") < microsPorPagina.get("construirYSerializar"));
+    }
+}
@@ -0,0 +1,28 @@
+package ttps.config;
+
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.jdbc.dialect.spi.DialectResolutionInfo;
+
+import java.sql.Types;
+
+/**
+ * Dialecto de H2 para la base embebida de los tests, creada con las migraciones de MySQL.
+ * Las columnas ENUM de las migraciones (que H2 reporta como Types.OTHER) se aceptan al validar
+ * el esquema como equivalentes al VARCHAR que el dialecto de H2 espera para un @Enumerated(STRING)
+ */
+public class H2ModoMySQLDialect extends H2Dialect {
+
+    public H2ModoMySQLDialect() {
+        super();
+    }
+
+    public H2ModoMySQLDialect(DialectResolutionInfo info) {
+        super(info);
+    }
+
+    @Override
+    public boolean equivalentTypes(int typeCode1, int typeCode2) {
+        return super.equivalentTypes(typeCode1, typeCode2)
+                || typeCode1 == Types.VARCHAR && typeCode2 == Types.OTHER;
+    }
+}
@@ -0,0 +1,227 @@
+package ttps.controllers;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ttps.spring.Application;
+import ttps.spring.models.*;
+import ttps.spring.services.AvistamientoService;
+import ttps.spring.services.MascotaService;
+import ttps.spring.services.UsuarioService;
+import ttps.utils.JwtUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Autorización de las escrituras de mascotas y avistamientos con UsuarioAutenticado:
+ * solo el dueño o un administrador pueden modificar, y el chequeo no carga al usuario
+ */
+@SpringBootTest(classes = Application.class,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class AutorizacionTest {
+
+    private static final String CONSULTA_PERMISOS = "SELECT u.activo, TYPE(u) FROM Usuario u WHERE u.id = :id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private MascotaService mascotaService;
+
+    @Autowired
+    private AvistamientoService avistamientoService;
+
+    private Statistics estadisticas;
+    private Usuario duenio;
+    private Usuario otro;
+    private Usuario administrador;
+    private Mascota mascota;
+    private Avistamiento avistamiento;
+
+    @BeforeAll
+    public void setUp() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        duenio = usuarioService.crearUsuario(new UsuarioRegistrado(
+                "martina.suarez", "Martina", "Suárez", "martina.suarez@example.com", "password123",
+                "2214444444", "Femenino", 30, "Buenos Aires", "La Plata", "La Plata"));
+        otro = usuarioService.crearUsuario(new UsuarioRegistrado(
+                "diego.romero", "Diego", "Romero", "diego.romero@example.com", "password123",
+                "2215555555", "Masculino", 35, "Buenos Aires", "La Plata", "La Plata"));
+        administrador = usuarioService.crearUsuario(new Administrador(
+                "Ana", "Admin", "ana.admin@example.com", "password123",
+                "2216666666", "Buenos Aires", "La Plata", "La Plata"));
+
+        Mascota nueva = new Mascota();
+        nueva.setNombre("Luna");
+        nueva.setTipo("Gato");
+        nueva.setTamanio(Tamanio.PEQUENIO);
+        nueva.setColor("Gris");
+        nueva.setFecha(LocalDate.now());
+        nueva.setEstado(Estado.PERDIDO_PROPIO);
+        nueva.setCoordenadas("-34.9214,-57.9545");
+        nueva.setFotos(List.of());
+        duenio.agregarMascota(nueva);
+        mascota = mascotaService.crearMascota(nueva);
+
+        Avistamiento nuevo = new Avistamiento();
+        nuevo.setFecha(LocalDate.now());
+        nuevo.setCoordenada("-34.9210,-57.9540");
+        nuevo.setFotos(List.of());
+        duenio.agregarAvistamiento(nuevo, mascota);
+        avistamiento = avistamientoService.crearAvistamiento(nuevo);
+    }
+
+    private String bearer(Usuario usuario) {
+        return "Bearer " + jwtUtils.generateToken(usuario);
+    }
+
+    @Test
+    @DisplayName("Escrituras - Sin token responden 401")
+    public void testSinToken() throws Exception {
+        mockMvc.perform(put("/mascotas/" + mascota.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"color\":\"Blanco\"}"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(delete("/avistamientos/" + avistamiento.getId()))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Escrituras - Otro usuario recibe 403 y la entidad no cambia")
+    public void testOtroUsuario() throws Exception {
+        mockMvc.perform(put("/mascotas/" + mascota.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(otro))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"color\":\"Blanco\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/mascotas/usuario/" + duenio.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(otro))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Intruso\",\"tamanio\":\"GRANDE\",\"color\":\"Negro\"}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/avistamientos/" + avistamiento.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(otro)))
+                .andExpect(status().isForbidden());
+
+        assertEquals("Gris", mascotaService.obtenerMascota((long) mascota.getId()).getColor());
+        assertTrue(avistamientoService.obtenerAvistamiento((long) avistamiento.getId()).isActivo());
+    }
+
+    @Test
+    @DisplayName("Escrituras - El dueño modifica sin que se cargue su usuario, y los permisos salen del cache")
+    public void testDuenio() throws Exception {
+        String token = bearer(duenio);
+        mockMvc.perform(put("/mascotas/" + mascota.getId())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"descripcion\":\"Collar rojo\"}"))
+                .andExpect(status().isOk());
+
+        estadisticas.clear();
+        mockMvc.perform(post("/mascotas/usuario/" + duenio.getId())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Simba\",\"tamanio\":\"MEDIANO\",\"color\":\"Naranja\",\"fotosBase64\":[]}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(put("/mascotas/" + mascota.getId())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"descripcion\":\"Collar azul\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.descripcion").value("Collar azul"));
+
+        // Las cargas se registran con el nombre de la subclase concreta
+        assertEquals(0, estadisticas.getEntityStatistics(UsuarioRegistrado.class.getName()).getLoadCount(),
+                "El chequeo de permisos no carga al usuario");
+        assertEquals(0, estadisticas.getQueryStatistics(CONSULTA_PERMISOS).getExecutionCount(),
+                "Los permisos ya estaban en el cache");
+    }
+
+    @Test
+    @DisplayName("Avistamientos - Sin usuarioId se registran a nombre del usuario autenticado")
+    public void testCrearAvistamiento() throws Exception {
+        mockMvc.perform(post("/avistamientos")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(otro))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"mascotaId\":" + mascota.getId() + ",\"ubicacion\":\"-34.92,-57.95\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.usuario.id").value(otro.getId()))
+                .andExpect(jsonPath("$.usuario.nombre").value("Diego"));
+
+        mockMvc.perform(post("/avistamientos")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(otro))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"mascotaId\":" + mascota.getId() + ",\"usuarioId\":" + duenio.getId() + "}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("Administrador - Puede modificar las mascotas de otros usuarios")
+    public void testAdministrador() throws Exception {
+        mockMvc.perform(put("/mascotas/" + mascota.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(administrador))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"raza\":\"Siamés\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/mascotas/usuario/999999")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(administrador))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Nadie\",\"tamanio\":\"GRANDE\",\"color\":\"Negro\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Usuario eliminado - Su token deja de autorizar escrituras aunque no haya vencido")
+    public void testUsuarioEliminado() throws Exception {
+        Usuario temporal = usuarioService.crearUsuario(new UsuarioRegistrado(
+                "pablo.gomez", "Pablo", "Gómez", "pablo.gomez@example.com", "password123",
+                "2217777777", "Masculino", 28, "Buenos Aires", "La Plata", "La Plata"));
+        String token = bearer(temporal);
+        mockMvc.perform(post("/mascotas/usuario/" + temporal.getId())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Kira\",\"tamanio\":\"GRANDE\",\"color\":\"Negro\"}"))
+                .andExpect(status().isCreated());
+
+        usuarioService.eliminarUsuario((long) temporal.getId());
+
+        mockMvc.perform(post("/mascotas/usuario/" + temporal.getId())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Kira\",\"tamanio\":\"GRANDE\",\"color\":\"Negro\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @AfterAll
+    public void tearDown() {
+        for (Usuario usuario : new Usuario[]{duenio, otro, administrador}) {
+            if (usuario != null) {
+                usuarioService.eliminarUsuario(usuario.getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package ttps.controllers;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ttps.spring.Application;
+import ttps.spring.models.*;
+import ttps.spring.services.AvistamientoService;
+import ttps.spring.services.MascotaService;
+import ttps.spring.services.UsuarioService;
+import ttps.utils.JwtUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Control de concurrencia optimista: una edición hecha sobre una versión vieja responde 409 en
+ * lugar de pisar los cambios de otro, y cada edición cuesta una lectura y una actualización
+ */
+@SpringBootTest(classes = Application.class)
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Isolated
+public class EdicionConcurrenteTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private MascotaService mascotaService;
+
+    @Autowired
+    private AvistamientoService avistamientoService;
+
+    private Usuario duenio;
+    private String token;
+
+    @BeforeAll
+    public void setUp() {
+        duenio = usuarioService.crearUsuario(new UsuarioRegistrado(
+                "valentina.sosa", "Valentina", "Sosa", "valentina.sosa@example.com", "password123",
+                "2217777777", "Femenino", 33, "Buenos Aires", "La Plata", "La Plata"));
+        token = "Bearer " + jwtUtils.generateToken(duenio);
+    }
+
+    private Mascota crearMascota(String nombre) {
+        Mascota nueva = new Mascota();
+        nueva.setNombre(nombre);
+        nueva.setTipo("Perro");
+        nueva.setTamanio(Tamanio.GRANDE);
+        nueva.setColor("Marrón");
+        nueva.setFecha(LocalDate.now());
+        nueva.setEstado(Estado.PERDIDO_PROPIO);
+        nueva.setCoordenadas("-34.9214,-57.9545");
+        nueva.setFotos(List.of());
+        duenio.agregarMascota(nueva);
+        return mascotaService.crearMascota(nueva);
+    }
+
+    @Test
+    @DisplayName("Edición - Con la versión vigente se guarda; con una versión vieja responde 409 sin pisar cambios")
+    public void testVersionVieja() throws Exception {
+        Mascota mascota = crearMascota("Rocco");
+        long version = mascotaService.obtenerMascota((long) mascota.getId()).getVersion();
+
+        mockMvc.perform(put("/mascotas/" + mascota.getId())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"descripcion\":\"Collar verde\",\"version\":" + version + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(version + 1));
+
+        // Otro cliente editó a partir de la misma versión
+        mockMvc.perform(put("/mascotas/" + mascota.getId())
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"descripcion\":\"Sin collar\",\"version\":" + version + "}"))
+                .andExpect(status().isConflict());
+
+        Mascota guardada = mascotaService.obtenerMascota((long) mascota.getId());
+        assertEquals("Collar verde", guardada.getDescripcion());
+        assertEquals(version + 1, guardada.getVersion());
+    }
+
+    @Test
+    @DisplayName("Edición - Una copia desacoplada vieja no pisa la versión actual")
+    public void testCopiaDesacopladaVieja() {
+        Mascota mascota = crearMascota("Kira");
+        Mascota primera = mascotaService.obtenerMascota((long) mascota.getId());
+        Mascota segunda = mascotaService.obtenerMascota((long) mascota.getId());
+
+        primera.setColor("Blanco");
+        mascotaService.actualizarMascota(primera);
+
+        segunda.setColor("Negro");
+        assertThrows(OptimisticLockingFailureException.class, () -> mascotaService.actualizarMascota(segunda));
+        assertEquals("Blanco", mascotaService.obtenerMascota((long) mascota.getId()).getColor());
+    }
+
+    @Test
+    @DisplayName("Edición - Con la caché vacía cuesta una lectura y una actualización")
+    public void testSentenciasPorEdicion() {
+        Mascota mascota = mascotaService.obtenerMascota((long) crearMascota("Milo").getId());
+        mascota.setDescripcion("Tiene una mancha blanca");
+
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        Statistics estadisticas = sessionFactory.getStatistics();
+        estadisticas.clear();
+
+        mascotaService.actualizarMascota(mascota);
+
+        assertEquals(1, estadisticas.getEntityStatistics(Mascota.class.getName()).getLoadCount());
+        assertEquals(1, estadisticas.getEntityStatistics(Mascota.class.getName()).getUpdateCount());
+        assertEquals(2, estadisticas.getPrepareStatementCount(), "Un SELECT y un UPDATE");
+    }
+
+    @Test
+    @DisplayName("Transición - Al pasar a RECUPERADO se dan de baja sus avistamientos")
+    public void testTransicionRecuperado() {
+        Mascota mascota = crearMascota("Nala");
+        Avistamiento nuevo = new Avistamiento();
+        nuevo.setFecha(LocalDate.now());
+        nuevo.setCoordenada("-34.9210,-57.9540");
+        nuevo.setFotos(List.of());
+        duenio.agregarAvistamiento(nuevo, mascota);
+        Avistamiento avistamiento = avistamientoService.crearAvistamiento(nuevo);
+
+        Mascota editada = mascotaService.obtenerMascota((long) mascota.getId());
+        editada.setDescripcion("Volvió a casa");
+        Mascota sinCambioDeEstado = mascotaService.actualizarMascota(editada);
+        assertFalse(sinCambioDeEstado.pasoA(Estado.RECUPERADO));
+        assertTrue(avistamientoService.obtenerAvistamiento((long) avistamiento.getId()).isActivo());
+
+        sinCambioDeEstado.setEstado(Estado.RECUPERADO);
+        Mascota recuperada = mascotaService.actualizarMascota(sinCambioDeEstado);
+
+        assertEquals(Estado.RECUPERADO, recuperada.getEstado());
+        assertFalse(avistamientoService.obtenerAvistamiento((long) avistamiento.getId()).isActivo());
+    }
+
+    @AfterAll
+    public void tearDown() {
+        if (duenio != null) {
+            usuarioService.eliminarUsuario((long) duenio.getId());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package ttps.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ttps.spring.Application;
+import ttps.spring.models.Usuario;
+import ttps.spring.models.UsuarioRegistrado;
+import ttps.spring.persistence.dao.interfaces.ArchivoDAO;
+import ttps.spring.services.FileStorageService;
+import ttps.spring.services.UsuarioService;
+import ttps.utils.JwtUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Referencias de las fotos compartidas entre mascotas de distintos usuarios: solo las libera la
+ * mascota que realmente se elimina o que no llegó a crearse
+ */
+@SpringBootTest(classes = Application.class)
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class FotosCompartidasTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ArchivoDAO archivoDAO;
+
+    private Usuario primero;
+    private Usuario segundo;
+
+    @BeforeAll
+    public void setUp() {
+        primero = usuarioService.crearUsuario(new UsuarioRegistrado(
+                "carla.benitez", "Carla", "Benítez", "carla.benitez@example.com", "password123",
+                "3514444444", "Femenino", 28, "Córdoba", "Córdoba Capital", "Centro"));
+        segundo = usuarioService.crearUsuario(new UsuarioRegistrado(
+                "tomas.quiroga", "Tomás", "Quiroga", "tomas.quiroga@example.com", "password123",
+                "3515555555", "Masculino", 41, "Córdoba", "Córdoba Capital", "Centro"));
+    }
+
+    private String bearer(Usuario usuario) {
+        return "Bearer " + jwtUtils.generateToken(usuario);
+    }
+
+    /**
+     * Foto PNG distinta para cada test (el almacén deduplica por contenido)
+     */
+    private static String fotoBase64(int ancho) throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(ancho, 10, BufferedImage.TYPE_INT_RGB), "png", png);
+        return "data:image/png;base64," + Base64.getEncoder().encodeToString(png.toByteArray());
+    }
+
+    private String cuerpoMascota(String nombre, String foto) throws Exception {
+        return objectMapper.writeValueAsString(Map.of(
+                "nombre", nombre, "tamanio", "MEDIANO", "color", "Negro", "estado", "PERDIDO_PROPIO",
+                "coordenadas", "-31.4201,-64.1888", "fotosBase64", List.of(foto)));
+    }
+
+    private int crearMascota(Usuario usuario, String foto) throws Exception {
+        String respuesta = mockMvc.perform(post("/mascotas/usuario/" + usuario.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(usuario))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cuerpoMascota("Sombra", foto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(respuesta).get("id").asInt();
+    }
+
+    @Test
+    @DisplayName("Borrado - Un segundo DELETE responde 404 y no libera la foto de otro usuario")
+    public void testBorrarDosVeces() throws Exception {
+        // Arrange - La misma foto en una mascota de cada usuario: un archivo con dos referencias
+        String foto = fotoBase64(11);
+        int delPrimero = crearMascota(primero, foto);
+        crearMascota(segundo, foto);
+        String url = fileStorageService.saveImageFromBase64(foto);
+        fileStorageService.deleteFile(url);
+        String nombre = fileStorageService.nombreDe(url);
+        assertEquals(2, archivoDAO.get(nombre).getReferencias());
+
+        // Act - El primer usuario elimina su mascota dos veces
+        mockMvc.perform(delete("/mascotas/" + delPrimero)
+                        .header(HttpHeaders.AUTHORIZATION, bearer(primero)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/mascotas/" + delPrimero)
+                        .header(HttpHeaders.AUTHORIZATION, bearer(primero)))
+                .andExpect(status().isNotFound());
+
+        // Assert - La foto del segundo usuario sigue guardada con su referencia
+        assertEquals(1, archivoDAO.get(nombre).getReferencias());
+        assertNotNull(fileStorageService.info(url), "La foto de la otra mascota no debe borrarse");
+    }
+
+    @Test
+    @DisplayName("Alta - Si la mascota no se crea, se liberan las fotos guardadas")
+    public void testAltaFallida() throws Exception {
+        // Arrange - Un nombre más largo que la columna hace fallar el INSERT después de guardar la foto
+        String foto = fotoBase64(13);
+        String url = fileStorageService.saveImageFromBase64(foto);
+        fileStorageService.deleteFile(url);
+
+        // Act
+        mockMvc.perform(post("/mascotas/usuario/" + primero.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(primero))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cuerpoMascota("x".repeat(300), foto)))
+                .andExpect(status().isInternalServerError());
+
+        // Assert - No queda el archivo ni su conteo de referencias
+        assertNull(archivoDAO.get(fileStorageService.nombreDe(url)));
+        assertNull(fileStorageService.info(url));
+    }
+}
@@ -0,0 +1,184 @@
+package ttps.controllers;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.Filter;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import ttps.spring.Application;
+import ttps.spring.models.*;
+import ttps.spring.services.MascotaService;
+import ttps.spring.services.UsuarioService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Modo de ejecución con hilos virtuales (spring.threads.virtual.enabled=true): Tomcat y
+ * applicationTaskExecutor corren en hilos virtuales, y los caminos de Hibernate, el pool de
+ * conexiones y el driver JDBC no bloquean un hilo virtual fijado a su portador (pinning),
+ * lo que se verifica con el evento de JFR jdk.VirtualThreadPinned
+ */
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=true")
+@Import(HilosVirtualesTest.RegistroHiloRequest.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class HilosVirtualesTest {
+
+    private static final int TAREAS = 200;
+    // La base embebida de los tests sincroniza sus operaciones internas; en producción no se usa
+    private static final String PAQUETE_BASE_EMBEBIDA = "org.h2.";
+    private static final AtomicReference<Thread> HILO_REQUEST = new AtomicReference<>();
+
+    @TestConfiguration
+    static class RegistroHiloRequest {
+        @Bean
+        Filter registrarHiloRequest() {
+            return (request, response, cadena) -> {
+                HILO_REQUEST.set(Thread.currentThread());
+                cadena.doFilter(request, response);
+            };
+        }
+    }
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor tareas;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private MascotaService mascotaService;
+
+    private Usuario usuario;
+    private final List<Mascota> mascotas = new ArrayList<>();
+
+    @BeforeAll
+    public void setUp() {
+        usuario = usuarioService.crearUsuario(new Usuario(
+                "Paula", "Molina", "paula.molina@example.com", "password123",
+                "3511234567", "Córdoba", "Nueva Córdoba", "Capital"));
+        for (int i = 0; i < TAREAS; i++) {
+            Mascota nueva = new Mascota();
+            nueva.setNombre("Virtual " + i);
+            nueva.setTipo("Gato");
+            nueva.setTamanio(Tamanio.PEQUENIO);
+            nueva.setColor("Atigrado");
+            nueva.setFecha(LocalDate.now());
+            nueva.setEstado(Estado.PERDIDO_PROPIO);
+            nueva.setCoordenadas("-31.4201,-64.1888");
+            nueva.setFotos(List.of());
+            usuario.agregarMascota(nueva);
+            mascotas.add(mascotaService.crearMascota(nueva));
+        }
+    }
+
+    @Test
+    @DisplayName("Modo virtual - Tomcat y applicationTaskExecutor ejecutan en hilos virtuales")
+    public void testHilosVirtuales() {
+        HILO_REQUEST.set(null);
+        assertEquals(HttpStatus.OK, restTemplate.getForEntity("/mascotas/perdidas", String.class).getStatusCode());
+        assertTrue(HILO_REQUEST.get().isVirtual(), "El request se atendió en " + HILO_REQUEST.get());
+
+        assertTrue(CompletableFuture.supplyAsync(() -> Thread.currentThread().isVirtual(), tareas).join());
+    }
+
+    @Test
+    @DisplayName("Pinning - Lecturas y escrituras concurrentes con JPA no bloquean hilos virtuales fijados")
+    public void testSinPinning() throws Exception {
+        List<RecordedEvent> fijados;
+        try (Recording grabacion = new Recording()) {
+            grabacion.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            grabacion.start();
+
+            // Más tareas que conexiones del pool: parte de ellas espera una conexión
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+            try (ExecutorService virtuales = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> resultados = new ArrayList<>();
+                for (Mascota mascota : mascotas) {
+                    resultados.add(virtuales.submit(() -> {
+                        Mascota leida = mascotaService.obtenerMascota((long) mascota.getId());
+                        leida.setDescripcion("Editada desde " + Thread.currentThread());
+                        mascotaService.actualizarMascota(leida);
+                        mascotaService.obtenerMascotasPerdidas();
+                        return restTemplate.getForEntity("/mascotas/" + mascota.getId(), String.class).getStatusCode();
+                    }));
+                }
+                for (Future<?> resultado : resultados) {
+                    assertEquals(HttpStatus.OK, resultado.get());
+                }
+            }
+
+            grabacion.stop();
+            Path archivo = Files.createTempFile("hilos-virtuales", ".jfr");
+            try {
+                grabacion.dump(archivo);
+                fijados = RecordingFile.readAllEvents(archivo).stream()
+                        .filter(evento -> !enBaseEmbebida(evento))
+                        .toList();
+            } finally {
+                Files.deleteIfExists(archivo);
+            }
+        }
+
+        assertTrue(fijados.isEmpty(), "Hilos virtuales bloqueados mientras estaban fijados:\n"
+                + fijados.stream().limit(3).map(HilosVirtualesTest::pila).collect(Collectors.joining("\n\n")));
+    }
+
+    private static boolean enBaseEmbebida(RecordedEvent evento) {
+        return evento.getStackTrace() != null && evento.getStackTrace().getFrames().stream()
+                .anyMatch(frame -> frame.getMethod().getType().getName().startsWith(PAQUETE_BASE_EMBEBIDA));
+    }
+
+    private static String pila(RecordedEvent evento) {
+        if (evento.getStackTrace() == null) {
+            return evento.toString();
+        }
+        return evento.getStackTrace().getFrames().stream()
+                .limit(25)
+                .map(HilosVirtualesTest::marco)
+                .collect(Collectors.joining("\n  ", "  ", ""));
+    }
+
+    private static String marco(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    @AfterAll
+    public void tearDown() {
+        if (usuario != null) {
+            usuarioService.eliminarUsuario((long) usuario.getId());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package ttps.controllers;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import ttps.spring.Application;
+import ttps.spring.services.FileStorageService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(classes = Application.class)
+@AutoConfigureMockMvc
+public class UploadsControllerTest {
+
+    @TempDir
+    static Path directorio;
+
+    @DynamicPropertySource
+    static void propiedades(DynamicPropertyRegistry registry) {
+        registry.add("app.upload.dir", () -> directorio.toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    private byte[] foto;
+    private String url;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        foto = new byte[1000];
+        for (int i = 0; i < foto.length; i++) {
+            foto[i] = (byte) (i % 251);
+        }
+        // Firma JPEG: solo se guardan contenidos que son imágenes
+        foto[0] = (byte) 0xFF;
+        foto[1] = (byte) 0xD8;
+        foto[2] = (byte) 0xFF;
+        url = fileStorageService.saveImage(new ByteArrayInputStream(foto));
+    }
+
+    @Test
+    @DisplayName("GET - Foto completa con ETag fuerte y caché inmutable, sin token")
+    public void testObtenerFoto() throws Exception {
+        String nombre = url.substring("/uploads/".length());
+        mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + nombre + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, foto.length))
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(content().bytes(foto));
+
+        mockMvc.perform(head(url))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, foto.length));
+    }
+
+    @Test
+    @DisplayName("GET condicional - Responde 304 si el ETag coincide")
+    public void testNoModificado() throws Exception {
+        String etag = mockMvc.perform(get(url)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, "\"otro\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Range - Responde 206 con el rango pedido y 416 si no se puede satisfacer")
+    public void testRangos() throws Exception {
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=100-199"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-199/1000"))
+                .andExpect(content().bytes(Arrays.copyOfRange(foto, 100, 200)));
+
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=-50"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 950-999/1000"))
+                .andExpect(content().bytes(Arrays.copyOfRange(foto, 950, 1000)));
+
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=5000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */1000"));
+
+        // If-Range con otra versión: se envía el archivo completo
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=0-9").header(HttpHeaders.IF_RANGE, "\"otro\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(foto));
+    }
+
+    @Test
+    @DisplayName("404 - Archivos inexistentes o rutas fuera de uploads")
+    public void testNoEncontrado() throws Exception {
+        mockMvc.perform(get("/uploads/no-existe.jpg"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"));
+        mockMvc.perform(get("/uploads/..%2Fpom.xml")).andExpect(status().isNotFound());
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        fileStorageService.deleteFile(url);
+    }
+}
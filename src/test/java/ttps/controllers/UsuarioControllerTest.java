@@ -0,0 +1,252 @@
+package ttps.controllers;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ttps.spring.Application;
+import ttps.spring.models.Usuario;
+import ttps.spring.models.UsuarioRegistrado;
+import ttps.spring.services.HashContraseniasService;
+import ttps.spring.services.UsuarioService;
+import ttps.utils.JwtUtils;
+import ttps.utils.PasswordUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Login y registro con el hash fuera del hilo del request, límite de intentos y control de admisión
+ */
+@SpringBootTest(classes = Application.class, properties = {
+        "app.contrasenias.hilos=1",
+        "app.contrasenias.capacidad-cola=2",
+        "app.login.max-fallos-cuenta=3"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class UsuarioControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private HashContraseniasService hashContraseniasService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    private Usuario usuario;
+
+    @BeforeAll
+    public void setUp() {
+        usuario = usuarioService.crearUsuario(new UsuarioRegistrado(
+                "sofia.herrera", "Sofía", "Herrera", "sofia.herrera@example.com", "password123",
+                "2218888888", "Femenino", 27, "Buenos Aires", "La Plata", "La Plata"));
+    }
+
+    private MvcResult login(String email, String password) throws Exception {
+        MvcResult resultado = mockMvc.perform(post("/usuarios/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                .andReturn();
+        if (!resultado.getRequest().isAsyncStarted()) {
+            return resultado;
+        }
+        return mockMvc.perform(asyncDispatch(resultado)).andReturn();
+    }
+
+    @Test
+    @DisplayName("Login - Verifica la contraseña de forma asíncrona y retorna el token")
+    public void testLogin() throws Exception {
+        MvcResult inicial = mockMvc.perform(post("/usuarios/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"sofia.herrera@example.com\",\"password\":\"password123\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(inicial))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty())
+                .andExpect(jsonPath("$.tipo").value("USUARIOREGISTRADO"));
+    }
+
+    @Test
+    @DisplayName("Login - Tras varios fallos la cuenta responde 429 aunque la contraseña sea correcta")
+    public void testLimitePorCuenta() throws Exception {
+        Usuario bloqueado = usuarioService.crearUsuario(new UsuarioRegistrado(
+                "tomas.rios", "Tomás", "Ríos", "tomas.rios@example.com", "password123",
+                "2219999999", "Masculino", 40, "Buenos Aires", "La Plata", "La Plata"));
+        try {
+            for (int i = 0; i < 3; i++) {
+                assertEquals(401, login("tomas.rios@example.com", "incorrecta").getResponse().getStatus());
+            }
+
+            MvcResult limitado = login("Tomas.Rios@example.com", "password123");
+            assertEquals(429, limitado.getResponse().getStatus());
+            assertNotNull(limitado.getResponse().getHeader(HttpHeaders.RETRY_AFTER));
+
+            // Las demás cuentas no se ven afectadas
+            assertEquals(200, login("sofia.herrera@example.com", "password123").getResponse().getStatus());
+        } finally {
+            usuarioService.eliminarUsuario((long) bloqueado.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Registro - Hashea la contraseña fuera del request y el usuario puede iniciar sesión")
+    public void testRegistro() throws Exception {
+        MvcResult inicial = mockMvc.perform(post("/usuarios/registro")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombreUsuario\":\"julia.paz\",\"nombre\":\"Julia\",\"apellido\":\"Paz\"," +
+                                "\"email\":\"julia.paz@example.com\",\"password\":\"secreta456\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(inicial))
+                .andExpect(status().isCreated());
+
+        Usuario registrado = usuarioService.obtenerUsuarioPorEmail("julia.paz@example.com");
+        try {
+            assertTrue(registrado.getContrasenia().startsWith("$2a$"), "Se guarda el hash, no la contraseña");
+            assertEquals(200, login("julia.paz@example.com", "secreta456").getResponse().getStatus());
+        } finally {
+            usuarioService.eliminarUsuario((long) registrado.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Login - Un hash con parámetros anteriores se reemplaza por uno con los configurados")
+    public void testRehashAlIniciarSesion() throws Exception {
+        // Arrange - Usuario cargado con un hash BCrypt de costo 4 (los configurados son costo 10)
+        String hashAnterior = PasswordUtils.hashPassword("password123", PasswordUtils.Parametros.bcrypt(4));
+        UsuarioRegistrado nuevo = new UsuarioRegistrado(
+                "nora.vidal", "Nora", "Vidal", "nora.vidal@example.com", "password123",
+                "2211111111", "Femenino", 52, "Buenos Aires", "La Plata", "La Plata");
+        nuevo.setContraseniaHasheada(hashAnterior);
+        Usuario antiguo = usuarioService.crearUsuario(nuevo);
+        try {
+            // Act
+            assertEquals(200, login("nora.vidal@example.com", "password123").getResponse().getStatus());
+
+            // Assert - El rehash corre en segundo plano después de responder
+            String actual = hashAnterior;
+            for (int i = 0; i < 50 && actual.equals(hashAnterior); i++) {
+                Thread.sleep(100);
+                actual = usuarioService.obtenerUsuario((long) antiguo.getId()).getContrasenia();
+            }
+            assertTrue(actual.startsWith("$2a$10$"), "Se guardó un hash con el costo configurado");
+            assertTrue(PasswordUtils.verifyPassword("password123", actual));
+            assertEquals(200, login("nora.vidal@example.com", "password123").getResponse().getStatus());
+        } finally {
+            usuarioService.eliminarUsuario((long) antiguo.getId());
+        }
+    }
+
+    private MvcResult editarPerfil(Usuario editado, String nombre, long version) throws Exception {
+        return editarPerfil(editado, editado, nombre, version);
+    }
+
+    private MvcResult editarPerfil(Usuario autor, Usuario editado, String nombre, long version) throws Exception {
+        MvcResult resultado = mockMvc.perform(put("/usuarios/" + editado.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtils.generateToken(autor))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombreUsuario\":\"" + editado.getNombreUsuario() + "\",\"nombre\":\"" + nombre + "\"," +
+                                "\"apellido\":\"" + editado.getApellido() + "\",\"email\":\"" + editado.getEmail() + "\"," +
+                                "\"version\":" + version + "}"))
+                .andReturn();
+        if (!resultado.getRequest().isAsyncStarted()) {
+            return resultado;
+        }
+        return mockMvc.perform(asyncDispatch(resultado)).andReturn();
+    }
+
+    @Test
+    @DisplayName("Perfil - Con una versión vieja responde 409 sin pisar los cambios de otro cliente")
+    public void testPerfilVersionVieja() throws Exception {
+        Usuario editado = usuarioService.crearUsuario(new UsuarioRegistrado(
+                "bruno.salas", "Bruno", "Salas", "bruno.salas@example.com", "password123",
+                "2212222222", "Masculino", 36, "Buenos Aires", "La Plata", "La Plata"));
+        try {
+            long version = usuarioService.obtenerUsuario((long) editado.getId()).getVersion();
+            assertEquals(200, editarPerfil(editado, "Bruno Martín", version).getResponse().getStatus());
+
+            // Otro cliente editó a partir de la misma versión
+            assertEquals(409, editarPerfil(editado, "Brunito", version).getResponse().getStatus());
+
+            Usuario guardado = usuarioService.obtenerUsuario((long) editado.getId());
+            assertEquals("Bruno Martín", guardado.getNombre());
+            assertEquals(version + 1, guardado.getVersion());
+        } finally {
+            usuarioService.eliminarUsuario((long) editado.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Perfil - Otro usuario no puede editar el perfil ajeno y recibe 403")
+    public void testPerfilAjeno() throws Exception {
+        Usuario editado = usuarioService.crearUsuario(new UsuarioRegistrado(
+                "lucia.paz", "Lucía", "Paz", "lucia.paz@example.com", "password123",
+                "2213333333", "Femenino", 41, "Buenos Aires", "La Plata", "La Plata"));
+        try {
+            long version = usuarioService.obtenerUsuario((long) editado.getId()).getVersion();
+
+            assertEquals(403, editarPerfil(usuario, editado, "Intrusa", version).getResponse().getStatus());
+
+            Usuario guardado = usuarioService.obtenerUsuario((long) editado.getId());
+            assertEquals("Lucía", guardado.getNombre());
+            assertEquals(version, guardado.getVersion());
+        } finally {
+            usuarioService.eliminarUsuario((long) editado.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Admisión - Con el pool y la cola llenos las tareas se rechazan de inmediato")
+    public void testRechazoConColaLlena() {
+        // Arrange - Un hilo y dos lugares en la cola
+        double rechazadasAntes = meterRegistry.counter("contrasenias.rechazadas").count();
+        List<CompletableFuture<String>> aceptadas = new ArrayList<>();
+        int rechazadas = 0;
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            try {
+                aceptadas.add(hashContraseniasService.hashear("password" + i));
+            } catch (RejectedExecutionException e) {
+                rechazadas++;
+            }
+        }
+
+        // Assert
+        assertTrue(rechazadas > 0, "Se rechaza en lugar de encolar sin límite");
+        assertTrue(aceptadas.size() <= 3);
+        assertEquals(rechazadas, meterRegistry.counter("contrasenias.rechazadas").count() - rechazadasAntes);
+        aceptadas.forEach(f -> assertTrue(f.join().startsWith("$2a$")));
+    }
+
+    @AfterAll
+    public void tearDown() {
+        if (usuario != null) {
+            usuarioService.eliminarUsuario((long) usuario.getId());
+        }
+    }
+}
@@ -1,11 +1,22 @@
 package ttps.persistence.dao;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import ttps.spring.Application;
+import ttps.spring.dto.AvistamientoResponse;
+import ttps.spring.dto.PaginaResponse;
 import ttps.spring.models.*;
+import ttps.spring.persistence.dao.interfaces.AvistamientoDAO;
 import ttps.spring.services.AvistamientoService;
+import ttps.spring.services.EstadisticasService;
 import ttps.spring.services.MascotaService;
 import ttps.spring.services.UsuarioService;
 
@@ -14,9 +25,14 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+/**
+ * Cada test crea sus datos dentro de su propia transacción, que se revierte al terminar:
+ * los tests no dependen del orden ni de datos previos y corren en paralelo. Los que necesitan
+ * que los cambios se confirmen (contadores de estadísticas) corren sin transacción
+ */
 @SpringBootTest(classes = Application.class)
-@TestInstance(TestInstance.Lifecycle.PER_CLASS)
-@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@Transactional
+@Execution(ExecutionMode.CONCURRENT)
 public class AvistamientoDAOTest {
 
     @Autowired
@@ -28,11 +44,18 @@ public class AvistamientoDAOTest {
     @Autowired
     private MascotaService mascotaService;
 
-    private Avistamiento avistamientoTest;
+    @Autowired
+    private AvistamientoDAO avistamientoDAO;
+
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
     private Usuario usuarioReportador;
     private Mascota mascotaAvistada;
 
-    @BeforeAll
+    @BeforeEach
     public void setUp() {
         // Crear un usuario reportador
         usuarioReportador = new Usuario(
@@ -58,20 +81,52 @@ public class AvistamientoDAOTest {
         mascotaAvistada.setEstado(Estado.PERDIDO_AJENO);
         mascotaAvistada.setCoordenadas("-31.4167,-64.1833");
         mascotaAvistada.setDescripcion("Gata siamesa perdida");
-        mascotaAvistada.setFotos("[]"); // JSON array vacío
+        mascotaAvistada.setFotos(List.of());
 
         mascotaAvistada = mascotaService.crearMascota(mascotaAvistada);
     }
 
+    /**
+     * Escribe los cambios pendientes y vacía el contexto de persistencia de la transacción del test,
+     * para que la próxima lectura vaya a la base en lugar de devolver la misma instancia
+     */
+    private void sincronizar() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Avistamiento crearAvistamientoTest() {
+        Avistamiento avistamiento = new Avistamiento();
+        avistamiento.setFecha(LocalDate.now());
+        avistamiento.setCoordenada("-31.4200,-64.1885");
+        avistamiento.setFotos(List.of("/uploads/avistamiento_1.jpg"));
+        usuarioReportador.agregarAvistamiento(avistamiento, mascotaAvistada);
+        return avistamientoService.crearAvistamiento(avistamiento);
+    }
+
+    private void crearAvistamientosRecientes(int cantidad) {
+        crearAvistamientosRecientes(cantidad, "-31.4200,-64.1885");
+    }
+
+    private void crearAvistamientosRecientes(int cantidad, String coordenada) {
+        for (int i = 0; i < cantidad; i++) {
+            Avistamiento avistamiento = new Avistamiento();
+            avistamiento.setFecha(LocalDate.now().minusDays(i));
+            avistamiento.setCoordenada(coordenada);
+            avistamiento.setFotos(List.of());
+            usuarioReportador.agregarAvistamiento(avistamiento, mascotaAvistada);
+            avistamientoService.crearAvistamiento(avistamiento);
+        }
+    }
+
     @Test
-    @Order(1)
     @DisplayName("Test CREATE - Crear un nuevo avistamiento")
     public void testCreateAvistamiento() {
         // Arrange
-        avistamientoTest = new Avistamiento();
+        Avistamiento avistamientoTest = new Avistamiento();
         avistamientoTest.setFecha(LocalDate.now());
         avistamientoTest.setCoordenada("-31.4200,-64.1885");
-        avistamientoTest.setFotos("[\"/uploads/avistamiento_1.jpg\"]"); // JSON array de URLs
+        avistamientoTest.setFotos(List.of("/uploads/avistamiento_1.jpg"));
 
         usuarioReportador.agregarAvistamiento(avistamientoTest, mascotaAvistada);
 
@@ -102,11 +157,11 @@ public class AvistamientoDAOTest {
     }
 
     @Test
-    @Order(2)
     @DisplayName("Test READ - Obtener avistamiento por ID")
     public void testGetAvistamiento() {
         // Arrange
-        int avistamientoId = avistamientoTest.getId();
+        int avistamientoId = crearAvistamientoTest().getId();
+        sincronizar();
 
         // Act
         Avistamiento avistamientoObtenido = avistamientoService.obtenerAvistamiento((long) avistamientoId);
@@ -134,9 +189,11 @@ public class AvistamientoDAOTest {
     }
 
     @Test
-    @Order(3)
     @DisplayName("Test READ ALL - Obtener todos los avistamientos activos")
     public void testGetAllAvistamientos() {
+        // Arrange
+        Avistamiento avistamientoTest = crearAvistamientoTest();
+
         // Act
         List<Avistamiento> avistamientos = avistamientoService.obtenerTodosLosAvistamientos();
 
@@ -158,10 +215,11 @@ public class AvistamientoDAOTest {
     }
 
     @Test
-    @Order(4)
     @DisplayName("Test UPDATE - Actualizar un avistamiento")
     public void testUpdateAvistamiento() {
         // Arrange
+        Avistamiento avistamientoTest = crearAvistamientoTest();
+        sincronizar();
         Avistamiento avistamientoParaActualizar = avistamientoService.obtenerAvistamiento((long) avistamientoTest.getId());
         String nuevaCoordenada = "-31.4250,-64.1900";
         LocalDate nuevaFecha = LocalDate.now().minusDays(1);
@@ -183,6 +241,7 @@ public class AvistamientoDAOTest {
         assertEquals(mascotaAvistada.getId(), avistamientoActualizado.getMascota().getId());
 
         // Verificar que los cambios persisten en la base de datos
+        sincronizar();
         Avistamiento avistamientoVerificado = avistamientoService.obtenerAvistamiento((long) avistamientoTest.getId());
         assertEquals(nuevaCoordenada, avistamientoVerificado.getCoordenada());
         assertEquals(nuevaFecha, avistamientoVerificado.getFecha());
@@ -193,16 +252,18 @@ public class AvistamientoDAOTest {
     }
 
     @Test
-    @Order(5)
     @DisplayName("Test DELETE - Borrado lógico de avistamiento")
     public void testDeleteAvistamiento() {
         // Arrange
+        Avistamiento avistamientoTest = crearAvistamientoTest();
+        sincronizar();
         Avistamiento avistamientoAEliminar = avistamientoService.obtenerAvistamiento((long) avistamientoTest.getId());
 
         // Act
         avistamientoService.eliminarAvistamiento(avistamientoAEliminar);
 
         // Assert - El registro sigue existiendo pero está marcado como inactivo
+        sincronizar();
         Avistamiento avistamientoBorrado = avistamientoService.obtenerAvistamiento((long) avistamientoTest.getId());
         assertNotNull(avistamientoBorrado, "El avistamiento con borrado lógico no debe ser null");
         assertFalse(avistamientoBorrado.isActivo(), "El avistamiento debe estar marcado como inactivo");
@@ -211,14 +272,13 @@ public class AvistamientoDAOTest {
     }
 
     @Test
-    @Order(6)
     @DisplayName("Test DELETE por ID - Borrado lógico por identificador")
     public void testDeletePorId() {
         // Arrange
         Avistamiento avistamientoParaBorradoLogico = new Avistamiento();
         avistamientoParaBorradoLogico.setFecha(LocalDate.now());
         avistamientoParaBorradoLogico.setCoordenada("-31.4300,-64.1900");
-        avistamientoParaBorradoLogico.setFotos("[\"/uploads/avistamiento_2.jpg\"]"); // JSON array de URLs
+        avistamientoParaBorradoLogico.setFotos(List.of("/uploads/avistamiento_2.jpg"));
 
         usuarioReportador.agregarAvistamiento(avistamientoParaBorradoLogico, mascotaAvistada);
 
@@ -230,10 +290,13 @@ public class AvistamientoDAOTest {
         assertNotNull(avistamientoParaBorradoLogico.getUsuario(), "Debe tener usuario asignado");
         assertNotNull(avistamientoParaBorradoLogico.getMascota(), "Debe tener mascota asignada");
 
+        sincronizar();
+
         // Act - Borrado lógico por ID
         avistamientoService.eliminarAvistamiento(idAvistamiento);
 
         // Assert
+        sincronizar();
         Avistamiento avistamientoBorradoLogico = avistamientoService.obtenerAvistamiento(idAvistamiento);
         assertNotNull(avistamientoBorradoLogico, "El avistamiento con borrado lógico no debe ser null");
         assertFalse(avistamientoBorradoLogico.isActivo(), "El avistamiento debe estar marcado como inactivo");
@@ -246,9 +309,109 @@ public class AvistamientoDAOTest {
         System.out.println("✓ Bidireccionalidad preservada después del borrado lógico");
     }
 
-    @AfterAll
+    @Test
+    @DisplayName("Test READ por mascota - Solo activos, paginados por cursor")
+    public void testAvistamientosPorMascotaPaginados() {
+        // Arrange - Uno inactivo, que no debe aparecer, y tres activos
+        avistamientoService.eliminarAvistamiento(crearAvistamientoTest());
+        crearAvistamientosRecientes(3);
+        long mascotaId = mascotaAvistada.getId();
+
+        // Act - Primera página
+        PaginaResponse<AvistamientoResponse> primera =
+                avistamientoService.obtenerAvistamientosPorMascota(mascotaId, null, null, 2);
+
+        // Assert
+        assertEquals(2, primera.getItems().size());
+        assertTrue(primera.isHayMas(), "Debe existir una página siguiente");
+        assertEquals(LocalDate.now(), primera.getItems().get(0).getFecha());
+        assertEquals("Luna", primera.getItems().get(0).getMascota().getNombre());
+
+        // Act - Segunda página con el cursor devuelto
+        PaginaResponse<AvistamientoResponse> segunda = avistamientoService.obtenerAvistamientosPorMascota(
+                mascotaId, primera.getSiguienteFecha(), primera.getSiguienteId(), 2);
+
+        // Assert
+        assertEquals(1, segunda.getItems().size());
+        assertFalse(segunda.isHayMas(), "No debe haber más páginas");
+        assertEquals(LocalDate.now().minusDays(2), segunda.getItems().get(0).getFecha());
+        assertTrue(segunda.getItems().stream().allMatch(AvistamientoResponse::isActivo));
+
+        System.out.println("✓ Avistamientos de la mascota paginados correctamente");
+    }
+
+    @Test
+    @DisplayName("Test READ por mascota - Los listados informan la versión guardada")
+    public void testVersionEnListados() {
+        // Arrange - Un avistamiento editado una vez (versión 1)
+        Avistamiento editado = crearAvistamientoTest();
+        sincronizar();
+        editado = avistamientoService.obtenerAvistamiento((long) editado.getId());
+        editado.setDescripcion("Visto cerca de la plaza");
+        avistamientoService.actualizarAvistamiento(editado);
+        sincronizar();
+        int id = editado.getId();
+        long version = avistamientoService.obtenerAvistamiento((long) id).getVersion();
+        assertTrue(version > 0);
+
+        // Act
+        AvistamientoResponse enPagina = avistamientoService.obtenerAvistamientosPorMascota(
+                (long) mascotaAvistada.getId(), null, null, 20).getItems().stream()
+                .filter(a -> a.getId() == id).findFirst().orElseThrow();
+        AvistamientoResponse enListado = avistamientoService.obtenerListadoAvistamientos().stream()
+                .filter(a -> a.getId() == id).findFirst().orElseThrow();
+
+        // Assert - Un cliente que edita desde el listado envía la versión vigente
+        assertEquals(version, enPagina.getVersion());
+        assertEquals(version, enListado.getVersion());
+    }
+
+    @Test
+    @DisplayName("Test DELETE masivo - Baja de los avistamientos de una mascota con un único UPDATE")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testBajaMasivaPorMascota() {
+        // Arrange - Tres avistamientos activos, confirmados para que cuenten en las estadísticas,
+        // en un punto sin otros avistamientos para buscarlos en el índice geográfico
+        crearAvistamientosRecientes(3, "-24.7859,-65.4117");
+        long mascotaId = mascotaAvistada.getId();
+        List<Integer> ids = avistamientoDAO.findIdsActivosPorMascota(mascotaId);
+        assertEquals(3, ids.size());
+        int pendientesAntes = estadisticasService.getAvistamientosPendientes();
+
+        // Act
+        avistamientoService.eliminarTodosLosAvistamientosDeMascota(mascotaId);
+
+        // Assert - Inactivos en la base y en la caché, y descontados de las estadísticas
+        assertTrue(avistamientoDAO.findIdsActivosPorMascota(mascotaId).isEmpty());
+        assertFalse(avistamientoService.obtenerAvistamiento((long) ids.get(0)).isActivo());
+        assertEquals(pendientesAntes - 3, estadisticasService.getAvistamientosPendientes());
+
+        // Reactivación y baja por ids: solo cuentan las filas que cambian, también en las estadísticas
+        // y en el índice geográfico
+        assertEquals(3, avistamientoService.reactivarAvistamientos(ids));
+        assertEquals(0, avistamientoService.reactivarAvistamientos(ids));
+        assertTrue(avistamientoService.obtenerAvistamiento((long) ids.get(0)).isActivo());
+        assertEquals(pendientesAntes, estadisticasService.getAvistamientosPendientes());
+        assertTrue(idsCercanos().containsAll(ids));
+        assertEquals(3, avistamientoService.desactivarAvistamientos(ids));
+        assertEquals(pendientesAntes - 3, estadisticasService.getAvistamientosPendientes());
+        assertTrue(idsCercanos().stream().noneMatch(ids::contains));
+
+        System.out.println("✓ Avistamientos de la mascota dados de baja con una sola sentencia");
+    }
+
+    private List<Integer> idsCercanos() {
+        return avistamientoService.obtenerAvistamientosCercanos(-24.7859, -65.4117, 1, 200).stream()
+                .map(Avistamiento::getId)
+                .toList();
+    }
+
+    @AfterEach
     public void tearDown() {
-        // Limpiar datos de prueba (borrado lógico)
+        // Los tests sin transacción confirmaron sus datos: se limpian (borrado lógico)
+        if (TestTransaction.isActive()) {
+            return;
+        }
         if (mascotaAvistada != null) {
             mascotaService.eliminarMascota(mascotaAvistada);
             System.out.println("✓ Mascota de prueba marcada como inactiva");
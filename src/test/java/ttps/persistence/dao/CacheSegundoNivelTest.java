@@ -0,0 +1,164 @@
+package ttps.persistence.dao;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ttps.spring.Application;
+import ttps.spring.dto.MascotaResumen;
+import ttps.spring.models.*;
+import ttps.spring.persistence.dao.impl.MascotaDAOHibernateJPA;
+import ttps.spring.persistence.dao.interfaces.MascotaDAO;
+import ttps.spring.services.MascotaService;
+import ttps.spring.services.UsuarioService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Caché de segundo nivel y de consultas: las lecturas repetidas no vuelven a la base y las
+ * escrituras (update, borrado lógico, actualizarMascota) no dejan datos obsoletos en la caché
+ */
+@SpringBootTest(classes = Application.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Isolated
+public class CacheSegundoNivelTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MascotaService mascotaService;
+
+    @Autowired
+    private MascotaDAO mascotaDAO;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics estadisticas;
+    private Usuario usuario;
+
+    @BeforeAll
+    public void setUp() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        usuario = usuarioService.crearUsuario(new Usuario(
+                "Elena", "Suárez", "elena.suarez@example.com", "password789",
+                "2215555555", "Buenos Aires", "La Plata", "La Plata"));
+    }
+
+    private Mascota crearMascota(String nombre) {
+        Mascota mascota = new Mascota();
+        mascota.setNombre(nombre);
+        mascota.setTipo("Gato");
+        mascota.setTamanio(Tamanio.PEQUENIO);
+        mascota.setColor("Gris");
+        mascota.setFecha(LocalDate.now());
+        mascota.setEstado(Estado.PERDIDO_PROPIO);
+        mascota.setCoordenadas("-34.9205,-57.9536");
+        mascota.setFotos(List.of());
+        mascota.setUsuario(usuario);
+        return mascotaService.crearMascota(mascota);
+    }
+
+    private static boolean contiene(List<MascotaResumen> perdidas, int id) {
+        return perdidas.stream().anyMatch(m -> m.id() == id);
+    }
+
+    @Test
+    @DisplayName("Entidad - La segunda lectura por id se resuelve desde la caché sin SQL")
+    public void testLecturaDesdeCache() {
+        Mascota mascota = crearMascota("Michi");
+        mascotaService.obtenerMascota((long) mascota.getId());
+
+        long consultas = estadisticas.getPrepareStatementCount();
+        long aciertos = estadisticas.getSecondLevelCacheHitCount();
+        Mascota leida = mascotaService.obtenerMascota((long) mascota.getId());
+
+        assertEquals("Michi", leida.getNombre());
+        assertEquals(consultas, estadisticas.getPrepareStatementCount(), "No se consulta la base");
+        assertTrue(estadisticas.getSecondLevelCacheHitCount() > aciertos);
+    }
+
+    @Test
+    @DisplayName("Entidad - actualizarMascota y update reemplazan la versión cacheada")
+    public void testActualizacionInvalidaEntidad() {
+        Mascota mascota = crearMascota("Pelusa");
+        mascotaDAO.actualizarVariantes(mascota.getId(), mascota.getFotos(), List.of("/m.jpg"), List.of("/g.jpg"));
+        mascotaService.obtenerMascota((long) mascota.getId());
+
+        // Act - El objeto que llega del controlador no trae las variantes (no se actualizan con merge)
+        Mascota cambios = mascotaService.obtenerMascota((long) mascota.getId());
+        cambios.setNombre("Pelusa Blanca");
+        cambios.setMiniaturas(null);
+        cambios.setFotosMedianas(null);
+        mascotaService.actualizarMascota(cambios);
+
+        Mascota leida = mascotaService.obtenerMascota((long) mascota.getId());
+        assertEquals("Pelusa Blanca", leida.getNombre());
+        assertEquals(List.of("/m.jpg"), leida.getMiniaturas(), "La caché conserva las variantes guardadas");
+        assertEquals(List.of("/g.jpg"), leida.getFotosMedianas());
+
+        leida.setColor("Blanco");
+        mascotaDAO.update(leida);
+        assertEquals("Blanco", mascotaService.obtenerMascota((long) mascota.getId()).getColor());
+    }
+
+    @Test
+    @DisplayName("Consulta - Las mascotas perdidas se cachean y se invalidan al modificar o borrar")
+    public void testCacheDeConsultaPerdidas() {
+        Mascota recuperada = crearMascota("Luna");
+        Mascota borrada = crearMascota("Nube");
+
+        // Arrange - La segunda consulta se resuelve desde la caché de consultas
+        assertTrue(contiene(mascotaService.obtenerMascotasPerdidas(), recuperada.getId()));
+        long consultas = estadisticas.getPrepareStatementCount();
+        long aciertos = estadisticas.getQueryCacheHitCount();
+        List<MascotaResumen> perdidas = mascotaService.obtenerMascotasPerdidas();
+        assertTrue(contiene(perdidas, borrada.getId()));
+        assertEquals(consultas, estadisticas.getPrepareStatementCount(), "No se consulta la base");
+        assertEquals(aciertos + 1, estadisticas.getQueryCacheHitCount());
+
+        // Act - Cambio de estado con actualizarMascota y borrado lógico
+        Mascota cambios = mascotaService.obtenerMascota((long) recuperada.getId());
+        cambios.setEstado(Estado.RECUPERADO);
+        mascotaService.actualizarMascota(cambios);
+        mascotaService.eliminarMascota((long) borrada.getId());
+
+        // Assert
+        perdidas = mascotaService.obtenerMascotasPerdidas();
+        assertFalse(contiene(perdidas, recuperada.getId()));
+        assertFalse(contiene(perdidas, borrada.getId()));
+        assertFalse(mascotaService.obtenerMascota((long) borrada.getId()).isActivo());
+    }
+
+    @Test
+    @DisplayName("Métricas - Aciertos y fallos de caché publicados en Micrometer")
+    public void testMetricas() {
+        mascotaService.obtenerMascotasPerdidas();
+        mascotaService.obtenerMascotasPerdidas();
+
+        assertTrue(meterRegistry.get("hibernate.cache.query.requests").tag("result", "hit")
+                .functionCounter().count() > 0);
+        assertNotNull(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", "mascotas").tag("result", "miss").functionCounter());
+        assertNotNull(meterRegistry.get("hibernate.cache.query.requests")
+                .tag("region", MascotaDAOHibernateJPA.REGION_PERDIDAS));
+    }
+
+    @AfterAll
+    public void tearDown() {
+        if (usuario != null) {
+            usuarioService.eliminarUsuario(usuario.getId());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package ttps.persistence.dao;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import ttps.spring.Application;
+import ttps.spring.models.*;
+import ttps.spring.services.AvistamientoService;
+import ttps.spring.services.MascotaService;
+import ttps.spring.services.UsuarioService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica la cantidad de sentencias SQL que ejecuta cada endpoint de lectura,
+ * para detectar cargas EAGER en cascada o consultas N+1 al serializar. Se mide con la caché de
+ * segundo nivel vacía, que es el peor caso (CacheSegundoNivelTest cubre las lecturas cacheadas)
+ */
+@SpringBootTest(classes = Application.class,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Isolated
+public class CantidadConsultasTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private MascotaService mascotaService;
+
+    @Autowired
+    private AvistamientoService avistamientoService;
+
+    private Statistics estadisticas;
+    private Usuario usuario;
+    private Mascota mascota;
+    private Avistamiento avistamiento;
+
+    @BeforeAll
+    public void setUp() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Un usuario con varias mascotas y varios avistamientos por mascota
+        usuario = usuarioService.crearUsuario(new Usuario(
+                "Lucía", "Fernández", "lucia.fernandez@example.com", "password321",
+                "3516666666", "Córdoba", "General Paz", "Capital"));
+        for (int i = 0; i < 3; i++) {
+            Mascota nueva = new Mascota();
+            nueva.setNombre("Toby " + i);
+            nueva.setTipo("Perro");
+            nueva.setTamanio(Tamanio.MEDIANO);
+            nueva.setColor("Negro");
+            nueva.setFecha(LocalDate.now().minusDays(i));
+            nueva.setEstado(Estado.PERDIDO_PROPIO);
+            nueva.setCoordenadas("-31.4201,-64.1888");
+            nueva.setFotos(List.of());
+            usuario.agregarMascota(nueva);
+            mascota = mascotaService.crearMascota(nueva);
+            for (int j = 0; j < 3; j++) {
+                Avistamiento nuevo = new Avistamiento();
+                nuevo.setFecha(LocalDate.now());
+                nuevo.setCoordenada("-31.4200,-64.1885");
+                nuevo.setFotos(List.of());
+                usuario.agregarAvistamiento(nuevo, mascota);
+                avistamiento = avistamientoService.crearAvistamiento(nuevo);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Perfil - Obtener un usuario no carga sus mascotas ni sus avistamientos")
+    public void testPerfilUsuario() throws Exception {
+        assertConsultas(1, get("/usuarios/" + usuario.getId()));
+    }
+
+    @Test
+    @DisplayName("Login - Una sola consulta para buscar al usuario por email")
+    public void testLogin() throws Exception {
+        assertConsultas(1, post("/usuarios/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"lucia.fernandez@example.com\",\"password\":\"password321\"}"));
+    }
+
+    @Test
+    @DisplayName("Ficha de mascota - Una sola consulta, sin avistamientos ni dueño")
+    public void testFichaMascota() throws Exception {
+        assertConsultas(1, get("/mascotas/" + mascota.getId()));
+    }
+
+    @Test
+    @DisplayName("Listados de mascotas - Una consulta independientemente de la cantidad de resultados")
+    public void testListadosMascotas() throws Exception {
+        assertConsultas(1, get("/mascotas/perdidas"));
+        assertConsultas(1, get("/mascotas/usuario/" + usuario.getId()));
+        assertConsultas(1, get("/mascotas/buscar").param("tipo", "Perro"));
+    }
+
+    @Test
+    @DisplayName("Avistamientos - Mascota y usuario se traen en la misma consulta")
+    public void testAvistamientos() throws Exception {
+        assertConsultas(1, get("/avistamientos/" + avistamiento.getId()));
+        assertConsultas(1, get("/avistamientos"));
+        // Una consulta para validar la mascota y otra para el listado
+        assertConsultas(2, get("/avistamientos/mascota/" + mascota.getId()));
+    }
+
+    @Test
+    @DisplayName("Estadísticas del home - Se leen de memoria, sin consultas")
+    public void testEstadisticasHome() throws Exception {
+        assertConsultas(0, get("/home/estadisticas"));
+        // Con desgloses: una única consulta agrupada, sin importar cuántos se pidan
+        assertConsultas(1, get("/home/estadisticas").param("desglose", "TIPO"));
+        assertConsultas(1, get("/home/estadisticas").param("desglose", "TIPO", "PROVINCIA", "MES"));
+    }
+
+    private void assertConsultas(long esperadas, RequestBuilder request) throws Exception {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        estadisticas.clear();
+        MvcResult resultado = mockMvc.perform(request).andReturn();
+        if (resultado.getRequest().isAsyncStarted()) {
+            // Login responde de forma asíncrona (la contraseña se verifica en otro pool)
+            mockMvc.perform(asyncDispatch(resultado)).andExpect(status().isOk());
+        } else {
+            assertEquals(200, resultado.getResponse().getStatus());
+        }
+        assertEquals(esperadas, estadisticas.getPrepareStatementCount(),
+                "Cantidad de sentencias SQL ejecutadas");
+    }
+
+    @AfterAll
+    public void tearDown() {
+        if (usuario != null) {
+            usuarioService.eliminarUsuario(usuario.getId());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package ttps.persistence.dao;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ttps.spring.Application;
+import ttps.spring.dto.DesgloseEstadisticas;
+import ttps.spring.dto.EstadisticasResponse;
+import ttps.spring.models.*;
+import ttps.spring.persistence.dao.interfaces.AvistamientoDAO;
+import ttps.spring.persistence.dao.interfaces.MascotaDAO;
+import ttps.spring.services.AvistamientoService;
+import ttps.spring.services.EstadisticasService;
+import ttps.spring.services.MascotaService;
+import ttps.spring.services.UsuarioService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = Application.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Isolated
+public class EstadisticasTest {
+
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    @Autowired
+    private MascotaService mascotaService;
+
+    @Autowired
+    private AvistamientoService avistamientoService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private MascotaDAO mascotaDAO;
+
+    @Autowired
+    private AvistamientoDAO avistamientoDAO;
+
+    private Usuario usuario;
+
+    @BeforeAll
+    public void setUp() {
+        usuario = usuarioService.crearUsuario(new Usuario(
+                "Sofía", "Ramírez", "sofia.ramirez@example.com", "password654",
+                "3515555555", "Córdoba", "Cerro", "Capital"));
+        // Partir de los valores reales de la base (otros tests pueden haberla modificado)
+        estadisticasService.reconciliar();
+    }
+
+    @Test
+    @DisplayName("Contadores - Se actualizan en altas, cambios de estado y borrados lógicos")
+    public void testContadoresIncrementales() {
+        int perdidas = estadisticasService.getMascotasPerdidas();
+        int recuperadas = estadisticasService.getMascotasRecuperadas();
+        int pendientes = estadisticasService.getAvistamientosPendientes();
+
+        // Act - Alta de una mascota perdida con un avistamiento
+        Mascota mascota = new Mascota();
+        mascota.setNombre("Pelusa");
+        mascota.setTipo("Gato");
+        mascota.setTamanio(Tamanio.PEQUENIO);
+        mascota.setFecha(LocalDate.now());
+        mascota.setEstado(Estado.PERDIDO_PROPIO);
+        mascota.setCoordenadas("-31.4201,-64.1888");
+        mascota.setFotos(List.of());
+        usuario.agregarMascota(mascota);
+        mascota = mascotaService.crearMascota(mascota);
+
+        Avistamiento avistamiento = new Avistamiento();
+        avistamiento.setFecha(LocalDate.now());
+        avistamiento.setCoordenada("-31.4200,-64.1885");
+        avistamiento.setFotos(List.of());
+        usuario.agregarAvistamiento(avistamiento, mascota);
+        avistamientoService.crearAvistamiento(avistamiento);
+
+        // Assert
+        assertEquals(perdidas + 1, estadisticasService.getMascotasPerdidas());
+        assertEquals(pendientes + 1, estadisticasService.getAvistamientosPendientes());
+
+        // Act - Pasa a RECUPERADO: se dan de baja sus avistamientos activos
+        Mascota recuperada = mascotaService.obtenerMascota((long) mascota.getId());
+        recuperada.setEstado(Estado.RECUPERADO);
+        mascotaService.actualizarMascota(recuperada);
+
+        // Assert
+        assertEquals(perdidas, estadisticasService.getMascotasPerdidas());
+        assertEquals(recuperadas + 1, estadisticasService.getMascotasRecuperadas());
+        assertEquals(pendientes, estadisticasService.getAvistamientosPendientes());
+
+        // Act - Borrado lógico
+        mascotaService.eliminarMascota((long) mascota.getId());
+
+        // Assert - Los contadores coinciden con los conteos de la base
+        assertEquals(recuperadas, estadisticasService.getMascotasRecuperadas());
+        assertEquals(mascotaDAO.contarMascotasPerdidas(), estadisticasService.getMascotasPerdidas());
+        assertEquals(mascotaDAO.contarMascotasRecuperadas(), estadisticasService.getMascotasRecuperadas());
+        assertEquals(mascotaDAO.contarMascotasAdoptadas(), estadisticasService.getMascotasAdoptadas());
+        assertEquals(avistamientoDAO.contarAvistamientosPendientes(), estadisticasService.getAvistamientosPendientes());
+
+        System.out.println("✓ Contadores en memoria consistentes con la base de datos");
+    }
+
+    @Test
+    @DisplayName("Cambios masivos - Actualizan contadores e índice geográfico al confirmarse")
+    public void testCambiosMasivos() {
+        // Arrange - Dos mascotas perdidas en un punto sin otras mascotas
+        List<Integer> ids = new ArrayList<>();
+        for (String nombre : List.of("Tizón", "Brisa")) {
+            Mascota mascota = new Mascota();
+            mascota.setNombre(nombre);
+            mascota.setTipo("Perro");
+            mascota.setTamanio(Tamanio.MEDIANO);
+            mascota.setFecha(LocalDate.now());
+            mascota.setEstado(Estado.PERDIDO_AJENO);
+            mascota.setCoordenadas("-38.9516,-68.0591");
+            mascota.setFotos(List.of());
+            usuario.agregarMascota(mascota);
+            ids.add(mascotaService.crearMascota(mascota).getId());
+        }
+        int perdidas = estadisticasService.getMascotasPerdidas();
+        int adoptadas = estadisticasService.getMascotasAdoptadas();
+        assertTrue(idsCercanos().containsAll(ids));
+
+        // Act / Assert - Cambio de estado: dejan de ser perdidas
+        assertEquals(2, mascotaService.cambiarEstado(ids, Estado.PERDIDO_AJENO, Estado.ADOPTADO));
+        assertEquals(perdidas - 2, estadisticasService.getMascotasPerdidas());
+        assertEquals(adoptadas + 2, estadisticasService.getMascotasAdoptadas());
+        assertTrue(idsCercanos().isEmpty());
+
+        // Baja y reactivación: solo cuentan las filas que cambian
+        assertEquals(2, mascotaService.cambiarEstado(ids, Estado.ADOPTADO, Estado.PERDIDO_AJENO));
+        assertEquals(2, mascotaService.desactivarMascotas(ids));
+        assertEquals(0, mascotaService.desactivarMascotas(ids));
+        assertEquals(perdidas - 2, estadisticasService.getMascotasPerdidas());
+        assertTrue(idsCercanos().isEmpty());
+        assertEquals(2, mascotaService.reactivarMascotas(ids));
+        assertEquals(perdidas, estadisticasService.getMascotasPerdidas());
+        assertTrue(idsCercanos().containsAll(ids));
+
+        // Los contadores coinciden con los conteos de la base
+        assertEquals(mascotaDAO.contarMascotasPerdidas(), estadisticasService.getMascotasPerdidas());
+        assertEquals(mascotaDAO.contarMascotasAdoptadas(), estadisticasService.getMascotasAdoptadas());
+        mascotaService.desactivarMascotas(ids);
+    }
+
+    private List<Integer> idsCercanos() {
+        return mascotaService.obtenerMascotasCercanas(-38.9516, -68.0591, 1, 200).stream()
+                .map(Mascota::getId)
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Desglose - Los conteos agrupados coinciden con los totales por estado")
+    public void testDesgloseEstadisticas() {
+        // Act
+        EstadisticasResponse respuesta = estadisticasService.calcularDesglose(EnumSet.allOf(DesgloseEstadisticas.class));
+
+        // Assert
+        assertEquals(mascotaDAO.contarMascotasPerdidas(), respuesta.getMascotasPerdidas());
+        assertEquals(mascotaDAO.contarMascotasRecuperadas(), respuesta.getRecuperadas());
+        assertEquals(mascotaDAO.contarMascotasAdoptadas(), respuesta.getAdoptadas());
+        for (Map<String, Map<Estado, Integer>> desglose :
+                List.of(respuesta.getPorTipo(), respuesta.getPorProvincia(), respuesta.getPorMes())) {
+            Map<Estado, Integer> sumas = new EnumMap<>(Estado.class);
+            desglose.values().forEach(conteos -> conteos.forEach((estado, cantidad) -> sumas.merge(estado, cantidad, Integer::sum)));
+            assertEquals(respuesta.getPorEstado(), sumas);
+        }
+
+        System.out.println("✓ Desgloses por tipo, provincia y mes consistentes");
+    }
+
+    @AfterAll
+    public void tearDown() {
+        if (usuario != null) {
+            usuarioService.eliminarUsuario(usuario.getId());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package ttps.persistence.dao;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.annotation.Transactional;
+import ttps.spring.Application;
+import ttps.spring.dto.DesgloseEstadisticas;
+import ttps.spring.dto.FiltroMascotas;
+import ttps.spring.models.Estado;
+import ttps.spring.persistence.dao.impl.AvistamientoDAOHibernateJPA;
+import ttps.spring.persistence.dao.impl.MascotaDAOHibernateJPA;
+import ttps.spring.persistence.dao.interfaces.AvistamientoDAO;
+import ttps.spring.persistence.dao.interfaces.MascotaDAO;
+import ttps.spring.persistence.dao.interfaces.UsuarioDAO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Verifica con EXPLAIN que cada consulta de MascotaDAO y AvistamientoDAO, y la búsqueda de usuarios
+ * por email, se resuelva con un índice de las migraciones en lugar de recorrer la tabla completa.
+ * Se analizan las sentencias tal como las genera Hibernate, registradas con un StatementInspector.
+ * Usa el formato del plan de H2: solo corre sobre la base embebida (no con -Pmysql)
+ */
+@SpringBootTest(classes = Application.class,
+        properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "ttps.persistence.dao.IndicesConsultasTest$RegistroSql")
+@Transactional
+public class IndicesConsultasTest {
+
+    // Ids que no existen: las actualizaciones no tocan filas de otros tests
+    private static final long ID_INEXISTENTE = -1;
+
+    /**
+     * Guarda las sentencias que Hibernate ejecuta en el hilo actual mientras hay un registro abierto
+     */
+    public static class RegistroSql implements StatementInspector {
+
+        private static final ThreadLocal<List<String>> SENTENCIAS = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            List<String> sentencias = SENTENCIAS.get();
+            if (sentencias != null) {
+                sentencias.add(sql);
+            }
+            return sql;
+        }
+    }
+
+    @Autowired
+    private MascotaDAO mascotaDAO;
+
+    @Autowired
+    private AvistamientoDAO avistamientoDAO;
+
+    @Autowired
+    private UsuarioDAO usuarioDAO;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    public void setUp() {
+        String url = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getURL());
+        assumeTrue(url.startsWith("jdbc:h2:"), "El plan se interpreta con el formato de EXPLAIN de H2");
+
+        // Los listados cacheados tienen que llegar a la base para registrar su consulta
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        cache.evictQueryRegion(MascotaDAOHibernateJPA.REGION_PERDIDAS);
+        cache.evictQueryRegion(AvistamientoDAOHibernateJPA.REGION_ACTIVOS);
+    }
+
+    /**
+     * Ejecuta la llamada al DAO registrando sus sentencias y verifica que el plan de cada una
+     * acceda a todas las tablas por un índice (H2 marca los recorridos completos con "tableScan")
+     */
+    private void verificarIndices(String consulta, Runnable llamada) {
+        List<String> sentencias = new ArrayList<>();
+        RegistroSql.SENTENCIAS.set(sentencias);
+        try {
+            llamada.run();
+        } finally {
+            RegistroSql.SENTENCIAS.remove();
+        }
+
+        assertFalse(sentencias.isEmpty(), consulta + " no ejecutó ninguna sentencia");
+        for (String sql : sentencias) {
+            String plan = jdbcTemplate.query(c -> c.prepareStatement("EXPLAIN " + sql),
+                    (ResultSetExtractor<String>) rs -> rs.next() ? rs.getString(1) : "");
+            assertFalse(plan.contains(".tableScan"), consulta + " recorre una tabla completa:\n" + plan);
+        }
+    }
+
+    @Test
+    @DisplayName("Test EXPLAIN - Las consultas de MascotaDAO usan índices")
+    public void testIndicesMascotaDAO() {
+        FiltroMascotas porEstadoYTipo = new FiltroMascotas();
+        porEstadoYTipo.setEstado(Estado.ADOPTADO);
+        porEstadoYTipo.setTipo("Perro");
+        FiltroMascotas porNombreYFecha = new FiltroMascotas();
+        porNombreYFecha.setNombre("To");
+        porNombreYFecha.setFechaDesde(LocalDate.now().minusDays(30));
+        FiltroMascotas conCursor = new FiltroMascotas();
+        conCursor.setDespuesDeFecha(LocalDate.now());
+        conCursor.setDespuesDeId(100);
+
+        verificarIndices("getAll", () -> mascotaDAO.getAll("id"));
+        verificarIndices("findByUsuarioActivas", () -> mascotaDAO.findByUsuarioActivas(ID_INEXISTENTE));
+        verificarIndices("findByUsuario", () -> mascotaDAO.findByUsuario(ID_INEXISTENTE));
+        verificarIndices("findMascotasPerdidas", () -> mascotaDAO.findMascotasPerdidas());
+        verificarIndices("buscarMascotas", () -> mascotaDAO.buscarMascotas(new FiltroMascotas(), 20));
+        verificarIndices("buscarMascotas por estado y tipo", () -> mascotaDAO.buscarMascotas(porEstadoYTipo, 20));
+        verificarIndices("buscarMascotas por nombre y fecha", () -> mascotaDAO.buscarMascotas(porNombreYFecha, 20));
+        verificarIndices("buscarMascotas con cursor", () -> mascotaDAO.buscarMascotas(conCursor, 20));
+        verificarIndices("findByIds", () -> mascotaDAO.findByIds(List.of((int) ID_INEXISTENTE)));
+        verificarIndices("findUbicacionesMascotasPerdidas", () -> mascotaDAO.findUbicacionesMascotasPerdidas());
+        verificarIndices("findUbicacionesPorIds", () -> mascotaDAO.findUbicacionesPorIds(List.of((int) ID_INEXISTENTE), true));
+        verificarIndices("contarMascotasPerdidas", () -> mascotaDAO.contarMascotasPerdidas());
+        verificarIndices("contarMascotasRecuperadas", () -> mascotaDAO.contarMascotasRecuperadas());
+        verificarIndices("contarMascotasAdoptadas", () -> mascotaDAO.contarMascotasAdoptadas());
+        verificarIndices("contarPorEstado", () -> mascotaDAO.contarPorEstado(EnumSet.allOf(DesgloseEstadisticas.class)));
+        verificarIndices("cambiarEstado", () -> mascotaDAO.cambiarEstado(
+                List.of((int) ID_INEXISTENTE), Estado.PERDIDO_PROPIO, Estado.RECUPERADO));
+        verificarIndices("actualizarVariantes", () -> mascotaDAO.actualizarVariantes(
+                (int) ID_INEXISTENTE, List.of(), List.of(), List.of()));
+    }
+
+    @Test
+    @DisplayName("Test EXPLAIN - Las consultas de AvistamientoDAO usan índices")
+    public void testIndicesAvistamientoDAO() {
+        verificarIndices("getAll", () -> avistamientoDAO.getAll("id"));
+        verificarIndices("findByMascotaId", () -> avistamientoDAO.findByMascotaId(ID_INEXISTENTE));
+        verificarIndices("findPaginaPorMascota", () -> avistamientoDAO.findPaginaPorMascota(
+                ID_INEXISTENTE, null, null, 20));
+        verificarIndices("findPaginaPorMascota con cursor", () -> avistamientoDAO.findPaginaPorMascota(
+                ID_INEXISTENTE, LocalDate.now(), 100, 20));
+        verificarIndices("contarAvistamientosPendientes", () -> avistamientoDAO.contarAvistamientosPendientes());
+        verificarIndices("findAvistamientosActivos", () -> avistamientoDAO.findAvistamientosActivos());
+        verificarIndices("findListadoActivos", () -> avistamientoDAO.findListadoActivos());
+        verificarIndices("findByIds", () -> avistamientoDAO.findByIds(List.of((int) ID_INEXISTENTE)));
+        verificarIndices("findUbicacionesAvistamientosActivos", () -> avistamientoDAO.findUbicacionesAvistamientosActivos());
+        verificarIndices("findUbicacionesPorIds", () -> avistamientoDAO.findUbicacionesPorIds(List.of((int) ID_INEXISTENTE), false));
+        verificarIndices("findIdsActivosPorMascota", () -> avistamientoDAO.findIdsActivosPorMascota(ID_INEXISTENTE));
+        verificarIndices("desactivarPorMascota", () -> avistamientoDAO.desactivarPorMascota(ID_INEXISTENTE));
+        verificarIndices("actualizarVariantes", () -> avistamientoDAO.actualizarVariantes(
+                (int) ID_INEXISTENTE, List.of(), List.of(), List.of()));
+    }
+
+    @Test
+    @DisplayName("Test EXPLAIN - La búsqueda de usuarios por email usa un índice")
+    public void testIndiceUsuarioPorEmail() {
+        verificarIndices("findByEmail", () -> usuarioDAO.findByEmail("sin.cuenta@example.com"));
+        verificarIndices("findByNombreUsuario", () -> usuarioDAO.findByNombreUsuario("sin.cuenta"));
+    }
+}
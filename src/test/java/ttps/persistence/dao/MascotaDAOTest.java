@@ -1,22 +1,45 @@
 package ttps.persistence.dao;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import ttps.spring.Application;
+import ttps.spring.dto.FiltroMascotas;
+import ttps.spring.dto.MascotaResumen;
+import ttps.spring.dto.PaginaResponse;
 import ttps.spring.models.*;
+import ttps.spring.persistence.dao.interfaces.MascotaDAO;
+import ttps.spring.services.FileStorageService;
 import ttps.spring.services.MascotaService;
 import ttps.spring.services.UsuarioService;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+/**
+ * Cada test crea sus datos dentro de su propia transacción, que se revierte al terminar:
+ * los tests no dependen del orden ni de datos previos y corren en paralelo. Los que necesitan
+ * que los cambios se confirmen (procesamiento en segundo plano) corren sin transacción
+ */
 @SpringBootTest(classes = Application.class)
-@TestInstance(TestInstance.Lifecycle.PER_CLASS)
-@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@Transactional
+@Execution(ExecutionMode.CONCURRENT)
 public class MascotaDAOTest {
 
     @Autowired
@@ -25,10 +48,21 @@ public class MascotaDAOTest {
     @Autowired
     private UsuarioService usuarioService;
 
-    private Mascota mascotaTest;
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private MascotaDAO mascotaDAO;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private Usuario usuarioDuenio;
 
-    @BeforeAll
+    @BeforeEach
     public void setUp() {
         // Crear un usuario para asociar las mascotas
         usuarioDuenio = new Usuario(
@@ -44,12 +78,36 @@ public class MascotaDAOTest {
         usuarioDuenio = usuarioService.crearUsuario(usuarioDuenio);
     }
 
+    /**
+     * Escribe los cambios pendientes y vacía el contexto de persistencia de la transacción del test,
+     * para que la próxima lectura vaya a la base en lugar de devolver la misma instancia
+     */
+    private void sincronizar() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Mascota crearMascotaTest() {
+        Mascota mascota = new Mascota();
+        mascota.setNombre("Bobby");
+        mascota.setTipo("Perro");
+        mascota.setRaza("Golden Retriever");
+        mascota.setTamanio(Tamanio.GRANDE);
+        mascota.setColor("Dorado");
+        mascota.setFecha(LocalDate.now());
+        mascota.setEstado(Estado.PERDIDO_PROPIO);
+        mascota.setCoordenadas("-31.4201,-64.1888");
+        mascota.setDescripcion("Perro grande, muy amigable, color dorado");
+        mascota.setFotos(List.of());
+        usuarioDuenio.agregarMascota(mascota);
+        return mascotaService.crearMascota(mascota);
+    }
+
     @Test
-    @Order(1)
     @DisplayName("Test CREATE - Crear una nueva mascota")
     public void testCreateMascota() {
         // Arrange
-        mascotaTest = new Mascota();
+        Mascota mascotaTest = new Mascota();
         mascotaTest.setNombre("Bobby");
         mascotaTest.setTipo("Perro");
         mascotaTest.setRaza("Golden Retriever");
@@ -59,7 +117,7 @@ public class MascotaDAOTest {
         mascotaTest.setEstado(Estado.PERDIDO_PROPIO);
         mascotaTest.setCoordenadas("-31.4201,-64.1888");
         mascotaTest.setDescripcion("Perro grande, muy amigable, color dorado");
-        mascotaTest.setFotos("[]"); // JSON array vacío
+        mascotaTest.setFotos(List.of());
 
         usuarioDuenio.agregarMascota(mascotaTest);
 
@@ -85,11 +143,11 @@ public class MascotaDAOTest {
     }
 
     @Test
-    @Order(2)
     @DisplayName("Test READ - Obtener mascota por ID")
     public void testGetMascota() {
         // Arrange
-        int mascotaId = mascotaTest.getId();
+        int mascotaId = crearMascotaTest().getId();
+        sincronizar();
 
         // Act
         Mascota mascotaObtenida = mascotaService.obtenerMascota((long) mascotaId);
@@ -105,9 +163,11 @@ public class MascotaDAOTest {
     }
 
     @Test
-    @Order(3)
     @DisplayName("Test READ ALL - Obtener todas las mascotas")
     public void testGetAllMascotas() {
+        // Arrange
+        Mascota mascotaTest = crearMascotaTest();
+
         // Act
         List<Mascota> mascotas = mascotaService.obtenerTodasLasMascotas();
 
@@ -121,10 +181,11 @@ public class MascotaDAOTest {
     }
 
     @Test
-    @Order(4)
     @DisplayName("Test UPDATE - Actualizar una mascota")
     public void testUpdateMascota() {
         // Arrange
+        Mascota mascotaTest = crearMascotaTest();
+        sincronizar();
         Mascota mascotaParaActualizar = mascotaService.obtenerMascota((long) mascotaTest.getId());
         String nuevaDescripcion = "Perro grande, muy amigable, fue encontrado!";
         Estado nuevoEstado = Estado.RECUPERADO;
@@ -140,6 +201,7 @@ public class MascotaDAOTest {
         assertEquals(nuevoEstado, mascotaActualizada.getEstado());
 
         // Verificar que los cambios persisten en la base de datos
+        sincronizar();
         Mascota mascotaVerificada = mascotaService.obtenerMascota((long) mascotaTest.getId());
         assertEquals(nuevaDescripcion, mascotaVerificada.getDescripcion());
         assertEquals(Estado.RECUPERADO, mascotaVerificada.getEstado());
@@ -148,16 +210,18 @@ public class MascotaDAOTest {
     }
 
     @Test
-    @Order(5)
     @DisplayName("Test DELETE - Borrado lógico de mascota")
     public void testDeleteMascota() {
         // Arrange
+        Mascota mascotaTest = crearMascotaTest();
+        sincronizar();
         Mascota mascotaAEliminar = mascotaService.obtenerMascota((long) mascotaTest.getId());
 
         // Act
         mascotaService.eliminarMascota(mascotaAEliminar);
 
         // Assert - El registro sigue existiendo pero está marcado como inactivo
+        sincronizar();
         Mascota mascotaBorrada = mascotaService.obtenerMascota((long) mascotaTest.getId());
         assertNotNull(mascotaBorrada, "La mascota con borrado lógico no debe ser null");
         assertFalse(mascotaBorrada.isActivo(), "La mascota debe estar marcada como inactiva");
@@ -166,7 +230,6 @@ public class MascotaDAOTest {
     }
 
     @Test
-    @Order(6)
     @DisplayName("Test DELETE por ID - Borrado lógico por identificador")
     public void testDeletePorId() {
         // Arrange
@@ -182,15 +245,17 @@ public class MascotaDAOTest {
         mascotaParaBorradoLogico.setCoordenadas("-31.4201,-64.1888");
         mascotaParaBorradoLogico.setDescripcion("Perro adoptado");
         mascotaParaBorradoLogico.setUsuario(usuarioDuenio);
-        mascotaParaBorradoLogico.setFotos("[]"); // JSON array vacío
+        mascotaParaBorradoLogico.setFotos(List.of());
         mascotaParaBorradoLogico.setAvistamientos(new ArrayList<>());
         mascotaParaBorradoLogico = mascotaService.crearMascota(mascotaParaBorradoLogico);
         long idMascota = mascotaParaBorradoLogico.getId();
+        sincronizar();
 
         // Act - Borrado lógico por ID
         mascotaService.eliminarMascota(idMascota);
 
         // Assert
+        sincronizar();
         Mascota mascotaBorradaLogico = mascotaService.obtenerMascota(idMascota);
         assertNotNull(mascotaBorradaLogico, "La mascota con borrado lógico no debe ser null");
         assertFalse(mascotaBorradaLogico.isActivo(), "La mascota debe estar marcada como inactiva");
@@ -198,10 +263,191 @@ public class MascotaDAOTest {
         System.out.println("✓ Mascota marcada como inactiva mediante delete(id) correctamente");
     }
 
-    @AfterAll
+    @Test
+    @DisplayName("Test BUSCAR - Búsqueda filtrada y paginada por cursor")
+    public void testBuscarMascotasPaginado() {
+        // Arrange - Tres mascotas perdidas de un tipo exclusivo de este test
+        for (int i = 0; i < 3; i++) {
+            Mascota mascota = new Mascota();
+            mascota.setNombre("Hurón " + i);
+            mascota.setTipo("Hurón");
+            mascota.setTamanio(Tamanio.PEQUENIO);
+            mascota.setColor("Blanco");
+            mascota.setFecha(LocalDate.now().minusDays(i));
+            mascota.setEstado(Estado.PERDIDO_AJENO);
+            mascota.setCoordenadas("-31.4201,-64.1888");
+            mascota.setFotos(List.of());
+            usuarioDuenio.agregarMascota(mascota);
+            mascotaService.crearMascota(mascota);
+        }
+        FiltroMascotas filtro = new FiltroMascotas();
+        filtro.setTipo("Hurón");
+        filtro.setLimite(2);
+
+        // Act - Primera página
+        PaginaResponse<MascotaResumen> primera = mascotaService.buscarMascotas(filtro);
+
+        // Assert
+        assertEquals(2, primera.getItems().size());
+        assertTrue(primera.isHayMas(), "Debe existir una página siguiente");
+        assertEquals("Hurón 0", primera.getItems().get(0).nombre());
+
+        // Act - Segunda página con el cursor devuelto
+        filtro.setDespuesDeFecha(primera.getSiguienteFecha());
+        filtro.setDespuesDeId(primera.getSiguienteId());
+        PaginaResponse<MascotaResumen> segunda = mascotaService.buscarMascotas(filtro);
+
+        // Assert
+        assertEquals(1, segunda.getItems().size());
+        assertFalse(segunda.isHayMas(), "No debe haber más páginas");
+        assertEquals("Hurón 2", segunda.getItems().get(0).nombre());
+
+        // Assert - Un límite fuera de rango es rechazado
+        filtro.setLimite(0);
+        assertThrows(IllegalArgumentException.class, () -> mascotaService.buscarMascotas(filtro));
+
+        System.out.println("✓ Búsqueda paginada recorrida correctamente");
+    }
+
+    @Test
+    @DisplayName("Test BUSCAR - Los comodines de LIKE en el nombre se buscan literalmente")
+    public void testBuscarPorNombreConComodines() {
+        // Arrange - Dos mascotas de un tipo exclusivo de este test, una con comodines en el nombre
+        for (String nombre : List.of("Axolote", "Axo_%\\lote")) {
+            Mascota mascota = new Mascota();
+            mascota.setNombre(nombre);
+            mascota.setTipo("Axolote");
+            mascota.setTamanio(Tamanio.PEQUENIO);
+            mascota.setColor("Rosa");
+            mascota.setFecha(LocalDate.now());
+            mascota.setEstado(Estado.PERDIDO_AJENO);
+            mascota.setCoordenadas("-31.4201,-64.1888");
+            mascota.setFotos(List.of());
+            usuarioDuenio.agregarMascota(mascota);
+            mascotaService.crearMascota(mascota);
+        }
+        FiltroMascotas filtro = new FiltroMascotas();
+        filtro.setTipo("Axolote");
+
+        // Act & Assert - "_" y "%" no coinciden con cualquier carácter
+        filtro.setNombre("_");
+        assertTrue(mascotaService.buscarMascotas(filtro).getItems().isEmpty());
+        filtro.setNombre("%");
+        assertTrue(mascotaService.buscarMascotas(filtro).getItems().isEmpty());
+
+        // Act & Assert - El prefijo con comodines y barra invertida encuentra solo esa mascota
+        filtro.setNombre("Axo_%\\");
+        List<MascotaResumen> encontradas = mascotaService.buscarMascotas(filtro).getItems();
+        assertEquals(1, encontradas.size());
+        assertEquals("Axo_%\\lote", encontradas.get(0).nombre());
+
+        System.out.println("✓ Comodines de LIKE escapados correctamente");
+    }
+
+    @Test
+    @DisplayName("Test FOTOS - Se generan miniatura y versión mediana en segundo plano")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void testGenerarVariantesDeFotos() throws Exception {
+        // Arrange - Una foto PNG de 1600x1200 guardada en uploads
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB), "png", png);
+        String url = fileStorageService.saveImage(new ByteArrayInputStream(png.toByteArray()));
+
+        Mascota mascota = new Mascota();
+        mascota.setNombre("Manchita");
+        mascota.setTipo("Perro");
+        mascota.setTamanio(Tamanio.PEQUENIO);
+        mascota.setFecha(LocalDate.now());
+        mascota.setEstado(Estado.PERDIDO_PROPIO);
+        mascota.setFotos(List.of(url));
+        usuarioDuenio.agregarMascota(mascota);
+
+        // Act
+        Mascota creada = mascotaService.crearMascota(mascota);
+        Mascota procesada = mascotaService.obtenerMascota((long) creada.getId());
+        for (int i = 0; i < 100 && procesada.getMiniaturas() == null; i++) {
+            Thread.sleep(100);
+            procesada = mascotaService.obtenerMascota((long) creada.getId());
+        }
+
+        // Assert
+        String miniatura = fileStorageService.getVarianteUrl(url, FileStorageService.SUFIJO_MINIATURA);
+        String mediana = fileStorageService.getVarianteUrl(url, FileStorageService.SUFIJO_MEDIANA);
+        assertEquals(List.of(miniatura), procesada.getMiniaturas());
+        assertEquals(List.of(mediana), procesada.getFotosMedianas());
+        assertEquals(240, ImageIO.read(fileStorageService.abrir(miniatura)).getWidth());
+        assertEquals(960, ImageIO.read(fileStorageService.abrir(mediana)).getWidth());
+
+        // Al eliminar la foto se eliminan también sus variantes
+        fileStorageService.deleteFile(url);
+        assertNull(fileStorageService.info(miniatura));
+        assertNull(fileStorageService.info(mediana));
+
+        System.out.println("✓ Variantes generadas: " + procesada.getMiniaturas());
+    }
+
+    @Test
+    @DisplayName("Test UPDATE masivo - Cambio de estado solo desde el estado indicado")
+    public void testCambioDeEstadoMasivo() {
+        // Arrange
+        Mascota mascota = new Mascota();
+        mascota.setNombre("Canela");
+        mascota.setTipo("Perro");
+        mascota.setTamanio(Tamanio.MEDIANO);
+        mascota.setFecha(LocalDate.now());
+        mascota.setEstado(Estado.PERDIDO_PROPIO);
+        mascota.setFotos(List.of());
+        usuarioDuenio.agregarMascota(mascota);
+        Mascota creada = mascotaService.crearMascota(mascota);
+        List<Integer> ids = List.of(creada.getId());
+
+        // Act / Assert - La segunda transición no encuentra filas en el estado de origen
+        assertEquals(1, mascotaDAO.cambiarEstado(ids, Estado.PERDIDO_PROPIO, Estado.ADOPTADO));
+        assertEquals(0, mascotaDAO.cambiarEstado(ids, Estado.PERDIDO_PROPIO, Estado.ADOPTADO));
+        // El UPDATE masivo no pasa por el contexto de persistencia
+        entityManager.clear();
+        assertEquals(Estado.ADOPTADO, mascotaService.obtenerMascota((long) creada.getId()).getEstado());
+        assertEquals(1, mascotaDAO.cambiarEstado(ids, Estado.ADOPTADO, Estado.PERDIDO_PROPIO));
+
+        System.out.println("✓ Estado cambiado con una sola sentencia");
+    }
+
+    @Test
+    @DisplayName("Test fotos - Se guardan como array JSON y se serializan como array, no como texto")
+    public void testFotosComoLista() throws Exception {
+        // Arrange
+        Mascota mascota = new Mascota();
+        mascota.setNombre("Pipa");
+        mascota.setTipo("Gato");
+        mascota.setTamanio(Tamanio.PEQUENIO);
+        mascota.setFecha(LocalDate.now());
+        mascota.setEstado(Estado.PERDIDO_PROPIO);
+        mascota.setFotos(List.of("/uploads/pipa_1.jpg", "/uploads/pipa_2.jpg"));
+        usuarioDuenio.agregarMascota(mascota);
+        Mascota creada = mascotaService.crearMascota(mascota);
+
+        sincronizar();
+
+        // Act
+        Mascota leida = mascotaService.obtenerMascota((long) creada.getId());
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(leida));
+        Object columna = entityManager.createNativeQuery("SELECT fotos FROM mascota WHERE mascota_id = :id")
+                .setParameter("id", creada.getId())
+                .getSingleResult();
+
+        // Assert - La columna conserva el formato anterior (array JSON en texto)
+        assertEquals("[\"/uploads/pipa_1.jpg\",\"/uploads/pipa_2.jpg\"]", columna.toString());
+        assertEquals(List.of("/uploads/pipa_1.jpg", "/uploads/pipa_2.jpg"), leida.getFotos());
+        assertTrue(json.get("fotos").isArray(), "La API devuelve un array, no un string con JSON");
+        assertEquals("/uploads/pipa_2.jpg", json.get("fotos").get(1).asText());
+
+        System.out.println("✓ Fotos guardadas y serializadas como lista");
+    }
+
+    @AfterEach
     public void tearDown() {
-        // Limpiar el usuario creado para las pruebas (borrado lógico)
-        if (usuarioDuenio != null) {
+        // Los tests sin transacción confirmaron sus datos: se limpia el usuario (borrado lógico)
+        if (usuarioDuenio != null && !TestTransaction.isActive()) {
             usuarioService.eliminarUsuario(usuarioDuenio);
             System.out.println("✓ Usuario de prueba marcado como inactivo");
         }
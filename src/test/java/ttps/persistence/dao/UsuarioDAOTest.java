@@ -1,8 +1,13 @@
 package ttps.persistence.dao;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
 import ttps.spring.Application;
 import ttps.spring.models.Usuario;
 import ttps.spring.services.UsuarioService;
@@ -11,23 +16,51 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+/**
+ * Cada test crea sus datos dentro de su propia transacción, que se revierte al terminar:
+ * los tests no dependen del orden ni de datos previos y corren en paralelo
+ */
 @SpringBootTest(classes = Application.class)
-@TestInstance(TestInstance.Lifecycle.PER_CLASS)
-@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@Transactional
+@Execution(ExecutionMode.CONCURRENT)
 public class UsuarioDAOTest {
 
     @Autowired
     private UsuarioService usuarioService;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private Usuario usuarioTest;
 
+    @BeforeEach
+    public void setUp() {
+        usuarioTest = usuarioService.crearUsuario(new Usuario(
+                "Juan",
+                "Pérez",
+                "juan.perez@example.com",
+                "password123",
+                "3515555555",
+                "Córdoba",
+                "Córdoba Capital",
+                "Centro"
+        ));
+    }
+
+    /**
+     * Escribe los cambios pendientes y vacía el contexto de persistencia de la transacción del test,
+     * para que la próxima lectura vaya a la base en lugar de devolver la misma instancia
+     */
+    private void sincronizar() {
+        entityManager.flush();
+        entityManager.clear();
+    }
 
     @Test
-    @Order(1)
     @DisplayName("Test CREATE - Crear un nuevo usuario")
     public void testCreateUsuario() {
         // Arrange
-        usuarioTest = new Usuario(
+        Usuario usuario = new Usuario(
                 "Juan",
                 "Pérez",
                 "juan.perez@example.com",
@@ -39,7 +72,7 @@ public class UsuarioDAOTest {
         );
 
         // Act
-        Usuario usuarioCreado = usuarioService.crearUsuario(usuarioTest);
+        Usuario usuarioCreado = usuarioService.crearUsuario(usuario);
 
         // Assert
         assertNotNull(usuarioCreado, "El usuario creado no debe ser null");
@@ -52,11 +85,11 @@ public class UsuarioDAOTest {
     }
 
     @Test
-    @Order(2)
     @DisplayName("Test READ - Obtener usuario por ID")
     public void testGetUsuario() {
         // Arrange
         long usuarioId = usuarioTest.getId();
+        sincronizar();
 
         // Act
         Usuario usuarioObtenido = usuarioService.obtenerUsuario(usuarioId);
@@ -71,7 +104,6 @@ public class UsuarioDAOTest {
     }
 
     @Test
-    @Order(3)
     @DisplayName("Test READ ALL - Obtener todos los usuarios")
     public void testGetAllUsuarios() {
         // Act
@@ -87,10 +119,10 @@ public class UsuarioDAOTest {
     }
 
     @Test
-    @Order(4)
     @DisplayName("Test UPDATE - Actualizar un usuario")
     public void testUpdateUsuario() {
         // Arrange
+        sincronizar();
         Usuario usuarioParaActualizar = usuarioService.obtenerUsuario(usuarioTest.getId());
         String nuevoTelefono = "3516666666";
         String nuevaProvincia = "Córdoba";
@@ -112,6 +144,7 @@ public class UsuarioDAOTest {
         assertEquals(nuevoDepartamento, usuarioActualizado.getDepartamento());
 
         // Verificar que los cambios persisten en la base de datos
+        sincronizar();
         Usuario usuarioVerificado = usuarioService.obtenerUsuario(usuarioTest.getId());
         assertEquals(nuevoTelefono, usuarioVerificado.getTelefono());
         assertEquals(nuevaProvincia, usuarioVerificado.getProvincia());
@@ -122,25 +155,27 @@ public class UsuarioDAOTest {
     }
 
     @Test
-    @Order(5)
     @DisplayName("Test DELETE - Borrado lógico de usuario")
     public void testDeleteUsuario() {
         // Arrange
+        sincronizar();
         Usuario usuarioAEliminar = usuarioService.obtenerUsuario(usuarioTest.getId());
 
         // Act
         usuarioService.eliminarUsuario(usuarioAEliminar);
 
         // Assert - El registro sigue existiendo pero está marcado como inactivo
+        sincronizar();
         Usuario usuarioBorrado = usuarioService.obtenerUsuario(usuarioTest.getId());
         assertNotNull(usuarioBorrado, "El usuario con borrado lógico no debe ser null");
         assertFalse(usuarioBorrado.isActivo(), "El usuario debe estar marcado como inactivo");
+        assertTrue(usuarioService.obtenerTodosLosUsuarios().stream().noneMatch(u -> u.getId() == usuarioTest.getId()),
+                "El listado no incluye usuarios inactivos");
 
         System.out.println("✓ Usuario marcado como inactivo (borrado lógico) correctamente");
     }
 
     @Test
-    @Order(6)
     @DisplayName("Test DELETE por ID - Borrado lógico por identificador")
     public void testDeletePorId() {
         // Arrange
@@ -156,11 +191,13 @@ public class UsuarioDAOTest {
         );
         usuarioParaBorradoLogico = usuarioService.crearUsuario(usuarioParaBorradoLogico);
         long idUsuario = usuarioParaBorradoLogico.getId();
+        sincronizar();
 
         // Act - Borrado lógico por ID
         usuarioService.eliminarUsuario(idUsuario);
 
         // Assert
+        sincronizar();
         Usuario usuarioBorradoLogico = usuarioService.obtenerUsuario(idUsuario);
         assertNotNull(usuarioBorradoLogico, "El usuario con borrado lógico no debe ser null");
         assertFalse(usuarioBorradoLogico.isActivo(), "El usuario debe estar marcado como inactivo");
@@ -169,7 +206,6 @@ public class UsuarioDAOTest {
     }
 
     @Test
-    @Order(7)
     @DisplayName("Test VERIFICAR CONTRASEÑA - Verificar contraseña correcta e incorrecta")
     public void testVerificarContrasenia() {
         // Arrange
@@ -210,7 +246,6 @@ public class UsuarioDAOTest {
     }
 
     @Test
-    @Order(8)
     @DisplayName("Test CAMBIAR CONTRASEÑA - Actualizar contraseña usando setContrasenia")
     public void testCambiarContrasenia() {
         // Arrange
@@ -246,6 +281,7 @@ public class UsuarioDAOTest {
                 "El hash de la contraseña debe haber cambiado");
 
         // Verificar que los cambios persisten en la base de datos
+        sincronizar();
         Usuario usuarioVerificado = usuarioService.obtenerUsuario(usuarioActualizado.getId());
         assertTrue(usuarioVerificado.verificarContrasenia(nuevaContrasenia),
                 "La nueva contraseña debe persistir en la base de datos");
@@ -255,4 +291,3 @@ public class UsuarioDAOTest {
         System.out.println("  - Hash nuevo:   " + usuarioActualizado.getContrasenia());
     }
 }
-
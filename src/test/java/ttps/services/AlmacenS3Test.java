@@ -0,0 +1,81 @@
+package ttps.services;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.containers.MinIOContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import ttps.spring.almacenamiento.AlmacenS3;
+import ttps.spring.almacenamiento.InfoBlob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Almacén S3 contra un MinIO en un contenedor. Sin Docker disponible se omite
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class AlmacenS3Test {
+
+    private static final String BUCKET = "mascotas-fotos";
+
+    @Container
+    private static final MinIOContainer minio = new MinIOContainer("minio/minio:RELEASE.2023-09-04T19-57-37Z");
+
+    private static AlmacenS3 almacen;
+
+    @BeforeAll
+    public static void setUp() {
+        S3Client s3 = S3Client.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(URI.create(minio.getS3URL()))
+                .forcePathStyle(true)
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(minio.getUserName(), minio.getPassword())))
+                .build();
+        s3.createBucket(r -> r.bucket(BUCKET));
+        almacen = new AlmacenS3(s3, BUCKET);
+    }
+
+    @Test
+    @DisplayName("S3 - Guarda, lee por rangos y borra un blob")
+    public void testCicloDeVida(@TempDir Path directorio) throws IOException {
+        // Arrange
+        byte[] foto = new byte[10_000];
+        for (int i = 0; i < foto.length; i++) {
+            foto[i] = (byte) (i % 251);
+        }
+        Path archivo = Files.write(directorio.resolve("foto.part"), foto);
+        String nombre = "ab12cd34ef.jpg";
+
+        // Act
+        almacen.guardar(nombre, archivo, "image/jpeg");
+
+        // Assert
+        InfoBlob info = almacen.info(nombre);
+        assertNotNull(info);
+        assertEquals(foto.length, info.tamanio());
+        try (InputStream contenido = almacen.abrir(nombre)) {
+            assertArrayEquals(foto, contenido.readAllBytes());
+        }
+        try (InputStream rango = almacen.abrir(nombre, 1000, 500)) {
+            assertArrayEquals(Arrays.copyOfRange(foto, 1000, 1500), rango.readAllBytes());
+        }
+        assertNull(almacen.rutaLocal(nombre), "No hay path local para sendfile");
+
+        almacen.borrar(nombre);
+        assertNull(almacen.info(nombre));
+        assertThrows(NoSuchFileException.class, () -> almacen.abrir(nombre));
+    }
+}
@@ -0,0 +1,223 @@
+package ttps.services;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ttps.spring.Application;
+import ttps.spring.almacenamiento.AlmacenLocal;
+import ttps.spring.persistence.dao.interfaces.ArchivoDAO;
+import ttps.spring.services.FileStorageService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = Application.class)
+public class FileStorageServiceTest {
+
+    private static final byte[] FIRMA_JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] FIRMA_PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+
+    @TempDir
+    static Path directorio;
+
+    @DynamicPropertySource
+    static void propiedades(DynamicPropertyRegistry registry) {
+        registry.add("app.upload.dir", () -> directorio.toString());
+    }
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ArchivoDAO archivoDAO;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private static byte[] conFirma(byte[] firma, String contenido) {
+        byte[] texto = contenido.getBytes(StandardCharsets.UTF_8);
+        byte[] imagen = new byte[firma.length + texto.length];
+        System.arraycopy(firma, 0, imagen, 0, firma.length);
+        System.arraycopy(texto, 0, imagen, firma.length, texto.length);
+        return imagen;
+    }
+
+    @Test
+    @DisplayName("Stream - Guarda una imagen grande sin materializarla en memoria")
+    public void testGuardarPorStream() throws IOException {
+        // Arrange - 32 MB generados al vuelo (después de la firma JPEG), nunca existen completos en memoria
+        long generados = 32L * 1024 * 1024;
+        long tamanio = FIRMA_JPEG.length + generados;
+        InputStream contenido = new SequenceInputStream(new ByteArrayInputStream(FIRMA_JPEG), new InputStream() {
+            private long leidos = 0;
+
+            @Override
+            public int read() {
+                return leidos < generados ? (int) (leidos++ % 251) : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (leidos >= generados) {
+                    return -1;
+                }
+                int n = (int) Math.min(len, generados - leidos);
+                for (int i = 0; i < n; i++) {
+                    b[off + i] = (byte) (leidos++ % 251);
+                }
+                return n;
+            }
+        });
+
+        // Act
+        String url = fileStorageService.saveImage(contenido);
+
+        // Assert
+        assertEquals(tamanio, fileStorageService.info(url).tamanio());
+        String nombre = fileStorageService.nombreDe(url);
+        assertEquals(directorio.resolve(nombre.substring(0, 2)).resolve(nombre.substring(2, 4)).resolve(nombre),
+                fileStorageService.rutaLocal(url), "Se guarda en subdirectorios según el hash");
+        try (var archivos = Files.walk(directorio)) {
+            assertTrue(archivos.noneMatch(p -> p.toString().endsWith(".part")), "No deben quedar temporales");
+        }
+        fileStorageService.deleteFile(url);
+        System.out.println("✓ Imagen de 32 MB guardada por stream: " + url);
+    }
+
+    @Test
+    @DisplayName("Base64 - Se mantiene la compatibilidad con data URLs")
+    public void testGuardarDesdeBase64() throws IOException {
+        // Arrange
+        byte[] imagen = conFirma(FIRMA_PNG, "imagen de prueba base64");
+        String dataUrl = "data:image/png;base64," + Base64.getEncoder().encodeToString(imagen);
+
+        // Act
+        String url = fileStorageService.saveImageFromBase64(dataUrl);
+
+        // Assert
+        assertTrue(url.startsWith("/uploads/") && url.endsWith(".png"));
+        try (InputStream contenido = fileStorageService.abrir(url)) {
+            assertArrayEquals(imagen, contenido.readAllBytes());
+        }
+        fileStorageService.deleteFile(url);
+    }
+
+    @Test
+    @DisplayName("Deduplicación - El mismo contenido se guarda una vez y se borra con la última referencia")
+    public void testDeduplicarPorContenido() throws IOException {
+        // Arrange
+        byte[] foto = conFirma(FIRMA_JPEG, "la misma foto para la mascota y su avistamiento");
+
+        // Act
+        String deLaMascota = fileStorageService.saveImage(new ByteArrayInputStream(foto));
+        String delAvistamiento = fileStorageService.saveImage(new ByteArrayInputStream(foto));
+
+        // Assert - Misma URL, un solo archivo, dos referencias
+        assertEquals(deLaMascota, delAvistamiento);
+        String nombre = fileStorageService.nombreDe(deLaMascota);
+        assertEquals(2, archivoDAO.get(nombre).getReferencias());
+
+        fileStorageService.deleteFile(deLaMascota);
+        assertNotNull(fileStorageService.info(delAvistamiento), "Todavía lo referencia el avistamiento");
+
+        fileStorageService.deleteFile(delAvistamiento);
+        assertNull(fileStorageService.info(delAvistamiento));
+        assertNull(archivoDAO.get(nombre));
+    }
+
+    @Test
+    @DisplayName("Multipart - Rechaza archivos que no son imágenes sin dejar archivos guardados")
+    public void testRechazarTipoNoSoportado() throws IOException {
+        // Arrange - El texto declara ser una imagen: lo que cuenta son los bytes
+        byte[] png = conFirma(FIRMA_PNG, "foto");
+        MockMultipartFile foto = new MockMultipartFile("fotos", "foto.png", "image/png", png);
+        MockMultipartFile texto = new MockMultipartFile("fotos", "notas.jpg", "image/jpeg",
+                "<html><script>alert(1)</script></html>".getBytes(StandardCharsets.UTF_8));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> fileStorageService.saveImages(List.of(foto, texto)));
+        try (var archivos = Files.walk(directorio)) {
+            assertEquals(0, archivos.filter(Files::isRegularFile).count());
+        }
+        assertThrows(IllegalArgumentException.class, () -> fileStorageService.saveImagesFromBase64(List.of(
+                "data:image/png;base64," + Base64.getEncoder().encodeToString(png),
+                "data:image/png;base64," + Base64.getEncoder().encodeToString(new byte[]{1, 2, 3}))));
+        try (var archivos = Files.walk(directorio)) {
+            assertEquals(0, archivos.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    @DisplayName("Formato - La extensión sale de los bytes y no del tipo que declara el cliente")
+    public void testFormatoPorContenido() throws IOException {
+        // Arrange
+        MockMultipartFile foto = new MockMultipartFile("fotos", "foto.jpg", "image/jpeg",
+                conFirma(FIRMA_PNG, "un PNG declarado como JPEG"));
+
+        // Act
+        String url = fileStorageService.saveImages(List.of(foto)).get(0);
+
+        // Assert
+        assertTrue(url.endsWith(".png"));
+        assertEquals("image/png", FileStorageService.tipoDeContenido(url));
+        fileStorageService.deleteFile(url);
+    }
+
+    @Test
+    @DisplayName("Almacén - La subida se hace sin transacción y, si falla, se libera la referencia")
+    public void testSubidaFueraDeTransaccion(@TempDir Path propio) throws IOException, NoSuchAlgorithmException {
+        // Arrange - Un almacén que registra si hay una transacción (con su bloqueo) abierta al subir
+        List<Boolean> conTransaccion = new ArrayList<>();
+        boolean[] fallar = {false};
+        AlmacenLocal almacen = new AlmacenLocal(propio.toString()) {
+            @Override
+            public void guardar(String nombre, Path archivo, String tipoContenido) throws IOException {
+                conTransaccion.add(TransactionSynchronizationManager.isActualTransactionActive());
+                if (fallar[0]) {
+                    throw new IOException("almacén no disponible");
+                }
+                super.guardar(nombre, archivo, tipoContenido);
+            }
+        };
+        FileStorageService servicio = new FileStorageService(propio.toString(), almacen, archivoDAO, transactionManager);
+        byte[] foto = conFirma(FIRMA_JPEG, "subida sin bloqueo");
+        byte[] otra = conFirma(FIRMA_JPEG, "subida que falla");
+
+        // Act
+        String url = servicio.saveImage(new ByteArrayInputStream(foto));
+        fallar[0] = true;
+        assertThrows(IOException.class, () -> servicio.saveImage(new ByteArrayInputStream(otra)));
+
+        // Assert
+        assertEquals(List.of(false, false), conTransaccion);
+        assertEquals(1, archivoDAO.get(servicio.nombreDe(url)).getReferencias());
+        String fallido = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(otra)) + ".jpg";
+        assertNull(archivoDAO.get(fallido));
+        try (var archivos = Files.walk(propio)) {
+            assertEquals(1, archivos.filter(p -> p.toString().endsWith(".jpg")).count(),
+                    "La subida fallida no deja archivo ni referencia");
+        }
+        servicio.deleteFile(url);
+        assertNull(archivoDAO.get(servicio.nombreDe(url)));
+    }
+}
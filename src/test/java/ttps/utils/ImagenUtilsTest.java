@@ -0,0 +1,72 @@
+package ttps.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImagenUtilsTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    @DisplayName("Redimensionar - Respeta la proporción y no agranda imágenes chicas")
+    public void testRedimensionar() {
+        BufferedImage apaisada = new BufferedImage(1200, 800, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage chica = new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB);
+
+        BufferedImage miniatura = ImagenUtils.redimensionar(apaisada, 240);
+        BufferedImage igual = ImagenUtils.redimensionar(chica, 240);
+
+        assertEquals(240, miniatura.getWidth());
+        assertEquals(160, miniatura.getHeight());
+        assertEquals(BufferedImage.TYPE_INT_RGB, miniatura.getType());
+        assertEquals(100, igual.getWidth());
+        assertEquals(50, igual.getHeight());
+    }
+
+    @Test
+    @DisplayName("Leer y escribir - Submuestrea al decodificar y re-codifica como JPEG")
+    public void testLeerYEscribirJpeg() throws IOException {
+        // Arrange
+        Path original = directorio.resolve("original.png");
+        ImageIO.write(new BufferedImage(4000, 2000, BufferedImage.TYPE_INT_RGB), "png", original.toFile());
+        Path noImagen = Files.writeString(directorio.resolve("texto.jpg"), "no es una imagen");
+
+        // Act
+        BufferedImage leida = ImagenUtils.leer(original, 960);
+        Path destino = directorio.resolve("original_med.jpg");
+        ImagenUtils.escribirJpeg(ImagenUtils.redimensionar(leida, 960), destino, 0.8f);
+
+        // Assert - 4000px con factor 4 quedan en 1000px, y luego se escala a 960
+        assertEquals(1000, leida.getWidth());
+        BufferedImage escrita = ImageIO.read(destino.toFile());
+        assertEquals(960, escrita.getWidth());
+        assertEquals(480, escrita.getHeight());
+        assertNull(ImagenUtils.leer(noImagen, 960));
+        assertFalse(Files.exists(directorio.resolve("original_med.jpg.part")));
+    }
+
+    @Test
+    @DisplayName("Firma - Reconoce el formato por los primeros bytes y rechaza lo que no es imagen")
+    public void testFormatoPorFirma() {
+        assertEquals("jpg", ImagenUtils.formatoPorFirma(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0}));
+        assertEquals("png", ImagenUtils.formatoPorFirma(new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A}));
+        assertEquals("gif", ImagenUtils.formatoPorFirma("GIF89a".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("webp", ImagenUtils.formatoPorFirma("RIFF\0\0\0\0WEBPVP8 ".getBytes(StandardCharsets.US_ASCII)));
+
+        assertNull(ImagenUtils.formatoPorFirma("<html>".getBytes(StandardCharsets.US_ASCII)));
+        assertNull(ImagenUtils.formatoPorFirma("RIFF\0\0\0\0WAVE".getBytes(StandardCharsets.US_ASCII)));
+        assertNull(ImagenUtils.formatoPorFirma(new byte[]{(byte) 0xFF, (byte) 0xD8}));
+        assertNull(ImagenUtils.formatoPorFirma(new byte[0]));
+    }
+}
@@ -0,0 +1,69 @@
+package ttps.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndiceEspacialTest {
+
+    @Test
+    @DisplayName("Buscar en radio - Retorna solo los puntos dentro del radio, ordenados por distancia")
+    public void testBuscarEnRadio() {
+        // Arrange - Centro en Córdoba capital
+        IndiceEspacial indice = new IndiceEspacial();
+        indice.agregar(1, -31.4201, -64.1888); // centro
+        indice.agregar(2, -31.4300, -64.1900); // ~1,1 km
+        indice.agregar(3, -31.4600, -64.2000); // ~4,6 km
+        indice.agregar(4, -34.6037, -58.3816); // Buenos Aires
+
+        // Act
+        List<IndiceEspacial.Resultado> resultados = indice.buscarEnRadio(-31.4201, -64.1888, 2, 10);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), resultados.stream().map(IndiceEspacial.Resultado::id).toList());
+        assertTrue(resultados.get(1).distanciaKm() < 2);
+    }
+
+    @Test
+    @DisplayName("Mover y quitar - Los cambios de ubicación se reflejan en las búsquedas")
+    public void testMoverYQuitar() {
+        // Arrange
+        IndiceEspacial indice = new IndiceEspacial();
+        indice.agregar(1, -31.4201, -64.1888);
+
+        // Act - Mover el punto a Buenos Aires
+        indice.agregar(1, -34.6037, -58.3816);
+
+        // Assert
+        assertTrue(indice.buscarEnRadio(-31.4201, -64.1888, 5, 10).isEmpty());
+        assertEquals(1, indice.buscarEnRadio(-34.6037, -58.3816, 5, 10).size());
+        assertEquals(1, indice.tamanio());
+
+        // Act - Quitar el punto
+        indice.quitar(1);
+
+        // Assert
+        assertTrue(indice.buscarEnRadio(-34.6037, -58.3816, 5, 10).isEmpty());
+        assertEquals(0, indice.tamanio());
+    }
+
+    @Test
+    @DisplayName("Límite - Se respeta la cantidad máxima de resultados")
+    public void testLimite() {
+        // Arrange
+        IndiceEspacial indice = new IndiceEspacial();
+        for (int i = 0; i < 100; i++) {
+            indice.agregar(i, -31.42 + i * 0.0001, -64.18);
+        }
+
+        // Act
+        List<IndiceEspacial.Resultado> resultados = indice.buscarEnRadio(-31.42, -64.18, 10, 5);
+
+        // Assert
+        assertEquals(5, resultados.size());
+        assertEquals(0L, resultados.get(0).id());
+    }
+}
@@ -0,0 +1,78 @@
+package ttps.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ttps.spring.models.UsuarioRegistrado;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilsTest {
+
+    @Test
+    @DisplayName("Validar token - Retorna los datos verificados y los reutiliza desde el cache")
+    public void testValidarToken() {
+        // Arrange
+        JwtUtils jwtUtils = new JwtUtils(100);
+        UsuarioRegistrado usuario = new UsuarioRegistrado();
+        usuario.setId(7);
+        usuario.setEmail("jwt@example.com");
+        String token = jwtUtils.generateToken(usuario);
+
+        // Act
+        JwtUtils.TokenVerificado verificado = jwtUtils.validarToken(token);
+
+        // Assert
+        assertNotNull(verificado);
+        assertEquals(7L, verificado.userId());
+        assertEquals("jwt@example.com", verificado.email());
+        assertEquals("USUARIOREGISTRADO", verificado.tipo());
+        assertFalse(verificado.vencido(System.currentTimeMillis()));
+        assertSame(verificado, jwtUtils.validarToken(token), "La segunda validación sale del cache");
+    }
+
+    @Test
+    @DisplayName("Validar token - Rechaza tokens con la firma alterada o mal formados")
+    public void testTokenInvalido() {
+        // Arrange
+        JwtUtils jwtUtils = new JwtUtils(100);
+        UsuarioRegistrado usuario = new UsuarioRegistrado();
+        usuario.setId(7);
+        usuario.setEmail("jwt@example.com");
+        String token = jwtUtils.generateToken(usuario);
+        jwtUtils.validarToken(token);
+        // Cambia un carácter en medio de la firma
+        int posicion = token.length() - 10;
+        char original = token.charAt(posicion);
+        String alterado = token.substring(0, posicion) + (original == 'A' ? 'B' : 'A') + token.substring(posicion + 1);
+
+        // Act & Assert
+        assertNull(jwtUtils.validarToken(alterado));
+        assertNull(jwtUtils.validarToken("no.es.un.token"));
+        assertNull(jwtUtils.validarToken(""));
+    }
+
+    @Test
+    @DisplayName("Validar token - Con el cache lleno de tokens vigentes se siguen validando los nuevos")
+    public void testCacheLleno() {
+        // Arrange - Lugar para 2 tokens y 20 tokens distintos, ninguno vencido
+        JwtUtils jwtUtils = new JwtUtils(2);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            UsuarioRegistrado usuario = new UsuarioRegistrado();
+            usuario.setId(i);
+            usuario.setEmail("jwt" + i + "@example.com");
+            tokens.add(jwtUtils.generateToken(usuario));
+        }
+
+        // Act & Assert - Todos se validan, estén o no en el cache
+        for (int i = 0; i < tokens.size(); i++) {
+            JwtUtils.TokenVerificado verificado = jwtUtils.validarToken(tokens.get(i));
+            assertNotNull(verificado);
+            assertEquals(i, verificado.userId());
+        }
+        assertNotNull(jwtUtils.validarToken(tokens.get(0)), "Un token desalojado se vuelve a verificar");
+    }
+}
@@ -0,0 +1,73 @@
+package ttps.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LimitadorIntentosTest {
+
+    @Test
+    @DisplayName("Intentar - Bloquea la clave al superar el máximo hasta que termina la ventana")
+    public void testBloqueoPorVentana() {
+        // Arrange - 3 intentos cada 1000 ms
+        LimitadorIntentos limitador = new LimitadorIntentos(3, 1000, 100);
+
+        // Act & Assert
+        assertEquals(0, limitador.intentar("10.0.0.1", 0));
+        assertEquals(0, limitador.intentar("10.0.0.1", 100));
+        assertEquals(0, limitador.intentar("10.0.0.1", 200));
+        assertEquals(700, limitador.intentar("10.0.0.1", 300), "Espera hasta el fin de la ventana");
+        assertEquals(0, limitador.intentar("10.0.0.2", 300), "Las demás claves no se ven afectadas");
+        assertEquals(0, limitador.intentar("10.0.0.1", 1000), "Con la ventana nueva se vuelve a permitir");
+    }
+
+    @Test
+    @DisplayName("Registrar y reiniciar - Los fallos bloquean la cuenta y un éxito la libera")
+    public void testRegistrarYReiniciar() {
+        // Arrange
+        LimitadorIntentos limitador = new LimitadorIntentos(2, 1000, 100);
+        limitador.registrar("cuenta@example.com", 0);
+        limitador.registrar("cuenta@example.com", 10);
+
+        // Act & Assert
+        assertTrue(limitador.bloqueo("cuenta@example.com", 20) > 0);
+        limitador.reiniciar("cuenta@example.com");
+        assertEquals(0, limitador.bloqueo("cuenta@example.com", 20));
+    }
+
+    @Test
+    @DisplayName("Máximo de claves - Descarta las ventanas vencidas para aceptar claves nuevas")
+    public void testMaximoClaves() {
+        // Arrange - Lleno con ventanas ya vencidas
+        LimitadorIntentos limitador = new LimitadorIntentos(1, 1000, 2);
+        limitador.registrar("a", 0);
+        limitador.registrar("b", 0);
+
+        // Act
+        limitador.registrar("c", 5000);
+
+        // Assert
+        assertTrue(limitador.bloqueo("c", 5000) > 0);
+        assertEquals(0, limitador.bloqueo("a", 5000));
+    }
+
+    @Test
+    @DisplayName("Máximo de claves - Lleno de ventanas vigentes, las claves nuevas esperan sin liberar bloqueos")
+    public void testMaximoClavesVigentes() {
+        // Arrange - Una cuenta bloqueada y el resto del límite ocupado por una clave descartable
+        LimitadorIntentos limitador = new LimitadorIntentos(1, 1000, 2);
+        limitador.registrar("victima@example.com", 0);
+        limitador.registrar("descartable-1", 10);
+
+        // Act - Más claves descartables
+        long espera = limitador.intentar("descartable-2", 20);
+        limitador.registrar("descartable-3", 30);
+
+        // Assert - Las claves nuevas esperan a que termine la ventana más antigua y el bloqueo sigue
+        assertEquals(980, espera);
+        assertEquals(970, limitador.bloqueo("descartable-3", 30));
+        assertEquals(970, limitador.bloqueo("victima@example.com", 30));
+        assertEquals(0, limitador.intentar("descartable-2", 1000), "Al vencer la más antigua hay lugar");
+    }
+}
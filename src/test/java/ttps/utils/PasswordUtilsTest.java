@@ -0,0 +1,67 @@
+package ttps.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ttps.spring.models.Usuario;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordUtilsTest {
+
+    // Parámetros bajos para que el test sea rápido
+    private static final PasswordUtils.Parametros BCRYPT_4 = PasswordUtils.Parametros.bcrypt(4);
+    private static final PasswordUtils.Parametros ARGON2_LIVIANO = PasswordUtils.Parametros.argon2id(1024, 1, 1);
+
+    @Test
+    @DisplayName("Hash y verificación - BCrypt y Argon2id verifican la contraseña correcta y rechazan otra")
+    public void testHashYVerificacion() {
+        // Act
+        String bcrypt = PasswordUtils.hashPassword("secreta", BCRYPT_4);
+        String argon2 = PasswordUtils.hashPassword("secreta", ARGON2_LIVIANO);
+
+        // Assert
+        assertTrue(bcrypt.startsWith("$2a$04$"));
+        assertTrue(argon2.startsWith("$argon2id$v=19$m=1024,t=1,p=1$"));
+        assertTrue(argon2.length() <= 128, "Entra en la columna contrasenia");
+        assertTrue(PasswordUtils.verifyPassword("secreta", bcrypt));
+        assertTrue(PasswordUtils.verifyPassword("secreta", argon2));
+        assertFalse(PasswordUtils.verifyPassword("otra", bcrypt));
+        assertFalse(PasswordUtils.verifyPassword("otra", argon2));
+        assertFalse(PasswordUtils.verifyPassword("secreta", "$argon2id$v=19$m=1024,t=1,p=1$mal$formado"));
+        assertNotEquals(argon2, PasswordUtils.hashPassword("secreta", ARGON2_LIVIANO), "Cada hash usa una sal nueva");
+    }
+
+    @Test
+    @DisplayName("Necesita rehash - Detecta cambios de algoritmo y de parámetros")
+    public void testNecesitaRehash() {
+        // Arrange
+        String bcrypt = PasswordUtils.hashPassword("secreta", BCRYPT_4);
+        String argon2 = PasswordUtils.hashPassword("secreta", ARGON2_LIVIANO);
+
+        // Act & Assert
+        assertFalse(PasswordUtils.necesitaRehash(bcrypt, BCRYPT_4));
+        assertTrue(PasswordUtils.necesitaRehash(bcrypt, PasswordUtils.Parametros.bcrypt(10)));
+        assertTrue(PasswordUtils.necesitaRehash(bcrypt, ARGON2_LIVIANO));
+        assertFalse(PasswordUtils.necesitaRehash(argon2, ARGON2_LIVIANO));
+        assertTrue(PasswordUtils.necesitaRehash(argon2, PasswordUtils.Parametros.argon2id(2048, 1, 1)));
+        assertTrue(PasswordUtils.necesitaRehash(argon2, BCRYPT_4));
+    }
+
+    @Test
+    @DisplayName("Usuario - Los constructores siempre hashean; un hash ya calculado se asigna con setContraseniaHasheada")
+    public void testUsuarioConHashPrecalculado() {
+        // Arrange - Una contraseña en texto plano con el formato de un hash BCrypt
+        String hash = PasswordUtils.hashPassword("password123", BCRYPT_4);
+
+        // Act
+        Usuario conTextoParecidoAHash = new Usuario("Ana", "Gómez", "ana@example.com", hash, "221", "Buenos Aires", "La Plata", "La Plata");
+        Usuario conHash = new Usuario();
+        conHash.setContraseniaHasheada(hash);
+
+        // Assert
+        assertNotEquals(hash, conTextoParecidoAHash.getContrasenia());
+        assertTrue(conTextoParecidoAHash.verificarContrasenia(hash));
+        assertEquals(hash, conHash.getContrasenia());
+        assertTrue(conHash.verificarContrasenia("password123"));
+    }
+}